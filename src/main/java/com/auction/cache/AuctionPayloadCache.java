@@ -0,0 +1,297 @@
+package com.auction.cache;
+
+import com.auction.dto.AuctionDTO;
+import com.auction.dto.BidResult;
+import com.auction.dto.BidUpdateMessage;
+import com.auction.entity.Bid;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Encoded JSON payloads for auction state, cached per auction and version.
+ *
+ * A payload is serialized once per auction version with Jackson's streaming generator into a
+ * per-thread reusable buffer, and the resulting UTF-8 bytes are shared by every transport
+ * (WebSocket broadcasts, HTTP responses). Serialization cost therefore follows the rate of
+ * change of an auction rather than the number of viewers or requests.
+ *
+ * Payloads are immutable once published; callers must not modify the returned arrays.
+ */
+public final class AuctionPayloadCache {
+
+    private static final Logger logger = Logger.getLogger(AuctionPayloadCache.class.getName());
+
+    // Same pattern BidUpdateMessage uses for its timestamps
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    // Reused per thread: the generator writes here and only the final array is allocated
+    private static final ThreadLocal<ByteArrayBuilder> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayBuilder(1024));
+
+    private static final ConcurrentHashMap<Long, Payload> auctionPayloads = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Long, Payload> bidUpdatePayloads = new ConcurrentHashMap<>();
+
+    private AuctionPayloadCache() {
+    }
+
+    /**
+     * An encoded payload together with the auction version it was produced from.
+     */
+    public static final class Payload {
+        private final long version;
+        private final byte[] json;
+        private volatile String text;
+
+        Payload(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /** UTF-8 JSON; shared, do not modify. */
+        public byte[] getJson() {
+            return json;
+        }
+
+        // Text transports (WebSocket text frames) need a String; decode at most once
+        public String getText() {
+            String decoded = text;
+            if (decoded == null) {
+                decoded = new String(json, StandardCharsets.UTF_8);
+                text = decoded;
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * The auction as a JSON object, reused while {@link AuctionDTO#getVersion()} is unchanged.
+     */
+    public static Payload auctionJson(AuctionDTO auction) {
+        return cached(auctionPayloads, auction.getAuctionId(), auction.getVersion(),
+                generator -> writeAuction(generator, auction));
+    }
+
+    /**
+     * The WebSocket bid update envelope: {"type":"bidUpdate","data":{...}}. Messages without an
+     * auction version (sent by an older producer) are encoded without caching.
+     */
+    public static Payload bidUpdateFrame(BidUpdateMessage update) {
+        if (update.getAuctionVersion() <= 0) {
+            return new Payload(0, encode(generator -> writeBidUpdateFrame(generator, update)));
+        }
+        return cached(bidUpdatePayloads, update.getAuctionId(), update.getAuctionVersion(),
+                generator -> writeBidUpdateFrame(generator, update));
+    }
+
+    /**
+     * The outcome of a bid submission. Not cached: each result is sent once, to its bidder.
+     */
+    public static Payload bidResult(BidResult result) {
+        return new Payload(result.getAuctionVersion(), encode(generator -> writeBidResult(generator, result)));
+    }
+
+    /**
+     * WebSocket reply to an accepted bid command:
+     * {"type":"bidAck","requestId":..,"sequence":<bid id>,"result":{...}}.
+     */
+    public static String bidAckFrame(String requestId, BidResult result) {
+        return new String(encode(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("type", "bidAck");
+            generator.writeStringField("requestId", requestId);
+            generator.writeNumberField("sequence", result.getBidId());
+            generator.writeFieldName("result");
+            writeBidResult(generator, result);
+            generator.writeEndObject();
+        }), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * WebSocket reply to a rejected bid command:
+     * {"type":"bidNack","requestId":..,"reason":..,"result":{...}|null}.
+     */
+    public static String bidNackFrame(String requestId, String reason, BidResult result) {
+        return new String(encode(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("type", "bidNack");
+            generator.writeStringField("requestId", requestId);
+            generator.writeStringField("reason", reason);
+            generator.writeFieldName("result");
+            if (result != null) {
+                writeBidResult(generator, result);
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        }), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A generator writing UTF-8 JSON to the stream, for responses too large to encode in memory.
+     * Values it writes use the same field names and formats as the cached payloads.
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    public static void writeBid(JsonGenerator generator, Bid bid) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("bidId", bid.getBidId());
+        generator.writeNumberField("auctionId", bid.getAuctionId());
+        generator.writeStringField("bidderUsername", bid.getBidderUsername());
+        generator.writeNumberField("bidAmount", bid.getBidAmount());
+        writeTime(generator, "bidTime", bid.getBidTime());
+        generator.writeBooleanField("winning", bid.isWinning());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Drops payloads of auctions that no longer exist.
+     */
+    public static void retainAuctions(Set<Long> auctionIds) {
+        auctionPayloads.keySet().retainAll(auctionIds);
+        bidUpdatePayloads.keySet().retainAll(auctionIds);
+    }
+
+    public static void clear() {
+        auctionPayloads.clear();
+        bidUpdatePayloads.clear();
+    }
+
+    public static int size() {
+        return auctionPayloads.size() + bidUpdatePayloads.size();
+    }
+
+    // Encodes under the map's bin lock so concurrent requests for a new version serialize once;
+    // an older version never replaces a newer one
+    private static Payload cached(ConcurrentHashMap<Long, Payload> payloads, Long auctionId, long version,
+                                  JsonWriter writer) {
+        Payload current = payloads.get(auctionId);
+        if (current != null && current.version == version) {
+            return current;
+        }
+        Payload[] result = new Payload[1];
+        payloads.compute(auctionId, (id, existing) -> {
+            if (existing != null && existing.version >= version) {
+                result[0] = existing.version == version ? existing : null;
+                return existing;
+            }
+            result[0] = new Payload(version, encode(writer));
+            return result[0];
+        });
+        if (result[0] == null) {
+            // A newer version is already cached; serve this (stale) request without caching it
+            logger.fine("Encoding superseded payload for auction " + auctionId + " version " + version);
+            return new Payload(version, encode(writer));
+        }
+        return result[0];
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private static byte[] encode(JsonWriter writer) {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8)) {
+            writer.write(generator);
+        } catch (IOException e) {
+            // Only thrown by the target stream, which is in memory
+            throw new UncheckedIOException(e);
+        }
+        byte[] json = buffer.toByteArray();
+        buffer.reset();
+        return json;
+    }
+
+    private static void writeAuction(JsonGenerator generator, AuctionDTO auction) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("auctionId", auction.getAuctionId());
+        generator.writeStringField("title", auction.getTitle());
+        generator.writeStringField("description", auction.getDescription());
+        generator.writeNumberField("startingPrice", auction.getStartingPrice());
+        generator.writeNumberField("currentHighestBid", auction.getCurrentHighestBid());
+        generator.writeStringField("currentHighestBidder", auction.getCurrentHighestBidder());
+        writeTime(generator, "startTime", auction.getStartTime());
+        writeTime(generator, "endTime", auction.getEndTime());
+        generator.writeBooleanField("active", auction.isActive());
+        generator.writeNumberField("bidCount", auction.getBidCount());
+        generator.writeStringField("status", auction.getStatus() != null ? auction.getStatus().name() : null);
+        writeTime(generator, "completedTime", auction.getCompletedTime());
+        generator.writeStringField("winnerUsername", auction.getWinnerUsername());
+        generator.writeNumberField("winningBid", auction.getWinningBid());
+        generator.writeStringField("endReason", auction.getEndReason());
+        generator.writeBooleanField("hasWinner", auction.hasWinner());
+        generator.writeNumberField("version", auction.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeBidUpdateFrame(JsonGenerator generator, BidUpdateMessage update) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "bidUpdate");
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        generator.writeNumberField("auctionId", update.getAuctionId());
+        generator.writeStringField("auctionTitle", update.getAuctionTitle());
+        generator.writeNumberField("bidAmount", update.getBidAmount());
+        generator.writeStringField("bidderUsername", update.getBidderUsername());
+        writeTime(generator, "bidTime", update.getBidTime());
+        writeTime(generator, "auctionEndTime", update.getAuctionEndTime());
+        generator.writeBooleanField("endTimeExtended", update.isEndTimeExtended());
+        generator.writeNumberField("auctionVersion", update.getAuctionVersion());
+        if (update.getBidId() != null) {
+            generator.writeNumberField("bidId", update.getBidId());
+        }
+        generator.writeNumberField("bidCount", update.getBidCount());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private static void writeBidResult(JsonGenerator generator, BidResult result) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("status", result.getStatus().name());
+        generator.writeBooleanField("accepted", result.isAccepted());
+        generator.writeNumberField("auctionId", result.getAuctionId());
+        if (result.getBidId() != null) {
+            generator.writeNumberField("bidId", result.getBidId());
+        }
+        generator.writeNumberField("bidAmount", result.getBidAmount());
+        if (result.getStatus() != BidResult.Status.AUCTION_NOT_FOUND) {
+            generator.writeNumberField("currentHighestBid", result.getCurrentHighestBid());
+            generator.writeStringField("currentHighestBidder", result.getCurrentHighestBidder());
+            generator.writeNumberField("minimumNextBid", result.getMinimumNextBid());
+            writeTime(generator, "auctionEndTime", result.getAuctionEndTime());
+            generator.writeBooleanField("endTimeExtended", result.isEndTimeExtended());
+            generator.writeNumberField("auctionVersion", result.getAuctionVersion());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeTime(JsonGenerator generator, String field, LocalDateTime time) throws IOException {
+        if (time == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, time.format(TIME_FORMAT));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.auction.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed detail pages of completed auctions.
+ *
+ * A completed auction takes no more bids, so its page is rendered once and kept compressed,
+ * with an entity tag derived from the content. Entries remember the auction version they were
+ * rendered from and are ignored if the auction changes after all. The cache is bounded by the
+ * total compressed size and evicts the least recently served page first.
+ */
+public final class CompletedPageCache {
+
+    private static final Logger logger = Logger.getLogger(CompletedPageCache.class.getName());
+
+    public static final String MAX_BYTES_PROPERTY = "auction.pagecache.maxBytes";
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+
+    // Access-ordered: iteration starts at the least recently served page
+    private static final LinkedHashMap<Long, Page> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private static long totalBytes;
+    private static long evictions;
+
+    private CompletedPageCache() {
+    }
+
+    /**
+     * One rendered page, compressed.
+     */
+    public static final class Page {
+        private final long version;
+        private final byte[] gzipped;
+        private final int length;
+        private final String etag;
+        private final String gzipEtag;
+
+        Page(long version, byte[] gzipped, int length, String hash) {
+            this.version = version;
+            this.gzipped = gzipped;
+            this.length = length;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /** The page as a gzip stream; shared, do not modify. */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        /** Uncompressed size in bytes. */
+        public int getLength() {
+            return length;
+        }
+
+        /** Strong entity tag of the page in the given encoding, quoted. */
+        public String getEtag(boolean gzipped) {
+            return gzipped ? gzipEtag : etag;
+        }
+    }
+
+    /**
+     * The cached page of this auction, or null if there is none for this version.
+     */
+    public static synchronized Page get(long auctionId, long version) {
+        Page page = pages.get(auctionId);
+        return page != null && page.version == version ? page : null;
+    }
+
+    /**
+     * Compresses and stores a rendered page, replacing any older version.
+     */
+    public static Page put(long auctionId, long version, byte[] html) {
+        Page page = new Page(version, gzip(html), html.length, hash(html));
+        synchronized (CompletedPageCache.class) {
+            if (page.gzipped.length > maxBytes) {
+                return page;
+            }
+            Page previous = pages.put(auctionId, page);
+            if (previous != null) {
+                totalBytes -= previous.gzipped.length;
+            }
+            totalBytes += page.gzipped.length;
+            Iterator<Page> eldest = pages.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Page evicted = eldest.next();
+                if (evicted == page) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= evicted.gzipped.length;
+                evictions++;
+            }
+        }
+        logger.fine("Cached completed auction page " + auctionId + ": " + html.length + " bytes, "
+                + page.gzipped.length + " compressed");
+        return page;
+    }
+
+    /**
+     * Drops pages of auctions that no longer exist.
+     */
+    public static synchronized void retainAuctions(Set<Long> auctionIds) {
+        Iterator<Map.Entry<Long, Page>> entries = pages.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, Page> entry = entries.next();
+            if (!auctionIds.contains(entry.getKey())) {
+                totalBytes -= entry.getValue().gzipped.length;
+                entries.remove();
+            }
+        }
+    }
+
+    public static synchronized void clear() {
+        pages.clear();
+        totalBytes = 0;
+        evictions = 0;
+    }
+
+    public static synchronized int size() {
+        return pages.size();
+    }
+
+    public static synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    static synchronized void setMaxBytes(long bytes) {
+        maxBytes = bytes;
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.auction.cache;
+
+import com.auction.template.HtmlOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Rendered HTML fragments that are the same for every viewer, cached as pre-encoded bytes.
+ *
+ * Each fragment is identified by a content key — a {@code long[]} describing exactly what the
+ * fragment shows, typically the id and version of every row — and a small number of variants
+ * (e.g. anonymous and logged-in). A fragment is rendered again only when its key changes, and
+ * when many requests find it stale at once a single one renders it while the others wait for
+ * that result instead of rendering their own.
+ */
+public final class FragmentCache {
+
+    private static final Logger logger = Logger.getLogger(FragmentCache.class.getName());
+
+    /**
+     * Renders the fragment's HTML.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(HtmlOutput out) throws IOException;
+    }
+
+    private static final class Fragment {
+        final long[] key;
+        final byte[] html;
+
+        Fragment(long[] key, byte[] html) {
+            this.key = key;
+            this.html = html;
+        }
+    }
+
+    private final String name;
+    private final Object[] locks;
+    private final AtomicReferenceArray<Fragment> fragments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+
+    public FragmentCache(String name, int variants) {
+        this.name = name;
+        this.locks = new Object[variants];
+        this.fragments = new AtomicReferenceArray<>(variants);
+        for (int i = 0; i < variants; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the fragment's bytes for this variant and content key, rendering them if the
+     * cached copy was built for a different key. The key array must not be modified afterwards.
+     * The returned array is shared; do not modify it.
+     */
+    public byte[] get(int variant, long[] key, Renderer renderer) throws IOException {
+        Fragment fragment = fragments.get(variant);
+        if (fragment != null && Arrays.equals(fragment.key, key)) {
+            hits.incrementAndGet();
+            return fragment.html;
+        }
+        synchronized (locks[variant]) {
+            // Another request may have rendered this key while we waited
+            fragment = fragments.get(variant);
+            if (fragment != null && Arrays.equals(fragment.key, key)) {
+                hits.incrementAndGet();
+                return fragment.html;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    fragment != null ? fragment.html.length + 256 : 4096);
+            HtmlOutput out = new HtmlOutput(bytes);
+            renderer.render(out);
+            out.flush();
+            fragment = new Fragment(key, bytes.toByteArray());
+            fragments.set(variant, fragment);
+            renders.incrementAndGet();
+            logger.fine("Rendered " + name + " fragment variant " + variant + " (" + fragment.html.length + " bytes)");
+            return fragment.html;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < fragments.length(); i++) {
+            fragments.set(i, null);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getRenders() {
+        return renders.get();
+    }
+}
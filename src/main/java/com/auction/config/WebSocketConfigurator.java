@@ -4,6 +4,9 @@ import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 import jakarta.websocket.server.ServerContainer;
+import com.auction.logging.AsyncLogHandler;
+import com.auction.session.UserSessionManagerBean;
+import com.auction.time.Clocks;
 import com.auction.websocket.AuctionWebSocketEndpoint;
 import java.util.logging.Logger;
 
@@ -33,5 +36,11 @@ public class WebSocketConfigurator implements ServletContextListener {
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
         logger.info("WebSocket configurator destroyed");
+        // Deliver queued log records and hand logging back to the container's handlers
+        AsyncLogHandler.uninstall();
+        // Stop the clock ticker so a redeploy does not leave it running
+        Clocks.reset();
+        // Release the session file, which the store maps for the life of the class
+        UserSessionManagerBean.closeStore();
     }
 }
\ No newline at end of file
@@ -5,7 +5,10 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 /**
- * Enhanced Data Transfer Object for Auction with history support
+ * Enhanced Data Transfer Object for Auction with history support.
+ *
+ * Instances handed out by AuctionServiceBean are cached per auction version and shared
+ * between callers, so treat them as read-only.
  */
 public class AuctionDTO implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -30,6 +33,9 @@ public class AuctionDTO implements Serializable {
     private String endReason;
     private boolean hasWinner;
 
+    // Auction.getVersion() at the time this snapshot was taken
+    private long version;
+
     public AuctionDTO() {}
 
     // Enhanced constructor from Auction entity
@@ -59,7 +65,9 @@ public class AuctionDTO implements Serializable {
 
     // Factory method to create DTO from Auction entity
     public static AuctionDTO fromAuction(Auction auction) {
-        return new AuctionDTO(
+        // Read the version first: any change after this point moves it and invalidates the snapshot
+        long version = auction.getVersion();
+        AuctionDTO dto = new AuctionDTO(
                 auction.getAuctionId(),
                 auction.getTitle(),
                 auction.getDescription(),
@@ -76,6 +84,8 @@ public class AuctionDTO implements Serializable {
                 auction.getWinningBid(),
                 auction.getEndReason()
         );
+        dto.version = version;
+        return dto;
     }
 
     // Existing getters and setters...
@@ -132,6 +142,9 @@ public class AuctionDTO implements Serializable {
     public String getEndReason() { return endReason; }
     public void setEndReason(String endReason) { this.endReason = endReason; }
 
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
     public boolean hasWinner() { return hasWinner; }
     public void setHasWinner(boolean hasWinner) { this.hasWinner = hasWinner; }
 
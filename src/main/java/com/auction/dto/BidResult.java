@@ -0,0 +1,76 @@
+package com.auction.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a bid submission: whether it was accepted and, if not, why, together with the
+ * auction state the decision was based on so clients can show it without another request.
+ */
+public class BidResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        ACCEPTED,
+        AUCTION_NOT_FOUND,
+        AUCTION_CLOSED,
+        BID_TOO_LOW
+    }
+
+    private Status status;
+    private Long auctionId;
+    private Long bidId;
+    private double bidAmount;
+    private double currentHighestBid;
+    private String currentHighestBidder;
+    private double minimumNextBid;
+    private LocalDateTime auctionEndTime;
+    private boolean endTimeExtended;
+    private long auctionVersion;
+
+    public BidResult() {}
+
+    public BidResult(Status status, Long auctionId, double bidAmount) {
+        this.status = status;
+        this.auctionId = auctionId;
+        this.bidAmount = bidAmount;
+    }
+
+    public boolean isAccepted() { return status == Status.ACCEPTED; }
+
+    // Getters and Setters
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getAuctionId() { return auctionId; }
+    public void setAuctionId(Long auctionId) { this.auctionId = auctionId; }
+
+    public Long getBidId() { return bidId; }
+    public void setBidId(Long bidId) { this.bidId = bidId; }
+
+    public double getBidAmount() { return bidAmount; }
+    public void setBidAmount(double bidAmount) { this.bidAmount = bidAmount; }
+
+    public double getCurrentHighestBid() { return currentHighestBid; }
+    public void setCurrentHighestBid(double currentHighestBid) { this.currentHighestBid = currentHighestBid; }
+
+    public String getCurrentHighestBidder() { return currentHighestBidder; }
+    public void setCurrentHighestBidder(String currentHighestBidder) { this.currentHighestBidder = currentHighestBidder; }
+
+    public double getMinimumNextBid() { return minimumNextBid; }
+    public void setMinimumNextBid(double minimumNextBid) { this.minimumNextBid = minimumNextBid; }
+
+    public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
+    public void setAuctionEndTime(LocalDateTime auctionEndTime) { this.auctionEndTime = auctionEndTime; }
+
+    public boolean isEndTimeExtended() { return endTimeExtended; }
+    public void setEndTimeExtended(boolean endTimeExtended) { this.endTimeExtended = endTimeExtended; }
+
+    public long getAuctionVersion() { return auctionVersion; }
+    public void setAuctionVersion(long auctionVersion) { this.auctionVersion = auctionVersion; }
+
+    @Override
+    public String toString() {
+        return "BidResult{status=" + status + ", auctionId=" + auctionId + ", bidAmount=" + bidAmount + "}";
+    }
+}
@@ -22,6 +22,20 @@ public class BidUpdateMessage implements Serializable {
     @JsonDeserialize(using = LocalDateTimeDeserializer.class)
     private LocalDateTime bidTime;
 
+    // Soft-close: the auction's end time after this bid and whether the bid moved it
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    private LocalDateTime auctionEndTime;
+    private boolean endTimeExtended;
+
+    // Auction version right after this bid; keys the shared encoded payload
+    private long auctionVersion;
+
+    // Lets pages add the bid to their history without reloading
+    private Long bidId;
+    private int bidCount;
+
     public BidUpdateMessage() {}
 
     public BidUpdateMessage(Long auctionId, String auctionTitle, double bidAmount,
@@ -49,6 +63,21 @@ public class BidUpdateMessage implements Serializable {
     public LocalDateTime getBidTime() { return bidTime; }
     public void setBidTime(LocalDateTime bidTime) { this.bidTime = bidTime; }
 
+    public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
+    public void setAuctionEndTime(LocalDateTime auctionEndTime) { this.auctionEndTime = auctionEndTime; }
+
+    public boolean isEndTimeExtended() { return endTimeExtended; }
+    public void setEndTimeExtended(boolean endTimeExtended) { this.endTimeExtended = endTimeExtended; }
+
+    public long getAuctionVersion() { return auctionVersion; }
+    public void setAuctionVersion(long auctionVersion) { this.auctionVersion = auctionVersion; }
+
+    public Long getBidId() { return bidId; }
+    public void setBidId(Long bidId) { this.bidId = bidId; }
+
+    public int getBidCount() { return bidCount; }
+    public void setBidCount(int bidCount) { this.bidCount = bidCount; }
+
     @Override
     public String toString() {
         return String.format("BidUpdate{auction=%d, title='%s', amount=%.2f, bidder='%s', time=%s}",
@@ -0,0 +1,112 @@
+package com.auction.ejb;
+
+import com.auction.entity.Auction;
+import com.auction.time.Clocks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Per-auction expiry timers.
+ *
+ * Every active auction owns exactly one pending task on a shared scheduler. A soft-close
+ * extension only moves {@link Auction#getEndTime()}; when a task fires before the (possibly
+ * extended) end time it re-arms itself for the remaining time. Extending an auction from
+ * the bid path is therefore O(1) and never touches the timer queue.
+ */
+final class AuctionExpiryScheduler {
+
+    private static final Logger logger = Logger.getLogger(AuctionExpiryScheduler.class.getName());
+
+    private static final ConcurrentHashMap<Long, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+    private static ScheduledThreadPoolExecutor executor;
+
+    private AuctionExpiryScheduler() {
+    }
+
+    /**
+     * Arms the expiry timer for an auction. Calling it again for the same auction replaces
+     * the pending timer.
+     */
+    static void schedule(Auction auction) {
+        if (auction == null || !auction.isActive() || auction.getEndTime() == null) {
+            return;
+        }
+        arm(auction, millisUntilEnd(auction));
+    }
+
+    static void cancel(Long auctionId) {
+        ScheduledFuture<?> timer = timers.remove(auctionId);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    static int getScheduledCount() {
+        return timers.size();
+    }
+
+    static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        timers.clear();
+    }
+
+    private static void arm(Auction auction, long delayMillis) {
+        ScheduledFuture<?> timer = executor().schedule(() -> fire(auction),
+                Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = timers.put(auction.getAuctionId(), timer);
+        if (previous != null && previous != timer) {
+            previous.cancel(false);
+        }
+    }
+
+    private static void fire(Auction auction) {
+        try {
+            synchronized (auction) {
+                if (!auction.isActive()) {
+                    timers.remove(auction.getAuctionId());
+                    return;
+                }
+
+                // Soft-close extensions push endTime out without rescheduling; catch up here
+                long remaining = millisUntilEnd(auction);
+                if (remaining > 0) {
+                    arm(auction, remaining);
+                    return;
+                }
+
+                AuctionServiceBean.completeAuction(auction, "EXPIRED");
+                timers.remove(auction.getAuctionId());
+            }
+            logger.info("Auction " + auction.getAuctionId() + " expired by timer after " +
+                    auction.getExtensionCount() + " soft-close extension(s)");
+        } catch (Exception e) {
+            logger.severe("Error expiring auction " + auction.getAuctionId() + ": " + e.getMessage());
+        }
+    }
+
+    private static long millisUntilEnd(Auction auction) {
+        return Duration.between(Clocks.now(), auction.getEndTime()).toMillis();
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor executor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "auction-expiry-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        return executor;
+    }
+}
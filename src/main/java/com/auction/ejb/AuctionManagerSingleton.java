@@ -1,6 +1,8 @@
 package com.auction.ejb;
 
 import com.auction.entity.Auction;
+import com.auction.persistence.WriteBehindStore;
+import com.auction.time.Clocks;
 import jakarta.annotation.*;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.*;
@@ -13,6 +15,7 @@ import java.util.logging.Logger;
 
 @Singleton
 @Startup
+@DependsOn("UserSessionManagerBean") // sessions must still be live for the shutdown snapshot
 @ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
 @Lock(LockType.READ) // Default lock type
 public class AuctionManagerSingleton {
@@ -25,9 +28,14 @@ public class AuctionManagerSingleton {
     public void initialize() {
         logger.info("Initializing Auction Manager Singleton");
 
+        // Rebuild state from the journal before anything reads or schedules auctions
+        AuctionStateRecovery.recoverOnce();
+        startWriteBehind();
+
         scheduler = Executors.newScheduledThreadPool(2);
         scheduleAuctionCleanup();
         scheduleAuctionStatusUpdates();
+        scheduleAuctionExpiryTimers();
 
         logger.info("Auction Manager Singleton initialized successfully");
     }
@@ -36,6 +44,10 @@ public class AuctionManagerSingleton {
     public void cleanup() {
         logger.info("Shutting down Auction Manager Singleton");
 
+        AuctionExpiryScheduler.shutdown();
+        AuctionStateRecovery.closeJournal();
+        stopWriteBehind();
+
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdown();
             try {
@@ -56,7 +68,7 @@ public class AuctionManagerSingleton {
         logger.info("Checking for expired auctions...");
 
         var auctions = AuctionServiceBean.getAuctions();
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = Clocks.now();
 
         long expiredCount = auctions.values().stream()
                 .filter(auction -> auction.isActive() && auction.getEndTime().isBefore(now))
@@ -73,7 +85,9 @@ public class AuctionManagerSingleton {
         logger.info("Closing expired auction: " + auction.getAuctionId());
 
         // Use the enhanced completion method
-        auction.completeAuction("EXPIRED");
+        if (!AuctionServiceBean.completeAuction(auction, "EXPIRED")) {
+            return;
+        }
 
         // Log auction results with enhanced information
         if (auction.hasWinner()) {
@@ -141,29 +155,51 @@ public class AuctionManagerSingleton {
         }, 0, 1, TimeUnit.MINUTES);
     }
 
+    // Optional relational copy; the first flush pushes everything already in memory
+    private void startWriteBehind() {
+        try {
+            WriteBehindStore store = WriteBehindStore.fromSystemProperties(
+                    AuctionServiceBean.getAuctions()::get, UserServiceBean.getUsers()::get);
+            if (store != null) {
+                AuctionServiceBean.setWriteBehind(store);
+                store.usersChanged(UserServiceBean.getUsers().keySet());
+                store.auctionsChanged(AuctionServiceBean.getAuctions().keySet());
+            }
+        } catch (RuntimeException e) {
+            logger.severe("Write-behind persistence disabled, could not start: " + e.getMessage());
+        }
+    }
+
+    private void stopWriteBehind() {
+        WriteBehindStore store = AuctionServiceBean.getWriteBehind();
+        if (store != null) {
+            AuctionServiceBean.setWriteBehind(null);
+            store.close();
+        }
+    }
+
+    // Arm one expiry timer per active auction; the periodic check above remains as a backstop
+    private void scheduleAuctionExpiryTimers() {
+        AuctionServiceBean.getAuctions().values().forEach(AuctionExpiryScheduler::schedule);
+        logger.info("Armed expiry timers for " + AuctionExpiryScheduler.getScheduledCount() + " active auctions");
+    }
+
     private void cleanupOldAuctions() {
-        var auctions = AuctionServiceBean.getAuctions();
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
-
-        // Alternative approach: Count before removal
-        long removedCount = auctions.entrySet().stream()
-                .filter(entry -> {
-                    Auction auction = entry.getValue();
-                    return !auction.isActive() &&
-                            auction.getCompletedTime() != null &&
-                            auction.getCompletedTime().isBefore(cutoff);
-                })
-                .count();
+        LocalDateTime cutoff = Clocks.now().minusDays(30);
 
-        // Then remove (if you need the count for logging)
-        boolean anyRemoved = auctions.entrySet().removeIf(entry -> {
-            Auction auction = entry.getValue();
-            return !auction.isActive() &&
+        // Removed one by one so that each removal is journaled and replay does not restore it
+        int removedCount = 0;
+        for (Auction auction : AuctionServiceBean.getAuctions().values()) {
+            if (!auction.isActive() &&
                     auction.getCompletedTime() != null &&
-                    auction.getCompletedTime().isBefore(cutoff);
-        });
+                    auction.getCompletedTime().isBefore(cutoff) &&
+                    AuctionServiceBean.removeAuction(auction)) {
+                removedCount++;
+            }
+        }
 
-        if (anyRemoved && removedCount > 0) {
+        if (removedCount > 0) {
+            AuctionServiceBean.pruneDTOCache();
             logger.info("Cleaned up " + removedCount + " old auction records");
         }
     }
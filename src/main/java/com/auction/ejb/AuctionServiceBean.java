@@ -1,34 +1,71 @@
 package com.auction.ejb;
 
 import com.auction.entity.Auction;
+import com.auction.cache.AuctionPayloadCache;
+import com.auction.cache.CompletedPageCache;
 import com.auction.dto.AuctionDTO;
+import com.auction.entity.Bid;
+import com.auction.journal.AuctionJournal;
+import com.auction.logging.Log;
+import com.auction.persistence.WriteBehindStore;
+import com.auction.time.Clocks;
 import jakarta.ejb.*;
 import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
-import java.util.logging.Logger;
 
 @Stateless
 @Remote(AuctionServiceRemote.class)
 public class AuctionServiceBean implements AuctionServiceRemote {
 
-    private static final Logger logger = Logger.getLogger(AuctionServiceBean.class.getName());
+    private static final Log log = Log.get(AuctionServiceBean.class);
 
     // In-memory storage for demonstration (thread-safe)
     private static final ConcurrentHashMap<Long, Auction> auctions = new ConcurrentHashMap<>();
     private static final AtomicLong auctionIdCounter = new AtomicLong(1);
 
+    // Read-side caches. DTOs are cached per auction and reused until Auction.getVersion() moves;
+    // the list caches are rebuilt when any auction changes, is added or removed, or when the
+    // earliest active end time passes. catalogVersion moves on every journaled change.
+    private static final ConcurrentHashMap<Long, CachedDTO> dtoCache = new ConcurrentHashMap<>();
+    private static final AtomicLong catalogVersion = new AtomicLong();
+    // Shared by both lists, so the sum of their generations grows whenever either is rebuilt
+    private static final AtomicLong listGenerations = new AtomicLong();
+    private static volatile CachedAuctionList activeListCache;
+    private static volatile CachedAuctionList completedListCache;
+
+    // Most recently completed first
+    private static final Comparator<AuctionDTO> COMPLETION_ORDER = (a, b) -> {
+        LocalDateTime timeA = a.getCompletedTime() != null ? a.getCompletedTime() : a.getEndTime();
+        LocalDateTime timeB = b.getCompletedTime() != null ? b.getCompletedTime() : b.getEndTime();
+        return timeB.compareTo(timeA);
+    };
+
+    // Write-ahead journal of auction events; null unless auction.journal.dir is configured
+    private static volatile AuctionJournal journal;
+    // Optional relational copy of the state; null unless auction.persistence.url is configured
+    private static volatile WriteBehindStore writeBehind;
+
     public static void resetCounterForTesting() {
         auctionIdCounter.set(0);
         auctions.clear();
-        logger.info("Counter and auction data reset for testing");
+        dtoCache.clear();
+        AuctionPayloadCache.clear();
+        CompletedPageCache.clear();
+        activeListCache = null;
+        completedListCache = null;
+        log.info("Counter and auction data reset for testing");
     }
 
     @PostConstruct
     public void init() {
+        AuctionStateRecovery.recoverOnce();
         if (auctions.isEmpty()) {
             createSampleAuctions();
         }
@@ -39,14 +76,21 @@ public class AuctionServiceBean implements AuctionServiceRemote {
     @Override
     public AuctionDTO createAuction(String title, String description,
                                     double startingPrice, LocalDateTime endTime) {
-        logger.info("Creating new auction: " + title);
+        log.info("Creating new auction: {}", title);
 
         Long auctionId = auctionIdCounter.getAndIncrement();
         Auction auction = new Auction(auctionId, title, description, startingPrice, endTime);
 
-        auctions.put(auctionId, auction);
+        // Journal the creation before publishing the auction, so no bid on it can be journaled first
+        long sequence;
+        synchronized (auction) {
+            sequence = recordAuctionCreated(auction);
+            auctions.put(auctionId, auction);
+        }
+        commitJournal(sequence);
+        AuctionExpiryScheduler.schedule(auction);
 
-        logger.info("Auction created successfully with ID: " + auctionId);
+        log.info("Auction created successfully with ID: {}", auctionId);
         return convertToDTO(auction);
     }
 
@@ -54,16 +98,16 @@ public class AuctionServiceBean implements AuctionServiceRemote {
     @Override
     public AuctionDTO createAuction(String title, String description,
                                     double startingPrice, int durationHours, int durationMinutes) {
-        logger.info("Creating new auction with duration: " + durationHours + "h " + durationMinutes + "m");
+        log.info("Creating new auction with duration: {}h {}m", durationHours, durationMinutes);
 
         // Validate duration
         if (!validateAuctionDuration(durationHours, durationMinutes)) {
-            logger.warning("Invalid auction duration: " + durationHours + "h " + durationMinutes + "m");
+            log.warn("Invalid auction duration: {}h {}m", durationHours, durationMinutes);
             return null;
         }
 
         // Calculate end time
-        LocalDateTime endTime = LocalDateTime.now()
+        LocalDateTime endTime = Clocks.now()
                 .plusHours(durationHours)
                 .plusMinutes(durationMinutes);
 
@@ -72,46 +116,47 @@ public class AuctionServiceBean implements AuctionServiceRemote {
 
     @Override
     public AuctionDTO getAuction(Long auctionId) {
-        logger.info("Retrieving auction with ID: " + auctionId);
+        log.debug("Retrieving auction with ID: {}", auctionId);
         Auction auction = auctions.get(auctionId);
         return auction != null ? convertToDTO(auction) : null;
     }
 
     @Override
-    public List<AuctionDTO> getAllActiveAuctions() {
-        logger.info("Retrieving all active auctions");
+    public long getAuctionVersion(Long auctionId) {
+        Auction auction = auctions.get(auctionId);
+        if (auction == null) {
+            return -1;
+        }
+        // An open auction's page also changes when its end time passes, before the
+        // scheduler gets to complete it and bump the version
+        boolean overdue = auction.isActive() && !auction.getEndTime().isAfter(Clocks.now());
+        return auction.getVersion() * 2 + (overdue ? 1 : 0);
+    }
 
-        return auctions.values().stream()
-                .filter(auction -> auction.isActive() &&
-                        auction.getEndTime().isAfter(LocalDateTime.now()))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Override
+    public long getCatalogVersion() {
+        // Both lists are rebuilt, and take a new generation, exactly when their content may
+        // have changed; revalidating them allocates nothing when nothing did
+        return currentActiveList().generation + currentCompletedList().generation;
+    }
+
+    @Override
+    public List<AuctionDTO> getAllActiveAuctions() {
+        log.debug("Retrieving all active auctions");
+        return currentActiveList().auctions;
     }
 
     // NEW METHODS for auction history
 
     @Override
     public List<AuctionDTO> getAllCompletedAuctions() {
-        logger.info("Retrieving all completed auctions");
-
-        return auctions.values().stream()
-                .filter(auction -> !auction.isActive() ||
-                        auction.getEndTime().isBefore(LocalDateTime.now()))
-                .map(this::ensureAuctionCompleted)
-                .map(this::convertToDTO)
-                .sorted((a, b) -> {
-                    LocalDateTime timeA = a.getCompletedTime() != null ?
-                            a.getCompletedTime() : a.getEndTime();
-                    LocalDateTime timeB = b.getCompletedTime() != null ?
-                            b.getCompletedTime() : b.getEndTime();
-                    return timeB.compareTo(timeA); // Most recent first
-                })
-                .collect(Collectors.toList());
+        log.debug("Retrieving all completed auctions");
+        return currentCompletedList().auctions;
     }
 
     @Override
     public List<AuctionDTO> getAuctionHistory(int page, int size) {
-        logger.info("Retrieving auction history - page: " + page + ", size: " + size);
+        log.debug("Retrieving auction history - page: {}, size: {}", page, size);
 
         List<AuctionDTO> allCompleted = getAllCompletedAuctions();
 
@@ -127,20 +172,14 @@ public class AuctionServiceBean implements AuctionServiceRemote {
 
     @Override
     public List<AuctionDTO> getUserWonAuctions(String username) {
-        logger.info("Retrieving auctions won by user: " + username);
+        log.debug("Retrieving auctions won by user: {}", username);
 
         return auctions.values().stream()
                 .filter(auction -> !auction.isActive())
                 .map(this::ensureAuctionCompleted)
                 .filter(auction -> username.equals(auction.getWinnerUsername()))
                 .map(this::convertToDTO)
-                .sorted((a, b) -> {
-                    LocalDateTime timeA = a.getCompletedTime() != null ?
-                            a.getCompletedTime() : a.getEndTime();
-                    LocalDateTime timeB = b.getCompletedTime() != null ?
-                            b.getCompletedTime() : b.getEndTime();
-                    return timeB.compareTo(timeA);
-                })
+                .sorted(COMPLETION_ORDER)
                 .collect(Collectors.toList());
     }
 
@@ -152,13 +191,12 @@ public class AuctionServiceBean implements AuctionServiceRemote {
 
     @Override
     public boolean closeAuction(Long auctionId, String reason) {
-        logger.info("Closing auction with ID: " + auctionId + ", reason: " + reason);
+        log.info("Closing auction with ID: {}, reason: {}", auctionId, reason);
 
         Auction auction = auctions.get(auctionId);
-        if (auction != null && auction.isActive()) {
-            auction.completeAuction(reason);
-            logger.info("Auction " + auctionId + " closed successfully. Winner: " +
-                    auction.getWinnerUsername() + ", Final bid: $" + auction.getWinningBid());
+        if (auction != null && completeAuction(auction, reason)) {
+            log.info("Auction {} closed successfully. Winner: {}, Final bid: ${}",
+                    auctionId, auction.getWinnerUsername(), auction.getWinningBid());
             return true;
         }
         return false;
@@ -166,12 +204,11 @@ public class AuctionServiceBean implements AuctionServiceRemote {
 
     @Override
     public boolean cancelAuction(Long auctionId, String reason) {
-        logger.info("Cancelling auction with ID: " + auctionId + ", reason: " + reason);
+        log.info("Cancelling auction with ID: {}, reason: {}", auctionId, reason);
 
         Auction auction = auctions.get(auctionId);
-        if (auction != null && auction.isActive()) {
-            auction.completeAuction("CANCELLED: " + reason);
-            logger.info("Auction " + auctionId + " cancelled successfully");
+        if (auction != null && completeAuction(auction, "CANCELLED: " + reason)) {
+            log.info("Auction {} cancelled successfully", auctionId);
             return true;
         }
         return false;
@@ -185,8 +222,8 @@ public class AuctionServiceBean implements AuctionServiceRemote {
         }
 
         // Auto-expire if time has passed
-        if (auction.isActive() && auction.getEndTime().isBefore(LocalDateTime.now())) {
-            auction.completeAuction("EXPIRED");
+        if (auction.isActive() && auction.getEndTime().isBefore(Clocks.now())) {
+            completeAuction(auction, "EXPIRED");
             return false;
         }
 
@@ -196,17 +233,19 @@ public class AuctionServiceBean implements AuctionServiceRemote {
     // Statistics methods
     @Override
     public int getActiveAuctionCount() {
+        LocalDateTime now = Clocks.now();
         return (int) auctions.values().stream()
                 .filter(auction -> auction.isActive() &&
-                        auction.getEndTime().isAfter(LocalDateTime.now()))
+                        auction.getEndTime().isAfter(now))
                 .count();
     }
 
     @Override
     public int getCompletedAuctionCount() {
+        LocalDateTime now = Clocks.now();
         return (int) auctions.values().stream()
                 .filter(auction -> !auction.isActive() ||
-                        auction.getEndTime().isBefore(LocalDateTime.now()))
+                        auction.getEndTime().isBefore(now))
                 .count();
     }
 
@@ -235,8 +274,7 @@ public class AuctionServiceBean implements AuctionServiceRemote {
         boolean isValid = totalMinutes >= 1 && totalMinutes <= maxMinutes;
 
         if (!isValid) {
-            logger.warning("Invalid duration: " + hours + "h " + minutes + "m (" +
-                    totalMinutes + " total minutes)");
+            log.warn("Invalid duration: {}h {}m ({} total minutes)", hours, minutes, totalMinutes);
         }
 
         return isValid;
@@ -245,17 +283,28 @@ public class AuctionServiceBean implements AuctionServiceRemote {
     // Helper methods
     private Auction ensureAuctionCompleted(Auction auction) {
         // Ensure expired auctions are marked as completed
-        if (auction.isActive() && auction.getEndTime().isBefore(LocalDateTime.now())) {
-            auction.completeAuction("EXPIRED");
+        if (auction.isActive() && auction.getEndTime().isBefore(Clocks.now())) {
+            completeAuction(auction, "EXPIRED");
         }
         return auction;
     }
 
+    // Returns the cached snapshot while the auction is unchanged, otherwise takes a new one
     private AuctionDTO convertToDTO(Auction auction) {
+        CachedDTO cached = dtoCache.get(auction.getAuctionId());
+        if (cached != null && cached.source == auction && cached.dto.getVersion() == auction.getVersion()) {
+            return cached.dto;
+        }
+        AuctionDTO dto = createDTO(auction);
+        dtoCache.put(auction.getAuctionId(), new CachedDTO(auction, dto));
+        return dto;
+    }
+
+    private AuctionDTO createDTO(Auction auction) {
         try {
             return AuctionDTO.fromAuction(auction);
         } catch (Exception e) {
-            logger.warning("Error converting auction to DTO: " + e.getMessage());
+            log.warn("Error converting auction to DTO: {}", e.getMessage());
             // Return a minimal DTO if conversion fails
             return new AuctionDTO(
                     auction.getAuctionId(),
@@ -277,22 +326,122 @@ public class AuctionServiceBean implements AuctionServiceRemote {
         }
     }
 
+    // One pass over all auctions; records every auction's version so the list can be revalidated
+    // without allocating, and the earliest active end time after which membership changes
+    private CachedAuctionList buildAuctionList(boolean completed) {
+        long catalog = catalogVersion.get();
+        LocalDateTime now = Clocks.now();
+        List<Auction> all = new ArrayList<>(auctions.values());
+        Auction[] sources = new Auction[all.size()];
+        long[] versions = new long[all.size()];
+        LocalDateTime validUntil = null;
+        List<AuctionDTO> result = new ArrayList<>();
+
+        for (int i = 0; i < sources.length; i++) {
+            Auction auction = all.get(i);
+            boolean ended = !auction.isActive() || auction.getEndTime().isBefore(now);
+            if (completed && ended) {
+                ensureAuctionCompleted(auction);
+            }
+            sources[i] = auction;
+            versions[i] = auction.getVersion();
+
+            boolean running = auction.isActive() && auction.getEndTime().isAfter(now);
+            if (running && (validUntil == null || auction.getEndTime().isBefore(validUntil))) {
+                validUntil = auction.getEndTime();
+            }
+            if (completed ? ended : running) {
+                result.add(convertToDTO(auction));
+            }
+        }
+        if (completed) {
+            result.sort(COMPLETION_ORDER);
+        }
+        return new CachedAuctionList(catalog, sources, versions, validUntil, Collections.unmodifiableList(result));
+    }
+
+    private CachedAuctionList currentActiveList() {
+        CachedAuctionList cached = activeListCache;
+        if (cached == null || !cached.isCurrent()) {
+            cached = buildAuctionList(false);
+            activeListCache = cached;
+        }
+        return cached;
+    }
+
+    private CachedAuctionList currentCompletedList() {
+        CachedAuctionList cached = completedListCache;
+        if (cached == null || !cached.isCurrent()) {
+            cached = buildAuctionList(true);
+            completedListCache = cached;
+        }
+        return cached;
+    }
+
+    // Drops cached DTOs, encoded payloads and pages of auctions that are no longer in the map
+    static void pruneDTOCache() {
+        dtoCache.keySet().retainAll(auctions.keySet());
+        AuctionPayloadCache.retainAuctions(auctions.keySet());
+        CompletedPageCache.retainAuctions(auctions.keySet());
+    }
+
+    private static final class CachedDTO {
+        final Auction source;
+        final AuctionDTO dto;
+
+        CachedDTO(Auction source, AuctionDTO dto) {
+            this.source = source;
+            this.dto = dto;
+        }
+    }
+
+    private static final class CachedAuctionList {
+        final long generation = listGenerations.incrementAndGet();
+        final long catalogVersion;
+        final Auction[] sources;
+        final long[] versions;
+        final LocalDateTime validUntil;
+        final List<AuctionDTO> auctions;
+
+        CachedAuctionList(long catalogVersion, Auction[] sources, long[] versions,
+                          LocalDateTime validUntil, List<AuctionDTO> auctions) {
+            this.catalogVersion = catalogVersion;
+            this.sources = sources;
+            this.versions = versions;
+            this.validUntil = validUntil;
+            this.auctions = auctions;
+        }
+
+        boolean isCurrent() {
+            if (catalogVersion != AuctionServiceBean.catalogVersion.get()
+                    || sources.length != AuctionServiceBean.auctions.size()) {
+                return false;
+            }
+            if (validUntil != null && !Clocks.now().isBefore(validUntil)) {
+                return false;
+            }
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i].getVersion() != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private void createSampleAuctions() {
         // Create some sample auctions
         createAuction("Vintage Watch", "Classic 1960s Rolex", 500.0, 2, 0);
         createAuction("Antique Vase", "Ming Dynasty ceramic vase", 1000.0, 4, 30);
         createAuction("Sports Car Model", "Ferrari F40 1:18 scale", 50.0, 1, 15);
 
-        // Create a completed sample auction for testing history
+        // Create a completed sample auction for testing history. It is created with its end time
+        // already past, so the journaled creation carries the end time it is replayed with.
         AuctionDTO completedAuction = createAuction("Test Completed Auction",
-                "This auction ended for testing", 100.0, 0, 1);
-        if (completedAuction != null) {
-            // Manually expire it for testing
-            Auction auction = auctions.get(completedAuction.getAuctionId());
-            if (auction != null) {
-                auction.setEndTime(LocalDateTime.now().minusMinutes(5));
-                auction.completeAuction("EXPIRED");
-            }
+                "This auction ended for testing", 100.0, Clocks.now().minusMinutes(5));
+        Auction auction = auctions.get(completedAuction.getAuctionId());
+        if (auction != null) {
+            completeAuction(auction, "EXPIRED");
         }
     }
 
@@ -300,4 +449,144 @@ public class AuctionServiceBean implements AuctionServiceRemote {
     static ConcurrentHashMap<Long, Auction> getAuctions() {
         return auctions;
     }
+
+    // Auction ids handed out after recovery must not collide with replayed ones
+    static void advanceAuctionIdCounter(long nextId) {
+        auctionIdCounter.accumulateAndGet(nextId, Math::max);
+    }
+
+    /**
+     * Completes an auction exactly once, whichever path gets there first (expiry timer,
+     * periodic check, manual close), and journals the closure.
+     *
+     * @return true if this call completed the auction
+     */
+    static boolean completeAuction(Auction auction, String reason) {
+        long sequence;
+        synchronized (auction) {
+            if (!auction.isActive()) {
+                return false;
+            }
+            auction.completeAuction(reason);
+            AuctionExpiryScheduler.cancel(auction.getAuctionId());
+            sequence = recordAuctionClosed(auction);
+        }
+        commitJournal(sequence);
+        return true;
+    }
+
+    /**
+     * Removes an auction from memory and journals the removal, so that replay does not bring it back.
+     *
+     * @return true if this call removed the auction
+     */
+    static boolean removeAuction(Auction auction) {
+        long sequence;
+        synchronized (auction) {
+            if (!auctions.remove(auction.getAuctionId(), auction)) {
+                return false;
+            }
+            AuctionExpiryScheduler.cancel(auction.getAuctionId());
+            sequence = recordAuctionRemoved(auction);
+        }
+        commitJournal(sequence);
+        return true;
+    }
+
+    // Journal hooks. Callers append while holding the auction monitor so that the journal
+    // order matches the order in which changes were applied, then commit outside it.
+
+    static void setJournal(AuctionJournal activeJournal) {
+        journal = activeJournal;
+    }
+
+    static AuctionJournal getJournal() {
+        return journal;
+    }
+
+    static void setWriteBehind(WriteBehindStore store) {
+        writeBehind = store;
+    }
+
+    static WriteBehindStore getWriteBehind() {
+        return writeBehind;
+    }
+
+    static long recordAuctionCreated(Auction auction) {
+        markAuctionChanged(auction);
+        AuctionJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.appendAuctionCreated(auction.getAuctionId(), auction.getTitle(),
+                    auction.getDescription(), auction.getStartingPrice(), auction.getStartTime(),
+                    auction.getEndTime(), auction.getSoftCloseWindowSeconds(),
+                    auction.getSoftCloseExtensionSeconds());
+        } catch (RuntimeException e) {
+            log.error("Failed to journal auction {}", e, auction.getAuctionId());
+            return 0;
+        }
+    }
+
+    static long recordBidAccepted(Auction auction, Bid bid) {
+        markAuctionChanged(auction);
+        AuctionJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.appendBidAccepted(auction.getAuctionId(), bid.getBidId(),
+                    bid.getBidderUsername(), bid.getBidAmount(), bid.getBidTime(), auction.getEndTime());
+        } catch (RuntimeException e) {
+            log.error("Failed to journal bid {} on auction {}", e, bid.getBidId(), auction.getAuctionId());
+            return 0;
+        }
+    }
+
+    static long recordAuctionClosed(Auction auction) {
+        markAuctionChanged(auction);
+        AuctionJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.appendAuctionClosed(auction.getAuctionId(), auction.getEndReason(),
+                    auction.getCompletedTime());
+        } catch (RuntimeException e) {
+            log.error("Failed to journal closure of auction {}", e, auction.getAuctionId());
+            return 0;
+        }
+    }
+
+    // The relational copy keeps removed auctions; only the catalog and the journal are told
+    static long recordAuctionRemoved(Auction auction) {
+        catalogVersion.incrementAndGet();
+        AuctionJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            return current.appendAuctionRemoved(auction.getAuctionId());
+        } catch (RuntimeException e) {
+            log.error("Failed to journal removal of auction {}", e, auction.getAuctionId());
+            return 0;
+        }
+    }
+
+    private static void markAuctionChanged(Auction auction) {
+        catalogVersion.incrementAndGet();
+        WriteBehindStore store = writeBehind;
+        if (store != null) {
+            store.auctionChanged(auction.getAuctionId());
+        }
+    }
+
+    // Waits for the event to reach disk when the fsync policy asks for it
+    static void commitJournal(long sequence) {
+        AuctionJournal current = journal;
+        if (current != null && sequence > 0) {
+            current.commit(sequence);
+        }
+    }
 }
\ No newline at end of file
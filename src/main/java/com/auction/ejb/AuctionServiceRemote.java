@@ -37,4 +37,9 @@ public interface AuctionServiceRemote {
 
     // Validation
     boolean validateAuctionDuration(int hours, int minutes);
+
+    // Change detection for conditional requests: both values change whenever the auction's
+    // page, respectively the auction lists, would render differently
+    long getAuctionVersion(Long auctionId);   // -1 if the auction does not exist
+    long getCatalogVersion();
 }
\ No newline at end of file
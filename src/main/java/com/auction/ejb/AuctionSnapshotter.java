@@ -0,0 +1,112 @@
+package com.auction.ejb;
+
+import com.auction.entity.Auction;
+import com.auction.journal.AuctionJournal;
+import com.auction.journal.SnapshotReader;
+import com.auction.journal.SnapshotWriter;
+import com.auction.session.UserSessionManagerBean;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically writes a binary snapshot of all auctions, bids, users and sessions next to
+ * the journal, so that startup loads the snapshot and replays only the journal tail.
+ *
+ * Each auction is captured under its own monitor (a per-auction consistent cut); bidding on
+ * other auctions carries on while the snapshot is taken. The journal position is read before
+ * the cut starts, so events after it may already be reflected in the snapshot; replay skips
+ * those as duplicates.
+ */
+final class AuctionSnapshotter {
+
+    private static final Logger logger = Logger.getLogger(AuctionSnapshotter.class.getName());
+
+    static final String INTERVAL_PROPERTY = "auction.snapshot.intervalSeconds";
+    static final long DEFAULT_INTERVAL_SECONDS = 300;
+    static final int RETAINED_SNAPSHOTS = 2;
+
+    private static ScheduledExecutorService executor;
+
+    private AuctionSnapshotter() {
+    }
+
+    static synchronized void start() {
+        long interval = Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL_SECONDS);
+        if (interval <= 0 || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auction-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                takeSnapshot();
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Scheduled snapshot failed", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        logger.info("Snapshots scheduled every " + interval + " seconds");
+    }
+
+    static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current state and prunes old snapshots and journal segments.
+     *
+     * @return the snapshot file, or null when no journal is configured
+     */
+    static synchronized Path takeSnapshot() throws IOException {
+        AuctionJournal journal = AuctionServiceBean.getJournal();
+        if (journal == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        long journalSequence = journal.getLastSequence();
+
+        SnapshotWriter writer = new SnapshotWriter(Runtime.getRuntime().availableProcessors());
+        int auctionCount = 0;
+        for (Auction auction : AuctionServiceBean.getAuctions().values()) {
+            synchronized (auction) {
+                writer.addAuction(auction);
+            }
+            auctionCount++;
+        }
+        UserServiceBean.getUsers().values().forEach(writer::addUser);
+        UserSessionManagerBean.exportSessions().forEach(writer::addSession);
+
+        Path snapshot = writer.writeTo(journal.getDirectory(), journalSequence);
+        logger.info("Wrote snapshot " + snapshot.getFileName() + " with " + auctionCount + " auctions in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+
+        prune(journal);
+        return snapshot;
+    }
+
+    // Keep the newest few snapshots and only the journal needed to roll forward from the oldest of them
+    private static void prune(AuctionJournal journal) throws IOException {
+        List<Path> snapshots = SnapshotReader.listSnapshots(journal.getDirectory());
+        if (snapshots.size() < RETAINED_SNAPSHOTS) {
+            return;
+        }
+        for (Path old : snapshots.subList(RETAINED_SNAPSHOTS, snapshots.size())) {
+            Files.deleteIfExists(old);
+        }
+        Path oldestKept = snapshots.get(RETAINED_SNAPSHOTS - 1);
+        journal.deleteSegmentsUpTo(SnapshotReader.journalSequenceOf(oldestKept));
+    }
+}
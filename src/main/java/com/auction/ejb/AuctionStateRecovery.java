@@ -0,0 +1,225 @@
+package com.auction.ejb;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import com.auction.journal.AuctionJournal;
+import com.auction.journal.JournalReplayHandler;
+import com.auction.journal.SnapshotReader;
+import com.auction.session.ActiveSessionInfo;
+import com.auction.session.UserSessionManagerBean;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rebuilds the in-memory state at startup: loads the newest readable snapshot, replays the
+ * journal from the snapshot's position, then hands the journal to {@link AuctionServiceBean}
+ * for appending and starts the {@link AuctionSnapshotter}.
+ *
+ * Replay is idempotent: events for auctions, bids or closures that are already present,
+ * and removals of auctions that are already gone, are skipped, so it is safe to replay over state that was partially restored.
+ */
+final class AuctionStateRecovery implements JournalReplayHandler, SnapshotReader.Sink {
+
+    private static final Logger logger = Logger.getLogger(AuctionStateRecovery.class.getName());
+
+    private static boolean recovered;
+
+    private final ConcurrentHashMap<Long, Auction> auctions;
+    // Current winning bid per auction, so replay does not rescan every bid on each event
+    private final Map<Long, Bid> winningBids = new HashMap<>();
+    private long maxAuctionId; // only touched by the replay thread
+    private long snapshotMaxAuctionId;
+    private long skipped;
+
+    private AuctionStateRecovery(ConcurrentHashMap<Long, Auction> auctions) {
+        this.auctions = auctions;
+    }
+
+    /**
+     * Opens and replays the journal the first time it is called; later calls do nothing.
+     * Without a configured journal directory the system runs purely in memory as before.
+     */
+    static synchronized void recoverOnce() {
+        if (recovered) {
+            return;
+        }
+        recovered = true;
+
+        AuctionJournal journal;
+        try {
+            journal = AuctionJournal.fromSystemProperties();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Could not open auction journal; running without durability", e);
+            return;
+        }
+        if (journal == null) {
+            logger.info("Auction journal disabled (set -D" + AuctionJournal.DIRECTORY_PROPERTY + " to enable)");
+            return;
+        }
+
+        AuctionStateRecovery recovery = new AuctionStateRecovery(AuctionServiceBean.getAuctions());
+        try {
+            long fromSequence = recovery.loadLatestSnapshot(journal.getDirectory());
+            journal.replay(fromSequence, recovery);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Auction journal replay failed; refusing to append to it", e);
+            closeQuietly(journal);
+            return;
+        }
+
+        AuctionServiceBean.advanceAuctionIdCounter(
+                Math.max(recovery.maxAuctionId, recovery.snapshotMaxAuctionId) + 1);
+        AuctionServiceBean.setJournal(journal);
+
+        // Auctions that ended while we were down close (and are journaled) as soon as their timer fires
+        recovery.auctions.values().forEach(AuctionExpiryScheduler::schedule);
+
+        logger.info("Recovered " + recovery.auctions.size() + " auctions from journal "
+                + journal.getDirectory() + " up to sequence " + journal.getLastSequence()
+                + (recovery.skipped > 0 ? " (" + recovery.skipped + " duplicate events skipped)" : ""));
+
+        AuctionSnapshotter.start();
+    }
+
+    // Snapshot on the way down so the next startup has almost nothing to replay
+    static synchronized void closeJournal() {
+        AuctionSnapshotter.stop();
+        AuctionJournal journal = AuctionServiceBean.getJournal();
+        if (journal != null) {
+            try {
+                AuctionSnapshotter.takeSnapshot();
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Shutdown snapshot failed; the journal alone will be replayed", e);
+            }
+            AuctionServiceBean.setJournal(null);
+            closeQuietly(journal);
+        }
+        recovered = false;
+    }
+
+    // Falls back to older snapshots if the newest fails verification; 0 means replay everything
+    private long loadLatestSnapshot(Path directory) throws IOException {
+        for (Path snapshot : SnapshotReader.listSnapshots(directory)) {
+            try {
+                return SnapshotReader.load(snapshot, Runtime.getRuntime().availableProcessors(), this);
+            } catch (IOException e) {
+                logger.warning("Ignoring unreadable snapshot " + snapshot.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    // Snapshot rows arrive from several loader threads; the target maps are concurrent
+
+    @Override
+    public void onAuction(Auction auction) {
+        auctions.put(auction.getAuctionId(), auction);
+        synchronized (this) {
+            snapshotMaxAuctionId = Math.max(snapshotMaxAuctionId, auction.getAuctionId());
+        }
+    }
+
+    @Override
+    public void onUser(User user) {
+        UserServiceBean.getUsers().put(user.getUsername(), user);
+    }
+
+    @Override
+    public void onSession(ActiveSessionInfo session) {
+        UserSessionManagerBean.restoreSession(session);
+    }
+
+    private static void closeQuietly(AuctionJournal journal) {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warning("Error closing auction journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onAuctionCreated(long sequence, long auctionId, String title, String description,
+                                 double startingPrice, LocalDateTime startTime, LocalDateTime endTime,
+                                 int softCloseWindowSeconds, int softCloseExtensionSeconds) {
+        maxAuctionId = Math.max(maxAuctionId, auctionId);
+        if (auctions.containsKey(auctionId)) {
+            skipped++;
+            return;
+        }
+        Auction auction = new Auction(auctionId, title, description, startingPrice, endTime);
+        auction.setStartTime(startTime);
+        auction.setSoftCloseWindowSeconds(softCloseWindowSeconds);
+        auction.setSoftCloseExtensionSeconds(softCloseExtensionSeconds);
+        auctions.put(auctionId, auction);
+    }
+
+    @Override
+    public void onBidAccepted(long sequence, long auctionId, long bidId, String bidderUsername,
+                              double bidAmount, LocalDateTime bidTime, LocalDateTime auctionEndTime) {
+        Auction auction = auctions.get(auctionId);
+        if (auction == null || auction.getBids().containsKey(bidId)) {
+            skipped++;
+            return;
+        }
+
+        Bid bid = new Bid();
+        bid.setBidId(bidId);
+        bid.setAuctionId(auctionId);
+        bid.setBidderUsername(bidderUsername);
+        bid.setBidAmount(bidAmount);
+        bid.setBidTime(bidTime);
+        bid.setWinning(true);
+
+        // After a snapshot load the current winner is only known from the auction's bids
+        Bid previous = winningBids.containsKey(auctionId)
+                ? winningBids.get(auctionId) : currentWinner(auction);
+        winningBids.put(auctionId, bid);
+        if (previous != null) {
+            previous.setWinning(false);
+        }
+        auction.restoreBid(bid);
+
+        if (auctionEndTime != null && auctionEndTime.isAfter(auction.getEndTime())) {
+            auction.setEndTime(auctionEndTime);
+            auction.setExtensionCount(auction.getExtensionCount() + 1);
+        }
+    }
+
+    @Override
+    public void onAuctionClosed(long sequence, long auctionId, String reason, LocalDateTime completedTime) {
+        Auction auction = auctions.get(auctionId);
+        if (auction == null || !auction.isActive()) {
+            skipped++;
+            return;
+        }
+        auction.completeAuction(reason);
+        auction.setCompletedTime(completedTime);
+    }
+
+    @Override
+    public void onAuctionRemoved(long sequence, long auctionId) {
+        maxAuctionId = Math.max(maxAuctionId, auctionId);
+        if (auctions.remove(auctionId) == null) {
+            skipped++;
+            return;
+        }
+        winningBids.remove(auctionId);
+    }
+
+    private static Bid currentWinner(Auction auction) {
+        for (Bid bid : auction.getBids().values()) {
+            if (bid.isWinning()) {
+                return bid;
+            }
+        }
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.auction.ejb;
 
 import com.auction.dto.BidUpdateMessage;
+import com.auction.logging.Log;
 import com.auction.websocket.AuctionWebSocketEndpoint;
 import jakarta.ejb.ActivationConfigProperty;
 import jakarta.ejb.MessageDriven;
@@ -8,7 +9,6 @@ import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.MessageListener;
 import jakarta.jms.ObjectMessage;
-import java.util.logging.Logger;
 
 @MessageDriven(name = "BidNotificationMDB", activationConfig = {
         @ActivationConfigProperty(propertyName = "destinationLookup",
@@ -20,43 +20,33 @@ import java.util.logging.Logger;
 })
 public class BidNotificationMDB implements MessageListener {
 
-    private static final Logger logger = Logger.getLogger(BidNotificationMDB.class.getName());
+    private static final Log log = Log.get(BidNotificationMDB.class);
 
     @Override
     public void onMessage(Message message) {
-        logger.info("=== BidNotificationMDB.onMessage() CALLED ===");
         try {
-            logger.info("Received bid update message of type: " + message.getClass().getName());
-
             if (message instanceof ObjectMessage) {
-                ObjectMessage objectMessage = (ObjectMessage) message;
-                Object obj = objectMessage.getObject();
-                logger.info("ObjectMessage contains: " + obj.getClass().getName());
+                Object obj = ((ObjectMessage) message).getObject();
 
                 if (obj instanceof BidUpdateMessage) {
-                    BidUpdateMessage bidUpdate = (BidUpdateMessage) obj;
-                    logger.info("Processing BidUpdateMessage: " + bidUpdate.toString());
-                    handleBidUpdate(bidUpdate);
+                    handleBidUpdate((BidUpdateMessage) obj);
                 } else {
-                    logger.warning("Received unexpected message type: " + obj.getClass().getName());
+                    log.warn("Received unexpected message type: {}", obj == null ? null : obj.getClass().getName());
                 }
             } else {
-                logger.warning("Received non-ObjectMessage: " + message.getClass().getName());
+                log.warn("Received non-ObjectMessage: {}", message.getClass().getName());
             }
 
         } catch (JMSException e) {
-            logger.severe("Error processing bid update message: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error processing bid update message", e);
         } catch (Exception e) {
-            logger.severe("Unexpected error processing message: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Unexpected error processing message", e);
         }
-        logger.info("=== BidNotificationMDB.onMessage() COMPLETED ===");
     }
 
     private void handleBidUpdate(BidUpdateMessage bidUpdate) {
-        logger.info("=== handleBidUpdate() START ===");
-        logger.info("Processing bid update: " + bidUpdate.toString());
+        log.debug("Processing bid update for auction {}: bid {} of ${} by {}", bidUpdate.getAuctionId(),
+                bidUpdate.getBidId(), bidUpdate.getBidAmount(), bidUpdate.getBidderUsername());
 
         // 1. Send REAL WebSocket notifications
         sendRealTimeNotification(bidUpdate);
@@ -66,41 +56,30 @@ public class BidNotificationMDB implements MessageListener {
 
         // 3. Log analytics
         simulateAnalyticsLogging(bidUpdate);
-
-        logger.info("=== handleBidUpdate() END ===");
     }
 
     private void sendRealTimeNotification(BidUpdateMessage bidUpdate) {
-        logger.info("=== sendRealTimeNotification() START ===");
         try {
-            // Log WebSocket session status
-            AuctionWebSocketEndpoint.logAllSessions();
-
-            // Get active session count
-            int activeConnections = AuctionWebSocketEndpoint.getActiveSessionCount(bidUpdate.getAuctionId());
-
-            logger.info(String.format("REAL-TIME PUSH: Broadcasting to %d WebSocket connections for auction %d - New bid $%.2f by %s",
-                    activeConnections, bidUpdate.getAuctionId(), bidUpdate.getBidAmount(), bidUpdate.getBidderUsername()));
-
             // Broadcast to all connected WebSocket clients
             AuctionWebSocketEndpoint.broadcastBidUpdate(bidUpdate);
 
-            logger.info("WebSocket broadcast completed");
+            // Soft-close: let viewers move their countdown along with the auction
+            if (bidUpdate.isEndTimeExtended()) {
+                AuctionWebSocketEndpoint.broadcastEndTimeChanged(bidUpdate.getAuctionId(),
+                        bidUpdate.getAuctionEndTime());
+            }
 
         } catch (Exception e) {
-            logger.severe("Failed to send real-time WebSocket notification: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to send real-time WebSocket notification", e);
         }
-        logger.info("=== sendRealTimeNotification() END ===");
     }
 
     private void simulateEmailNotification(BidUpdateMessage bidUpdate) {
-        logger.info(String.format("EMAIL NOTIFICATION: Previous bidders notified for auction %d",
-                bidUpdate.getAuctionId()));
+        log.debug("EMAIL NOTIFICATION: Previous bidders notified for auction {}", bidUpdate.getAuctionId());
     }
 
     private void simulateAnalyticsLogging(BidUpdateMessage bidUpdate) {
-        logger.info(String.format("ANALYTICS: Bid event - Auction: %d, Amount: $%.2f, Time: %s",
-                bidUpdate.getAuctionId(), bidUpdate.getBidAmount(), bidUpdate.getBidTime()));
+        log.debug("ANALYTICS: Bid event - Auction: {}, Amount: ${}, Time: {}",
+                bidUpdate.getAuctionId(), bidUpdate.getBidAmount(), bidUpdate.getBidTime());
     }
-}
\ No newline at end of file
+}
@@ -2,22 +2,24 @@ package com.auction.ejb;
 
 import com.auction.entity.Auction;
 import com.auction.entity.Bid;
+import com.auction.dto.BidResult;
 import com.auction.dto.BidUpdateMessage;
+import com.auction.logging.Log;
 import jakarta.ejb.*;
 import jakarta.annotation.Resource;
 import jakarta.jms.*;
 
 import java.io.Serializable;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.logging.Logger;
 
 @Stateless
 @Remote(BidServiceRemote.class)
 public class BidServiceBean implements BidServiceRemote {
 
-    private static final Logger logger = Logger.getLogger(BidServiceBean.class.getName());
+    private static final Log log = Log.get(BidServiceBean.class);
     private static final double MIN_BID_INCREMENT = 5.0;
 
     // Fixed JNDI resource mappings for GlassFish
@@ -29,40 +31,57 @@ public class BidServiceBean implements BidServiceRemote {
 
     @Override
     public boolean placeBid(Long auctionId, String username, double bidAmount) {
-        logger.info(String.format("Placing bid for auction %d by user %s: $%.2f",
-                auctionId, username, bidAmount));
+        return submitBid(auctionId, username, bidAmount).isAccepted();
+    }
+
+    @Override
+    public BidResult submitBid(Long auctionId, String username, double bidAmount) {
+        log.debug("Placing bid for auction {} by user {}: ${}", auctionId, username, bidAmount);
 
         // Get auction from AuctionServiceBean's storage
         ConcurrentHashMap<Long, Auction> auctions = AuctionServiceBean.getAuctions();
         Auction auction = auctions.get(auctionId);
 
         if (auction == null) {
-            logger.warning("Auction not found: " + auctionId);
-            return false;
+            log.debug("Bid rejected, auction not found: {}", auctionId);
+            return new BidResult(BidResult.Status.AUCTION_NOT_FOUND, auctionId, bidAmount);
         }
 
         if (!auction.isActive()) {
-            logger.warning("Auction is not active: " + auctionId);
-            return false;
+            log.debug("Bid rejected, auction is not active: {}", auctionId);
+            return rejected(BidResult.Status.AUCTION_CLOSED, auction, bidAmount);
         }
 
         // Validate bid amount
         if (!validateBid(auctionId, bidAmount)) {
-            logger.warning("Invalid bid amount: " + bidAmount);
-            return false;
+            log.debug("Bid rejected, amount too low: {} on auction {}", bidAmount, auctionId);
+            return rejected(BidResult.Status.BID_TOO_LOW, auction, bidAmount);
         }
 
         // Thread-safe bid placement
+        long journalSequence;
+        BidResult result;
+        BidUpdateMessage update;
         synchronized (auction) {
             // Double-check validation inside synchronized block
             if (bidAmount <= auction.getCurrentHighestBid()) {
-                return false;
+                return rejected(BidResult.Status.BID_TOO_LOW, auction, bidAmount);
+            }
+
+            // The expiry timer may have closed the auction while we waited for the monitor
+            if (!auction.isActive()) {
+                return rejected(BidResult.Status.AUCTION_CLOSED, auction, bidAmount);
             }
 
             // Create new bid
             Long bidId = auction.getNextBidId();
             Bid newBid = new Bid(bidId, auctionId, username, bidAmount);
 
+            if (newBid.getBidTime().isAfter(auction.getEndTime())) {
+                log.debug("Bid rejected, arrived after auction end time: {}", auctionId);
+                return rejected(BidResult.Status.AUCTION_CLOSED, auction, bidAmount);
+            }
+
             // Update auction with new highest bid
             auction.setCurrentHighestBid(bidAmount);
             auction.setCurrentHighestBidder(username);
@@ -74,18 +93,54 @@ public class BidServiceBean implements BidServiceRemote {
             auction.getBids().values().forEach(bid -> bid.setWinning(false));
             newBid.setWinning(true);
 
-            logger.info("Bid placed successfully: " + bidId);
-
-            // Send JMS notification (with error handling)
-            try {
-                sendBidUpdateNotification(auction, newBid);
-            } catch (Exception e) {
-                logger.warning("Failed to send JMS notification, but bid was placed: " + e.getMessage());
-                // Don't fail the bid placement if JMS fails
+            // Anti-sniping: a bid in the closing window extends the auction; the expiry
+            // timer picks up the new end time when it next fires
+            boolean extended = auction.applySoftClose(newBid.getBidTime());
+            if (extended) {
+                log.info("Soft-close extended auction {} to {}", auctionId, auction.getEndTime());
             }
 
-            return true;
+            // The bid map changed outside the setters; publish a new version for cached DTOs
+            auction.markModified();
+
+            // Journal under the monitor so replay sees bids in the order they were accepted
+            journalSequence = AuctionServiceBean.recordBidAccepted(auction, newBid);
+
+            log.info("Bid {} placed on auction {} by {}: ${}", bidId, auctionId, username, bidAmount);
+            result = describe(new BidResult(BidResult.Status.ACCEPTED, auctionId, bidAmount), auction);
+            result.setBidId(bidId);
+            result.setEndTimeExtended(extended);
+
+            // Snapshot the auction for the notification while it is consistent
+            update = bidUpdateMessage(auction, newBid, extended);
+        }
+
+        // Acknowledge, and tell the watchers, only once the bid is as durable as the journal's
+        // fsync policy requires
+        AuctionServiceBean.commitJournal(journalSequence);
+
+        // Send JMS notification (with error handling)
+        try {
+            sendBidUpdateNotification(update);
+        } catch (Exception e) {
+            log.warn("Failed to send JMS notification, but bid was placed: {}", e.getMessage());
+            // Don't fail the bid placement if JMS fails
         }
+        return result;
+    }
+
+    private BidResult rejected(BidResult.Status status, Auction auction, double bidAmount) {
+        return describe(new BidResult(status, auction.getAuctionId(), bidAmount), auction);
+    }
+
+    // Current auction state, so a rejected bidder learns the amount to beat
+    private BidResult describe(BidResult result, Auction auction) {
+        result.setCurrentHighestBid(auction.getCurrentHighestBid());
+        result.setCurrentHighestBidder(auction.getCurrentHighestBidder());
+        result.setMinimumNextBid(auction.getCurrentHighestBid() + MIN_BID_INCREMENT);
+        result.setAuctionEndTime(auction.getEndTime());
+        result.setAuctionVersion(auction.getVersion());
+        return result;
     }
 
     @Override
@@ -98,7 +153,8 @@ public class BidServiceBean implements BidServiceRemote {
         }
 
         return auction.getBids().values().stream()
-                .sorted((b1, b2) -> b2.getBidTime().compareTo(b1.getBidTime()))
+                // Bid ids break ties between bids stamped in the same clock tick
+                .sorted(Comparator.comparing(Bid::getBidTime).thenComparing(Bid::getBidId).reversed())
                 .collect(Collectors.toList());
     }
 
@@ -138,15 +194,32 @@ public class BidServiceBean implements BidServiceRemote {
         return auction != null ? auction.getBids().size() : 0;
     }
 
-    private void sendBidUpdateNotification(Auction auction, Bid newBid) {
+    // Caller holds the auction monitor
+    private static BidUpdateMessage bidUpdateMessage(Auction auction, Bid newBid, boolean endTimeExtended) {
+        BidUpdateMessage updateMessage = new BidUpdateMessage(
+                auction.getAuctionId(),
+                auction.getTitle(),
+                newBid.getBidAmount(),
+                newBid.getBidderUsername(),
+                newBid.getBidTime()
+        );
+        updateMessage.setAuctionEndTime(auction.getEndTime());
+        updateMessage.setEndTimeExtended(endTimeExtended);
+        updateMessage.setAuctionVersion(auction.getVersion());
+        updateMessage.setBidId(newBid.getBidId());
+        updateMessage.setBidCount(auction.getBids().size());
+        return updateMessage;
+    }
+
+    private void sendBidUpdateNotification(BidUpdateMessage updateMessage) {
         try {
             if (connectionFactory == null) {
-                logger.warning("ConnectionFactory is null, JMS notification skipped");
+                log.warn("ConnectionFactory is null, JMS notification skipped");
                 return;
             }
 
             if (bidUpdatesTopic == null) {
-                logger.warning("BidUpdates topic is null, JMS notification skipped");
+                log.warn("BidUpdates topic is null, JMS notification skipped");
                 return;
             }
 
@@ -155,23 +228,15 @@ public class BidServiceBean implements BidServiceRemote {
 
                 MessageProducer producer = session.createProducer(bidUpdatesTopic);
 
-                BidUpdateMessage updateMessage = new BidUpdateMessage(
-                        auction.getAuctionId(),
-                        auction.getTitle(),
-                        newBid.getBidAmount(),
-                        newBid.getBidderUsername(),
-                        newBid.getBidTime()
-                );
-
                 ObjectMessage message = session.createObjectMessage(updateMessage);
-                message.setStringProperty("auctionId", auction.getAuctionId().toString());
+                message.setStringProperty("auctionId", updateMessage.getAuctionId().toString());
 
                 producer.send(message);
-                logger.info("Bid update notification sent for auction: " + auction.getAuctionId());
+                log.debug("Bid update notification sent for auction: {}", updateMessage.getAuctionId());
 
             }
         } catch (JMSException e) {
-            logger.warning("Failed to send bid update notification: " + e.getMessage());
+            log.warn("Failed to send bid update notification: {}", e.getMessage());
             // Don't rethrow - bid placement should succeed even if notification fails
         }
     }
@@ -1,5 +1,6 @@
 package com.auction.ejb;
 
+import com.auction.dto.BidResult;
 import com.auction.entity.Bid;
 import jakarta.ejb.Remote;
 
@@ -9,6 +10,8 @@ import java.util.List;
 @Remote
 public interface BidServiceRemote {
     boolean placeBid(Long auctionId, String username, double bidAmount);
+    // Like placeBid, but reports why a bid was rejected and the auction state it was judged on
+    BidResult submitBid(Long auctionId, String username, double bidAmount);
     List<Bid> getBidsForAuction(Long auctionId);
     Serializable getHighestBid(Long auctionId);
     boolean validateBid(Long auctionId, double bidAmount);
@@ -2,6 +2,9 @@ package com.auction.ejb;
 
 import com.auction.entity.User;
 import com.auction.entity.Auction;
+import com.auction.logging.Log;
+import com.auction.persistence.WriteBehindStore;
+import com.auction.time.Clocks;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.ejb.*;
@@ -10,14 +13,13 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.logging.Logger;
 
 @Stateful
 @Remote(UserServiceRemote.class)
 @StatefulTimeout(value = 7, unit = TimeUnit.DAYS) // Keeps bean alive for 7 days of inactivity
 public class UserServiceBean implements UserServiceRemote {
 
-    private static final Logger logger = Logger.getLogger(UserServiceBean.class.getName());
+    private static final Log log = Log.get(UserServiceBean.class);
 
     // In-memory storage for demonstration (thread-safe)
     private static final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
@@ -28,8 +30,11 @@ public class UserServiceBean implements UserServiceRemote {
 
     @PostConstruct
     public void init() {
-        sessionStartTime = LocalDateTime.now();
-        logger.info("User service session initialized at: " + sessionStartTime);
+        sessionStartTime = Clocks.now();
+        log.info("User service session initialized at: {}", sessionStartTime);
+
+        // Users saved in the latest snapshot come back before sample data is considered
+        AuctionStateRecovery.recoverOnce();
 
         // Initialize with sample users if empty
         if (users.isEmpty()) {
@@ -39,7 +44,7 @@ public class UserServiceBean implements UserServiceRemote {
 
     @PreDestroy
     public void cleanup() {
-        logger.info("User service session ending for user: " + currentUsername);
+        log.info("User service session ending for user: {}", currentUsername);
         if (currentUsername != null) {
             updateUserActivity(currentUsername);
         }
@@ -47,41 +52,42 @@ public class UserServiceBean implements UserServiceRemote {
 
     @Override
     public User registerUser(String username, String email, String password) {
-        logger.info("Registering new user: " + username);
+        log.info("Registering new user: {}", username);
 
         if (users.containsKey(username)) {
-            logger.warning("User already exists: " + username);
+            log.warn("User already exists: {}", username);
             return null;
         }
 
         // Validate password
         if (password == null || password.trim().length() < 4) {
-            logger.warning("Password too short for user: " + username);
+            log.warn("Password too short for user: {}", username);
             return null;
         }
 
         User newUser = new User(username, email, password);
         users.put(username, newUser);
+        markUserChanged(username);
 
         // Set current session user
         this.currentUsername = username;
 
-        logger.info("User registered successfully: " + username);
+        log.info("User registered successfully: {}", username);
         return newUser;
     }
 
     @Override
     public User getUserByUsername(String username) {
-        logger.info("Retrieving user: " + username);
+        log.debug("Retrieving user: {}", username);
         return users.get(username);
     }
 
     @Override
     public boolean authenticateUser(String username, String password) {
-        logger.info("Authenticating user: " + username);
+        log.debug("Authenticating user: {}", username);
 
         if (username == null || password == null) {
-            logger.warning("Username or password is null");
+            log.warn("Username or password is null");
             return false;
         }
 
@@ -89,11 +95,11 @@ public class UserServiceBean implements UserServiceRemote {
         if (user != null && user.isActive() && user.verifyPassword(password)) {
             this.currentUsername = username;
             updateUserActivity(username);
-            logger.info("User authenticated successfully: " + username);
+            log.info("User authenticated successfully: {}", username);
             return true;
         }
 
-        logger.warning("Authentication failed for user: " + username);
+        log.warn("Authentication failed for user: {}", username);
         return false;
     }
 
@@ -105,7 +111,7 @@ public class UserServiceBean implements UserServiceRemote {
 
     @Override
     public List<User> getAllActiveUsers() {
-        logger.info("Retrieving all active users");
+        log.debug("Retrieving all active users");
 
         return users.values().stream()
                 .filter(User::isActive)
@@ -116,8 +122,9 @@ public class UserServiceBean implements UserServiceRemote {
     public boolean updateUserActivity(String username) {
         User user = users.get(username);
         if (user != null) {
-            user.setLastActivity(LocalDateTime.now());
-            logger.info("Updated activity for user: " + username);
+            user.setLastActivityMillis(Clocks.millis());
+            markUserChanged(username);
+            log.debug("Updated activity for user: {}", username);
             return true;
         }
         return false;
@@ -125,12 +132,13 @@ public class UserServiceBean implements UserServiceRemote {
 
     @Override
     public boolean deactivateUser(String username) {
-        logger.info("Deactivating user: " + username);
+        log.info("Deactivating user: {}", username);
 
         User user = users.get(username);
         if (user != null) {
             user.setActive(false);
-            logger.info("User deactivated: " + username);
+            markUserChanged(username);
+            log.info("User deactivated: {}", username);
             return true;
         }
         return false;
@@ -145,7 +153,7 @@ public class UserServiceBean implements UserServiceRemote {
 
     @Override
     public List<User> getUsersInAuction(Long auctionId) {
-        logger.info("Getting users participating in auction: " + auctionId);
+        log.debug("Getting users participating in auction: {}", auctionId);
 
         // Get auction and extract bidders
         var auctions = AuctionServiceBean.getAuctions();
@@ -165,35 +173,37 @@ public class UserServiceBean implements UserServiceRemote {
 
     @Override
     public boolean changePassword(String username, String oldPassword, String newPassword) {
-        logger.info("Changing password for user: " + username);
+        log.info("Changing password for user: {}", username);
 
         User user = users.get(username);
         if (user != null && user.verifyPassword(oldPassword)) {
             if (newPassword != null && newPassword.trim().length() >= 4) {
                 user.setPassword(newPassword);
-                logger.info("Password changed successfully for user: " + username);
+                markUserChanged(username);
+                log.info("Password changed successfully for user: {}", username);
                 return true;
             } else {
-                logger.warning("New password too short for user: " + username);
+                log.warn("New password too short for user: {}", username);
             }
         } else {
-            logger.warning("Old password verification failed for user: " + username);
+            log.warn("Old password verification failed for user: {}", username);
         }
         return false;
     }
 
     @Override
     public boolean resetPassword(String username, String newPassword) {
-        logger.info("Resetting password for user: " + username);
+        log.info("Resetting password for user: {}", username);
 
         User user = users.get(username);
         if (user != null) {
             if (newPassword != null && newPassword.trim().length() >= 4) {
                 user.setPassword(newPassword);
-                logger.info("Password reset successfully for user: " + username);
+                markUserChanged(username);
+                log.info("Password reset successfully for user: {}", username);
                 return true;
             } else {
-                logger.warning("New password too short for user: " + username);
+                log.warn("New password too short for user: {}", username);
             }
         }
         return false;
@@ -209,14 +219,15 @@ public class UserServiceBean implements UserServiceRemote {
     }
 
     public long getSessionDurationMinutes() {
-        return java.time.Duration.between(sessionStartTime, LocalDateTime.now()).toMinutes();
+        return java.time.Duration.between(sessionStartTime, Clocks.now()).toMinutes();
     }
 
     private void createSampleUsers() {
         // Create admin user first
         User adminUser = new User("admin@auction.com", "admin@auction.com", "11010001", true);
         users.put("admin@auction.com", adminUser);
-        logger.info("Admin user created: admin@auction.com");
+        markUserChanged(adminUser.getUsername());
+        log.info("Admin user created: admin@auction.com");
 
         // Create sample users for testing with default password "1234"
         registerUser("john_doe", "john@example.com", "1234");
@@ -227,8 +238,16 @@ public class UserServiceBean implements UserServiceRemote {
         // Reset the current username after creating samples
         this.currentUsername = null;
 
-        logger.info("Sample users created with default password '1234'");
-        logger.info("Admin user created with email: admin@auction.com and password: 11010001");
+        log.info("Sample users created with default password '1234'");
+        log.info("Admin user created with email: admin@auction.com and password: 11010001");
+    }
+
+    // Queue the user row for the write-behind store, if one is configured
+    private static void markUserChanged(String username) {
+        WriteBehindStore store = AuctionServiceBean.getWriteBehind();
+        if (store != null) {
+            store.userChanged(username);
+        }
     }
 
     // Package-private method for accessing users (used by other EJBs)
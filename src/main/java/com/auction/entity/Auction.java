@@ -1,25 +1,45 @@
 package com.auction.entity;
 
+import com.auction.time.Clocks;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+// JPA mappings are used only by the optional write-behind store (com.auction.persistence);
+// transient fields are in-memory bookkeeping and are not persisted
+@Entity
+@Table(name = "AUCTIONS")
 public class Auction implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    public static final int DEFAULT_SOFT_CLOSE_WINDOW_SECONDS = 30;
+    public static final int DEFAULT_SOFT_CLOSE_EXTENSION_SECONDS = 30;
+
     // Existing fields
+    @Id
     private Long auctionId;
     private String title;
+    @Column(length = 4000)
     private String description;
     private double startingPrice;
     private double currentHighestBid;
     private String currentHighestBidder;
     private LocalDateTime startTime;
-    private LocalDateTime endTime;
+    private volatile LocalDateTime endTime; // moved by soft-close extensions while readers poll it
     private boolean active;
 
     // NEW FIELDS for auction history management
+    @Enumerated(EnumType.STRING)
     private AuctionStatus status;
     private LocalDateTime completedTime;
     private String winnerUsername;
@@ -27,6 +47,20 @@ public class Auction implements Serializable {
     private int totalBidsCount;
     private String endReason; // "EXPIRED", "MANUAL_CLOSE", "CANCELLED"
 
+    // Soft-close (anti-sniping) rule: a bid placed inside the last
+    // softCloseWindowSeconds pushes endTime out by softCloseExtensionSeconds.
+    // A window or extension of 0 disables the rule for this auction.
+    private int softCloseWindowSeconds;
+    private int softCloseExtensionSeconds;
+    private int extensionCount;
+
+    // Mutation version, bumped after every change visible through AuctionDTO so readers can
+    // cache a snapshot per version. Bump after mutating: a reader that sees the new version
+    // then also sees the change.
+    private transient volatile long version;
+    private static final AtomicLongFieldUpdater<Auction> VERSION =
+            AtomicLongFieldUpdater.newUpdater(Auction.class, "version");
+
     // Remove non-serializable fields from main class
     private transient AtomicLong bidCounter;
     private transient ConcurrentHashMap<Long, Bid> bids;
@@ -53,6 +87,8 @@ public class Auction implements Serializable {
         this.status = AuctionStatus.ACTIVE;
         this.endReason = null;
         this.completedTime = null;
+        this.softCloseWindowSeconds = DEFAULT_SOFT_CLOSE_WINDOW_SECONDS;
+        this.softCloseExtensionSeconds = DEFAULT_SOFT_CLOSE_EXTENSION_SECONDS;
         initializeTransientFields();
     }
 
@@ -63,7 +99,7 @@ public class Auction implements Serializable {
         this.description = description;
         this.startingPrice = startingPrice;
         this.currentHighestBid = startingPrice;
-        this.startTime = LocalDateTime.now();
+        this.startTime = Clocks.now();
         this.endTime = endTime;
         this.active = true;
         this.status = AuctionStatus.ACTIVE;
@@ -72,6 +108,8 @@ public class Auction implements Serializable {
         this.totalBidsCount = 0;
         this.winnerUsername = null;
         this.winningBid = startingPrice;
+        this.softCloseWindowSeconds = DEFAULT_SOFT_CLOSE_WINDOW_SECONDS;
+        this.softCloseExtensionSeconds = DEFAULT_SOFT_CLOSE_EXTENSION_SECONDS;
         initializeTransientFields();
     }
 
@@ -88,7 +126,7 @@ public class Auction implements Serializable {
     // Method to complete auction
     public void completeAuction(String reason) {
         this.active = false;
-        this.completedTime = LocalDateTime.now();
+        this.completedTime = Clocks.now();
         this.endReason = reason;
         this.winnerUsername = this.currentHighestBidder;
         this.winningBid = this.currentHighestBid;
@@ -105,8 +143,49 @@ public class Auction implements Serializable {
             default:
                 this.status = AuctionStatus.ENDED;
         }
+        markModified();
     }
 
+    /**
+     * Applies the soft-close rule for a bid accepted at {@code bidTime}.
+     * Callers must hold the auction monitor, as BidServiceBean does when placing bids.
+     *
+     * @return true if endTime was extended
+     */
+    public boolean applySoftClose(LocalDateTime bidTime) {
+        if (softCloseWindowSeconds <= 0 || softCloseExtensionSeconds <= 0 || endTime == null) {
+            return false;
+        }
+        if (bidTime.isBefore(endTime.minusSeconds(softCloseWindowSeconds))) {
+            return false;
+        }
+        this.endTime = endTime.plusSeconds(softCloseExtensionSeconds);
+        this.extensionCount++;
+        markModified();
+        return true;
+    }
+
+    /**
+     * Re-applies a bid recovered from the journal. The bid is trusted as the new highest bid
+     * (the journal only records accepted bids) and the bid counter is advanced past its id.
+     */
+    public void restoreBid(Bid bid) {
+        getBids().put(bid.getBidId(), bid);
+        bidCounter.accumulateAndGet(bid.getBidId(), Math::max);
+        this.currentHighestBid = bid.getBidAmount();
+        this.currentHighestBidder = bid.getBidderUsername();
+        markModified();
+    }
+
+    /**
+     * Records a change made outside the setters, such as adding to {@link #getBids()}.
+     */
+    public void markModified() {
+        VERSION.incrementAndGet(this);
+    }
+
+    public long getVersion() { return version; }
+
     // Check if auction has a winner
     public boolean hasWinner() {
         return winnerUsername != null && !winnerUsername.trim().isEmpty();
@@ -128,42 +207,44 @@ public class Auction implements Serializable {
 
     // Existing getters and setters...
     public Long getAuctionId() { return auctionId; }
-    public void setAuctionId(Long auctionId) { this.auctionId = auctionId; }
+    public void setAuctionId(Long auctionId) { this.auctionId = auctionId; markModified(); }
 
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) { this.title = title; markModified(); }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) { this.description = description; markModified(); }
 
     public double getStartingPrice() { return startingPrice; }
-    public void setStartingPrice(double startingPrice) { this.startingPrice = startingPrice; }
+    public void setStartingPrice(double startingPrice) { this.startingPrice = startingPrice; markModified(); }
 
     public double getCurrentHighestBid() { return currentHighestBid; }
     public void setCurrentHighestBid(double currentHighestBid) {
         this.currentHighestBid = currentHighestBid;
+        markModified();
     }
 
     public String getCurrentHighestBidder() { return currentHighestBidder; }
     public void setCurrentHighestBidder(String currentHighestBidder) {
         this.currentHighestBidder = currentHighestBidder;
+        markModified();
     }
 
     public LocalDateTime getStartTime() { return startTime; }
-    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; markModified(); }
 
     public LocalDateTime getEndTime() { return endTime; }
-    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; markModified(); }
 
     public boolean isActive() { return active; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) { this.active = active; markModified(); }
 
     public ConcurrentHashMap<Long, Bid> getBids() {
         if (bids == null) initializeTransientFields();
         return bids;
     }
 
-    public void setBids(ConcurrentHashMap<Long, Bid> bids) { this.bids = bids; }
+    public void setBids(ConcurrentHashMap<Long, Bid> bids) { this.bids = bids; markModified(); }
 
     public long getNextBidId() {
         if (bidCounter == null) initializeTransientFields();
@@ -172,22 +253,38 @@ public class Auction implements Serializable {
 
     // NEW GETTERS AND SETTERS for history fields
     public AuctionStatus getStatus() { return status; }
-    public void setStatus(AuctionStatus status) { this.status = status; }
+    public void setStatus(AuctionStatus status) { this.status = status; markModified(); }
 
     public LocalDateTime getCompletedTime() { return completedTime; }
-    public void setCompletedTime(LocalDateTime completedTime) { this.completedTime = completedTime; }
+    public void setCompletedTime(LocalDateTime completedTime) { this.completedTime = completedTime; markModified(); }
 
     public String getWinnerUsername() { return winnerUsername; }
-    public void setWinnerUsername(String winnerUsername) { this.winnerUsername = winnerUsername; }
+    public void setWinnerUsername(String winnerUsername) { this.winnerUsername = winnerUsername; markModified(); }
 
     public double getWinningBid() { return winningBid; }
-    public void setWinningBid(double winningBid) { this.winningBid = winningBid; }
+    public void setWinningBid(double winningBid) { this.winningBid = winningBid; markModified(); }
 
     public int getTotalBidsCount() {
         return this.bids != null ? this.bids.size() : this.totalBidsCount;
     }
-    public void setTotalBidsCount(int totalBidsCount) { this.totalBidsCount = totalBidsCount; }
+    public void setTotalBidsCount(int totalBidsCount) { this.totalBidsCount = totalBidsCount; markModified(); }
 
     public String getEndReason() { return endReason; }
-    public void setEndReason(String endReason) { this.endReason = endReason; }
+    public void setEndReason(String endReason) { this.endReason = endReason; markModified(); }
+
+    // Soft-close configuration
+    public int getSoftCloseWindowSeconds() { return softCloseWindowSeconds; }
+    public void setSoftCloseWindowSeconds(int softCloseWindowSeconds) {
+        this.softCloseWindowSeconds = softCloseWindowSeconds;
+        markModified();
+    }
+
+    public int getSoftCloseExtensionSeconds() { return softCloseExtensionSeconds; }
+    public void setSoftCloseExtensionSeconds(int softCloseExtensionSeconds) {
+        this.softCloseExtensionSeconds = softCloseExtensionSeconds;
+        markModified();
+    }
+
+    public int getExtensionCount() { return extensionCount; }
+    public void setExtensionCount(int extensionCount) { this.extensionCount = extensionCount; markModified(); }
 }
\ No newline at end of file
@@ -1,16 +1,31 @@
 package com.auction.entity;
 
+import com.auction.time.Clocks;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+// Bid ids are only unique within their auction, hence the composite key
+@Entity
+@Table(name = "BIDS")
+@IdClass(BidKey.class)
 public class Bid implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    @Id
     private Long bidId;
+    @Id
     private Long auctionId;
     private String bidderUsername;
     private double bidAmount;
     private LocalDateTime bidTime;
+    @Column(name = "WINNING")
     private boolean isWinning;
 
     public Bid() {}
@@ -21,7 +36,7 @@ public class Bid implements Serializable {
         this.auctionId = auctionId;
         this.bidderUsername = bidderUsername;
         this.bidAmount = bidAmount;
-        this.bidTime = LocalDateTime.now();
+        this.bidTime = Clocks.now();
         this.isWinning = false;
     }
 
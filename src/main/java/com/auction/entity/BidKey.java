@@ -0,0 +1,35 @@
+package com.auction.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Composite primary key of Bid: (auctionId, bidId)
+public class BidKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long auctionId;
+    private Long bidId;
+
+    public BidKey() {}
+
+    public BidKey(Long auctionId, Long bidId) {
+        this.auctionId = auctionId;
+        this.bidId = bidId;
+    }
+
+    public Long getAuctionId() { return auctionId; }
+    public Long getBidId() { return bidId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BidKey)) return false;
+        BidKey other = (BidKey) o;
+        return Objects.equals(auctionId, other.auctionId) && Objects.equals(bidId, other.bidId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(auctionId, bidId);
+    }
+}
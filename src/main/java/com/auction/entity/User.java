@@ -1,19 +1,33 @@
 package com.auction.entity;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import com.auction.time.Timestamps;
+import com.auction.time.Clocks;
+
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 
+// USER is a reserved word in several databases
+@Entity
+@Table(name = "AUCTION_USERS")
 public class User implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    @Id
     private String username;
     private String email;
     private String passwordHash;
-    private LocalDateTime lastActivity;
+    // Epoch milliseconds, 0 if never set; rewritten on every login
+    private long lastActivity;
     private boolean active;
+    @Column(name = "ADMIN")
     private boolean isAdmin;  // New admin flag
 
     public User() {}
@@ -21,7 +35,7 @@ public class User implements Serializable {
     public User(String username, String email) {
         this.username = username;
         this.email = email;
-        this.lastActivity = LocalDateTime.now();
+        this.lastActivity = Clocks.millis();
         this.active = true;
         this.isAdmin = false;
         // Default password for sample users
@@ -31,7 +45,7 @@ public class User implements Serializable {
     public User(String username, String email, String password) {
         this.username = username;
         this.email = email;
-        this.lastActivity = LocalDateTime.now();
+        this.lastActivity = Clocks.millis();
         this.active = true;
         this.isAdmin = false;
         this.passwordHash = hashPassword(password);
@@ -40,7 +54,7 @@ public class User implements Serializable {
     public User(String username, String email, String password, boolean isAdmin) {
         this.username = username;
         this.email = email;
-        this.lastActivity = LocalDateTime.now();
+        this.lastActivity = Clocks.millis();
         this.active = true;
         this.isAdmin = isAdmin;
         this.passwordHash = hashPassword(password);
@@ -77,8 +91,15 @@ public class User implements Serializable {
     public String getPasswordHash() { return passwordHash; }
     public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
 
-    public LocalDateTime getLastActivity() { return lastActivity; }
-    public void setLastActivity(LocalDateTime lastActivity) { this.lastActivity = lastActivity; }
+    public long getLastActivityMillis() { return lastActivity; }
+    public void setLastActivityMillis(long lastActivity) { this.lastActivity = lastActivity; }
+
+    public LocalDateTime getLastActivity() {
+        return lastActivity != 0 ? Timestamps.toLocalDateTime(lastActivity) : null;
+    }
+    public void setLastActivity(LocalDateTime lastActivity) {
+        this.lastActivity = lastActivity != null ? Timestamps.toEpochMillis(lastActivity) : 0;
+    }
 
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
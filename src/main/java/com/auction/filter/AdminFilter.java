@@ -38,12 +38,13 @@ public class AdminFilter implements Filter {
             username = (String) httpSession.getAttribute("username");
         }
 
-        // Check if user is logged in and session is valid
-        if (sessionToken != null && sessionManager.isSessionValid(sessionToken) && username != null) {
+        // Check if user is logged in and session is valid for this client; the order of
+        // annotated filters is unspecified, so this does not rely on SessionFilter having run
+        if (sessionToken != null && username != null
+                && sessionManager.validateAndTouch(sessionToken, SessionFilter.getClientIpAddress(httpRequest),
+                        httpRequest.getHeader("User-Agent")).isValid()) {
             // Check if user is admin
             if (userService.isUserAdmin(username)) {
-                // Update session activity
-                sessionManager.updateSessionActivity(sessionToken);
                 chain.doFilter(request, response);
                 return;
             } else {
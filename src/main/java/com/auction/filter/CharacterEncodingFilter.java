@@ -1,10 +1,12 @@
 package com.auction.filter;
 
+import com.auction.logging.AccessLog;
 import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @WebFilter(filterName = "CharacterEncodingFilter", urlPatterns = {"/*"})
@@ -13,6 +15,9 @@ public class CharacterEncodingFilter implements Filter {
     private static final Logger logger = Logger.getLogger(CharacterEncodingFilter.class.getName());
     private String encoding = "UTF-8";
 
+    // Requests are logged asynchronously; null when disabled
+    private static volatile AccessLog accessLog;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         logger.info("Initializing CharacterEncodingFilter");
@@ -23,6 +28,19 @@ public class CharacterEncodingFilter implements Filter {
         }
 
         logger.info("Character encoding set to: " + this.encoding);
+
+        try {
+            accessLog = AccessLog.fromSystemProperties();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Access log disabled: could not open it", e);
+        }
+    }
+
+    /**
+     * The access log requests are recorded in, or null if it is disabled.
+     */
+    public static AccessLog getAccessLog() {
+        return accessLog;
     }
 
     @Override
@@ -46,23 +64,31 @@ public class CharacterEncodingFilter implements Filter {
         httpResponse.setHeader("X-Frame-Options", "DENY");
         httpResponse.setHeader("X-XSS-Protection", "1; mode=block");
 
-        // Log request details for debugging
-        logger.info(String.format("Processing request: %s %s from %s",
-                httpRequest.getMethod(),
-                httpRequest.getRequestURI(),
-                httpRequest.getRemoteAddr()));
-
-        // Continue with the filter chain
-        chain.doFilter(request, response);
+        AccessLog log = accessLog;
+        if (log == null) {
+            chain.doFilter(request, response);
+            return;
+        }
 
-        // Log response status
-        logger.info(String.format("Response status: %d for %s",
-                httpResponse.getStatus(),
-                httpRequest.getRequestURI()));
+        long started = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            // Continue with the filter chain
+            chain.doFilter(request, response);
+            status = httpResponse.getStatus();
+        } finally {
+            log.record(System.currentTimeMillis(), httpRequest.getRemoteAddr(), httpRequest.getMethod(),
+                    httpRequest.getRequestURI(), status, System.nanoTime() - started);
+        }
     }
 
     @Override
     public void destroy() {
         logger.info("Destroying CharacterEncodingFilter");
+        AccessLog log = accessLog;
+        if (log != null) {
+            accessLog = null;
+            log.close();
+        }
     }
 }
\ No newline at end of file
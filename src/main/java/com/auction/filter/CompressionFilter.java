@@ -0,0 +1,185 @@
+package com.auction.filter;
+
+import com.auction.servlet.StaticAssets;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip-compresses text responses for clients that accept it.
+ *
+ * Bodies are compressed while they are written, so large pages are not buffered in memory.
+ * Responses below the size threshold, non-200 responses, responses that already carry a
+ * Content-Encoding (cached completed pages, static assets) and content types that are already
+ * compressed (images, archives) are sent unchanged.
+ *
+ * Init parameters: {@code minSize} in bytes (default 1024), {@code level} 1-9 (default 6) and
+ * {@code poolSize}, the number of idle deflaters kept (default twice the processor count).
+ */
+@WebFilter(filterName = "CompressionFilter", urlPatterns = {"/*"})
+public class CompressionFilter implements Filter {
+
+    private static final Logger logger = Logger.getLogger(CompressionFilter.class.getName());
+
+    private static final int DEFAULT_MIN_SIZE = 1024;
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final boolean cpuClock = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+
+    // Metrics shown on the admin status page
+    private static final LongAdder compressedResponses = new LongAdder();
+    private static final LongAdder skippedResponses = new LongAdder();
+    private static final LongAdder uncompressedBytes = new LongAdder();
+    private static final LongAdder compressedBytes = new LongAdder();
+    private static final LongAdder compressionNanos = new LongAdder();
+
+    private static volatile DeflaterPool activePool;
+
+    private int minSize = DEFAULT_MIN_SIZE;
+    private DeflaterPool pool;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        logger.info("Initializing CompressionFilter");
+
+        minSize = intParameter(filterConfig, "minSize", DEFAULT_MIN_SIZE);
+        int level = intParameter(filterConfig, "level", 6);
+        int poolSize = intParameter(filterConfig, "poolSize", Runtime.getRuntime().availableProcessors() * 2);
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new ServletException("Compression level must be between 1 and 9: " + level);
+        }
+        pool = new DeflaterPool(level, Math.max(1, poolSize));
+        activePool = pool;
+
+        logger.info("Compressing responses of at least " + minSize + " bytes at level " + level);
+    }
+
+    private static int intParameter(FilterConfig filterConfig, String name, int defaultValue) throws ServletException {
+        String value = filterConfig.getInitParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletException("Invalid " + name + " for CompressionFilter: " + value);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        // HEAD has no body, and WebSocket upgrades must reach the container unwrapped
+        if ("HEAD".equals(httpRequest.getMethod())
+                || httpRequest.getHeader("Upgrade") != null
+                || !StaticAssets.acceptsGzip(httpRequest.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        GzipResponseWrapper wrapper = new GzipResponseWrapper((HttpServletResponse) response, minSize, pool);
+        try {
+            chain.doFilter(request, wrapper);
+            wrapper.finish();
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        logger.info("Destroying CompressionFilter");
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * True for text-like content types; images, audio, video and archives are already
+     * compressed and only cost CPU to deflate again.
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon);
+        }
+        type = type.trim();
+        return type.startsWith("text/")
+                || type.equals("application/json")
+                || type.equals("application/javascript")
+                || type.equals("application/xml")
+                || type.endsWith("+json")
+                || type.endsWith("+xml");
+    }
+
+    // Thread CPU time where the JVM provides it, wall time otherwise
+    static long cpuTime() {
+        return cpuClock ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    static void recordCompressed(long in, long out, long nanos) {
+        compressedResponses.increment();
+        uncompressedBytes.add(in);
+        compressedBytes.add(out);
+        compressionNanos.add(nanos);
+    }
+
+    static void recordSkipped() {
+        skippedResponses.increment();
+    }
+
+    public static long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /** Responses to gzip-capable clients sent uncompressed (too small, wrong type or status). */
+    public static long getSkippedResponses() {
+        return skippedResponses.sum();
+    }
+
+    public static long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public static long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /** Compressed size as a fraction of the original over all compressed responses; 0 if none. */
+    public static double getCompressionRatio() {
+        long in = uncompressedBytes.sum();
+        return in == 0 ? 0 : (double) compressedBytes.sum() / in;
+    }
+
+    /** CPU time spent deflating, in nanoseconds. */
+    public static long getCompressionCpuNanos() {
+        return compressionNanos.sum();
+    }
+
+    public static long getDeflatersCreated() {
+        DeflaterPool current = activePool;
+        return current != null ? current.getCreated() : 0;
+    }
+
+    static void resetStatistics() {
+        compressedResponses.reset();
+        skippedResponses.reset();
+        uncompressedBytes.reset();
+        compressedBytes.reset();
+        compressionNanos.reset();
+    }
+}
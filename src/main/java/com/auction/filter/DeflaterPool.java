@@ -0,0 +1,60 @@
+package com.auction.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Reusable raw deflaters for the compression filter.
+ *
+ * Every Deflater owns a native zlib stream of a few hundred kilobytes that is only freed by
+ * end() or finalization, so creating one per response churns native memory. The pool keeps a
+ * bounded number of reset deflaters; extras are ended immediately.
+ */
+final class DeflaterPool {
+
+    private final int level;
+    private final ArrayBlockingQueue<Deflater> idle;
+    private final AtomicLong created = new AtomicLong();
+
+    DeflaterPool(int level, int capacity) {
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * An idle deflater, or a new one if all are in use. Raw deflate: the gzip wrapper is
+     * written by the caller.
+     */
+    Deflater borrow() {
+        Deflater deflater = idle.poll();
+        if (deflater == null) {
+            created.incrementAndGet();
+            deflater = new Deflater(level, true);
+        }
+        return deflater;
+    }
+
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /** Ends the idle deflaters; borrowed ones are ended when released to a full pool. */
+    void close() {
+        Deflater deflater;
+        while ((deflater = idle.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    long getCreated() {
+        return created.get();
+    }
+
+    int getIdle() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,367 @@
+package com.auction.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Response wrapper that gzips the body as it is written.
+ *
+ * The first {@code minSize} bytes are held back until the response is known to be at least
+ * that large; smaller responses are sent as they are, with a Content-Length. Once the threshold
+ * is passed the status, content type and headers decide whether the body is compressed, and
+ * everything after that streams straight through a pooled deflater.
+ */
+final class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int CHUNK = 8192;
+
+    private final int minSize;
+    private final DeflaterPool pool;
+
+    private CompressingStream stream;
+    private PrintWriter writer;
+    private long declaredLength = -1;
+
+    GzipResponseWrapper(HttpServletResponse response, int minSize, DeflaterPool pool) {
+        super(response);
+        this.minSize = minSize;
+        this.pool = pool;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (stream == null) {
+            stream = new CompressingStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            stream = new CompressingStream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    // The length of the uncompressed body is only passed on if it is sent uncompressed
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (stream != null && stream.decided && !stream.compressing) {
+            super.setContentLengthLong(length);
+        } else {
+            declaredLength = length;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value != null ? Long.parseLong(value.trim()) : -1);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+        if (stream == null || stream.decided) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (stream != null && !stream.decided) {
+            stream.count = 0;
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (stream != null && !stream.decided) {
+            stream.count = 0;
+            declaredLength = -1;
+        }
+    }
+
+    // Error pages and redirects are written by the container, never through this wrapper
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        discardPending();
+        super.sendError(status, message);
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        discardPending();
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discardPending();
+        super.sendRedirect(location);
+    }
+
+    private void discardPending() {
+        if (stream != null && !stream.decided) {
+            stream.count = 0;
+            stream.closed = true;
+        }
+    }
+
+    /**
+     * Completes the body: sends a held-back small response, or the gzip trailer.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool if the response ended without finish().
+     */
+    void release() {
+        if (stream != null) {
+            stream.releaseDeflater();
+        }
+    }
+
+    private boolean shouldCompress() {
+        if (getStatus() != SC_OK || getHeader("Content-Encoding") != null) {
+            return false;
+        }
+        return CompressionFilter.isCompressible(getContentType());
+    }
+
+    private void addVary() {
+        String vary = getHeader("Vary");
+        if (vary == null) {
+            super.setHeader("Vary", "Accept-Encoding");
+        } else if (!vary.toLowerCase().contains("accept-encoding") && !vary.equals("*")) {
+            super.setHeader("Vary", vary + ", Accept-Encoding");
+        }
+    }
+
+    private final class CompressingStream extends ServletOutputStream {
+
+        private final byte[] pending = new byte[minSize];
+        private int count;
+
+        private boolean decided;
+        private boolean compressing;
+        private boolean closed;
+        private ServletOutputStream target;
+
+        private Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private byte[] chunk;
+        private long compressedBytes;
+        private long cpuNanos;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!decided && count < pending.length) {
+                pending[count++] = (byte) b;
+            } else if (decided && !compressing && !closed) {
+                target.write(b);
+            } else {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Response stream is closed");
+            }
+            if (!decided) {
+                if (count + length <= pending.length) {
+                    System.arraycopy(bytes, offset, pending, count, length);
+                    count += length;
+                    return;
+                }
+                // Past the threshold: the response is large enough to be worth compressing
+                decide(true);
+                if (count > 0) {
+                    writeThrough(pending, 0, count);
+                }
+            }
+            writeThrough(bytes, offset, length);
+        }
+
+        private void decide(boolean large) throws IOException {
+            decided = true;
+            compressing = large && shouldCompress();
+            if (compressing) {
+                GzipResponseWrapper.super.setHeader("Content-Encoding", "gzip");
+                addVary();
+                String etag = getHeader("ETag");
+                if (etag != null && etag.endsWith("\"") && !etag.startsWith("W/")) {
+                    // A strong tag names exact bytes; the gzipped body is a different entity
+                    GzipResponseWrapper.super.setHeader("ETag", etag.substring(0, etag.length() - 1) + "-gzip\"");
+                }
+                target = getResponse().getOutputStream();
+                deflater = pool.borrow();
+                chunk = new byte[CHUNK];
+                target.write(GZIP_HEADER);
+                compressedBytes = GZIP_HEADER.length;
+            } else {
+                if (CompressionFilter.isCompressible(getContentType())) {
+                    addVary();
+                }
+                if (declaredLength >= 0) {
+                    GzipResponseWrapper.super.setContentLengthLong(declaredLength);
+                } else if (!large) {
+                    GzipResponseWrapper.super.setContentLengthLong(count);
+                }
+                target = getResponse().getOutputStream();
+                CompressionFilter.recordSkipped();
+            }
+        }
+
+        private void writeThrough(byte[] bytes, int offset, int length) throws IOException {
+            if (!compressing) {
+                target.write(bytes, offset, length);
+                return;
+            }
+            long start = CompressionFilter.cpuTime();
+            crc.update(bytes, offset, length);
+            deflater.setInput(bytes, offset, length);
+            while (!deflater.needsInput()) {
+                drain(Deflater.NO_FLUSH);
+            }
+            cpuNanos += CompressionFilter.cpuTime() - start;
+        }
+
+        private int drain(int flush) throws IOException {
+            int n = deflater.deflate(chunk, 0, chunk.length, flush);
+            if (n > 0) {
+                target.write(chunk, 0, n);
+                compressedBytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Before the threshold there is nothing to commit to yet; keep holding back
+            if (!decided || closed) {
+                return;
+            }
+            if (compressing) {
+                long start = CompressionFilter.cpuTime();
+                while (drain(Deflater.SYNC_FLUSH) == chunk.length) {
+                    // output buffer was full, more may be pending
+                }
+                cpuNanos += CompressionFilter.cpuTime() - start;
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!decided) {
+                decide(false);
+                if (count > 0) {
+                    target.write(pending, 0, count);
+                }
+                return;
+            }
+            if (!compressing) {
+                return;
+            }
+            long start = CompressionFilter.cpuTime();
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain(Deflater.NO_FLUSH);
+            }
+            cpuNanos += CompressionFilter.cpuTime() - start;
+            writeTrailerInt((int) crc.getValue());
+            writeTrailerInt(deflater.getTotalIn());
+            compressedBytes += 8;
+            CompressionFilter.recordCompressed(deflater.getBytesRead(), compressedBytes, cpuNanos);
+            releaseDeflater();
+        }
+
+        private void writeTrailerInt(int value) throws IOException {
+            target.write(value & 0xff);
+            target.write((value >> 8) & 0xff);
+            target.write((value >> 16) & 0xff);
+            target.write((value >> 24) & 0xff);
+        }
+
+        void releaseDeflater() {
+            if (deflater != null) {
+                pool.release(deflater);
+                deflater = null;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target == null || target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Non-blocking output is not supported by the compression filter");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.auction.filter;
 
+import com.auction.session.SessionCheck;
 import com.auction.session.UserSessionManagerRemote;
 import jakarta.ejb.EJB;
 import jakarta.servlet.*;
@@ -40,23 +41,16 @@ public class SessionFilter implements Filter {
             sessionToken = (String) httpSession.getAttribute("sessionToken");
         }
 
-        // Validate session
-        if (sessionToken != null && sessionManager.isSessionValid(sessionToken)) {
-            // Update session activity
-            sessionManager.updateSessionActivity(sessionToken);
-
-            // Validate session security
-            String ipAddress = getClientIpAddress(httpRequest);
-            String userAgent = httpRequest.getHeader("User-Agent");
-
-            if (!sessionManager.validateSessionSecurity(sessionToken, ipAddress, userAgent)) {
-                logger.warning("Security validation failed for session, invalidating");
-                sessionManager.invalidateSession(sessionToken);
-                redirectToLogin(httpResponse);
-                return;
-            }
+        // Validate session, check it is bound to this client and record the activity
+        SessionCheck check = sessionToken == null ? SessionCheck.UNKNOWN
+                : sessionManager.validateAndTouch(sessionToken, getClientIpAddress(httpRequest),
+                        httpRequest.getHeader("User-Agent"));
 
+        if (check.isValid()) {
             chain.doFilter(request, response);
+        } else if (check == SessionCheck.SECURITY_MISMATCH) {
+            logger.warning("Security validation failed for session, invalidated");
+            redirectToLogin(httpResponse);
         } else {
             // Session invalid or expired
             if (httpSession != null) {
@@ -76,7 +70,11 @@ public class SessionFilter implements Filter {
                 requestURI.equals("/AuctionSystem/auction/");  // Allow main page
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
+    /**
+     * The address a session is bound to: the first X-Forwarded-For hop if present, otherwise the
+     * remote address. Everything that validates a session token against its client uses this.
+     */
+    public static String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             return xForwardedFor.split(",")[0].trim();
@@ -0,0 +1,32 @@
+package com.auction.filter;
+
+import com.auction.websocket.SocketHandshakes;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Records the client of each upgrade request to the auction socket, so that bids placed on the
+ * socket are validated against the address and user agent it was opened from, as SessionFilter
+ * does for page requests. The WebSocket handshake API does not expose the client address.
+ *
+ * GlassFish's WebSocket implementation adds its upgrade filter programmatically, matched after
+ * the declared filters, so this one runs before the upgrade.
+ */
+@WebFilter(urlPatterns = {"/auction-updates/*"})
+public class WebSocketHandshakeFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        if ("websocket".equalsIgnoreCase(httpRequest.getHeader("Upgrade"))) {
+            SocketHandshakes.register(httpRequest.getParameter(SocketHandshakes.CONNECTION_PARAMETER),
+                    httpRequest.getSession(false), SessionFilter.getClientIpAddress(httpRequest),
+                    httpRequest.getHeader("User-Agent"));
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,671 @@
+package com.auction.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of auction domain events, stored as a sequence of
+ * FileChannel segments ({@code journal-0000000001.log}, ...).
+ *
+ * <p>Segment layout: a 16 byte header (magic, version, base sequence) followed by
+ * records of the form {@code [int bodyLength][int crc32(body)][long sequence][byte type][payload]}.
+ * Sequences are dense and start at 1; every record in a segment has a sequence
+ * greater than the segment's base sequence.
+ *
+ * <p>Appenders encode into an in-memory buffer under a short lock and return.
+ * A single flusher thread swaps that buffer with a standby one and writes it out,
+ * so many events share one write and, depending on {@link FsyncPolicy}, one fsync.
+ * A torn or corrupt tail left by a crash is truncated when the journal is opened.
+ */
+public final class AuctionJournal implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(AuctionJournal.class.getName());
+
+    public static final String DIRECTORY_PROPERTY = "auction.journal.dir";
+    public static final String FSYNC_PROPERTY = "auction.journal.fsync";
+    public static final String FLUSH_INTERVAL_PROPERTY = "auction.journal.flushIntervalMs";
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    static final byte AUCTION_CREATED = 1;
+    static final byte BID_ACCEPTED = 2;
+    static final byte AUCTION_CLOSED = 3;
+    static final byte AUCTION_REMOVED = 4;
+
+    private static final int SEGMENT_MAGIC = 0x414A524E; // "AJRN"
+    private static final int SEGMENT_VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MIN_BODY_BYTES = 9;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int BUFFER_BYTES = 4 << 20;
+    private static final int READ_BUFFER_BYTES = 8 << 20;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long flushIntervalNanos;
+    private final long segmentBytes;
+
+    // Lock order is always appendLock -> channelLock. appendLock guards the active
+    // buffer and lastSequence; channelLock keeps writes to the segment in order.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private final Object durableMonitor = new Object();
+    private final CRC32 appendCrc = new CRC32();
+
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer standby = ByteBuffer.allocate(BUFFER_BYTES);
+    private long lastSequence;
+    private int recordStart;
+
+    private FileChannel channel;
+    private int segmentIndex;
+    private volatile long writtenSequence;
+    private volatile long durableSequence;
+
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    private AuctionJournal(Path directory, FsyncPolicy fsyncPolicy, long flushIntervalMillis,
+                           long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.segmentBytes = segmentBytes;
+
+        Files.createDirectories(directory);
+        openTail();
+
+        this.flusher = new Thread(this::runFlusher, "auction-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static AuctionJournal open(Path directory, FsyncPolicy fsyncPolicy, long flushIntervalMillis)
+            throws IOException {
+        return new AuctionJournal(directory, fsyncPolicy, flushIntervalMillis, DEFAULT_SEGMENT_BYTES);
+    }
+
+    static AuctionJournal open(Path directory, FsyncPolicy fsyncPolicy, long flushIntervalMillis,
+                               long segmentBytes) throws IOException {
+        return new AuctionJournal(directory, fsyncPolicy, flushIntervalMillis, segmentBytes);
+    }
+
+    /**
+     * Opens the journal configured through {@value #DIRECTORY_PROPERTY},
+     * {@value #FSYNC_PROPERTY} and {@value #FLUSH_INTERVAL_PROPERTY}.
+     *
+     * @return the journal, or null when no directory is configured
+     */
+    public static AuctionJournal fromSystemProperties() throws IOException {
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        FsyncPolicy policy = FsyncPolicy.valueOf(
+                System.getProperty(FSYNC_PROPERTY, FsyncPolicy.INTERVAL.name()).trim().toUpperCase());
+        long interval = Long.getLong(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+        return open(Paths.get(dir.trim()), policy, interval);
+    }
+
+    // ---- appending ----
+
+    public long appendAuctionCreated(long auctionId, String title, String description,
+                                     double startingPrice, LocalDateTime startTime, LocalDateTime endTime,
+                                     int softCloseWindowSeconds, int softCloseExtensionSeconds) {
+        byte[] titleBytes = BinaryCodec.encode(title);
+        byte[] descriptionBytes = BinaryCodec.encode(description);
+        int payload = 8 + 8 + 12 + 12 + 4 + 4
+                + BinaryCodec.stringBytes(titleBytes) + BinaryCodec.stringBytes(descriptionBytes);
+
+        long sequence;
+        appendLock.lock();
+        try {
+            ByteBuffer buf = beginRecord(AUCTION_CREATED, payload);
+            buf.putLong(auctionId);
+            buf.putDouble(startingPrice);
+            BinaryCodec.putTime(buf, startTime);
+            BinaryCodec.putTime(buf, endTime);
+            buf.putInt(softCloseWindowSeconds);
+            buf.putInt(softCloseExtensionSeconds);
+            BinaryCodec.putString(buf, titleBytes);
+            BinaryCodec.putString(buf, descriptionBytes);
+            sequence = endRecord(buf);
+        } finally {
+            appendLock.unlock();
+        }
+        return sequence;
+    }
+
+    public long appendBidAccepted(long auctionId, long bidId, String bidderUsername, double bidAmount,
+                                  LocalDateTime bidTime, LocalDateTime auctionEndTime) {
+        byte[] bidderBytes = BinaryCodec.encode(bidderUsername);
+        int payload = 8 + 8 + 8 + 12 + 12 + BinaryCodec.stringBytes(bidderBytes);
+
+        long sequence;
+        appendLock.lock();
+        try {
+            ByteBuffer buf = beginRecord(BID_ACCEPTED, payload);
+            buf.putLong(auctionId);
+            buf.putLong(bidId);
+            buf.putDouble(bidAmount);
+            BinaryCodec.putTime(buf, bidTime);
+            BinaryCodec.putTime(buf, auctionEndTime);
+            BinaryCodec.putString(buf, bidderBytes);
+            sequence = endRecord(buf);
+        } finally {
+            appendLock.unlock();
+        }
+        return sequence;
+    }
+
+    public long appendAuctionClosed(long auctionId, String reason, LocalDateTime completedTime) {
+        byte[] reasonBytes = BinaryCodec.encode(reason);
+        int payload = 8 + 12 + BinaryCodec.stringBytes(reasonBytes);
+
+        long sequence;
+        appendLock.lock();
+        try {
+            ByteBuffer buf = beginRecord(AUCTION_CLOSED, payload);
+            buf.putLong(auctionId);
+            BinaryCodec.putTime(buf, completedTime);
+            BinaryCodec.putString(buf, reasonBytes);
+            sequence = endRecord(buf);
+        } finally {
+            appendLock.unlock();
+        }
+        return sequence;
+    }
+
+    public long appendAuctionRemoved(long auctionId) {
+        long sequence;
+        appendLock.lock();
+        try {
+            ByteBuffer buf = beginRecord(AUCTION_REMOVED, 8);
+            buf.putLong(auctionId);
+            sequence = endRecord(buf);
+        } finally {
+            appendLock.unlock();
+        }
+        return sequence;
+    }
+
+    // Reserves room for one record in the active buffer, writing the buffer out inline if it is full
+    private ByteBuffer beginRecord(byte type, int payloadBytes) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        int bodyBytes = MIN_BODY_BYTES + payloadBytes;
+        if (bodyBytes > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Journal record too large: " + bodyBytes + " bytes");
+        }
+        if (active.remaining() < RECORD_HEADER_BYTES + bodyBytes) {
+            channelLock.lock();
+            try {
+                writeLocked(active, lastSequence);
+            } catch (IOException e) {
+                throw new IllegalStateException("Journal write failed", e);
+            } finally {
+                channelLock.unlock();
+            }
+        }
+        ByteBuffer buf = active;
+        recordStart = buf.position();
+        buf.putInt(bodyBytes);
+        buf.putInt(0); // CRC, patched in endRecord
+        buf.putLong(lastSequence + 1);
+        buf.put(type);
+        return buf;
+    }
+
+    private long endRecord(ByteBuffer buf) {
+        int start = recordStart;
+        int bodyBytes = buf.getInt(start);
+        appendCrc.reset();
+        appendCrc.update(buf.array(), buf.arrayOffset() + start + RECORD_HEADER_BYTES, bodyBytes);
+        buf.putInt(start + 4, (int) appendCrc.getValue());
+        return ++lastSequence;
+    }
+
+    /**
+     * Makes an appended event durable according to the fsync policy: under
+     * {@link FsyncPolicy#ALWAYS} this blocks until the event is fsynced, otherwise it returns at once.
+     * Append while holding whatever lock orders your changes, then commit after releasing it,
+     * so that waiting for the disk never extends a critical section.
+     */
+    public void commit(long sequence) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Blocks until the event with the given sequence is on disk (written, or fsynced
+     * unless the policy is {@link FsyncPolicy#NONE}).
+     */
+    public void awaitDurable(long sequence) {
+        boolean interrupted = false;
+        synchronized (durableMonitor) {
+            while (durableSequence < sequence && !closed) {
+                try {
+                    durableMonitor.wait(10);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- flushing ----
+
+    private void runFlusher() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush(fsyncPolicy != FsyncPolicy.NONE);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, "Journal flush failed", e);
+            }
+        }
+    }
+
+    /**
+     * Writes out everything appended so far and fsyncs it.
+     */
+    public void sync() throws IOException {
+        flush(true);
+    }
+
+    private void flush(boolean force) throws IOException {
+        long upTo;
+        ByteBuffer toWrite;
+        appendLock.lock();
+        try {
+            if (active.position() == 0 && writtenSequence == lastSequence && durableSequence == lastSequence) {
+                return;
+            }
+            // hand over to the channel lock before letting appenders back in
+            channelLock.lock();
+            toWrite = active;
+            active = standby;
+            standby = toWrite;
+            upTo = lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            writeLocked(toWrite, upTo);
+            if (force) {
+                channel.force(false);
+            }
+            rollIfFull();
+        } finally {
+            channelLock.unlock();
+        }
+        publishDurable(upTo);
+    }
+
+    // Caller holds channelLock
+    private void writeLocked(ByteBuffer buffer, long upToSequence) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        writtenSequence = Math.max(writtenSequence, upToSequence);
+    }
+
+    // Caller holds channelLock
+    private void rollIfFull() throws IOException {
+        if (channel.position() < segmentBytes) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        segmentIndex++;
+        channel = createSegment(segmentIndex, writtenSequence);
+    }
+
+    private void publishDurable(long sequence) {
+        synchronized (durableMonitor) {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+            }
+            durableMonitor.notifyAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(true);
+        channelLock.lock();
+        try {
+            channel.close();
+        } finally {
+            channelLock.unlock();
+        }
+        publishDurable(lastSequence);
+        logger.info("Journal closed at sequence " + lastSequence);
+    }
+
+    public long getLastSequence() {
+        appendLock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // ---- replay ----
+
+    /**
+     * Replays every event with a sequence greater than {@code afterSequence}, in order.
+     * Segments that lie entirely at or below {@code afterSequence} are skipped without being read.
+     *
+     * @return the number of events delivered to the handler
+     */
+    public long replay(long afterSequence, JournalReplayHandler handler) throws IOException {
+        List<Path> segments = listSegments(directory);
+        ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        CRC32 crc = new CRC32();
+        long delivered = 0;
+        long started = System.nanoTime();
+
+        if (!segments.isEmpty() && readBaseSequence(segments.get(0)) > afterSequence) {
+            logger.warning("Journal starts after sequence " + afterSequence
+                    + "; events in between were pruned and cannot be replayed");
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && readBaseSequence(segments.get(i + 1)) <= afterSequence) {
+                continue;
+            }
+            ScanResult result = scanSegment(segments.get(i), afterSequence, handler, readBuffer, crc);
+            delivered += result.delivered;
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        logger.info("Replayed " + delivered + " journal events from " + segments.size()
+                + " segments in " + millis + " ms");
+        return delivered;
+    }
+
+    /**
+     * Deletes whole segments whose events all have sequences at or below {@code sequence},
+     * typically the journal position of the oldest snapshot still kept. The segment being
+     * appended to is never deleted.
+     *
+     * @return the number of segments deleted
+     */
+    public int deleteSegmentsUpTo(long sequence) throws IOException {
+        int currentIndex;
+        channelLock.lock();
+        try {
+            currentIndex = segmentIndex;
+        } finally {
+            channelLock.unlock();
+        }
+
+        List<Path> segments = listSegments(directory);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (segmentIndexOf(segments.get(i)) >= currentIndex
+                    || readBaseSequence(segments.get(i + 1)) > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+        }
+        if (deleted > 0) {
+            logger.info("Pruned " + deleted + " journal segments up to sequence " + sequence);
+        }
+        return deleted;
+    }
+
+    // Finds the newest segment, truncates any torn tail and positions the channel for appending
+    private void openTail() throws IOException {
+        List<Path> segments = listSegments(directory);
+        if (segments.isEmpty()) {
+            segmentIndex = 1;
+            channel = createSegment(segmentIndex, 0);
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        segmentIndex = segmentIndexOf(last);
+        ScanResult tail = scanSegment(last, Long.MAX_VALUE, null,
+                ByteBuffer.allocate(READ_BUFFER_BYTES), new CRC32());
+
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > tail.endPosition) {
+            logger.warning("Truncating torn journal tail in " + last.getFileName() + ": "
+                    + (channel.size() - tail.endPosition) + " bytes discarded");
+            channel.truncate(tail.endPosition);
+            channel.force(false);
+        }
+        channel.position(tail.endPosition);
+
+        lastSequence = tail.lastSequence;
+        writtenSequence = lastSequence;
+        durableSequence = lastSequence;
+    }
+
+    private ScanResult scanSegment(Path segment, long afterSequence, JournalReplayHandler handler,
+                                   ByteBuffer buf, CRC32 crc) throws IOException {
+        ScanResult result = new ScanResult();
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buf.clear();
+            boolean eof = fill(in, buf);
+            buf.flip();
+            if (buf.remaining() < SEGMENT_HEADER_BYTES || buf.getInt() != SEGMENT_MAGIC) {
+                throw new IOException("Not a journal segment: " + segment);
+            }
+            int version = buf.getInt();
+            if (version != SEGMENT_VERSION) {
+                throw new IOException("Unsupported journal segment version " + version + ": " + segment);
+            }
+            result.lastSequence = buf.getLong();
+            result.endPosition = SEGMENT_HEADER_BYTES;
+            long bufferFileOffset = 0;
+
+            while (true) {
+                if (buf.remaining() < RECORD_HEADER_BYTES || buf.remaining() < RECORD_HEADER_BYTES + buf.getInt(buf.position())) {
+                    if (eof) {
+                        break;
+                    }
+                    bufferFileOffset += buf.position();
+                    buf.compact();
+                    eof = fill(in, buf);
+                    buf.flip();
+                    if (buf.remaining() < RECORD_HEADER_BYTES) {
+                        break;
+                    }
+                }
+
+                int start = buf.position();
+                int bodyBytes = buf.getInt(start);
+                if (bodyBytes < MIN_BODY_BYTES || bodyBytes > MAX_BODY_BYTES) {
+                    break;
+                }
+                if (buf.remaining() < RECORD_HEADER_BYTES + bodyBytes) {
+                    if (eof) {
+                        break;
+                    }
+                    continue;
+                }
+                crc.reset();
+                crc.update(buf.array(), buf.arrayOffset() + start + RECORD_HEADER_BYTES, bodyBytes);
+                if ((int) crc.getValue() != buf.getInt(start + 4)) {
+                    break;
+                }
+
+                buf.position(start + RECORD_HEADER_BYTES);
+                long sequence = buf.getLong();
+                byte type = buf.get();
+                if (handler != null && sequence > afterSequence) {
+                    dispatch(sequence, type, buf, handler);
+                    result.delivered++;
+                }
+                buf.position(start + RECORD_HEADER_BYTES + bodyBytes);
+                result.lastSequence = sequence;
+                result.endPosition = bufferFileOffset + buf.position();
+            }
+        }
+        return result;
+    }
+
+    private static void dispatch(long sequence, byte type, ByteBuffer buf, JournalReplayHandler handler) {
+        switch (type) {
+            case AUCTION_CREATED: {
+                long auctionId = buf.getLong();
+                double startingPrice = buf.getDouble();
+                LocalDateTime startTime = BinaryCodec.getTime(buf);
+                LocalDateTime endTime = BinaryCodec.getTime(buf);
+                int window = buf.getInt();
+                int extension = buf.getInt();
+                String title = BinaryCodec.getString(buf);
+                String description = BinaryCodec.getString(buf);
+                handler.onAuctionCreated(sequence, auctionId, title, description, startingPrice,
+                        startTime, endTime, window, extension);
+                break;
+            }
+            case BID_ACCEPTED: {
+                long auctionId = buf.getLong();
+                long bidId = buf.getLong();
+                double amount = buf.getDouble();
+                LocalDateTime bidTime = BinaryCodec.getTime(buf);
+                LocalDateTime endTime = BinaryCodec.getTime(buf);
+                String bidder = BinaryCodec.getString(buf);
+                handler.onBidAccepted(sequence, auctionId, bidId, bidder, amount, bidTime, endTime);
+                break;
+            }
+            case AUCTION_CLOSED: {
+                long auctionId = buf.getLong();
+                LocalDateTime completedTime = BinaryCodec.getTime(buf);
+                String reason = BinaryCodec.getString(buf);
+                handler.onAuctionClosed(sequence, auctionId, reason, completedTime);
+                break;
+            }
+            case AUCTION_REMOVED:
+                handler.onAuctionRemoved(sequence, buf.getLong());
+                break;
+            default:
+                logger.warning("Skipping unknown journal record type " + type + " at sequence " + sequence);
+        }
+    }
+
+    // Reads until the buffer is full or the channel is exhausted; returns true at end of file
+    private static boolean fill(FileChannel in, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- segments ----
+
+    private FileChannel createSegment(int index, long baseSequence) throws IOException {
+        Path path = directory.resolve(segmentName(index));
+        FileChannel created = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        header.putInt(SEGMENT_MAGIC).putInt(SEGMENT_VERSION).putLong(baseSequence).flip();
+        while (header.hasRemaining()) {
+            created.write(header);
+        }
+        created.force(true);
+        return created;
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        Collections.sort(segments); // zero-padded indexes sort lexically
+        return segments;
+    }
+
+    private static long readBaseSequence(Path segment) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            fill(in, header);
+            header.flip();
+            return header.remaining() == SEGMENT_HEADER_BYTES ? header.getLong(8) : Long.MAX_VALUE;
+        }
+    }
+
+    private static String segmentName(int index) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static int segmentIndexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class ScanResult {
+        long endPosition;
+        long lastSequence;
+        long delivered;
+    }
+}
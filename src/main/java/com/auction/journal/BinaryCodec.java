@@ -0,0 +1,69 @@
+package com.auction.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Field encodings shared by the journal and snapshot formats.
+ */
+final class BinaryCodec {
+
+    static final int TIME_BYTES = 12;
+
+    private BinaryCodec() {
+    }
+
+    static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int stringBytes(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    // Strings are an int length (-1 for null) followed by UTF-8 bytes
+    static void putString(ByteBuffer buf, byte[] bytes) {
+        if (bytes == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (buf.hasArray()) {
+            value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    // LocalDateTime is zone-less; store it as seconds + nanos against a fixed offset so it round-trips exactly
+    static void putTime(ByteBuffer buf, LocalDateTime time) {
+        if (time == null) {
+            buf.putLong(Long.MIN_VALUE);
+            buf.putInt(0);
+        } else {
+            buf.putLong(time.toEpochSecond(ZoneOffset.UTC));
+            buf.putInt(time.getNano());
+        }
+    }
+
+    static LocalDateTime getTime(ByteBuffer buf) {
+        long seconds = buf.getLong();
+        int nanos = buf.getInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
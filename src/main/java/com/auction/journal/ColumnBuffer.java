@@ -0,0 +1,63 @@
+package com.auction.journal;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * A growable heap buffer holding one column of a snapshot section.
+ */
+final class ColumnBuffer {
+
+    private ByteBuffer buf;
+
+    ColumnBuffer(int initialCapacity) {
+        this.buf = ByteBuffer.allocate(Math.max(64, initialCapacity));
+    }
+
+    void putLong(long value) {
+        ensure(8).putLong(value);
+    }
+
+    void putDouble(double value) {
+        ensure(8).putDouble(value);
+    }
+
+    void putInt(int value) {
+        ensure(4).putInt(value);
+    }
+
+    void put(byte value) {
+        ensure(1).put(value);
+    }
+
+    void putTime(LocalDateTime time) {
+        BinaryCodec.putTime(ensure(BinaryCodec.TIME_BYTES), time);
+    }
+
+    void putString(String value) {
+        byte[] bytes = BinaryCodec.encode(value);
+        BinaryCodec.putString(ensure(BinaryCodec.stringBytes(bytes)), bytes);
+    }
+
+    int size() {
+        return buf.position();
+    }
+
+    // A read-only view of the bytes written so far
+    ByteBuffer contents() {
+        ByteBuffer view = buf.duplicate();
+        view.flip();
+        return view;
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (buf.remaining() < bytes) {
+            int capacity = Math.max(buf.capacity() * 2, buf.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            buf.flip();
+            grown.put(buf);
+            buf = grown;
+        }
+        return buf;
+    }
+}
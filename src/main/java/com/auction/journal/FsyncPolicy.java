@@ -0,0 +1,13 @@
+package com.auction.journal;
+
+/**
+ * How hard the journal works to get appended events onto stable storage.
+ */
+public enum FsyncPolicy {
+    /** Write to the OS page cache on every flush interval; never fsync. Survives a JVM crash, not a power loss. */
+    NONE,
+    /** fsync once per flush interval in the background. Appenders never wait. */
+    INTERVAL,
+    /** Appenders wait until their event is fsynced. Concurrent appenders share one fsync (group commit). */
+    ALWAYS
+}
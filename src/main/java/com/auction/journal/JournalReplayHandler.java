@@ -0,0 +1,20 @@
+package com.auction.journal;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives journal events in append order during {@link AuctionJournal#replay}.
+ */
+public interface JournalReplayHandler {
+
+    void onAuctionCreated(long sequence, long auctionId, String title, String description,
+                          double startingPrice, LocalDateTime startTime, LocalDateTime endTime,
+                          int softCloseWindowSeconds, int softCloseExtensionSeconds);
+
+    void onBidAccepted(long sequence, long auctionId, long bidId, String bidderUsername,
+                       double bidAmount, LocalDateTime bidTime, LocalDateTime auctionEndTime);
+
+    void onAuctionClosed(long sequence, long auctionId, String reason, LocalDateTime completedTime);
+
+    void onAuctionRemoved(long sequence, long auctionId);
+}
@@ -0,0 +1,90 @@
+package com.auction.journal;
+
+/**
+ * Layout constants for snapshot files ({@code snapshot-<journalSequence>.snap}).
+ *
+ * <pre>
+ * header     [int magic][int version][long journalSequence][long createdMillis][int sectionCount]
+ * directory  sectionCount x [byte kind][int rows][long offset][long length][int crc32]
+ * sections   [int columnCount][int length x columnCount][column bytes ...]
+ * </pre>
+ *
+ * Each section is one shard of a single kind and stores its rows column by column, so a
+ * reader can verify and decode sections independently and in parallel. Auction sections
+ * also carry the bids of their auctions: {@link #A_BID_COUNT} says how many bid rows
+ * belong to each auction row. Readers ignore trailing columns they do not know about.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x41534E50; // "ASNP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    static final int DIRECTORY_ENTRY_BYTES = 1 + 4 + 8 + 8 + 4;
+
+    static final String FILE_PREFIX = "snapshot-";
+    static final String FILE_SUFFIX = ".snap";
+
+    static final byte KIND_AUCTIONS = 1;
+    static final byte KIND_USERS = 2;
+    static final byte KIND_SESSIONS = 3;
+
+    // Auction section columns
+    static final int A_ID = 0;
+    static final int A_TITLE = 1;
+    static final int A_DESCRIPTION = 2;
+    static final int A_STARTING_PRICE = 3;
+    static final int A_HIGHEST_BID = 4;
+    static final int A_HIGHEST_BIDDER = 5;
+    static final int A_START_TIME = 6;
+    static final int A_END_TIME = 7;
+    static final int A_ACTIVE = 8;
+    static final int A_STATUS = 9;
+    static final int A_COMPLETED_TIME = 10;
+    static final int A_WINNER = 11;
+    static final int A_WINNING_BID = 12;
+    static final int A_END_REASON = 13;
+    static final int A_SOFT_CLOSE_WINDOW = 14;
+    static final int A_SOFT_CLOSE_EXTENSION = 15;
+    static final int A_EXTENSION_COUNT = 16;
+    static final int A_BID_COUNT = 17;
+    static final int B_ID = 18;
+    static final int B_BIDDER = 19;
+    static final int B_AMOUNT = 20;
+    static final int B_TIME = 21;
+    static final int B_WINNING = 22;
+    static final int AUCTION_COLUMNS = 23;
+
+    // User section columns
+    static final int U_USERNAME = 0;
+    static final int U_EMAIL = 1;
+    static final int U_PASSWORD_HASH = 2;
+    static final int U_LAST_ACTIVITY = 3;
+    static final int U_FLAGS = 4;
+    static final int USER_COLUMNS = 5;
+
+    static final byte USER_ACTIVE = 1;
+    static final byte USER_ADMIN = 2;
+
+    // Session section columns
+    static final int S_TOKEN = 0;
+    static final int S_USERNAME = 1;
+    static final int S_SESSION_ID = 2;
+    static final int S_IP_ADDRESS = 3;
+    static final int S_USER_AGENT = 4;
+    static final int S_LOGIN_TIME = 5;
+    static final int S_LAST_ACTIVITY = 6;
+    static final int S_FLAGS = 7;
+    static final int S_MAX_INACTIVE_MINUTES = 8;
+    static final int SESSION_COLUMNS = 9;
+
+    // Older snapshots only wrote the active bit
+    static final byte SESSION_ACTIVE = 1;
+    static final byte SESSION_ADMIN = 2;
+
+    private SnapshotFormat() {
+    }
+
+    static String fileName(long journalSequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, journalSequence, FILE_SUFFIX);
+    }
+}
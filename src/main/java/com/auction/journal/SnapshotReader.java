@@ -0,0 +1,305 @@
+package com.auction.journal;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import com.auction.session.ActiveSessionInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import static com.auction.journal.SnapshotFormat.*;
+
+/**
+ * Loads snapshots written by {@link SnapshotWriter}. The file is memory-mapped and every
+ * section is checksummed before any row is handed out, then sections are decoded in parallel.
+ */
+public final class SnapshotReader {
+
+    private static final Logger logger = Logger.getLogger(SnapshotReader.class.getName());
+
+    /**
+     * Receives decoded rows. Called concurrently from several loader threads.
+     */
+    public interface Sink {
+        void onAuction(Auction auction);
+
+        void onUser(User user);
+
+        void onSession(ActiveSessionInfo session);
+    }
+
+    private SnapshotReader() {
+    }
+
+    /**
+     * @return the snapshots in {@code directory}, newest (highest journal sequence) first
+     */
+    public static List<Path> listSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(snapshots::add);
+        }
+        snapshots.sort(Collections.reverseOrder()); // zero-padded sequences sort lexically
+        return snapshots;
+    }
+
+    public static long journalSequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Verifies and loads a snapshot.
+     *
+     * @return the journal sequence the snapshot covers; replay resumes after it
+     * @throws IOException if the file is unreadable or fails verification, in which case
+     *                     nothing has been passed to the sink
+     */
+    public static long load(Path snapshot, int parallelism, Sink sink) throws IOException {
+        long started = System.nanoTime();
+        MappedByteBuffer file;
+        try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            file = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        }
+
+        if (file.capacity() < HEADER_BYTES || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot: " + snapshot);
+        }
+        int version = file.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + snapshot);
+        }
+        long journalSequence = file.getLong(8);
+        int sectionCount = file.getInt(24);
+        if (sectionCount < 0 || HEADER_BYTES + (long) sectionCount * DIRECTORY_ENTRY_BYTES > file.capacity()) {
+            throw new IOException("Corrupt snapshot directory: " + snapshot);
+        }
+
+        List<SectionRef> sections = new ArrayList<>(sectionCount);
+        int entry = HEADER_BYTES;
+        for (int i = 0; i < sectionCount; i++, entry += DIRECTORY_ENTRY_BYTES) {
+            SectionRef ref = new SectionRef(file.get(entry), file.getInt(entry + 1),
+                    file.getLong(entry + 5), file.getLong(entry + 13), file.getInt(entry + 21));
+            if (ref.offset < 0 || ref.length < 0 || ref.offset + ref.length > file.capacity()) {
+                throw new IOException("Snapshot section out of bounds: " + snapshot);
+            }
+            sections.add(ref);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, sections.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "snapshot-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        AtomicInteger auctionRows = new AtomicInteger();
+        try {
+            List<Callable<Void>> verify = new ArrayList<>();
+            for (SectionRef ref : sections) {
+                verify.add(() -> {
+                    CRC32 crc = new CRC32();
+                    crc.update(ref.slice(file));
+                    if ((int) crc.getValue() != ref.crc) {
+                        throw new IOException("Snapshot section checksum mismatch: " + snapshot);
+                    }
+                    return null;
+                });
+            }
+            runAll(pool, verify);
+
+            List<Callable<Void>> decode = new ArrayList<>();
+            for (SectionRef ref : sections) {
+                decode.add(() -> {
+                    decodeSection(ref, ref.slice(file), sink);
+                    if (ref.kind == KIND_AUCTIONS) {
+                        auctionRows.addAndGet(ref.rows);
+                    }
+                    return null;
+                });
+            }
+            runAll(pool, decode);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        logger.info("Loaded snapshot " + snapshot.getFileName() + " (" + auctionRows.get() + " auctions, "
+                + sections.size() + " sections) in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+        return journalSequence;
+    }
+
+    private static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading snapshot", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Snapshot load failed", cause);
+        }
+    }
+
+    private static void decodeSection(SectionRef ref, ByteBuffer section, Sink sink) throws IOException {
+        int columnCount = section.getInt();
+        ByteBuffer[] columns = new ByteBuffer[columnCount];
+        int position = 4 + 4 * columnCount;
+        for (int i = 0; i < columnCount; i++) {
+            int length = section.getInt(4 + 4 * i);
+            columns[i] = slice(section, position, length);
+            position += length;
+        }
+
+        switch (ref.kind) {
+            case KIND_AUCTIONS:
+                requireColumns(columns, AUCTION_COLUMNS);
+                for (int row = 0; row < ref.rows; row++) {
+                    sink.onAuction(readAuction(columns));
+                }
+                break;
+            case KIND_USERS:
+                requireColumns(columns, USER_COLUMNS);
+                for (int row = 0; row < ref.rows; row++) {
+                    sink.onUser(readUser(columns));
+                }
+                break;
+            case KIND_SESSIONS:
+                requireColumns(columns, SESSION_COLUMNS);
+                for (int row = 0; row < ref.rows; row++) {
+                    sink.onSession(readSession(columns));
+                }
+                break;
+            default:
+                logger.warning("Skipping unknown snapshot section kind " + ref.kind);
+        }
+    }
+
+    private static Auction readAuction(ByteBuffer[] c) {
+        long auctionId = c[A_ID].getLong();
+        String title = BinaryCodec.getString(c[A_TITLE]);
+        String description = BinaryCodec.getString(c[A_DESCRIPTION]);
+        double startingPrice = c[A_STARTING_PRICE].getDouble();
+
+        Auction auction = new Auction(auctionId, title, description, startingPrice, null);
+        double highestBid = c[A_HIGHEST_BID].getDouble();
+        String highestBidder = BinaryCodec.getString(c[A_HIGHEST_BIDDER]);
+        auction.setStartTime(BinaryCodec.getTime(c[A_START_TIME]));
+        auction.setEndTime(BinaryCodec.getTime(c[A_END_TIME]));
+        auction.setActive(c[A_ACTIVE].get() != 0);
+        byte status = c[A_STATUS].get();
+        auction.setStatus(status < 0 ? null : Auction.AuctionStatus.values()[status]);
+        auction.setCompletedTime(BinaryCodec.getTime(c[A_COMPLETED_TIME]));
+        auction.setWinnerUsername(BinaryCodec.getString(c[A_WINNER]));
+        auction.setWinningBid(c[A_WINNING_BID].getDouble());
+        auction.setEndReason(BinaryCodec.getString(c[A_END_REASON]));
+        auction.setSoftCloseWindowSeconds(c[A_SOFT_CLOSE_WINDOW].getInt());
+        auction.setSoftCloseExtensionSeconds(c[A_SOFT_CLOSE_EXTENSION].getInt());
+        auction.setExtensionCount(c[A_EXTENSION_COUNT].getInt());
+
+        int bidCount = c[A_BID_COUNT].getInt();
+        for (int i = 0; i < bidCount; i++) {
+            Bid bid = new Bid();
+            bid.setBidId(c[B_ID].getLong());
+            bid.setAuctionId(auctionId);
+            bid.setBidderUsername(BinaryCodec.getString(c[B_BIDDER]));
+            bid.setBidAmount(c[B_AMOUNT].getDouble());
+            bid.setBidTime(BinaryCodec.getTime(c[B_TIME]));
+            bid.setWinning(c[B_WINNING].get() != 0);
+            auction.restoreBid(bid);
+        }
+        auction.setTotalBidsCount(bidCount);
+
+        // restoreBid tracks the last bid applied; the stored values are authoritative
+        auction.setCurrentHighestBid(highestBid);
+        auction.setCurrentHighestBidder(highestBidder);
+        return auction;
+    }
+
+    private static User readUser(ByteBuffer[] c) {
+        User user = new User();
+        user.setUsername(BinaryCodec.getString(c[U_USERNAME]));
+        user.setEmail(BinaryCodec.getString(c[U_EMAIL]));
+        user.setPasswordHash(BinaryCodec.getString(c[U_PASSWORD_HASH]));
+        user.setLastActivity(BinaryCodec.getTime(c[U_LAST_ACTIVITY]));
+        byte flags = c[U_FLAGS].get();
+        user.setActive((flags & USER_ACTIVE) != 0);
+        user.setAdmin((flags & USER_ADMIN) != 0);
+        return user;
+    }
+
+    private static ActiveSessionInfo readSession(ByteBuffer[] c) {
+        ActiveSessionInfo session = new ActiveSessionInfo();
+        session.setSessionToken(BinaryCodec.getString(c[S_TOKEN]));
+        session.setUsername(BinaryCodec.getString(c[S_USERNAME]));
+        session.setSessionId(BinaryCodec.getString(c[S_SESSION_ID]));
+        session.setIpAddress(BinaryCodec.getString(c[S_IP_ADDRESS]));
+        session.setUserAgent(BinaryCodec.getString(c[S_USER_AGENT]));
+        session.setLoginTime(BinaryCodec.getTime(c[S_LOGIN_TIME]));
+        session.setLastActivity(BinaryCodec.getTime(c[S_LAST_ACTIVITY]));
+        byte flags = c[S_FLAGS].get();
+        session.setActive((flags & SESSION_ACTIVE) != 0);
+        session.setAdmin((flags & SESSION_ADMIN) != 0);
+        session.setMaxInactiveMinutes(c[S_MAX_INACTIVE_MINUTES].getInt());
+        return session;
+    }
+
+    private static void requireColumns(ByteBuffer[] columns, int expected) throws IOException {
+        if (columns.length < expected) {
+            throw new IOException("Snapshot section has " + columns.length + " columns, expected " + expected);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, long offset, long length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.limit((int) (offset + length));
+        return view.slice();
+    }
+
+    private static final class SectionRef {
+        final byte kind;
+        final int rows;
+        final long offset;
+        final long length;
+        final int crc;
+
+        SectionRef(byte kind, int rows, long offset, long length, int crc) {
+            this.kind = kind;
+            this.rows = rows;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+
+        ByteBuffer slice(ByteBuffer file) {
+            return SnapshotReader.slice(file, offset, length);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.auction.journal;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import com.auction.session.ActiveSessionInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.auction.journal.SnapshotFormat.*;
+
+/**
+ * Builds a columnar snapshot image in memory and writes it out atomically.
+ *
+ * Rows are encoded straight into per-column buffers as they are added, so the caller can
+ * take a consistent cut of each auction simply by holding its monitor around
+ * {@link #addAuction(Auction)}; nothing else is paused. A writer is single-use and not
+ * thread-safe.
+ */
+public final class SnapshotWriter {
+
+    private final Section[] auctionShards;
+    private final Section users = new Section(KIND_USERS, USER_COLUMNS);
+    private final Section sessions = new Section(KIND_SESSIONS, SESSION_COLUMNS);
+    private int nextShard;
+
+    public SnapshotWriter(int auctionShards) {
+        this.auctionShards = new Section[Math.max(1, auctionShards)];
+        for (int i = 0; i < this.auctionShards.length; i++) {
+            this.auctionShards[i] = new Section(KIND_AUCTIONS, AUCTION_COLUMNS);
+        }
+    }
+
+    /**
+     * Encodes one auction and its bids. The caller must hold the auction monitor so the
+     * row is a consistent cut with respect to bid placement and completion.
+     */
+    public void addAuction(Auction auction) {
+        // Round-robin keeps shards evenly sized for parallel loading
+        Section shard = auctionShards[nextShard];
+        nextShard = (nextShard + 1) % auctionShards.length;
+        ColumnBuffer[] c = shard.columns;
+
+        c[A_ID].putLong(auction.getAuctionId());
+        c[A_TITLE].putString(auction.getTitle());
+        c[A_DESCRIPTION].putString(auction.getDescription());
+        c[A_STARTING_PRICE].putDouble(auction.getStartingPrice());
+        c[A_HIGHEST_BID].putDouble(auction.getCurrentHighestBid());
+        c[A_HIGHEST_BIDDER].putString(auction.getCurrentHighestBidder());
+        c[A_START_TIME].putTime(auction.getStartTime());
+        c[A_END_TIME].putTime(auction.getEndTime());
+        c[A_ACTIVE].put((byte) (auction.isActive() ? 1 : 0));
+        c[A_STATUS].put((byte) (auction.getStatus() == null ? -1 : auction.getStatus().ordinal()));
+        c[A_COMPLETED_TIME].putTime(auction.getCompletedTime());
+        c[A_WINNER].putString(auction.getWinnerUsername());
+        c[A_WINNING_BID].putDouble(auction.getWinningBid());
+        c[A_END_REASON].putString(auction.getEndReason());
+        c[A_SOFT_CLOSE_WINDOW].putInt(auction.getSoftCloseWindowSeconds());
+        c[A_SOFT_CLOSE_EXTENSION].putInt(auction.getSoftCloseExtensionSeconds());
+        c[A_EXTENSION_COUNT].putInt(auction.getExtensionCount());
+
+        // Count as we go: the bid map is only guaranteed stable while the caller holds the monitor
+        int bidCount = 0;
+        for (Bid bid : auction.getBids().values()) {
+            c[B_ID].putLong(bid.getBidId());
+            c[B_BIDDER].putString(bid.getBidderUsername());
+            c[B_AMOUNT].putDouble(bid.getBidAmount());
+            c[B_TIME].putTime(bid.getBidTime());
+            c[B_WINNING].put((byte) (bid.isWinning() ? 1 : 0));
+            bidCount++;
+        }
+        c[A_BID_COUNT].putInt(bidCount);
+        shard.rows++;
+    }
+
+    public void addUser(User user) {
+        ColumnBuffer[] c = users.columns;
+        c[U_USERNAME].putString(user.getUsername());
+        c[U_EMAIL].putString(user.getEmail());
+        c[U_PASSWORD_HASH].putString(user.getPasswordHash());
+        c[U_LAST_ACTIVITY].putTime(user.getLastActivity());
+        c[U_FLAGS].put((byte) ((user.isActive() ? USER_ACTIVE : 0) | (user.isAdmin() ? USER_ADMIN : 0)));
+        users.rows++;
+    }
+
+    public void addSession(ActiveSessionInfo session) {
+        ColumnBuffer[] c = sessions.columns;
+        c[S_TOKEN].putString(session.getSessionToken());
+        c[S_USERNAME].putString(session.getUsername());
+        c[S_SESSION_ID].putString(session.getSessionId());
+        c[S_IP_ADDRESS].putString(session.getIpAddress());
+        c[S_USER_AGENT].putString(session.getUserAgent());
+        c[S_LOGIN_TIME].putTime(session.getLoginTime());
+        c[S_LAST_ACTIVITY].putTime(session.getLastActivity());
+        c[S_FLAGS].put((byte) ((session.isActive() ? SESSION_ACTIVE : 0) | (session.isAdmin() ? SESSION_ADMIN : 0)));
+        c[S_MAX_INACTIVE_MINUTES].putInt(session.getMaxInactiveMinutes());
+        sessions.rows++;
+    }
+
+    /**
+     * Writes the image to {@code directory} as {@code snapshot-<journalSequence>.snap}. The file
+     * is written under a temporary name, fsynced and then renamed, so readers never see a
+     * partial snapshot.
+     */
+    public Path writeTo(Path directory, long journalSequence) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        for (Section shard : auctionShards) {
+            if (shard.rows > 0) {
+                sections.add(shard);
+            }
+        }
+        sections.add(users);
+        sections.add(sessions);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + sections.size() * DIRECTORY_ENTRY_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(journalSequence)
+                .putLong(System.currentTimeMillis()).putInt(sections.size());
+
+        List<ByteBuffer> body = new ArrayList<>();
+        long offset = header.capacity();
+        for (Section section : sections) {
+            List<ByteBuffer> parts = section.encode();
+            CRC32 crc = new CRC32();
+            long length = 0;
+            for (ByteBuffer part : parts) {
+                length += part.remaining();
+                crc.update(part.duplicate());
+            }
+            header.put(section.kind).putInt(section.rows).putLong(offset).putLong(length)
+                    .putInt((int) crc.getValue());
+            offset += length;
+            body.addAll(parts);
+        }
+        header.flip();
+
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(journalSequence));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, header);
+            for (ByteBuffer part : body) {
+                writeFully(out, part);
+            }
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static final class Section {
+        final byte kind;
+        final ColumnBuffer[] columns;
+        int rows;
+
+        Section(byte kind, int columnCount) {
+            this.kind = kind;
+            this.columns = new ColumnBuffer[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = new ColumnBuffer(4096);
+            }
+        }
+
+        List<ByteBuffer> encode() {
+            List<ByteBuffer> parts = new ArrayList<>(columns.length + 1);
+            ByteBuffer lengths = ByteBuffer.allocate(4 + 4 * columns.length);
+            lengths.putInt(columns.length);
+            for (ColumnBuffer column : columns) {
+                lengths.putInt(column.size());
+            }
+            lengths.flip();
+            parts.add(lengths);
+            for (ColumnBuffer column : columns) {
+                parts.add(column.contents());
+            }
+            return parts;
+        }
+    }
+}
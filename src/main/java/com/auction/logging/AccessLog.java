@@ -0,0 +1,272 @@
+package com.auction.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous HTTP access log.
+ *
+ * Request threads copy a fixed set of fields into a preallocated ring buffer: a CAS to claim a
+ * slot and a few array stores, no formatting and no I/O. A background thread formats the
+ * records and appends them to a rolling file in batches. When the buffer is full the record is
+ * dropped and counted rather than making the request wait; the count is written to the log
+ * itself and shown on the admin dashboard. Successful requests can be sampled, errors (status
+ * 400 and above) are always kept.
+ *
+ * Line format: {@code <ISO-8601 UTC time> <remote address> <method> <uri> <status> <duration>us}
+ */
+public final class AccessLog implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(AccessLog.class.getName());
+
+    public static final String ENABLED_PROPERTY = "auction.accesslog.enabled";
+    public static final String FILE_PROPERTY = "auction.accesslog.file";
+    public static final String SAMPLE_RATE_PROPERTY = "auction.accesslog.sampleRate";
+    public static final String BUFFER_SIZE_PROPERTY = "auction.accesslog.bufferSize";
+    public static final String MAX_FILE_BYTES_PROPERTY = "auction.accesslog.maxFileBytes";
+    public static final String MAX_FILES_PROPERTY = "auction.accesslog.maxFiles";
+    public static final String FLUSH_INTERVAL_PROPERTY = "auction.accesslog.flushIntervalMs";
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final long DEFAULT_MAX_FILE_BYTES = 16L * 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 5;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+
+    private static final DateTimeFormatter SECOND_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    // Ring buffer, one array per field; a slot is readable once published[slot] == sequence + 1
+    private final int mask;
+    private final long[] times;
+    private final long[] durations;
+    private final int[] statuses;
+    private final String[] methods;
+    private final String[] uris;
+    private final String[] remotes;
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    private final double sampleRate;
+    private final RollingFile file;
+    private final long flushIntervalNanos;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private long droppedReported;
+
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public AccessLog(Path path, int bufferSize, double sampleRate, long maxFileBytes, int maxFiles,
+                     long flushIntervalMillis) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.mask = capacity - 1;
+        this.times = new long[capacity];
+        this.durations = new long[capacity];
+        this.statuses = new int[capacity];
+        this.methods = new String[capacity];
+        this.uris = new String[capacity];
+        this.remotes = new String[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.sampleRate = sampleRate;
+        this.file = new RollingFile(path, maxFileBytes, maxFiles);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+
+        this.writer = new Thread(this::runWriter, "auction-access-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the access log configured through the {@code auction.accesslog.*} system properties.
+     * Without {@value #FILE_PROPERTY} the log goes to the server instance's logs directory.
+     *
+     * @return the log, or null when {@value #ENABLED_PROPERTY} is false
+     */
+    public static AccessLog fromSystemProperties() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return null;
+        }
+        String configured = System.getProperty(FILE_PROPERTY);
+        Path path;
+        if (configured != null && !configured.trim().isEmpty()) {
+            path = Paths.get(configured.trim());
+        } else {
+            String instanceRoot = System.getProperty("com.sun.aas.instanceRoot");
+            path = instanceRoot != null
+                    ? Paths.get(instanceRoot, "logs", "auction-access.log")
+                    : Paths.get(System.getProperty("java.io.tmpdir"), "auction-access.log");
+        }
+        double sampleRate = Double.parseDouble(System.getProperty(SAMPLE_RATE_PROPERTY, "1.0"));
+        AccessLog log = new AccessLog(path,
+                Integer.getInteger(BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE),
+                sampleRate,
+                Long.getLong(MAX_FILE_BYTES_PROPERTY, DEFAULT_MAX_FILE_BYTES),
+                Integer.getInteger(MAX_FILES_PROPERTY, DEFAULT_MAX_FILES),
+                Long.getLong(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL_MILLIS));
+        logger.info("Access log: " + path + " (sample rate " + sampleRate + ")");
+        return log;
+    }
+
+    // ---- recording (called on the request thread) ----
+
+    /**
+     * Queues one request for the log.
+     *
+     * @return false if the record was sampled out or dropped because the buffer is full
+     */
+    public boolean record(long timeMillis, String remoteAddress, String method, String uri,
+                          int status, long durationNanos) {
+        if (status < 400 && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return false;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask || closed) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        times[slot] = timeMillis;
+        durations[slot] = durationNanos;
+        statuses[slot] = status;
+        methods[slot] = method;
+        uris[slot] = uri;
+        remotes[slot] = remoteAddress;
+        published.lazySet(slot, sequence + 1);
+
+        // Half full: start writing now instead of waiting out the interval
+        if (sequence - consumed == (mask + 1) / 2) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    // ---- writing (background thread) ----
+
+    private void runWriter() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain();
+        }
+    }
+
+    // Formats every published record and writes them as one batch
+    private synchronized void drain() {
+        StringBuilder batch = new StringBuilder(4096);
+        long sequence = consumed;
+        long lastSecond = Long.MIN_VALUE;
+        String secondText = null;
+        int count = 0;
+
+        while (published.get((int) sequence & mask) == sequence + 1) {
+            int slot = (int) sequence & mask;
+            long time = times[slot];
+            long second = Math.floorDiv(time, 1000);
+            if (second != lastSecond) {
+                lastSecond = second;
+                secondText = SECOND_FORMAT.format(Instant.ofEpochSecond(second));
+            }
+            int millis = Math.floorMod(time, 1000);
+            batch.append(secondText).append('.')
+                    .append((char) ('0' + millis / 100))
+                    .append((char) ('0' + millis / 10 % 10))
+                    .append((char) ('0' + millis % 10))
+                    .append("Z ")
+                    .append(remotes[slot]).append(' ')
+                    .append(methods[slot]).append(' ')
+                    .append(uris[slot]).append(' ')
+                    .append(statuses[slot]).append(' ')
+                    .append(durations[slot] / 1000).append("us\n");
+            methods[slot] = null;
+            uris[slot] = null;
+            remotes[slot] = null;
+            sequence++;
+            count++;
+            // Hand the slots back in chunks so producers are not starved during a long batch
+            if ((count & 1023) == 0) {
+                consumed = sequence;
+            }
+        }
+        consumed = sequence;
+
+        long droppedNow = dropped.sum();
+        if (droppedNow > droppedReported) {
+            batch.append("# dropped ").append(droppedNow - droppedReported)
+                    .append(" access log records: buffer full\n");
+            logger.warning("Access log buffer full, dropped " + (droppedNow - droppedReported) + " records");
+            droppedReported = droppedNow;
+        }
+
+        if (batch.length() > 0) {
+            try {
+                file.write(batch);
+                written.addAndGet(count);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write access log", e);
+            }
+        }
+    }
+
+    /**
+     * Writes what is buffered and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        try {
+            file.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close access log", e);
+        }
+    }
+
+    // ---- statistics ----
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    public Path getPath() {
+        return file.getPath();
+    }
+}
@@ -0,0 +1,188 @@
+package com.auction.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * java.util.logging handler that hands records to the real handlers on a background thread.
+ *
+ * Installed on the {@code com.auction} logger in place of the inherited handlers, so file and
+ * console output, and formatting of {@link LogEvent} messages, happen off the request thread.
+ * The queue is bounded; when it is full, records below WARNING are dropped and counted, while
+ * warnings and errors are published on the caller's thread so they are never lost.
+ */
+public final class AsyncLogHandler extends Handler {
+
+    public static final String ENABLED_PROPERTY = "auction.log.async";
+    public static final String QUEUE_SIZE_PROPERTY = "auction.log.queueSize";
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+
+    private static final String ROOT_CATEGORY = "com.auction";
+
+    // Loggers are only weakly held by the LogManager; keep the configured one alive
+    private static Logger installedOn;
+    private static AsyncLogHandler installed;
+    private static Handler[] replaced;
+
+    private final Handler[] delegates;
+    private final ArrayBlockingQueue<LogRecord> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread publisher;
+    private volatile boolean closed;
+
+    AsyncLogHandler(List<Handler> delegates, int queueSize) {
+        this.delegates = delegates.toArray(new Handler[0]);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.publisher = new Thread(this::runPublisher, "auction-log-publisher");
+        this.publisher.setDaemon(true);
+        this.publisher.start();
+    }
+
+    /**
+     * Routes the project's loggers through an asynchronous handler, unless
+     * {@value #ENABLED_PROPERTY} is false. Idempotent.
+     */
+    static synchronized void install() {
+        if (installed != null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return;
+        }
+        Logger logger = Logger.getLogger(ROOT_CATEGORY);
+        List<Handler> delegates = new ArrayList<>();
+        for (Logger current = logger; current != null; current = current.getParent()) {
+            for (Handler handler : current.getHandlers()) {
+                delegates.add(handler);
+            }
+            if (!current.getUseParentHandlers()) {
+                break;
+            }
+        }
+        if (delegates.isEmpty()) {
+            return;
+        }
+        replaced = logger.getHandlers();
+        for (Handler handler : replaced) {
+            logger.removeHandler(handler);
+        }
+        installed = new AsyncLogHandler(delegates, Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE));
+        logger.addHandler(installed);
+        logger.setUseParentHandlers(false);
+        installedOn = logger;
+    }
+
+    /**
+     * Publishes what is queued and restores the original handlers.
+     */
+    public static synchronized void uninstall() {
+        if (installed == null) {
+            return;
+        }
+        installed.close();
+        installedOn.removeHandler(installed);
+        for (Handler handler : replaced) {
+            installedOn.addHandler(handler);
+        }
+        installedOn.setUseParentHandlers(true);
+        installed = null;
+        replaced = null;
+        installedOn = null;
+    }
+
+    /** Records dropped because the queue was full, or 0 if the handler is not installed. */
+    public static synchronized long getDroppedRecords() {
+        return installed != null ? installed.dropped.sum() : 0;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        if (!(record instanceof LogEvent)) {
+            // Plain records find their source by walking the stack; do it on the caller's thread
+            record.getSourceClassName();
+        }
+        if (!queue.offer(record)) {
+            if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                deliver(record);
+            } else {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void runPublisher() {
+        List<LogRecord> batch = new ArrayList<>(256);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                LogRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                deliver(first);
+                queue.drainTo(batch, 255);
+                for (LogRecord record : batch) {
+                    deliver(record);
+                }
+                batch.clear();
+                if (queue.isEmpty()) {
+                    flushDelegates();
+                }
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void deliver(LogRecord record) {
+        for (Handler handler : delegates) {
+            try {
+                handler.publish(record);
+            } catch (RuntimeException e) {
+                reportError("Failed to publish log record", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    private void flushDelegates() {
+        for (Handler handler : delegates) {
+            handler.flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Records are flushed once the queue runs empty; forcing it here would block the caller
+    }
+
+    /**
+     * Stops the publisher after it has delivered the queued records. The delegates belong to
+     * the parent loggers and are flushed, not closed.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            publisher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LogRecord record;
+        while ((record = queue.poll()) != null) {
+            deliver(record);
+        }
+        flushDelegates();
+    }
+}
@@ -0,0 +1,186 @@
+package com.auction.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logging facade for the hot paths.
+ *
+ * <pre>
+ * private static final Log log = Log.get(BidServiceBean.class);
+ * log.info("Bid {} placed on auction {}", bidId, auctionId);
+ * </pre>
+ *
+ * Every call checks the level first, so a disabled event costs a level comparison and no
+ * string building; messages are formatted by the handler, which is asynchronous (see
+ * {@link AsyncLogHandler}). Each category is also rate limited: at most
+ * {@value #MAX_PER_SECOND_PROPERTY} events per second (default 200) are logged, the rest are
+ * counted and reported with the next event that gets through. A category can have its own
+ * limit via {@code auction.log.maxPerSecond.<category>}; 0 disables the limit. Errors are
+ * never rate limited.
+ *
+ * Events map to java.util.logging levels: debug is FINE, info is INFO, warn is WARNING and
+ * error is SEVERE, so existing logging configuration applies unchanged.
+ */
+public final class Log {
+
+    public static final String MAX_PER_SECOND_PROPERTY = "auction.log.maxPerSecond";
+    public static final int DEFAULT_MAX_PER_SECOND = 200;
+
+    private static final ConcurrentHashMap<String, Log> categories = new ConcurrentHashMap<>();
+
+    static {
+        AsyncLogHandler.install();
+    }
+
+    private final String category;
+    private final Logger logger;
+    private final int maxPerSecond;
+
+    // Current one-second window (high bits) and events logged in it (low 20 bits)
+    private final AtomicLong window = new AtomicLong();
+    private final LongAdder suppressed = new LongAdder();
+
+    private Log(String category, int maxPerSecond) {
+        this.category = category;
+        this.logger = Logger.getLogger(category);
+        this.maxPerSecond = Math.min(maxPerSecond, 0xFFFFF);
+    }
+
+    public static Log get(Class<?> type) {
+        return get(type.getName());
+    }
+
+    public static Log get(String category) {
+        return categories.computeIfAbsent(category, name -> new Log(name,
+                Integer.getInteger(MAX_PER_SECOND_PROPERTY + "." + name,
+                        Integer.getInteger(MAX_PER_SECOND_PROPERTY, DEFAULT_MAX_PER_SECOND))));
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isLoggable(Level.FINE);
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isLoggable(Level.INFO);
+    }
+
+    // Fixed-arity overloads avoid a varargs array when the level is disabled
+
+    public void debug(String pattern) {
+        if (logger.isLoggable(Level.FINE)) {
+            log(Level.FINE, pattern, null, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (logger.isLoggable(Level.FINE)) {
+            log(Level.FINE, pattern, new Object[]{arg}, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (logger.isLoggable(Level.FINE)) {
+            log(Level.FINE, pattern, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void debug(String pattern, Object... args) {
+        if (logger.isLoggable(Level.FINE)) {
+            log(Level.FINE, pattern, args, null);
+        }
+    }
+
+    public void info(String pattern) {
+        if (logger.isLoggable(Level.INFO)) {
+            log(Level.INFO, pattern, null, null);
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (logger.isLoggable(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{arg}, null);
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (logger.isLoggable(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void info(String pattern, Object... args) {
+        if (logger.isLoggable(Level.INFO)) {
+            log(Level.INFO, pattern, args, null);
+        }
+    }
+
+    public void warn(String pattern) {
+        if (logger.isLoggable(Level.WARNING)) {
+            log(Level.WARNING, pattern, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (logger.isLoggable(Level.WARNING)) {
+            log(Level.WARNING, pattern, new Object[]{arg}, null);
+        }
+    }
+
+    public void warn(String pattern, Object... args) {
+        if (logger.isLoggable(Level.WARNING)) {
+            log(Level.WARNING, pattern, args, null);
+        }
+    }
+
+    public void error(String pattern, Throwable thrown, Object... args) {
+        if (logger.isLoggable(Level.SEVERE)) {
+            logger.log(new LogEvent(Level.SEVERE, category, pattern, args, thrown));
+        }
+    }
+
+    private void log(Level level, String pattern, Object[] args, Throwable thrown) {
+        if (!tryAcquire()) {
+            suppressed.increment();
+            return;
+        }
+        long skipped = suppressed.sumThenReset();
+        if (skipped > 0) {
+            logger.log(new LogEvent(Level.WARNING, category, "{} log events suppressed by the rate limit",
+                    new Object[]{skipped}, null));
+        }
+        logger.log(new LogEvent(level, category, pattern, args, thrown));
+    }
+
+    // Fixed one-second windows on the wall clock, counted with a single CAS
+    private boolean tryAcquire() {
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = window.get();
+            if ((current >>> 20) != second) {
+                if (window.compareAndSet(current, (second << 20) | 1)) {
+                    return true;
+                }
+            } else if ((current & 0xFFFFF) >= maxPerSecond) {
+                return false;
+            } else if (window.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Events dropped by this category's rate limit since the last one was reported. */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,56 @@
+package com.auction.logging;
+
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A log record whose message is only formatted when a handler asks for it.
+ *
+ * The pattern uses {@code {}} placeholders, filled in order by the arguments'
+ * {@code String.valueOf}. Arguments are kept by reference until then, so callers pass values
+ * that do not change afterwards (ids, amounts, names), not mutable objects.
+ */
+final class LogEvent extends LogRecord {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object[] args;
+    private String formatted;
+
+    LogEvent(Level level, String category, String pattern, Object[] args, Throwable thrown) {
+        super(level, pattern);
+        this.args = args;
+        setLoggerName(category);
+        // Setting the source stops JUL from walking the stack, which would also be the wrong
+        // stack once the record is handed to the asynchronous handler
+        setSourceClassName(category);
+        setSourceMethodName(null);
+        if (thrown != null) {
+            setThrown(thrown);
+        }
+    }
+
+    @Override
+    public String getMessage() {
+        String message = formatted;
+        if (message == null) {
+            message = format(super.getMessage(), args);
+            formatted = message;
+        }
+        return message;
+    }
+
+    static String format(String pattern, Object[] args) {
+        if (pattern == null || args == null || args.length == 0) {
+            return pattern;
+        }
+        StringBuilder message = new StringBuilder(pattern.length() + 16 * args.length);
+        int start = 0;
+        int arg = 0;
+        int placeholder;
+        while (arg < args.length && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+            message.append(pattern, start, placeholder).append(args[arg++]);
+            start = placeholder + 2;
+        }
+        return message.append(pattern, start, pattern.length()).toString();
+    }
+}
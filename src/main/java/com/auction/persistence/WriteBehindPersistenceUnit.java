@@ -0,0 +1,121 @@
+package com.auction.persistence;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import jakarta.persistence.SharedCacheMode;
+import jakarta.persistence.ValidationMode;
+import jakarta.persistence.spi.ClassTransformer;
+import jakarta.persistence.spi.PersistenceUnitInfo;
+import jakarta.persistence.spi.PersistenceUnitTransactionType;
+
+import javax.sql.DataSource;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A persistence unit defined in code rather than in persistence.xml, so the container does
+ * not deploy (and demand a data source for) a unit that is only used when write-behind
+ * persistence is switched on.
+ */
+final class WriteBehindPersistenceUnit implements PersistenceUnitInfo {
+
+    static final String UNIT_NAME = "auction-write-behind";
+
+    private final String providerClassName;
+    private final Properties properties;
+    private final ClassLoader classLoader = WriteBehindPersistenceUnit.class.getClassLoader();
+
+    WriteBehindPersistenceUnit(String providerClassName, Properties properties) {
+        this.providerClassName = providerClassName;
+        this.properties = properties;
+    }
+
+    @Override
+    public String getPersistenceUnitName() {
+        return UNIT_NAME;
+    }
+
+    @Override
+    public String getPersistenceProviderClassName() {
+        return providerClassName;
+    }
+
+    @Override
+    public PersistenceUnitTransactionType getTransactionType() {
+        return PersistenceUnitTransactionType.RESOURCE_LOCAL;
+    }
+
+    @Override
+    public DataSource getJtaDataSource() {
+        return null;
+    }
+
+    @Override
+    public DataSource getNonJtaDataSource() {
+        return null; // connections come from the jakarta.persistence.jdbc.* properties
+    }
+
+    @Override
+    public List<String> getMappingFileNames() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<URL> getJarFileUrls() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public URL getPersistenceUnitRootUrl() {
+        return Auction.class.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    @Override
+    public List<String> getManagedClassNames() {
+        return Arrays.asList(Auction.class.getName(), Bid.class.getName(), User.class.getName());
+    }
+
+    @Override
+    public boolean excludeUnlistedClasses() {
+        return true;
+    }
+
+    @Override
+    public SharedCacheMode getSharedCacheMode() {
+        return SharedCacheMode.UNSPECIFIED;
+    }
+
+    @Override
+    public ValidationMode getValidationMode() {
+        return ValidationMode.NONE;
+    }
+
+    @Override
+    public Properties getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String getPersistenceXMLSchemaVersion() {
+        return "3.0";
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    @Override
+    public void addTransformer(ClassTransformer transformer) {
+        // no load-time weaving: the entities are shared with the in-memory engine
+    }
+
+    @Override
+    public ClassLoader getNewTempClassLoader() {
+        return classLoader;
+    }
+}
@@ -0,0 +1,407 @@
+package com.auction.persistence;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.spi.PersistenceProvider;
+import jakarta.persistence.spi.PersistenceProviderResolverHolder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind copy of the in-memory auction state in a relational database.
+ *
+ * The in-memory engine stays authoritative. Callers only mark auctions and users as changed,
+ * which costs a set insert; a background thread flushes every flush interval, or sooner once
+ * batch-size changes are pending. Repeated changes to the same auction between flushes are
+ * coalesced into one row update, and new bids are inserted in JDBC batches. A failed flush is
+ * rolled back and its changes are retried on the next one.
+ */
+public final class WriteBehindStore implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(WriteBehindStore.class.getName());
+
+    public static final String URL_PROPERTY = "auction.persistence.url";
+    public static final String USER_PROPERTY = "auction.persistence.user";
+    public static final String PASSWORD_PROPERTY = "auction.persistence.password";
+    public static final String FLUSH_INTERVAL_PROPERTY = "auction.persistence.flushIntervalMs";
+    public static final String BATCH_SIZE_PROPERTY = "auction.persistence.batchSize";
+    // Any other auction.persistence.jpa.* property is passed to the provider without the prefix
+    public static final String JPA_PROPERTY_PREFIX = "auction.persistence.jpa.";
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Function<Long, Auction> auctionLookup;
+    private final Function<String, User> userLookup;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+
+    private final Set<Long> dirtyAuctions = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+
+    // Highest bid id already in the database, per auction; guarded by the flush lock
+    private final Map<Long, Long> flushedBidIds = new HashMap<>();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public WriteBehindStore(EntityManagerFactory entityManagerFactory,
+                            Function<Long, Auction> auctionLookup, Function<String, User> userLookup,
+                            long flushIntervalMillis, int batchSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auctionLookup = auctionLookup;
+        this.userLookup = userLookup;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.batchSize = Math.max(1, batchSize);
+
+        this.flusher = new Thread(this::runFlusher, "auction-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Builds a store from {@value #URL_PROPERTY} and related system properties.
+     *
+     * @return the store, or null when no JDBC URL is configured
+     */
+    public static WriteBehindStore fromSystemProperties(Function<Long, Auction> auctionLookup,
+                                                        Function<String, User> userLookup) {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null || url.trim().isEmpty()) {
+            return null;
+        }
+        int batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE);
+
+        Properties properties = new Properties();
+        properties.setProperty("jakarta.persistence.jdbc.url", url.trim());
+        properties.setProperty("jakarta.persistence.jdbc.user", System.getProperty(USER_PROPERTY, ""));
+        properties.setProperty("jakarta.persistence.jdbc.password", System.getProperty(PASSWORD_PROPERTY, ""));
+        // EclipseLink (GlassFish's provider) and Hibernate settings; each ignores the other's
+        properties.setProperty("eclipselink.weaving", "false");
+        properties.setProperty("eclipselink.ddl-generation", "create-or-extend-tables");
+        properties.setProperty("eclipselink.ddl-generation.output-mode", "database");
+        properties.setProperty("eclipselink.jdbc.batch-writing", "JDBC");
+        properties.setProperty("eclipselink.jdbc.batch-writing.size", String.valueOf(batchSize));
+        properties.setProperty("eclipselink.logging.level", "WARNING");
+        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        properties.setProperty("hibernate.order_inserts", "true");
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(JPA_PROPERTY_PREFIX)) {
+                properties.setProperty(name.substring(JPA_PROPERTY_PREFIX.length()), System.getProperty(name));
+            }
+        }
+
+        EntityManagerFactory factory = createEntityManagerFactory(properties);
+        long interval = Long.getLong(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+        logger.info("Write-behind persistence enabled: " + url + " (flush every " + interval
+                + " ms or " + batchSize + " changes)");
+        return new WriteBehindStore(factory, auctionLookup, userLookup, interval, batchSize);
+    }
+
+    static EntityManagerFactory createEntityManagerFactory(Properties properties) {
+        List<PersistenceProvider> providers =
+                PersistenceProviderResolverHolder.getPersistenceProviderResolver().getPersistenceProviders();
+        if (providers.isEmpty()) {
+            throw new IllegalStateException("No Jakarta Persistence provider available");
+        }
+        PersistenceProvider provider = providers.get(0);
+        return provider.createContainerEntityManagerFactory(
+                new WriteBehindPersistenceUnit(provider.getClass().getName(), properties), properties);
+    }
+
+    // ---- change tracking (called on the hot path) ----
+
+    // Every change counts towards the batch trigger, even when it coalesces with a pending one
+
+    public void auctionChanged(Long auctionId) {
+        if (auctionId != null) {
+            dirtyAuctions.add(auctionId);
+            changeQueued();
+        }
+    }
+
+    public void userChanged(String username) {
+        if (username != null) {
+            dirtyUsers.add(username);
+            changeQueued();
+        }
+    }
+
+    public void auctionsChanged(Collection<Long> auctionIds) {
+        auctionIds.forEach(this::auctionChanged);
+    }
+
+    public void usersChanged(Collection<String> usernames) {
+        usernames.forEach(this::userChanged);
+    }
+
+    private void changeQueued() {
+        if (pendingChanges.incrementAndGet() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    // ---- flushing ----
+
+    private void runFlusher() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            if (pendingChanges.get() > 0) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes all pending changes in one transaction.
+     *
+     * @return the number of rows written, or -1 if the flush failed and was re-queued
+     */
+    public synchronized int flush() {
+        pendingChanges.set(0);
+        List<String> usernames = drain(dirtyUsers);
+        List<Long> auctionIds = drain(dirtyAuctions);
+        if (usernames.isEmpty() && auctionIds.isEmpty()) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        Map<Long, Long> newFlushedBidIds = new HashMap<>();
+        int rows = 0;
+        try {
+            tx.begin();
+            loadFlushedBidIds(em, auctionIds);
+
+            List<Auction> auctionRows = new ArrayList<>(auctionIds.size());
+            List<Bid> bidRows = new ArrayList<>();
+            List<Long> supersededWinners = new ArrayList<>();
+            for (Long auctionId : auctionIds) {
+                Auction live = auctionLookup.apply(auctionId);
+                if (live == null) {
+                    continue;
+                }
+                long flushedUpTo = flushedBidIds.getOrDefault(auctionId, 0L);
+                long newestBid = flushedUpTo;
+                // Copy under the monitor for a consistent row; no database work happens while holding it
+                synchronized (live) {
+                    auctionRows.add(copyOf(live));
+                    for (Bid bid : live.getBids().values()) {
+                        if (bid.getBidId() > flushedUpTo) {
+                            bidRows.add(copyOf(bid));
+                            newestBid = Math.max(newestBid, bid.getBidId());
+                        }
+                    }
+                }
+                if (newestBid > flushedUpTo) {
+                    if (flushedUpTo > 0) {
+                        supersededWinners.add(auctionId);
+                    }
+                    newFlushedBidIds.put(auctionId, newestBid);
+                }
+            }
+
+            // Earlier bids stop being the winner once a newer one exists
+            for (Long auctionId : supersededWinners) {
+                em.createQuery("UPDATE Bid b SET b.isWinning = false "
+                                + "WHERE b.auctionId = :auctionId AND b.bidId <= :flushedUpTo")
+                        .setParameter("auctionId", auctionId)
+                        .setParameter("flushedUpTo", flushedBidIds.get(auctionId))
+                        .executeUpdate();
+            }
+
+            for (String username : usernames) {
+                User live = userLookup.apply(username);
+                if (live != null) {
+                    em.merge(copyOf(live));
+                    rows = flushBatch(em, rows + 1);
+                }
+            }
+            for (Auction auction : auctionRows) {
+                em.merge(auction);
+                rows = flushBatch(em, rows + 1);
+            }
+            for (Bid bid : bidRows) {
+                em.persist(bid);
+                rows = flushBatch(em, rows + 1);
+            }
+
+            tx.commit();
+            flushedBidIds.putAll(newFlushedBidIds);
+            flushCount.incrementAndGet();
+            rowsWritten.addAndGet(rows);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Write-behind flushed " + rows + " rows in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            failedFlushes.incrementAndGet();
+            // Nothing from this flush is in the database; re-read the bid high-water marks next time
+            auctionIds.forEach(id -> flushedBidIds.remove(id));
+            dirtyUsers.addAll(usernames);
+            dirtyAuctions.addAll(auctionIds);
+            pendingChanges.addAndGet(usernames.size() + auctionIds.size());
+            logger.log(Level.WARNING, "Write-behind flush failed; " + (usernames.size() + auctionIds.size())
+                    + " changes re-queued", e);
+            return -1;
+        } finally {
+            em.close();
+        }
+    }
+
+    // The database may already hold bids from an earlier run; find where each auction left off
+    private void loadFlushedBidIds(EntityManager em, List<Long> auctionIds) {
+        List<Long> unknown = new ArrayList<>();
+        for (Long auctionId : auctionIds) {
+            if (!flushedBidIds.containsKey(auctionId)) {
+                unknown.add(auctionId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        for (Long auctionId : unknown) {
+            flushedBidIds.put(auctionId, 0L);
+        }
+        for (int from = 0; from < unknown.size(); from += batchSize) {
+            List<Long> chunk = unknown.subList(from, Math.min(unknown.size(), from + batchSize));
+            List<Object[]> maxima = em.createQuery("SELECT b.auctionId, MAX(b.bidId) FROM Bid b "
+                            + "WHERE b.auctionId IN :ids GROUP BY b.auctionId", Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Object[] row : maxima) {
+                flushedBidIds.put((Long) row[0], (Long) row[1]);
+            }
+        }
+    }
+
+    private int flushBatch(EntityManager em, int rows) {
+        if (rows % batchSize == 0) {
+            em.flush();
+            em.clear();
+        }
+        return rows;
+    }
+
+    private static <T> List<T> drain(Set<T> dirty) {
+        List<T> drained = new ArrayList<>(dirty.size());
+        for (T key : dirty) {
+            if (dirty.remove(key)) {
+                drained.add(key);
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        entityManagerFactory.close();
+        logger.info("Write-behind store closed after " + flushCount.get() + " flushes, "
+                + rowsWritten.get() + " rows written");
+    }
+
+    public int getPendingCount() {
+        return dirtyAuctions.size() + dirtyUsers.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    // ---- detached copies ----
+
+    private static Auction copyOf(Auction live) {
+        Auction copy = new Auction();
+        copy.setAuctionId(live.getAuctionId());
+        copy.setTitle(live.getTitle());
+        copy.setDescription(live.getDescription());
+        copy.setStartingPrice(live.getStartingPrice());
+        copy.setCurrentHighestBid(live.getCurrentHighestBid());
+        copy.setCurrentHighestBidder(live.getCurrentHighestBidder());
+        copy.setStartTime(live.getStartTime());
+        copy.setEndTime(live.getEndTime());
+        copy.setActive(live.isActive());
+        copy.setStatus(live.getStatus());
+        copy.setCompletedTime(live.getCompletedTime());
+        copy.setWinnerUsername(live.getWinnerUsername());
+        copy.setWinningBid(live.getWinningBid());
+        copy.setTotalBidsCount(live.getTotalBidsCount());
+        copy.setEndReason(live.getEndReason());
+        copy.setSoftCloseWindowSeconds(live.getSoftCloseWindowSeconds());
+        copy.setSoftCloseExtensionSeconds(live.getSoftCloseExtensionSeconds());
+        copy.setExtensionCount(live.getExtensionCount());
+        return copy;
+    }
+
+    private static Bid copyOf(Bid live) {
+        Bid copy = new Bid();
+        copy.setBidId(live.getBidId());
+        copy.setAuctionId(live.getAuctionId());
+        copy.setBidderUsername(live.getBidderUsername());
+        copy.setBidAmount(live.getBidAmount());
+        copy.setBidTime(live.getBidTime());
+        copy.setWinning(live.isWinning());
+        return copy;
+    }
+
+    private static User copyOf(User live) {
+        User copy = new User();
+        copy.setUsername(live.getUsername());
+        copy.setEmail(live.getEmail());
+        copy.setPasswordHash(live.getPasswordHash());
+        copy.setLastActivityMillis(live.getLastActivityMillis());
+        copy.setActive(live.isActive());
+        copy.setAdmin(live.isAdmin());
+        return copy;
+    }
+}
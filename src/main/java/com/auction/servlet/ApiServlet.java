@@ -0,0 +1,471 @@
+package com.auction.servlet;
+
+import com.auction.cache.AuctionPayloadCache;
+import com.auction.dto.AuctionDTO;
+import com.auction.dto.BidResult;
+import com.auction.ejb.AuctionServiceRemote;
+import com.auction.ejb.BidServiceRemote;
+import com.auction.ejb.UserServiceRemote;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import com.auction.filter.SessionFilter;
+import com.auction.session.UserSessionManagerRemote;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.ejb.EJB;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * JSON API for the mobile app and partners.
+ *
+ * <pre>
+ * GET  /api/auctions?status=active|completed&amp;cursor=&amp;limit=   auction list, one page
+ * GET  /api/auctions/{id}                                  one auction
+ * GET  /api/auctions/{id}/bids?cursor=&amp;limit=             bid history, newest first
+ * POST /api/auctions/{id}/bids   {"amount": 125.0}         place a bid (logged in)
+ * GET  /api/profile                                        the logged-in user
+ * </pre>
+ *
+ * Lists are paged with an opaque cursor taken from the previous page's {@code nextCursor}
+ * (null on the last page). Active auctions are listed oldest first and completed ones newest
+ * first, both by auction id, so pages stay stable while auctions are added. Responses are
+ * streamed: auctions are copied from their cached encoded payloads and bids are written one by
+ * one, so no response is built in memory. Auction reads carry version ETags and answer
+ * {@code If-None-Match} with 304 without touching a DTO.
+ */
+@WebServlet(name = "ApiServlet", urlPatterns = {"/api/*"})
+public class ApiServlet extends HttpServlet {
+
+    private static final Logger logger = Logger.getLogger(ApiServlet.class.getName());
+
+    private static final String JSON = "application/json;charset=UTF-8";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private static final byte[] AUCTIONS_START = bytes("{\"auctions\":[");
+    private static final byte[] NEXT_CURSOR = bytes("],\"nextCursor\":");
+    private static final byte[] NULL = bytes("null");
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    // Auction lists ordered for cursor paging, rebuilt when the catalog version moves
+    private static volatile Listing listing;
+
+    @EJB
+    private AuctionServiceRemote auctionService;
+
+    @EJB
+    private BidServiceRemote bidService;
+
+    @EJB
+    private UserServiceRemote userService;
+
+    @EJB
+    private UserSessionManagerRemote sessionManager;
+
+    private static final class Listing {
+        final long catalogVersion;
+        final AuctionDTO[] active;     // ascending id
+        final AuctionDTO[] completed;  // descending id
+
+        Listing(long catalogVersion, List<AuctionDTO> active, List<AuctionDTO> completed) {
+            this.catalogVersion = catalogVersion;
+            this.active = active.toArray(new AuctionDTO[0]);
+            this.completed = completed.toArray(new AuctionDTO[0]);
+            Arrays.sort(this.active, Comparator.comparingLong(AuctionDTO::getAuctionId));
+            Arrays.sort(this.completed, Comparator.comparingLong(AuctionDTO::getAuctionId).reversed());
+        }
+    }
+
+    /**
+     * Thrown for requests the API cannot serve; becomes a JSON error body.
+     */
+    static final class ApiException extends Exception {
+        final int status;
+        final String code;
+
+        ApiException(int status, String code, String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String[] path = splitPath(request.getPathInfo());
+        try {
+            if (path.length == 1 && path[0].equals("auctions")) {
+                listAuctions(request, response);
+            } else if (path.length == 2 && path[0].equals("auctions")) {
+                getAuction(request, response, parseId(path[1]));
+            } else if (path.length == 3 && path[0].equals("auctions") && path[2].equals("bids")) {
+                listBids(request, response, parseId(path[1]));
+            } else if (path.length == 1 && path[0].equals("profile")) {
+                getProfile(request, response);
+            } else {
+                throw new ApiException(HttpServletResponse.SC_NOT_FOUND, "not_found", "No such resource");
+            }
+        } catch (ApiException e) {
+            sendError(response, e);
+        } catch (Exception e) {
+            logger.severe("API error for GET " + request.getPathInfo() + ": " + e.getMessage());
+            sendError(response, new ApiException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "internal_error", "An unexpected error occurred"));
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String[] path = splitPath(request.getPathInfo());
+        try {
+            if (path.length == 3 && path[0].equals("auctions") && path[2].equals("bids")) {
+                placeBid(request, response, parseId(path[1]));
+            } else {
+                throw new ApiException(HttpServletResponse.SC_NOT_FOUND, "not_found", "No such resource");
+            }
+        } catch (ApiException e) {
+            sendError(response, e);
+        } catch (Exception e) {
+            logger.severe("API error for POST " + request.getPathInfo() + ": " + e.getMessage());
+            sendError(response, new ApiException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "internal_error", "An unexpected error occurred"));
+        }
+    }
+
+    private void listAuctions(HttpServletRequest request, HttpServletResponse response)
+            throws IOException, ApiException {
+        String status = request.getParameter("status");
+        boolean completed;
+        if (status == null || status.equals("active")) {
+            completed = false;
+        } else if (status.equals("completed")) {
+            completed = true;
+        } else {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, "invalid_status",
+                    "status must be 'active' or 'completed'");
+        }
+        Long cursor = parseCursor(request);
+        int limit = parseLimit(request);
+
+        long catalogVersion = auctionService.getCatalogVersion();
+        if (ConditionalGet.notModified(request, response,
+                ConditionalGet.versionTag("l", catalogVersion), "Accept-Encoding")) {
+            return;
+        }
+        Listing current = currentListing(catalogVersion);
+        AuctionDTO[] auctions = completed ? current.completed : current.active;
+
+        int from = cursor == null ? 0 : firstAfter(auctions, cursor, completed);
+        int to = Math.min(from + limit, auctions.length);
+
+        response.setContentType(JSON);
+        OutputStream out = response.getOutputStream();
+        out.write(AUCTIONS_START);
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.write(',');
+            }
+            out.write(AuctionPayloadCache.auctionJson(auctions[i]).getJson());
+        }
+        out.write(NEXT_CURSOR);
+        if (to < auctions.length && to > from) {
+            out.write(bytes("\"" + encodeCursor(auctions[to - 1].getAuctionId()) + "\""));
+        } else {
+            out.write(NULL);
+        }
+        out.write('}');
+    }
+
+    private void getAuction(HttpServletRequest request, HttpServletResponse response, Long auctionId)
+            throws IOException, ApiException {
+        long version = requireAuctionVersion(auctionId);
+        if (ConditionalGet.notModified(request, response,
+                ConditionalGet.versionTag("a" + auctionId + ".", version), "Accept-Encoding")) {
+            return;
+        }
+        AuctionDTO auction = auctionService.getAuction(auctionId);
+        if (auction == null) {
+            throw auctionNotFound();
+        }
+        byte[] json = AuctionPayloadCache.auctionJson(auction).getJson();
+        response.setContentType(JSON);
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    private void listBids(HttpServletRequest request, HttpServletResponse response, Long auctionId)
+            throws IOException, ApiException {
+        Long cursor = parseCursor(request);
+        int limit = parseLimit(request);
+
+        // Every accepted bid moves the auction version
+        long version = requireAuctionVersion(auctionId);
+        if (ConditionalGet.notModified(request, response,
+                ConditionalGet.versionTag("b" + auctionId + ".", version), "Accept-Encoding")) {
+            return;
+        }
+
+        // Already newest first, which is descending bid id since ids grow with every bid
+        List<Bid> bids = bidService.getBidsForAuction(auctionId);
+
+        response.setContentType(JSON);
+        try (JsonGenerator generator = AuctionPayloadCache.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeNumberField("auctionId", auctionId);
+            generator.writeArrayFieldStart("bids");
+            int written = 0;
+            Long last = null;
+            boolean more = false;
+            for (Bid bid : bids) {
+                if (cursor != null && bid.getBidId() >= cursor) {
+                    continue;
+                }
+                if (written == limit) {
+                    more = true;
+                    break;
+                }
+                AuctionPayloadCache.writeBid(generator, bid);
+                last = bid.getBidId();
+                written++;
+            }
+            generator.writeEndArray();
+            if (more) {
+                generator.writeStringField("nextCursor", encodeCursor(last));
+            } else {
+                generator.writeNullField("nextCursor");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void placeBid(HttpServletRequest request, HttpServletResponse response, Long auctionId)
+            throws IOException, ApiException {
+        String currentUser = requireUser(request);
+
+        // A JSON body cannot be posted cross-site without a CORS preflight, which is never granted
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase().startsWith("application/json")) {
+            throw new ApiException(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "unsupported_media_type",
+                    "Send the bid as application/json");
+        }
+        double amount = readAmount(request);
+
+        BidResult result = bidService.submitBid(auctionId, currentUser, amount);
+        if (result.isAccepted()) {
+            logger.info("API bid placed: User=" + currentUser + ", Auction=" + auctionId + ", Amount=$" + amount);
+        }
+
+        int status;
+        switch (result.getStatus()) {
+            case ACCEPTED: status = HttpServletResponse.SC_OK; break;
+            case AUCTION_NOT_FOUND: status = HttpServletResponse.SC_NOT_FOUND; break;
+            default: status = HttpServletResponse.SC_CONFLICT; break;
+        }
+        byte[] json = AuctionPayloadCache.bidResult(result).getJson();
+        response.setStatus(status);
+        response.setContentType(JSON);
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    private void getProfile(HttpServletRequest request, HttpServletResponse response)
+            throws IOException, ApiException {
+        String currentUser = requireUser(request);
+        User user = userService.getUserByUsername(currentUser);
+        if (user == null) {
+            throw new ApiException(HttpServletResponse.SC_NOT_FOUND, "user_not_found", "User no longer exists");
+        }
+        int wonAuctions = auctionService.getUserWonAuctions(currentUser).size();
+
+        response.setContentType(JSON);
+        response.setHeader("Cache-Control", "private, no-store");
+        try (JsonGenerator generator = AuctionPayloadCache.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("username", user.getUsername());
+            generator.writeStringField("email", user.getEmail());
+            generator.writeBooleanField("admin", user.isAdmin());
+            generator.writeBooleanField("active", user.isActive());
+            generator.writeStringField("lastActivity",
+                    user.getLastActivity() != null ? user.getLastActivity().toString() : null);
+            generator.writeNumberField("wonAuctions", wonAuctions);
+            generator.writeEndObject();
+        }
+    }
+
+    private Listing currentListing(long catalogVersion) {
+        Listing current = listing;
+        if (current == null || current.catalogVersion != catalogVersion) {
+            // Lists read after the version: at worst newer than tagged, and rebuilt next time
+            current = new Listing(catalogVersion,
+                    auctionService.getAllActiveAuctions(), auctionService.getAllCompletedAuctions());
+            listing = current;
+        }
+        return current;
+    }
+
+    // Index of the first auction after the cursor id in the listing's order
+    static int firstAfter(AuctionDTO[] auctions, long cursor, boolean descending) {
+        int low = 0;
+        int high = auctions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long id = auctions[middle].getAuctionId();
+            if (descending ? id >= cursor : id <= cursor) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long requireAuctionVersion(Long auctionId) throws ApiException {
+        long version = auctionService.getAuctionVersion(auctionId);
+        if (version < 0) {
+            throw auctionNotFound();
+        }
+        return version;
+    }
+
+    private static ApiException auctionNotFound() {
+        return new ApiException(HttpServletResponse.SC_NOT_FOUND, "auction_not_found", "Auction not found");
+    }
+
+    private String requireUser(HttpServletRequest request) throws ApiException {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            String sessionToken = (String) session.getAttribute("sessionToken");
+            String username = (String) session.getAttribute("username");
+            // /api/* is not behind SessionFilter, so check the client binding here as it would;
+            // validates and records the activity in one call
+            if (sessionToken != null && sessionManager.validateAndTouch(sessionToken,
+                    SessionFilter.getClientIpAddress(request), request.getHeader("User-Agent")).isValid()) {
+                return username;
+            }
+        }
+        throw new ApiException(HttpServletResponse.SC_UNAUTHORIZED, "not_logged_in", "Log in first");
+    }
+
+    // Reads {"amount": <number>} from the request body
+    private static double readAmount(HttpServletRequest request) throws IOException, ApiException {
+        try (JsonParser parser = jsonFactory.createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw invalidBody();
+            }
+            Double amount = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("amount") && value.isNumeric()) {
+                    amount = parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (amount == null || amount.isNaN() || amount.isInfinite() || amount <= 0) {
+                throw invalidBody();
+            }
+            return amount;
+        } catch (JsonProcessingException e) {
+            throw invalidBody();
+        }
+    }
+
+    private static ApiException invalidBody() {
+        return new ApiException(HttpServletResponse.SC_BAD_REQUEST, "invalid_body",
+                "Expected {\"amount\": <positive number>}");
+    }
+
+    private static void sendError(HttpServletResponse response, ApiException error) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.reset();
+        response.setStatus(error.status);
+        response.setContentType(JSON);
+        response.setHeader("Cache-Control", "no-store");
+        try (JsonGenerator generator = AuctionPayloadCache.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("error", error.code);
+            generator.writeStringField("message", error.getMessage());
+            generator.writeEndObject();
+        }
+    }
+
+    static String[] splitPath(String pathInfo) {
+        if (pathInfo == null) {
+            return new String[0];
+        }
+        String trimmed = pathInfo.startsWith("/") ? pathInfo.substring(1) : pathInfo;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private static Long parseId(String id) throws ApiException {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, "invalid_id", "Invalid auction ID");
+        }
+    }
+
+    // Cursors are opaque to clients; today they are the last id of the previous page in base 36
+    static String encodeCursor(long id) {
+        return Long.toString(id, 36);
+    }
+
+    private static Long parseCursor(HttpServletRequest request) throws ApiException {
+        String cursor = request.getParameter("cursor");
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor, 36);
+        } catch (NumberFormatException e) {
+            throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, "invalid_cursor", "Invalid cursor");
+        }
+    }
+
+    private static int parseLimit(HttpServletRequest request) throws ApiException {
+        String limit = request.getParameter("limit");
+        if (limit == null || limit.isEmpty()) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value >= 1 && value <= MAX_LIMIT) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new ApiException(HttpServletResponse.SC_BAD_REQUEST, "invalid_limit",
+                "limit must be between 1 and " + MAX_LIMIT);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,7 @@
 package com.auction.servlet;
 
+import com.auction.cache.CompletedPageCache;
+import com.auction.cache.FragmentCache;
 import com.auction.dto.AuctionDTO;
 import com.auction.dto.BidDTO;
 import com.auction.ejb.*;
@@ -16,12 +18,23 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
+import com.auction.template.HtmlOutput;
+import com.auction.template.Template;
+import com.auction.template.TemplateSet;
+import com.auction.time.Clocks;
+import com.auction.time.Timestamps;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Enhanced Online Auction System Servlet
@@ -45,6 +58,52 @@ public class AuctionServlet extends HttpServlet {
     private static final Logger logger = Logger.getLogger(AuctionServlet.class.getName());
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
+    // Templates are compiled once; their static text is pre-encoded to UTF-8
+    private static final TemplateSet LAYOUT = TemplateSet.load("templates/layout.html");
+    private static final TemplateSet MAIN_PAGE = TemplateSet.load("templates/main-page.html");
+    private static final TemplateSet DETAIL_PAGE = TemplateSet.load("templates/auction-detail.html");
+    // The auction list sections are the same for every viewer and are only re-rendered when an
+    // auction in them changes. Active: variant 0 anonymous, 1 logged in (empty-list hint differs);
+    // the completed section does not depend on the viewer.
+    private static final FragmentCache ACTIVE_FRAGMENTS = new FragmentCache("activeAuctions", 2);
+    private static final FragmentCache COMPLETED_FRAGMENTS = new FragmentCache("completedAuctions", 1);
+    // Not immutable: a redeploy can change the layout around an otherwise final page
+    private static final String COMPLETED_PAGE_CACHE_CONTROL = "public, max-age=86400";
+    // Resolved per render: the fingerprint is only known once StaticAssetServlet has started
+    private static final Template.Slots STYLESHEET =
+            (o, slot) -> o.text(StaticAssets.url("css/enhanced-auction-styles.css"));
+
+    // The creation form never changes, so its duration options are rendered once
+    private static final byte[] CREATION_FORM = MAIN_PAGE.get("creationForm").renderToBytes((out, slot) -> {
+        int max = slot.equals("hourOptions") ? 168 : 60; // 7 days of hours, or one hour of minutes
+        for (int i = 0; i <= max; i++) {
+            out.raw("<option value='").number(i).raw(i == 1 ? "' selected>" : "'>").number(i).raw("</option>\n");
+        }
+    });
+
+    // Texts for the ?error= codes the main and detail pages show
+    private static final Map<String, String> ERROR_MESSAGES = Map.ofEntries(
+            Map.entry("login_failed", "❌ Login failed! Invalid username/email or password."),
+            Map.entry("session_expired", "⏰ Your session has expired. Please login again."),
+            Map.entry("access_denied", "🚫 Access denied. Admin privileges required."),
+            Map.entry("admin_login_required", "🔐 Please login with admin credentials to access the admin panel."),
+            Map.entry("missing_credentials", "📝 Please enter both username/email and password."),
+            Map.entry("not_logged_in", "🔑 Please log in to create auctions or place bids."),
+            Map.entry("invalid_bid", "💸 Invalid bid amount. Please enter a valid bid higher than the current bid."),
+            Map.entry("auction_not_found", "🔎 The requested auction could not be found."),
+            Map.entry("auction_ended", "⏳ This auction has already ended. You cannot place more bids."),
+            Map.entry("invalid_duration", "🕒 Invalid auction duration. Please select between 1 minute and 7 days."),
+            Map.entry("missing_fields", "⚠️ Please fill in all required fields."),
+            Map.entry("invalid_price", "💲 Please enter a valid starting price greater than $0."),
+            Map.entry("invalid_numbers", "🔢 Please enter valid numeric values for price and duration."),
+            Map.entry("creation_failed", "❗ Failed to create auction. Please try again."),
+            Map.entry("system_error", "💥 A system error occurred. Please try again later."),
+            Map.entry("user_already_exists", "👤 Username or email already exists. Please choose different credentials."),
+            Map.entry("password_mismatch", "🔁 Passwords do not match. Please try again."),
+            Map.entry("password_too_short", "📏 Password must be at least 4 characters long."),
+            Map.entry("invalid_email", "📧 Please enter a valid email address.")
+    );
+
     @EJB
     private AuctionServiceRemote auctionService;
 
@@ -65,25 +124,19 @@ public class AuctionServlet extends HttpServlet {
             throws ServletException, IOException {
 
         response.setContentType("text/html;charset=UTF-8");
-        PrintWriter out = response.getWriter();
 
         String pathInfo = request.getPathInfo();
 
+        if (pathInfo == null || pathInfo.equals("/")
+                || pathInfo.startsWith("/auction/") || pathInfo.startsWith("/view/")) {
+            renderTemplatedPage(request, response, pathInfo);
+            return;
+        }
+
+        PrintWriter out = response.getWriter();
+
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                showMainAuctionPage(request, out);
-            } else if (pathInfo.startsWith("/auction/")) {
-                String auctionIdStr = pathInfo.substring("/auction/".length());
-                try {
-                    Long auctionId = Long.parseLong(auctionIdStr);
-                    showAuctionDetails(request, out, auctionId);
-                } catch (NumberFormatException e) {
-                    showError(out, "Invalid auction ID", "Please provide a valid auction ID.");
-                }
-            } else if (pathInfo.startsWith("/view/")) {
-                String auctionIdStr = pathInfo.substring(6);
-                showAuctionDetails(request, out, Long.parseLong(auctionIdStr));
-            } else if (pathInfo.equals("/users")) {
+            if (pathInfo.equals("/users")) {
                 showUserList(out);
             } else if (pathInfo.equals("/status")) {
                 showSystemStatus(out);
@@ -137,494 +190,753 @@ public class AuctionServlet extends HttpServlet {
     }
 
     /**
-     * Enhanced main auction page with integrated V1 and V2 features
+     * Main and detail pages are rendered from precompiled templates straight to the response
+     * stream; the other pages still print through the response Writer.
      */
-    private void showMainAuctionPage(HttpServletRequest request, PrintWriter out) {
-        String currentUser = getCurrentUser(request);
-        boolean isLoggedIn = currentUser != null;
-        boolean isAdmin = isLoggedIn && userService.isUserAdmin(currentUser);
-
-        // Get active and completed auctions
-        List<AuctionDTO> activeAuctions = auctionService.getAllActiveAuctions();
-        List<AuctionDTO> completedAuctions = auctionService.getAllCompletedAuctions();
-
-        out.println("<!DOCTYPE html>");
-        out.println("<html lang='en'>");
-        out.println("<head>");
-        out.println("<meta charset='UTF-8'>");
-        out.println("<meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-        out.println("<title>Online Auction System</title>");
-        out.println("<link href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css' rel='stylesheet'>");
-
-        // Add enhanced CSS for new components
-        addEnhancedCSS(out);
-
-        out.println("</head>");
-        out.println("<body>");
-
-        // Add copyright comment
-        addCopyrightComment(out);
-
-        out.println("<div class='container'>");
+    private void renderTemplatedPage(HttpServletRequest request, HttpServletResponse response, String pathInfo)
+            throws IOException {
+        HtmlOutput out = new HtmlOutput(response.getOutputStream());
+        try {
+            if (pathInfo == null || pathInfo.equals("/")) {
+                StatusFigures status;
+                if (isVersionedView(request)) {
+                    // The tag covers the status summary too: the catalog version moves with every
+                    // bid, so it covers the bid volume, and the page is stamped to the minute
+                    status = takeStatusFigures(true);
+                    String etag = ConditionalGet.versionTag("m", auctionService.getCatalogVersion(),
+                            status.activeUsers, status.activeSessions,
+                            Timestamps.toEpochMillis(status.updated) / Timestamps.MILLIS_PER_MINUTE);
+                    if (notModified(request, response, etag)) {
+                        return;
+                    }
+                } else {
+                    status = takeStatusFigures(false);
+                }
+                renderMainAuctionPage(request, out, status);
+            } else {
+                String auctionIdStr = pathInfo.startsWith("/view/")
+                        ? pathInfo.substring("/view/".length())
+                        : pathInfo.substring("/auction/".length());
+                Long auctionId;
+                try {
+                    auctionId = Long.parseLong(auctionIdStr);
+                } catch (NumberFormatException e) {
+                    renderError(out, "Invalid auction ID", "Please provide a valid auction ID.");
+                    return;
+                }
+                if (isVersionedView(request)) {
+                    long version = auctionService.getAuctionVersion(auctionId);
+                    if (version >= 0 && notModified(request, response, ConditionalGet.versionTag("a" + auctionId + ".", version))) {
+                        return;
+                    }
+                }
+                if (!serveCompletedAuctionPage(request, response, auctionId)) {
+                    renderAuctionDetails(request, out, auctionId);
+                }
+            }
+        } catch (Exception e) {
+            logger.severe("Error processing request: " + e.getMessage());
+            // Replace the partial page if nothing has reached the client yet
+            if (!response.isCommitted()) {
+                out.discard();
+                response.resetBuffer();
+            }
+            renderError(out, "Internal server error", "An unexpected error occurred: " + e.getMessage());
+        } finally {
+            out.flush();
+        }
+    }
 
-        // Header with enhanced navigation
-        out.println("<div class='nav-bar'>");
-        out.println("<span style='font-size:28px;'><strong>🏺 Nawwa Online Auction</strong></span>");
-        out.println("<p>An online auction system for selling items with bidding capabilities.</p>");
-        out.println("</div>");
+    /**
+     * Anonymous views without a status message show nothing but auction state and, on the main
+     * page, the status summary, so they can be tagged with the service's version counters and
+     * those figures and revalidated without rendering.
+     */
+    private boolean isVersionedView(HttpServletRequest request) {
+        return request.getQueryString() == null && getCurrentUser(request) == null;
+    }
 
-        // Show messages if any
-        showMessages(request, out);
+    private static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        // Logging in sets a session cookie, after which the page shows the user bar
+        return ConditionalGet.notModified(request, response, etag, "Accept-Encoding, Cookie");
+    }
 
-        // Show user session info if logged in (V1 feature)
-        if (currentUser != null) {
-            showUserInfoBar(request, out, currentUser);
+    /**
+     * Serves a completed auction's page from CompletedPageCache, rendering it on first request.
+     * Only anonymous requests without a status message qualify, since everything else on the
+     * page is then fixed; returns false if the request has to be rendered normally.
+     */
+    private boolean serveCompletedAuctionPage(HttpServletRequest request, HttpServletResponse response,
+                                              Long auctionId) throws IOException {
+        if (request.getQueryString() != null || getCurrentUser(request) != null) {
+            return false;
+        }
+        AuctionDTO auction = auctionService.getAuction(auctionId);
+        if (auction == null || auction.isActive()) {
+            return false;
         }
 
-        // Enhanced Navigation (V1 + V2 combined)
-        showEnhancedNavigation(out, currentUser, isLoggedIn, isAdmin);
-
-        // System Status Summary (V1 feature)
-        showSystemStatusSummary(out, activeAuctions.size(), completedAuctions.size());
+        CompletedPageCache.Page page = CompletedPageCache.get(auctionId, auction.getVersion());
+        if (page == null) {
+            ByteArrayOutputStream html = new ByteArrayOutputStream(16384);
+            HtmlOutput out = new HtmlOutput(html);
+            renderAuctionDetails(request, out, auction);
+            out.flush();
+            page = CompletedPageCache.put(auctionId, auction.getVersion(), html.toByteArray());
+        }
 
-        out.println("<div class='main-content'>");
+        boolean gzip = StaticAssets.acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = page.getEtag(gzip);
+        response.setHeader("Cache-Control", COMPLETED_PAGE_CACHE_CONTROL);
+        // Logging in sets a session cookie, after which the page shows the user bar
+        response.setHeader("Vary", "Accept-Encoding, Cookie");
+        response.setHeader("ETag", etag);
+        if (StaticAssets.etagMatches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
 
-        if (!isLoggedIn) {
-            out.println("<div class='left-panel'>");
-            showLoginForm(out);
-            out.println("</div>");
-            out.println("<div class='right-panel'>");
-            showRegistrationForm(out);
-            out.println("</div>");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength(page.getGzipped().length);
+            response.getOutputStream().write(page.getGzipped());
         } else {
-            out.println("<div class='left-panel'>");
-            showUserInfo(out, currentUser, isAdmin);
-            showEnhancedAuctionCreationForm(out); // V2 enhanced form
-            out.println("</div>");
-            out.println("<div class='right-panel'>");
-            showSystemStatistics(out, activeAuctions.size(), completedAuctions.size());
-            out.println("</div>");
+            response.setContentLength(page.getLength());
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(page.getGzipped()))) {
+                in.transferTo(response.getOutputStream());
+            }
         }
-
-        out.println("</div>"); // End main-content
-
-        // Enhanced: Active auctions section (V2 with V1 features)
-        showActiveAuctionsSection(out, activeAuctions, isLoggedIn);
-
-        // NEW: Completed auctions history section (V2 feature)
-        showCompletedAuctionsSection(out, completedAuctions, isLoggedIn);
-
-        out.println("</div>"); // End container
-
-        // Add footer
-        addFooter(out);
-
-        out.println("</body></html>");
+        return true;
     }
 
     /**
-     * Enhanced navigation combining V1 comprehensive features with V2 styling
+     * Enhanced main auction page with integrated V1 and V2 features
      */
-    private void showEnhancedNavigation(PrintWriter out, String currentUser, boolean isLoggedIn, boolean isAdmin) {
-        // The .nav-bar class is a flex container with "justify-content: space-between".
-        // We create two inner divs to group links to the left and right for proper alignment.
-        out.println("<nav class='nav-bar'>");
-
-        // --- Left-side navigation links ---
-        out.println("  <div class='nav-actions'>");
-        // Replaced emoji with a Font Awesome icon for consistent styling.
-        out.println("    <a href='/AuctionSystem/auction/' class='nav-link'><i class='fa-solid fa-house'></i> Home</a>");
-        out.println("    <a href='/AuctionSystem/auction/users' class='nav-link'><i class='fa-solid fa-users'></i> Users</a>");
-        out.println("    <a href='/AuctionSystem/auction/status' class='nav-link'><i class='fa-solid fa-chart-line'></i> System Status</a>");
-        out.println("    <a href='/AuctionSystem/auction/sessions' class='nav-link'><i class='fa-solid fa-lock'></i> Sessions</a>");
-
-
-        out.println("    <a href='/AuctionSystem/real-time-notifications.html' class='nav-link' target='_blank'><i class='fa-solid fa-bell'></i> Live Updates</a>");
-
+    private void renderMainAuctionPage(HttpServletRequest request, HtmlOutput out, StatusFigures status)
+            throws IOException {
+        String currentUser = getCurrentUser(request);
+        boolean isLoggedIn = currentUser != null;
+        boolean isAdmin = isLoggedIn && userService.isUserAdmin(currentUser);
 
-        // --- Right-side user-specific links ---
-        if (isLoggedIn) {
+        // Get active and completed auctions
+        List<AuctionDTO> activeAuctions = auctionService.getAllActiveAuctions();
+        List<AuctionDTO> completedAuctions = auctionService.getAllCompletedAuctions();
+        LocalDateTime now = Clocks.now();
 
-            out.println("    <a href='/AuctionSystem/auction/profile' class='nav-link'><i class='fa-solid fa-user-circle'></i> Profile</a>");
-            if (isAdmin) {
-                // The styled .admin-link is now grouped on the right.
-                out.println("    <a href='/AuctionSystem/auction/admin/sessions/' class='nav-link admin-link'><i class='fa-solid fa-screwdriver-wrench'></i> Admin Panel</a>");
+        renderPageStart(out, "Online Auction System");
+        MAIN_PAGE.get("page").render(out, (o, slot) -> {
+            switch (slot) {
+                case "messages":
+                    renderMessages(request, o);
+                    break;
+                case "userBar":
+                    if (isLoggedIn) {
+                        renderUserInfoBar(request, o, currentUser, isAdmin);
+                    }
+                    break;
+                case "navigation":
+                    renderNavigation(o, isLoggedIn, isAdmin);
+                    break;
+                case "statusSummary":
+                    renderSystemStatusSummary(o, activeAuctions.size(), completedAuctions.size(), status);
+                    break;
+                case "panels":
+                    if (isLoggedIn) {
+                        renderMemberPanels(o, currentUser, isAdmin, activeAuctions.size(), completedAuctions.size());
+                    } else {
+                        MAIN_PAGE.get("guestPanels").render(o);
+                    }
+                    break;
+                case "activeAuctions":
+                    o.write(ACTIVE_FRAGMENTS.get(isLoggedIn ? 1 : 0, activeContentKey(activeAuctions, now),
+                            fragment -> renderActiveAuctionsSection(fragment, activeAuctions, isLoggedIn, now)));
+                    break;
+                case "completedAuctions":
+                    o.write(COMPLETED_FRAGMENTS.get(0, completedContentKey(completedAuctions),
+                            fragment -> renderCompletedAuctionsSection(fragment, completedAuctions)));
+                    break;
+                default:
+                    throw unknownSlot(slot);
             }
-            out.println("  </div>");
-        }
+        });
+        renderPageEnd(out);
+    }
 
-        out.println("</nav>");
+    private void renderNavigation(HtmlOutput out, boolean isLoggedIn, boolean isAdmin) throws IOException {
+        MAIN_PAGE.get("navigation").render(out, (o, slot) -> {
+            if (isLoggedIn) {
+                MAIN_PAGE.get("memberLinks").render(o, (links, adminSlot) -> {
+                    if (isAdmin) {
+                        MAIN_PAGE.get("adminLink").render(links);
+                    }
+                });
+            }
+        });
     }
 
     /**
      * V1 System Status Summary with V2 styling
      */
-    private void showSystemStatusSummary(PrintWriter out, int activeCount, int completedCount) {
-        int activeUsers = userService.getActiveUserCount();
-        int activeSessions = sessionManager.getActiveSessionCount();
+    private void renderSystemStatusSummary(HtmlOutput out, int activeCount, int completedCount, StatusFigures status)
+            throws IOException {
         double totalBidVolume = auctionManager.getTotalBidVolume();
 
-        out.println("<div style='background-color: #f8f9fa; border-left: 4px solid #007bff; padding: 15px; margin: 15px 0; border-radius: 4px; font-size: 14px; color: #495057;'>");
-        out.println("<div style='display: flex; align-items: center; margin-bottom: 5px;'>");
-        out.println("<span style='margin-right: 8px; font-size: 16px;'>📈</span>");
-        out.println("<strong style='color: #333;'>System Status:</strong>");
-        out.println("<span style='margin-left: 8px;'>" + activeCount + " active auctions • " + completedCount + " completed • " + activeUsers + " users • " + activeSessions + " sessions • $" + String.format("%.2f", totalBidVolume) + " total volume</span>");
-        out.println("</div>");
-        out.println("<div style='font-size: 12px; color: #6c757d; margin-top: 5px;'>");
-        out.println("Last updated: " + LocalDateTime.now().format(formatter) + " UTC");
-        out.println("</div>");
-        out.println("</div>");
+        MAIN_PAGE.get("statusSummary").render(out, (o, slot) -> {
+            switch (slot) {
+                case "activeCount": o.number(activeCount); break;
+                case "completedCount": o.number(completedCount); break;
+                case "activeUsers": o.number(status.activeUsers); break;
+                case "activeSessions": o.number(status.activeSessions); break;
+                case "totalVolume": o.money(totalBidVolume); break;
+                case "updated": o.time(status.updated); break;
+                default: throw unknownSlot(slot);
+            }
+        });
     }
 
     /**
-     * V1 User Info Bar with enhanced styling
+     * Reads the user and session counts shown in the status summary once, so that a versioned
+     * page is rendered with the same figures its tag was computed from. Versioned pages are
+     * stamped with the start of the current minute, which the tag also carries.
      */
-    private void showUserInfoBar(HttpServletRequest request, PrintWriter out, String username) {
-        HttpSession session = request.getSession(false);
-        String sessionToken = session != null ? (String) session.getAttribute("sessionToken") : null;
-
-        // FIX: Replaced 'user-info' with 'message message-success' for the styled green bar.
-        out.println("<div class='message message-success'>");
-
-        // FIX: Replaced emoji with a Font Awesome icon for consistency.
-        out.println("<strong><i class='fa-solid fa-user'></i> Welcome, " + escapeHtml(username) + "!</strong> ");
+    private StatusFigures takeStatusFigures(boolean versioned) {
+        LocalDateTime updated = versioned
+                ? Timestamps.toLocalDateTime(Clocks.millis() / Timestamps.MILLIS_PER_MINUTE * Timestamps.MILLIS_PER_MINUTE)
+                : Clocks.now();
+        return new StatusFigures(userService.getActiveUserCount(), sessionManager.getActiveSessionCount(), updated);
+    }
 
-        // FIX: Replaced 'admin-badge' with the standard 'badge' class.
-        if (userService.isUserAdmin(username)) {
-            out.println("<span class='badge' style='background-color: #e74c3c;'>ADMIN</span> ");
-        }
+    private static final class StatusFigures {
+        final int activeUsers;
+        final int activeSessions;
+        final LocalDateTime updated;
 
-        if (sessionToken != null) {
-            ActiveSessionInfo sessionInfo = sessionManager.getSessionInfo(sessionToken);
-            if (sessionInfo != null) {
-                out.println("| Session: " + sessionInfo.getSessionDurationMinutes() + " min ");
-                out.println("| Inactive: " + sessionInfo.getInactiveDurationMinutes() + " min ago ");
-            }
+        StatusFigures(int activeUsers, int activeSessions, LocalDateTime updated) {
+            this.activeUsers = activeUsers;
+            this.activeSessions = activeSessions;
+            this.updated = updated;
         }
+    }
 
-        // FIX: Corrected the broken HTML href and CSS classes. Replaced emoji with icon.
-        out.println("| <a href='/AuctionSystem/auction/change-password' class='btn btn-small btn-secondary'>");
-        out.println("<i class='fa-solid fa-key'></i> Change Password");
-        out.println("</a> |");
+    /**
+     * V1 User Info Bar with enhanced styling
+     */
+    private void renderUserInfoBar(HttpServletRequest request, HtmlOutput out, String username, boolean isAdmin)
+            throws IOException {
+        HttpSession session = request.getSession(false);
+        String sessionToken = session != null ? (String) session.getAttribute("sessionToken") : null;
+        ActiveSessionInfo sessionInfo = sessionToken != null ? sessionManager.getSessionInfo(sessionToken) : null;
 
-        // FIX: Used a valid button style. An inline style is used for the red color.
-        out.println("<a href='/AuctionSystem/auction/logout' class='btn btn-small' style='background-color: #c0392b; color: white;'>");
-        out.println("<i class='fas fa-sign-out-alt'></i> Logout");
-        out.println("</a>");
+        MAIN_PAGE.get("userBar").render(out, (o, slot) -> {
+            switch (slot) {
+                case "username":
+                    o.text(username);
+                    break;
+                case "adminBadge":
+                    if (isAdmin) {
+                        MAIN_PAGE.get("userBarAdminBadge").render(o);
+                    }
+                    break;
+                case "sessionInfo":
+                    if (sessionInfo != null) {
+                        MAIN_PAGE.get("userBarSessionInfo").render(o, (info, infoSlot) -> info.number(
+                                infoSlot.equals("sessionMinutes")
+                                        ? sessionInfo.getSessionDurationMinutes()
+                                        : sessionInfo.getInactiveDurationMinutes()));
+                    }
+                    break;
+                default:
+                    throw unknownSlot(slot);
+            }
+        });
+    }
 
-        // FIX: Removed the stray, unopened </form> tag.
-        out.println("</div>");
+    /**
+     * V2 Enhanced user info, auction creation form and system statistics for logged-in users
+     */
+    private void renderMemberPanels(HtmlOutput out, String username, boolean isAdmin,
+                                    int activeCount, int completedCount) throws IOException {
+        MAIN_PAGE.get("memberPanels").render(out, (o, slot) -> {
+            switch (slot) {
+                case "username": o.text(username); break;
+                case "administratorBadge":
+                    if (isAdmin) {
+                        MAIN_PAGE.get("administratorBadge").render(o);
+                    }
+                    break;
+                case "adminPanelButton":
+                    if (isAdmin) {
+                        MAIN_PAGE.get("adminPanelButton").render(o);
+                    }
+                    break;
+                case "userStatistics": renderUserStatistics(o, username); break;
+                case "creationForm": o.write(CREATION_FORM); break;
+                case "activeCount": o.number(activeCount); break;
+                case "completedCount": o.number(completedCount); break;
+                case "totalCount": o.number(activeCount + completedCount); break;
+                default: throw unknownSlot(slot);
+            }
+        });
     }
 
     /**
-     * V2 Enhanced auction creation form with hours/minutes precision
+     * V2 Show user statistics
      */
-    private void showEnhancedAuctionCreationForm(PrintWriter out) {
-        out.println("<div class='form-container'>");
-        out.println("<h3><i class='fas fa-plus-circle'></i> Create New Auction</h3>");
-        out.println("<form method='post' action='/AuctionSystem/auction/create' class='auction-form'>");
-
-        // Title field
-        out.println("<div class='form-group'>");
-        out.println("<label for='title'><i class='fas fa-tag'></i> Auction Title:</label>");
-        out.println("<input type='text' id='title' name='title' required maxlength='100' placeholder='Enter auction title'>");
-        out.println("</div>");
+    private void renderUserStatistics(HtmlOutput out, String username) throws IOException {
+        List<AuctionDTO> wonAuctions;
+        try {
+            // Get user's won auctions
+            wonAuctions = auctionService.getUserWonAuctions(username);
+        } catch (Exception e) {
+            logger.warning("Error getting user statistics for " + username + ": " + e.getMessage());
+            return;
+        }
 
-        // Description field
-        out.println("<div class='form-group'>");
-        out.println("<label for='description'><i class='fas fa-align-left'></i> Description:</label>");
-        out.println("<textarea id='description' name='description' required maxlength='500' placeholder='Describe your item...'></textarea>");
-        out.println("</div>");
+        // Calculate total value of won auctions
+        double totalWinnings = wonAuctions.stream()
+                .mapToDouble(AuctionDTO::getWinningBid)
+                .sum();
 
-        // Starting price field
-        out.println("<div class='form-group'>");
-        out.println("<label for='startingPrice'><i class='fas fa-dollar-sign'></i> Starting Price ($):</label>");
-        out.println("<input type='number' id='startingPrice' name='startingPrice' required min='0.01' step='0.01' placeholder='0.00'>");
-        out.println("</div>");
+        MAIN_PAGE.get("userStatistics").render(out, (o, slot) -> {
+            if (slot.equals("wonCount")) {
+                o.number(wonAuctions.size());
+            } else {
+                o.money(totalWinnings);
+            }
+        });
+    }
 
-        // Enhanced: Duration selector with hours and minutes
-        out.println("<div class='form-group'>");
-        out.println("<label><i class='fas fa-clock'></i> Auction Duration:</label>");
-        out.println("<div class='duration-selector'>");
-
-        // Hours selector
-        out.println("<div class='time-input-group'>");
-        out.println("<label for='durationHours'>Hours:</label>");
-        out.println("<select id='durationHours' name='durationHours' required>");
-        for (int i = 0; i <= 168; i++) { // 0 to 168 hours (7 days)
-            String selected = (i == 1) ? " selected" : "";
-            out.println("<option value='" + i + "'" + selected + ">" + i + "</option>");
+    // Everything an active row shows follows from the auction's version, except whether it has
+    // passed its end time since the list was built
+    static long[] activeContentKey(List<AuctionDTO> auctions, LocalDateTime now) {
+        long[] key = new long[auctions.size() * 3];
+        int i = 0;
+        for (AuctionDTO auction : auctions) {
+            key[i++] = auction.getAuctionId();
+            key[i++] = auction.getVersion();
+            key[i++] = auction.getEndTime().isBefore(now) ? 1 : 0;
         }
-        out.println("</select>");
-        out.println("</div>");
+        return key;
+    }
 
-        // Minutes selector
-        out.println("<div class='time-input-group'>");
-        out.println("<label for='durationMinutes'>Minutes:</label>");
-        out.println("<select id='durationMinutes' name='durationMinutes' required>");
-        for (int min = 0; min <= 60; min++) { // 0 to 60 min (1 hour)
-            String selected = (min == 1) ? " selected" : "";
-            out.println("<option value='" + min + "'" + selected + ">" + min + "</option>");
+    static long[] completedContentKey(List<AuctionDTO> auctions) {
+        long[] key = new long[auctions.size() * 2];
+        int i = 0;
+        for (AuctionDTO auction : auctions) {
+            key[i++] = auction.getAuctionId();
+            key[i++] = auction.getVersion();
         }
-        out.println("</select>");
-        out.println("</div>");
-
-        out.println("</div>"); // End duration-selector
-
-        // Duration help text
-        out.println("<div class='duration-help'>");
-        out.println("<small><i class='fas fa-info-circle'></i> ");
-        out.println("Minimum: 1 minute | Maximum: 7 days (168 hours)");
-        out.println("</small>");
-        out.println("</div>");
-
-        out.println("</div>"); // End form-group
-
-        // Submit button
-        out.println("<div class='form-group'>");
-        out.println("<button type='submit' class='btn btn-success btn-create'>");
-        out.println("<i class='fas fa-gavel'></i> Create Auction");
-        out.println("</button>");
-        out.println("</div>");
-
-        out.println("</form>");
-        out.println("</div>");
+        return key;
     }
 
     /**
      * V2 Enhanced active auctions section
      */
-    private void showActiveAuctionsSection(PrintWriter out, List<AuctionDTO> activeAuctions, boolean isLoggedIn) {
-        out.println("<div class='auction-section'>");
-        out.println("<div class='section-header'>");
-        out.println("<h2><i class='fas fa-fire'></i> Active Auctions</h2>");
-        out.println("<span class='badge'>" + activeAuctions.size() + " active</span>");
-        out.println("</div>");
-
-        if (activeAuctions.isEmpty()) {
-            out.println("<div class='empty-state'>");
-            out.println("<i class='fas fa-gavel'></i>");
-            out.println("<p>No active auctions at the moment.</p>");
-            if (isLoggedIn) {
-                out.println("<p>Be the first to create one!</p>");
-            }
-            out.println("</div>");
-        } else {
-            out.println("<div class='table-container'>");
-            out.println("<table class='auction-table'>");
-            out.println("<thead>");
-            out.println("<tr>");
-            out.println("<th><i class='fas fa-hashtag'></i> ID</th>");
-            out.println("<th><i class='fas fa-tag'></i> Title</th>");
-            out.println("<th><i class='fas fa-align-left'></i> Description</th>");
-            out.println("<th><i class='fas fa-dollar-sign'></i> Current Bid</th>");
-            out.println("<th><i class='fas fa-user'></i> Leading Bidder</th>");
-            out.println("<th><i class='fas fa-clock'></i> Ends At</th>");
-            out.println("<th><i class='fas fa-chart-bar'></i> Bids</th>");
-            out.println("<th><i class='fas fa-flag'></i> Status</th>");
-            out.println("<th><i class='fas fa-cogs'></i> Actions</th>");
-            out.println("</tr>");
-            out.println("</thead>");
-            out.println("<tbody>");
-
-            for (AuctionDTO auction : activeAuctions) {
-                boolean isExpired = auction.getEndTime().isBefore(LocalDateTime.now());
-                out.println("<tr class='auction-row'" + (isExpired ? " style='background-color: #fff3cd;'" : "") + ">");
-                out.println("<td><span class='auction-id'>#" + auction.getAuctionId() + "</span></td>");
-                out.println("<td><strong>" + escapeHtml(auction.getTitle()) + "</strong></td>");
-                out.println("<td>" + (auction.getDescription().length() > 50 ?
-                        escapeHtml(auction.getDescription().substring(0, 50)) + "..." :
-                        escapeHtml(auction.getDescription())) + "</td>");
-                out.println("<td class='price'>$" + String.format("%.2f", auction.getCurrentHighestBid()) + "</td>");
-                out.println("<td class='bidder'>" +
-                        (auction.getCurrentHighestBidder() != null ?
-                                "🏆 " + escapeHtml(auction.getCurrentHighestBidder()) :
-                                "<em>No bids yet</em>") + "</td>");
-                out.println("<td class='end-time'>" + auction.getEndTime().format(formatter) + "</td>");
-                out.println("<td class='bid-count'>" + auction.getBidCount() + "</td>");
-                out.println("<td class='status'>" + (auction.isActive() && !isExpired ? "🟢 Active" : "🔴 Ended") + "</td>");
-                out.println("<td class='actions'>");
-                out.println("<a href='/AuctionSystem/auction/view/" + auction.getAuctionId() +
-                        "' class='btn btn-small'>");
-                out.println("<i class='fas fa-eye'></i> View");
-                out.println("</a>");
-                out.println("</td>");
-                out.println("</tr>");
+    private void renderActiveAuctionsSection(HtmlOutput out, List<AuctionDTO> activeAuctions, boolean isLoggedIn,
+                                             LocalDateTime now) throws IOException {
+        MAIN_PAGE.get("activeSection").render(out, (o, slot) -> {
+            if (slot.equals("count")) {
+                o.number(activeAuctions.size());
+            } else if (activeAuctions.isEmpty()) {
+                MAIN_PAGE.get("activeEmpty").render(o, (empty, hint) -> {
+                    if (isLoggedIn) {
+                        MAIN_PAGE.get("activeCreateHint").render(empty);
+                    }
+                });
+            } else {
+                MAIN_PAGE.get("activeTable").render(o, (table, rows) -> {
+                    for (AuctionDTO auction : activeAuctions) {
+                        renderActiveAuctionRow(table, auction, now);
+                    }
+                });
             }
+        });
+    }
 
-            out.println("</tbody>");
-            out.println("</table>");
-            out.println("</div>"); // End table-container
-        }
-
-        out.println("</div>"); // End auction-section
+    private void renderActiveAuctionRow(HtmlOutput out, AuctionDTO auction, LocalDateTime now) throws IOException {
+        boolean isExpired = auction.getEndTime().isBefore(now);
+        MAIN_PAGE.get("activeRow").render(out, (o, slot) -> {
+            switch (slot) {
+                case "rowStyle":
+                    if (isExpired) {
+                        o.raw(" style='background-color: #fff3cd;'");
+                    }
+                    break;
+                case "id": o.number(auction.getAuctionId()); break;
+                case "title": o.text(auction.getTitle()); break;
+                case "description":
+                    if (o.text(auction.getDescription(), 50)) {
+                        o.raw("...");
+                    }
+                    break;
+                case "price": o.money(auction.getCurrentHighestBid()); break;
+                case "bidder":
+                    if (auction.getCurrentHighestBidder() != null) {
+                        o.raw("🏆 ").text(auction.getCurrentHighestBidder());
+                    } else {
+                        o.raw("<em>No bids yet</em>");
+                    }
+                    break;
+                case "endTime": o.time(auction.getEndTime()); break;
+                case "bidCount": o.number(auction.getBidCount()); break;
+                case "status": o.raw(auction.isActive() && !isExpired ? "🟢 Active" : "🔴 Ended"); break;
+                default: throw unknownSlot(slot);
+            }
+        });
     }
 
     /**
      * V2 NEW: Completed auctions history section
      */
-    private void showCompletedAuctionsSection(PrintWriter out, List<AuctionDTO> completedAuctions, boolean isLoggedIn) {
-        out.println("<div class='auction-section history-section'>");
-        out.println("<div class='section-header'>");
-        out.println("<h2><i class='fas fa-history'></i> Auction History (Completed)</h2>");
-        out.println("<span class='badge badge-secondary'>" + completedAuctions.size() + " completed</span>");
-        out.println("</div>");
-
-        if (completedAuctions.isEmpty()) {
-            out.println("<div class='empty-state'>");
-            out.println("<i class='fas fa-archive'></i>");
-            out.println("<p>No completed auctions yet.</p>");
-            out.println("<p>Completed auctions will appear here with winner information.</p>");
-            out.println("</div>");
-        } else {
-            out.println("<div class='table-container'>");
-            out.println("<table class='auction-table history-table'>");
-            out.println("<thead>");
-            out.println("<tr>");
-            out.println("<th><i class='fas fa-hashtag'></i> ID</th>");
-            out.println("<th><i class='fas fa-tag'></i> Title</th>");
-            out.println("<th><i class='fas fa-trophy'></i> Final Price</th>");
-            out.println("<th><i class='fas fa-crown'></i> Winner</th>");
-            out.println("<th><i class='fas fa-calendar-check'></i> Completed</th>");
-            out.println("<th><i class='fas fa-chart-bar'></i> Total Bids</th>");
-            out.println("<th><i class='fas fa-flag'></i> Status</th>");
-            out.println("<th><i class='fas fa-cogs'></i> Actions</th>");
-            out.println("</tr>");
-            out.println("</thead>");
-            out.println("<tbody>");
-
-            for (AuctionDTO auction : completedAuctions) {
-                out.println("<tr class='auction-row history-row'>");
-                out.println("<td><span class='auction-id'>#" + auction.getAuctionId() + "</span></td>");
-                out.println("<td><strong>" + escapeHtml(auction.getTitle()) + "</strong></td>");
-
-                // Final price with winner highlighting
-                if (auction.hasWinner()) {
-                    out.println("<td class='price winner-price'>$" +
-                            String.format("%.2f", auction.getWinningBid()) + "</td>");
-                } else {
-                    out.println("<td class='price no-winner'>$" +
-                            String.format("%.2f", auction.getStartingPrice()) + "</td>");
-                }
-
-                // Winner information
-                if (auction.hasWinner()) {
-                    out.println("<td class='winner'>");
-                    out.println("<span class='winner-badge'>");
-                    out.println("<i class='fas fa-crown'></i> " + escapeHtml(auction.getWinnerUsername()));
-                    out.println("</span>");
-                    out.println("</td>");
-                } else {
-                    out.println("<td class='no-winner'><em>No winner</em></td>");
-                }
-
-                // Completion time
-                LocalDateTime completedTime = auction.getCompletedTime() != null ?
-                        auction.getCompletedTime() : auction.getEndTime();
-                out.println("<td class='end-time'>" + completedTime.format(formatter) + "</td>");
-
-                // Total bids
-                out.println("<td class='bid-count'>" + auction.getBidCount() + "</td>");
-
-                // Status
-                out.println("<td class='status'>" + auction.getDisplayStatus() + "</td>");
-
-                // Actions
-                out.println("<td class='actions'>");
-                out.println("<a href='/AuctionSystem/auction/view/" + auction.getAuctionId() +
-                        "' class='btn btn-small btn-secondary'>");
-                out.println("<i class='fas fa-eye'></i> View Details");
-                out.println("</a>");
-                out.println("</td>");
-                out.println("</tr>");
+    private void renderCompletedAuctionsSection(HtmlOutput out, List<AuctionDTO> completedAuctions)
+            throws IOException {
+        MAIN_PAGE.get("completedSection").render(out, (o, slot) -> {
+            if (slot.equals("count")) {
+                o.number(completedAuctions.size());
+            } else if (completedAuctions.isEmpty()) {
+                MAIN_PAGE.get("completedEmpty").render(o);
+            } else {
+                MAIN_PAGE.get("completedTable").render(o, (table, rows) -> {
+                    for (AuctionDTO auction : completedAuctions) {
+                        renderCompletedAuctionRow(table, auction);
+                    }
+                });
             }
+        });
+    }
 
-            out.println("</tbody>");
-            out.println("</table>");
-            out.println("</div>"); // End table-container
-        }
-
-        out.println("</div>"); // End auction-section
+    private void renderCompletedAuctionRow(HtmlOutput out, AuctionDTO auction) throws IOException {
+        MAIN_PAGE.get("completedRow").render(out, (o, slot) -> {
+            switch (slot) {
+                case "id": o.number(auction.getAuctionId()); break;
+                case "title": o.text(auction.getTitle()); break;
+                case "price":
+                    // Final price with winner highlighting
+                    if (auction.hasWinner()) {
+                        MAIN_PAGE.get("completedWinnerPrice").render(o, (p, s) -> p.money(auction.getWinningBid()));
+                    } else {
+                        MAIN_PAGE.get("completedNoWinnerPrice").render(o, (p, s) -> p.money(auction.getStartingPrice()));
+                    }
+                    break;
+                case "winner":
+                    if (auction.hasWinner()) {
+                        MAIN_PAGE.get("completedWinner").render(o, (w, s) -> w.text(auction.getWinnerUsername()));
+                    } else {
+                        MAIN_PAGE.get("completedNoWinner").render(o);
+                    }
+                    break;
+                case "completedTime":
+                    o.time(auction.getCompletedTime() != null ? auction.getCompletedTime() : auction.getEndTime());
+                    break;
+                case "bidCount": o.number(auction.getBidCount()); break;
+                case "status": o.raw(auction.getDisplayStatus()); break;
+                default: throw unknownSlot(slot);
+            }
+        });
     }
 
     /**
      * Enhanced auction details view combining V1 and V2 features
      */
-    private void showAuctionDetails(HttpServletRequest request, PrintWriter out, Long auctionId) {
-        String currentUser = getCurrentUser(request);
-        boolean isLoggedIn = currentUser != null;
-
+    private void renderAuctionDetails(HttpServletRequest request, HtmlOutput out, Long auctionId) throws IOException {
         AuctionDTO auction = auctionService.getAuction(auctionId);
         if (auction == null) {
-            showError(out, "Auction Not Found", "The requested auction does not exist.");
+            renderError(out, "Auction Not Found", "The requested auction does not exist.");
             return;
         }
+        renderAuctionDetails(request, out, auction);
+    }
+
+    private void renderAuctionDetails(HttpServletRequest request, HtmlOutput out, AuctionDTO auction)
+            throws IOException {
+        String currentUser = getCurrentUser(request);
+        boolean isLoggedIn = currentUser != null;
+        Long auctionId = auction.getAuctionId();
 
         List<Bid> bids = bidService.getBidsForAuction(auctionId);
+        boolean isExpired = auction.getEndTime().isBefore(Clocks.now());
+        boolean isOpen = auction.isActive() && !isExpired;
+        boolean isAdmin = isLoggedIn && userService.isUserAdmin(currentUser);
 
-        out.println("<!DOCTYPE html>");
-        out.println("<html lang='en'>");
-        out.println("<head>");
-        out.println("<meta charset='UTF-8'>");
-        out.println("<meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-        out.println("<title>Auction Details - " + escapeHtml(auction.getTitle()) + "</title>");
-        out.println("<link href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css' rel='stylesheet'>");
+        renderPageStart(out, (o, slot) -> o.raw("Auction Details - ").text(auction.getTitle()));
+        DETAIL_PAGE.get("page").render(out, (o, slot) -> {
+            switch (slot) {
+                case "title":
+                    o.text(auction.getTitle());
+                    break;
+                case "userBar":
+                    // Show user info if logged in (V1 feature)
+                    if (isLoggedIn) {
+                        renderUserInfoBar(request, o, currentUser, isAdmin);
+                    }
+                    break;
+                case "messages":
+                    renderMessages(request, o);
+                    break;
+                case "auctionInfo":
+                    renderAuctionInfo(o, auction);
+                    break;
+                case "bidding":
+                    // Bidding section (V1 + V2 combined)
+                    if (isOpen && isLoggedIn) {
+                        renderBiddingSection(o, auction);
+                    } else if (!isOpen) {
+                        renderAuctionCompletionInfo(o, auction);
+                    } else {
+                        DETAIL_PAGE.get("loginRequired").render(o);
+                    }
+                    break;
+                case "bidHistory":
+                    renderBidHistorySection(o, bids, isOpen);
+                    break;
+                default:
+                    throw unknownSlot(slot);
+            }
+        });
+        LAYOUT.get("footer").render(out);
 
-        // Add enhanced CSS
-        addEnhancedCSS(out);
+        // Add WebSocket integration for active auctions (V2 feature)
+        if (isOpen) {
+            DETAIL_PAGE.get("liveUpdates").render(out, (o, slot) -> {
+                if (slot.equals("src")) {
+                    o.text(StaticAssets.url("js/auction-live.js"));
+                } else {
+                    o.number(auctionId);
+                }
+            });
+        }
+        LAYOUT.get("end").render(out);
+    }
 
-        out.println("</head>");
-        out.println("<body>");
+    /**
+     * V2 NEW: Enhanced auction info with status indicators
+     */
+    private void renderAuctionInfo(HtmlOutput out, AuctionDTO auction) throws IOException {
+        boolean active = auction.isActive();
+        DETAIL_PAGE.get("auctionInfo").render(out, (o, slot) -> {
+            switch (slot) {
+                case "title": o.text(auction.getTitle()); break;
+                case "id": o.number(auction.getAuctionId()); break;
+                case "statusBadge":
+                    if (active) {
+                        DETAIL_PAGE.get("statusActive").render(o);
+                    } else {
+                        DETAIL_PAGE.get("statusCompleted").render(o, (s, name) -> s.raw(auction.getDisplayStatus()));
+                    }
+                    break;
+                case "description": o.text(auction.getDescription()); break;
+                case "startingPrice": o.money(auction.getStartingPrice()); break;
+                case "startTime": o.time(auction.getStartTime()); break;
+                case "endTime":
+                    if (active) {
+                        DETAIL_PAGE.get("endsAt").render(o, (t, name) -> t.time(auction.getEndTime()));
+                    } else {
+                        LocalDateTime endTime = auction.getCompletedTime() != null
+                                ? auction.getCompletedTime() : auction.getEndTime();
+                        DETAIL_PAGE.get("endedAt").render(o, (t, name) -> t.time(endTime));
+                    }
+                    break;
+                case "biddingHeading":
+                    DETAIL_PAGE.get(active ? "headingActive" : "headingFinal").render(o);
+                    break;
+                case "bidAmount": o.money(active ? auction.getCurrentHighestBid() : auction.getWinningBid()); break;
+                case "bidLabel": o.raw(active ? "Current Highest Bid" : "Final Price"); break;
+                case "bidder":
+                    if (active && auction.getCurrentHighestBidder() != null) {
+                        DETAIL_PAGE.get("leadingBidder").render(o, (b, name) -> b.text(auction.getCurrentHighestBidder()));
+                    } else if (active) {
+                        DETAIL_PAGE.get("noBids").render(o);
+                    } else if (auction.hasWinner()) {
+                        DETAIL_PAGE.get("winner").render(o, (w, name) -> w.text(auction.getWinnerUsername()));
+                    } else {
+                        DETAIL_PAGE.get("noWinner").render(o);
+                    }
+                    break;
+                case "bidCount": o.number(auction.getBidCount()); break;
+                default: throw unknownSlot(slot);
+            }
+        });
+    }
 
-        // Add copyright comment
-        addCopyrightComment(out);
+    /**
+     * V2 NEW: Auction completion info for ended auctions
+     */
+    private void renderAuctionCompletionInfo(HtmlOutput out, AuctionDTO auction) throws IOException {
+        Template.Slots endReason = (o, name) -> o.text(auction.getEndReason());
+        DETAIL_PAGE.get(auction.hasWinner() ? "completionWithWinner" : "completionWithoutWinner").render(out, (o, slot) -> {
+            switch (slot) {
+                case "winner": o.text(auction.getWinnerUsername()); break;
+                case "finalPrice": o.money(auction.getWinningBid()); break;
+                case "bidCount": o.number(auction.getBidCount()); break;
+                case "startingPrice": o.money(auction.getStartingPrice()); break;
+                case "endReason":
+                    if (auction.getEndReason() != null) {
+                        DETAIL_PAGE.get("endReason").render(o, endReason);
+                    }
+                    break;
+                default: throw unknownSlot(slot);
+            }
+        });
+    }
+
+    /**
+     * V2 Enhanced bidding section
+     */
+    private void renderBiddingSection(HtmlOutput out, AuctionDTO auction) throws IOException {
+        double minimumBid = auction.getCurrentHighestBid() + 5.01;
+        DETAIL_PAGE.get("biddingSection").render(out, (o, slot) -> {
+            switch (slot) {
+                case "id": o.number(auction.getAuctionId()); break;
+                case "currentBid": o.money(auction.getCurrentHighestBid()); break;
+                case "minimumBid": o.raw(Double.toString(minimumBid)); break;
+                case "minimumBidLabel": o.money(minimumBid); break;
+                default: throw unknownSlot(slot);
+            }
+        });
+    }
 
-        out.println("<div class='container'>");
+    /**
+     * V1 + V2 Enhanced bid history section
+     */
+    private void renderBidHistorySection(HtmlOutput out, List<Bid> bids, boolean isActive) throws IOException {
+        DETAIL_PAGE.get("bidHistory").render(out, (o, slot) -> {
+            if (bids.isEmpty()) {
+                DETAIL_PAGE.get("bidHistoryEmpty").render(o, (empty, hint) -> {
+                    if (isActive) {
+                        DETAIL_PAGE.get("firstBidHint").render(empty);
+                    }
+                });
+            } else {
+                DETAIL_PAGE.get("bidHistoryTable").render(o, (table, rows) -> {
+                    for (Bid bid : bids) {
+                        renderBidRow(table, bid, isActive);
+                    }
+                });
+            }
+        });
+    }
 
-        out.println("<h1>🏺 " + escapeHtml(auction.getTitle()) + "</h1>");
-        out.println("<a href='/AuctionSystem/auction/' class='btn btn-secondary'>← Back to Auctions</a><hr>");
+    private void renderBidRow(HtmlOutput out, Bid bid, boolean isActive) throws IOException {
+        DETAIL_PAGE.get("bidRow").render(out, (o, slot) -> {
+            switch (slot) {
+                case "rowClass":
+                    if (bid.isWinning()) {
+                        o.raw(" class='winning-bid'");
+                    }
+                    break;
+                case "id": o.number(bid.getBidId()); break;
+                case "bidder": o.text(bid.getBidderUsername()); break;
+                case "amount": o.money(bid.getBidAmount()); break;
+                case "time": o.time(bid.getBidTime()); break;
+                case "status":
+                    if (bid.isWinning()) {
+                        DETAIL_PAGE.get(isActive ? "bidLeading" : "bidWinner").render(o);
+                    } else {
+                        DETAIL_PAGE.get("bidOutbid").render(o);
+                    }
+                    break;
+                default: throw unknownSlot(slot);
+            }
+        });
+    }
 
-        // Show user info if logged in (V1 feature)
-        if (currentUser != null) {
-            showUserInfoBar(request, out, currentUser);
-        }
+    /**
+     * V1 + V2 Enhanced message display
+     */
+    private void renderMessages(HttpServletRequest request, HtmlOutput out) throws IOException {
+        String error = request.getParameter("error");
+        String success = request.getParameter("success");
+        String message = request.getParameter("message");
+        String info = request.getParameter("info");
 
-        // Show messages
-        showMessages(request, out);
+        if (error != null) {
+            out.raw("<div class='message message-error'>\n\n");
+            String text = ERROR_MESSAGES.get(error);
+            if (text != null) {
+                out.raw(text);
+            } else {
+                out.raw("❌ ").text(error);
+            }
+            out.raw("\n</div>\n");
+        }
 
-        out.println("<div class='auction-details-container'>");
+        if (success != null) {
+            out.raw("<div class='message message-success'>\n<i class='fas fa-check-circle'></i> \n");
+            switch (success) {
+                case "auction_created":
+                    String auctionId = request.getParameter("id");
+                    out.raw("Auction created successfully!\n");
+                    if (auctionId != null) {
+                        out.raw(" <a href='/AuctionSystem/auction/view/").text(auctionId).raw("'>View your auction</a>\n");
+                    }
+                    break;
+                case "bid_placed":
+                    out.raw("Your bid has been placed successfully!\n");
+                    break;
+                case "login_success":
+                    out.raw("Welcome! You have been logged in successfully.\n");
+                    break;
+                case "registration_success":
+                    out.raw("Registration successful! You can now log in.\n");
+                    break;
+                default:
+                    out.raw("Operation completed successfully: ").text(success).raw("\n");
+            }
+            out.raw("</div>\n");
+        }
 
-        // Enhanced auction info section (V2 with V1 security)
-        showEnhancedAuctionInfo(out, auction, isLoggedIn);
+        if (message != null) {
+            out.raw("<div class='message message-success'>\n<i class='fas fa-check-circle'></i> \n");
+            switch (message) {
+                case "logged_out":
+                    out.raw("You have been logged out successfully.\n");
+                    break;
+                case "password_changed":
+                    out.raw("Password changed successfully!\n");
+                    break;
+                default:
+                    out.text(message).raw("\n");
+            }
+            out.raw("</div>\n");
+        }
 
-        // Bidding section (V1 + V2 combined)
-        boolean isExpired = auction.getEndTime().isBefore(LocalDateTime.now());
-        if (auction.isActive() && !isExpired && isLoggedIn) {
-            showBiddingSection(out, auction);
-        } else if (isExpired || !auction.isActive()) {
-            showAuctionCompletionInfo(out, auction);
-        } else if (!isLoggedIn) {
-            out.println("<div class='bid-form'>");
-            out.println("<h3>💰 Login Required to Bid</h3>");
-            out.println("<p>Please <a href='/AuctionSystem/auction/' class='btn'>login</a> to place a bid on this auction.</p>");
-            out.println("</div>");
+        if (info != null) {
+            out.raw("<div class='message message-info'>\n<i class='fas fa-info-circle'></i> \n");
+            out.text(info).raw("\n</div>\n");
         }
+    }
 
-        // Bid history section (V1 comprehensive + V2 styling)
-        showBidHistorySection(out, bids, auction.isActive() && !isExpired);
+    private void renderPageStart(HtmlOutput out, String title) throws IOException {
+        renderPageStart(out, (o, slot) -> o.text(title));
+    }
 
-        out.println("</div>"); // End auction-details-container
-        out.println("</div>"); // End container
+    private void renderPageStart(HtmlOutput out, Template.Slots title) throws IOException {
+        LAYOUT.get("head").render(out, (o, slot) -> {
+            switch (slot) {
+                case "title": title.write(o, slot); break;
+                case "styles": LAYOUT.get("styles").render(o, STYLESHEET); break;
+                case "copyright": LAYOUT.get("copyright").render(o); break;
+                default: throw unknownSlot(slot);
+            }
+        });
+    }
 
-        // Add footer
-        addFooter(out);
+    private void renderPageEnd(HtmlOutput out) throws IOException {
+        LAYOUT.get("footer").render(out);
+        LAYOUT.get("end").render(out);
+    }
 
-        // Add WebSocket integration for active auctions (V2 feature)
-        if (auction.isActive() && !isExpired) {
-            addWebSocketScript(out, auctionId);
-        }
+    /**
+     * V2 Show error page
+     */
+    private void renderError(HtmlOutput out, String title, String message) throws IOException {
+        renderPageStart(out, title + " - Online Auction System");
+        LAYOUT.get("error").render(out, (o, slot) -> o.text(slot.equals("title") ? title : message));
+        renderPageEnd(out);
+    }
 
-        out.println("</body></html>");
+    private static IllegalStateException unknownSlot(String slot) {
+        return new IllegalStateException("Unknown template slot: " + slot);
     }
 
     /**
@@ -781,7 +1093,8 @@ public class AuctionServlet extends HttpServlet {
                     username,
                     session.getId(),
                     ipAddress,
-                    userAgent != null ? userAgent : "Unknown"
+                    userAgent != null ? userAgent : "Unknown",
+                    userService.isUserAdmin(username)
             );
 
             // Store session token in HTTP session
@@ -1030,7 +1343,7 @@ public class AuctionServlet extends HttpServlet {
         out.println("<div " + statsCardStyle + ">");
         out.println("<h3 " + infoCardHeaderStyle + "><span>📊</span>Session Statistics</h3>");
         out.println("<div " + rowStyle + "><span " + labelStyle + ">Total Active Sessions:</span><span " + valueStyle + ">" + activeSessionCount + "</span></div>");
-        out.println("<div " + lastRowStyle + "><span " + labelStyle + ">Server Time:</span><span " + valueStyle + ">" + LocalDateTime.now().format(formatter) + " UTC</span></div>");
+        out.println("<div " + lastRowStyle + "><span " + labelStyle + ">Server Time:</span><span " + valueStyle + ">" + Clocks.now().format(formatter) + " UTC</span></div>");
         out.println("</div>");
 
         // Current User Session Info Card (Conditional)
@@ -1310,7 +1623,7 @@ public class AuctionServlet extends HttpServlet {
         out.println("<p><strong>Registered Users:</strong> " + activeUsers + "</p>");
         out.println("<p><strong>Active Sessions:</strong> " + activeSessions + "</p>");
         out.println("<p><strong>Total Bid Volume:</strong> $" + String.format("%.2f", totalBidVolume) + "</p>");
-        out.println("<p><strong>Server Time:</strong> " + LocalDateTime.now().format(formatter) + " UTC</p>");
+        out.println("<p><strong>Server Time:</strong> " + Clocks.now().format(formatter) + " UTC</p>");
         out.println("</div>");
 
         // EJB Components Status Card
@@ -1353,778 +1666,18 @@ public class AuctionServlet extends HttpServlet {
 
     // [V2 Enhanced UI Components...]
 
-    /**
-     * V2 Enhanced login form - CSS classes and structure match enhanced theme
-     */
-    private void showLoginForm(PrintWriter out) {
-        out.println("<div class='form-container'>");
-        out.println("<h3><i class='fas fa-sign-in-alt'></i> User Login</h3>");
-        out.println("<form method='post' action='/AuctionSystem/auction/login'>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='username'><i class='fas fa-user'></i> Username or Email:</label>");
-        out.println("<input type='text' id='username' name='username' required placeholder='Enter username or email'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='password'><i class='fas fa-lock'></i> Password:</label>");
-        out.println("<input type='password' id='password' name='password' required placeholder='Enter password'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<input type='submit' value='Login' class='btn btn-success btn-create'>");
-        out.println("</div>");
-
-        out.println("</form>");
-
-        out.println("<div class='message-info' style='margin-top: 15px;'>");
-        out.println("<p><small><strong>📚 Sample Users:</strong></small></p>");
-        out.println("<p><small>• john_doe, jane_smith, bob_wilson, alice_brown <br>(Password: <code>1234</code>)</small></p>");
-        out.println("<p><small><strong>🔑 Admin Access:</strong> admin@auction.com <br>(Password: <code>11010001</code>)</small></p>");
-        out.println("</div>");
-
-        out.println("</div>");
-    }
-
-    /**
-     * V2 Enhanced registration form - CSS classes and structure match enhanced theme
-     */
-    private void showRegistrationForm(PrintWriter out) {
-        out.println("<div class='form-container'>");
-        out.println("<h3><i class='fas fa-user-plus'></i> Create New Account</h3>");
-        out.println("<form method='post' action='/AuctionSystem/auction/register'>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='reg_username'><i class='fas fa-user'></i> Username:</label>");
-        out.println("<input type='text' id='reg_username' name='regUsername' required placeholder='Choose a unique username'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='reg_email'><i class='fas fa-envelope'></i> Email:</label>");
-        out.println("<input type='email' id='reg_email' name='regEmail' required placeholder='Enter your email address'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='reg_password'><i class='fas fa-lock'></i> Password:</label>");
-        out.println("<input type='password' id='reg_password' name='regPassword' required minlength='4' placeholder='Minimum 4 characters'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<label for='reg_confirm_password'><i class='fas fa-lock'></i> Confirm Password:</label>");
-        out.println("<input type='password' id='reg_confirm_password' name='regConfirmPassword' required minlength='4' placeholder='Confirm your password'>");
-        out.println("</div>");
-
-        out.println("<div class='form-group'>");
-        out.println("<input type='submit' value='Register' class='btn btn-secondary btn-create'>");
-        out.println("</div>");
-
-        out.println("</form>");
-        out.println("</div>");
-    }
-
-    /**
-     * V2 Enhanced user info with statistics using enhanced CSS classes.
-     */
-    private void showUserInfo(PrintWriter out, String username, boolean isAdmin) {
-        out.println("<div class='form-container user-info' style='margin-bottom: 24px;'>");
-
-        // User Welcome Section
-        out.println("<div style='display: flex; align-items: center; gap: 20px; flex-wrap: wrap; margin-bottom: 12px;'>");
-        out.println("<h3 style='display:flex;align-items:center;gap:10px;margin:0;'>");
-        out.println("<i class='fas fa-user-circle'></i> Welcome, " + escapeHtml(username) + "!");
-        out.println("</h3>");
-        if (isAdmin) {
-            out.println("<span class='admin-badge'><i class='fas fa-crown'></i> Administrator</span>");
-        }
-        out.println("</div>");
-
-        // User Actions (buttons)
-        out.println("<div style='margin-bottom: 18px;'>");
-        out.println("<div style='display:flex;gap:10px;flex-wrap:wrap;'>");
-
-        out.println("<a href='/AuctionSystem/auction/?view=my_wins' class='btn btn-small btn-success' style='text-decoration:none;'>");
-        out.println("<i class='fas fa-trophy'></i> My Wins");
-        out.println("</a>");
-
-        out.println("<a href='/AuctionSystem/real-time-notifications.html' class='btn btn-small btn-secondary' style='text-decoration:none;'>");
-        out.println("<i class='fas fa-bell'></i> Live Updates");
-        out.println("</a>");
-
-        if (isAdmin) {
-            out.println("<a href='/AuctionSystem/auction/admin/sessions' class='btn btn-small' style='background:linear-gradient(135deg,#e74c3c 0%,#c0392b 100%);color:white;'>");
-            out.println("<i class='fas fa-cogs'></i> Admin Panel");
-            out.println("</a>");
-        }
-        out.println("</div>");
-        out.println("</div>");
-
-        // User statistics
-        showUserStatistics(out, username);
-
-        out.println("</div>");
-    }
-
-    /**
-     * V2 Show user statistics
-     */
-    private void showUserStatistics(PrintWriter out, String username) {
-        try {
-            // Get user's won auctions
-            List<AuctionDTO> wonAuctions = auctionService.getUserWonAuctions(username);
-
-            // Calculate total value of won auctions
-            double totalWinnings = wonAuctions.stream()
-                    .mapToDouble(AuctionDTO::getWinningBid)
-                    .sum();
-
-            out.println("<div class='user-stats'>");
-            out.println("<h4><i class='fas fa-chart-bar'></i> Your Statistics</h4>");
-            out.println("<div class='user-stats-grid'>");
-
-            out.println("<div class='user-stat'>");
-            out.println("<div class='stat-value'>" + wonAuctions.size() + "</div>");
-            out.println("<div class='stat-label'>Auctions Won</div>");
-            out.println("</div>");
-
-            out.println("<div class='user-stat'>");
-            out.println("<div class='stat-value'>$" + String.format("%.2f", totalWinnings) + "</div>");
-            out.println("<div class='stat-label'>Total Spent</div>");
-            out.println("</div>");
-
-            out.println("</div>");
-            out.println("</div>");
-
-        } catch (Exception e) {
-            logger.warning("Error getting user statistics for " + username + ": " + e.getMessage());
-        }
-    }
-
-    /**
-     * V2 Enhanced system statistics with completed auctions
-     * (Modern UI, system statistics in grid cards; matches your enhanced CSS)
-     */
-    private void showSystemStatistics(PrintWriter out, int activeCount, int completedCount) {
-        out.println("<div class='stats-container'>");
-        out.println("<h3 style='margin-bottom:18px;display:flex;align-items:center;gap:10px;'><i class='fas fa-chart-line'></i> System Statistics</h3>");
-
-        out.println("<div class='stats-grid'>");
-
-        // Active auctions stat
-        out.println("<div class='stat-card active-stat'>");
-        out.println("<div class='stat-icon'><i class='fas fa-fire'></i></div>");
-        out.println("<div class='stat-info'>");
-        out.println("<div class='stat-value'>" + activeCount + "</div>");
-        out.println("<div class='stat-label'>Active Auctions</div>");
-        out.println("</div>");
-        out.println("</div>");
-
-        // Completed auctions stat
-        out.println("<div class='stat-card completed-stat'>");
-        out.println("<div class='stat-icon'><i class='fas fa-check-circle'></i></div>");
-        out.println("<div class='stat-info'>");
-        out.println("<div class='stat-value'>" + completedCount + "</div>");
-        out.println("<div class='stat-label'>Completed</div>");
-        out.println("</div>");
-        out.println("</div>");
-
-        // Total auctions stat
-        out.println("<div class='stat-card total-stat'>");
-        out.println("<div class='stat-icon'><i class='fas fa-gavel'></i></div>");
-        out.println("<div class='stat-info'>");
-        out.println("<div class='stat-value'>" + (activeCount + completedCount) + "</div>");
-        out.println("<div class='stat-label'>Total Auctions</div>");
-        out.println("</div>");
-        out.println("</div>");
-
-        // Real-time notifications link
-        out.println("<div class='stat-card notifications-stat'>");
-        out.println("<div class='stat-icon'><i class='fas fa-bell'></i></div>");
-        out.println("<div class='stat-info'>");
-        out.println("<a href='/AuctionSystem/real-time-notifications.html' class='stat-link'>");
-        out.println("<div class='stat-value'>LIVE</div>");
-        out.println("<div class='stat-label'>Notifications</div>");
-        out.println("</a>");
-        out.println("</div>");
-        out.println("</div>");
-
-        out.println("</div>"); // End stats-grid
-        out.println("</div>"); // End stats-container
-    }
-
-    /**
-     * V2 NEW: Enhanced auction info with status indicators
-     */
-    private void showEnhancedAuctionInfo(PrintWriter out, AuctionDTO auction, boolean isLoggedIn) {
-        out.println("<div class='auction-info-section'>");
-
-        // Auction header with status
-        out.println("<div class='auction-header'>");
-        out.println("<div class='auction-title-section'>");
-        out.println("<h2>" + escapeHtml(auction.getTitle()) + "</h2>");
-        out.println("<span class='auction-id'>#" + auction.getAuctionId() + "</span>");
-        out.println("</div>");
-
-        // Status indicator
-        out.println("<div class='auction-status'>");
-        if (auction.isActive()) {
-            out.println("<span class='status-badge active'>");
-            out.println("<i class='fas fa-circle'></i> ACTIVE");
-            out.println("</span>");
-        } else {
-            out.println("<span class='status-badge completed'>");
-            out.println(auction.getDisplayStatus());
-            out.println("</span>");
-        }
-        out.println("</div>");
-
-        out.println("</div>"); // End auction-header
-
-        // Auction details grid
-        out.println("<div class='auction-details-grid'>");
-
-        // Left column - Basic info
-        out.println("<div class='detail-column'>");
-
-        out.println("<div class='detail-card'>");
-        out.println("<h3><i class='fas fa-info-circle'></i> Auction Information</h3>");
-        out.println("<div class='detail-item'>");
-        out.println("<strong>Description:</strong>");
-        out.println("<p>" + escapeHtml(auction.getDescription()) + "</p>");
-        out.println("</div>");
-
-        out.println("<div class='detail-item'>");
-        out.println("<strong>Starting Price:</strong>");
-        out.println("<span class='price'>$" + String.format("%.2f", auction.getStartingPrice()) + "</span>");
-        out.println("</div>");
-
-        out.println("<div class='detail-item'>");
-        out.println("<strong>Started:</strong>");
-        out.println("<span class='time'>" + auction.getStartTime().format(formatter) + "</span>");
-        out.println("</div>");
-
-        if (auction.isActive()) {
-            out.println("<div class='detail-item'>");
-            out.println("<strong>Ends:</strong>");
-            out.println("<span class='time end-time'>" + auction.getEndTime().format(formatter) + "</span>");
-            out.println("</div>");
-        } else {
-            out.println("<div class='detail-item'>");
-            out.println("<strong>Ended:</strong>");
-            LocalDateTime endTime = auction.getCompletedTime() != null ?
-                    auction.getCompletedTime() : auction.getEndTime();
-            out.println("<span class='time'>" + endTime.format(formatter) + "</span>");
-            out.println("</div>");
-        }
-
-        out.println("</div>"); // End detail-card
-        out.println("</div>"); // End detail-column
-
-        // Right column - Bidding info
-        out.println("<div class='detail-column'>");
-
-        out.println("<div class='detail-card bidding-card'>");
-        if (auction.isActive()) {
-            out.println("<h3><i class='fas fa-gavel'></i> Current Bidding</h3>");
-        } else {
-            out.println("<h3><i class='fas fa-trophy'></i> Final Results</h3>");
-        }
-
-        // Current/Final bid
-        out.println("<div class='bid-display-large'>");
-        out.println("<div class='bid-amount'>");
-        if (auction.isActive()) {
-            out.println("$" + String.format("%.2f", auction.getCurrentHighestBid()));
-        } else {
-            out.println("$" + String.format("%.2f", auction.getWinningBid()));
-        }
-        out.println("</div>");
-        out.println("<div class='bid-label'>");
-        out.println(auction.isActive() ? "Current Highest Bid" : "Final Price");
-        out.println("</div>");
-        out.println("</div>");
-
-        // Bidder info
-        if (auction.isActive()) {
-            if (auction.getCurrentHighestBidder() != null) {
-                out.println("<div class='bidder-info'>");
-                out.println("<strong>Leading Bidder:</strong>");
-                out.println("<span class='bidder-name'>" + escapeHtml(auction.getCurrentHighestBidder()) + "</span>");
-                out.println("</div>");
-            } else {
-                out.println("<div class='no-bids'>");
-                out.println("<em>No bids placed yet</em>");
-                out.println("</div>");
-            }
-        } else {
-            // Winner information
-            if (auction.hasWinner()) {
-                out.println("<div class='winner-info'>");
-                out.println("<div class='winner-badge-large'>");
-                out.println("<i class='fas fa-crown'></i>");
-                out.println("<span class='winner-title'>WINNER</span>");
-                out.println("<span class='winner-name'>" + escapeHtml(auction.getWinnerUsername()) + "</span>");
-                out.println("</div>");
-                out.println("</div>");
-            } else {
-                out.println("<div class='no-winner'>");
-                out.println("<i class='fas fa-times-circle'></i>");
-                out.println("<span>No Winner - No Bids Received</span>");
-                out.println("</div>");
-            }
-        }
-
-        // Bid statistics
-        out.println("<div class='bid-stats'>");
-        out.println("<div class='stat-item'>");
-        out.println("<span class='stat-value'>" + auction.getBidCount() + "</span>");
-        out.println("<span class='stat-label'>Total Bids</span>");
-        out.println("</div>");
-        out.println("</div>");
-
-        out.println("</div>"); // End detail-card
-        out.println("</div>"); // End detail-column
-
-        out.println("</div>"); // End auction-details-grid
-        out.println("</div>"); // End auction-info-section
-    }
-
-    /**
-     * V2 NEW: Auction completion info for ended auctions
-     */
-    private void showAuctionCompletionInfo(PrintWriter out, AuctionDTO auction) {
-        out.println("<div class='completion-info-section'>");
-        out.println("<div class='completion-card'>");
-
-        if (auction.hasWinner()) {
-            out.println("<div class='completion-success'>");
-            out.println("<h3><i class='fas fa-trophy'></i> Auction Completed Successfully</h3>");
-            out.println("<div class='completion-details'>");
-            out.println("<p><strong>Winner:</strong> " + escapeHtml(auction.getWinnerUsername()) + "</p>");
-            out.println("<p><strong>Final Price:</strong> $" + String.format("%.2f", auction.getWinningBid()) + "</p>");
-            out.println("<p><strong>Total Bids:</strong> " + auction.getBidCount() + "</p>");
-
-            if (auction.getEndReason() != null) {
-                out.println("<p><strong>End Reason:</strong> " + auction.getEndReason() + "</p>");
-            }
-            out.println("</div>");
-            out.println("</div>");
-        } else {
-            out.println("<div class='completion-no-winner'>");
-            out.println("<h3><i class='fas fa-times-circle'></i> Auction Ended Without Winner</h3>");
-            out.println("<div class='completion-details'>");
-            out.println("<p>This auction ended without receiving any bids.</p>");
-            out.println("<p><strong>Starting Price:</strong> $" + String.format("%.2f", auction.getStartingPrice()) + "</p>");
-
-            if (auction.getEndReason() != null) {
-                out.println("<p><strong>End Reason:</strong> " + auction.getEndReason() + "</p>");
-            }
-            out.println("</div>");
-            out.println("</div>");
-        }
-
-        out.println("</div>"); // End completion-card
-        out.println("</div>"); // End completion-info-section
-    }
-
-    /**
-     * V2 Enhanced bidding section
-     */
-    private void showBiddingSection(PrintWriter out, AuctionDTO auction) {
-        out.println("<div class='bidding-section'>");
-        out.println("<div class='bidding-card'>");
-        out.println("<h3><i class='fas fa-gavel'></i> Place Your Bid</h3>");
-
-        out.println("<form method='post' action='/AuctionSystem/auction/bid' class='bid-form'>");
-        out.println("<input type='hidden' name='auctionId' value='" + auction.getAuctionId() + "'>");
-
-        out.println("<div class='bid-input-section'>");
-        out.println("<div class='current-bid-info'>");
-        out.println("<span class='current-bid-label'>Current Bid:</span>");
-        out.println("<span class='current-bid-amount'>$" + String.format("%.2f", auction.getCurrentHighestBid()) + "</span>");
-        out.println("</div>");
-
-        out.println("<div class='bid-input-group'>");
-        out.println("<label for='bidAmount'><i class='fas fa-dollar-sign'></i> Your Bid:</label>");
-        out.println("<input type='number' id='bidAmount' name='bidAmount' ");
-        out.println("min='" + (auction.getCurrentHighestBid() + 5.01) + "' ");
-        out.println("step='0.01' required placeholder='Enter bid amount'>");
-        out.println("<small>Minimum bid: $" + String.format("%.2f", auction.getCurrentHighestBid() + 5.01) + "</small>");
-        out.println("</div>");
-
-        out.println("<button type='submit' class='btn btn-bid'>");
-        out.println("<i class='fas fa-gavel'></i> Place Bid");
-        out.println("</button>");
-        out.println("</div>");
-
-        out.println("</form>");
-        out.println("</div>"); // End bidding-card
-        out.println("</div>"); // End bidding-section
-    }
-
-    /**
-     * V1 + V2 Enhanced bid history section
-     */
-    private void showBidHistorySection(PrintWriter out, List<Bid> bids, boolean isActive) {
-        out.println("<div class='bid-history-section'>");
-        out.println("<h3><i class='fas fa-history'></i> Bid History</h3>");
-
-        if (bids.isEmpty()) {
-            out.println("<div class='empty-state'>");
-            out.println("<i class='fas fa-gavel'></i>");
-            out.println("<p>No bids have been placed yet.</p>");
-            if (isActive) {
-                out.println("<p>Be the first to place a bid!</p>");
-            }
-            out.println("</div>");
-        } else {
-            out.println("<div class='bid-history-table'>");
-            out.println("<table>");
-            out.println("<thead>");
-            out.println("<tr>");
-            out.println("<th>Bid #</th>");
-            out.println("<th>Bidder</th>");
-            out.println("<th>Amount</th>");
-            out.println("<th>Time</th>");
-            out.println("<th>Status</th>");
-            out.println("</tr>");
-            out.println("</thead>");
-            out.println("<tbody>");
-
-            for (Bid bid : bids) {
-                out.println("<tr" + (bid.isWinning() ? " class='winning-bid'" : "") + ">");
-                out.println("<td><strong>#" + bid.getBidId() + "</strong></td>");
-                out.println("<td>" + escapeHtml(bid.getBidderUsername()) + "</td>");
-                out.println("<td class='bid-amount'>$" + String.format("%.2f", bid.getBidAmount()) + "</td>");
-                out.println("<td class='bid-time'>" + bid.getBidTime().format(formatter) + "</td>");
-                out.println("<td class='bid-status'>");
-                if (bid.isWinning() && isActive) {
-                    out.println("<span class='status-badge winning'>");
-                    out.println("<i class='fas fa-crown'></i> Leading");
-                    out.println("</span>");
-                } else if (bid.isWinning() && !isActive) {
-                    out.println("<span class='status-badge winner'>");
-                    out.println("<i class='fas fa-trophy'></i> Winner");
-                    out.println("</span>");
-                } else {
-                    out.println("<span class='status-badge outbid'>⚪ Outbid</span>");
-                }
-                out.println("</td>");
-                out.println("</tr>");
-            }
-
-            out.println("</tbody>");
-            out.println("</table>");
-            out.println("</div>");
-        }
-
-        out.println("</div>"); // End bid-history-section
-    }
-
-    /**
-     * V1 + V2 Enhanced message display
-     */
-    private void showMessages(HttpServletRequest request, PrintWriter out) {
-        String error = request.getParameter("error");
-        String success = request.getParameter("success");
-        String message = request.getParameter("message");
-        String info = request.getParameter("info");
-
-        if (error != null) {
-            out.println("<div class='message message-error'>");
-            out.println();
-            switch (error) {
-                case "login_failed":
-                    out.println("❌ Login failed! Invalid username/email or password.");
-                    break;
-                case "session_expired":
-                    out.println("⏰ Your session has expired. Please login again.");
-                    break;
-                case "access_denied":
-                    out.println("🚫 Access denied. Admin privileges required.");
-                    break;
-                case "admin_login_required":
-                    out.println("🔐 Please login with admin credentials to access the admin panel.");
-                    break;
-                case "missing_credentials":
-                    out.println("📝 Please enter both username/email and password.");
-                    break;
-                case "not_logged_in":
-                    out.println("🔑 Please log in to create auctions or place bids.");
-                    break;
-                case "invalid_bid":
-                    out.println("💸 Invalid bid amount. Please enter a valid bid higher than the current bid.");
-                    break;
-                case "auction_not_found":
-                    out.println("🔎 The requested auction could not be found.");
-                    break;
-                case "auction_ended":
-                    out.println("⏳ This auction has already ended. You cannot place more bids.");
-                    break;
-                case "invalid_duration":
-                    out.println("🕒 Invalid auction duration. Please select between 1 minute and 7 days.");
-                    break;
-                case "missing_fields":
-                    out.println("⚠️ Please fill in all required fields.");
-                    break;
-                case "invalid_price":
-                    out.println("💲 Please enter a valid starting price greater than $0.");
-                    break;
-                case "invalid_numbers":
-                    out.println("🔢 Please enter valid numeric values for price and duration.");
-                    break;
-                case "creation_failed":
-                    out.println("❗ Failed to create auction. Please try again.");
-                    break;
-                case "system_error":
-                    out.println("💥 A system error occurred. Please try again later.");
-                    break;
-                case "user_already_exists":
-                    out.println("👤 Username or email already exists. Please choose different credentials.");
-                    break;
-                case "password_mismatch":
-                    out.println("🔁 Passwords do not match. Please try again.");
-                    break;
-                case "password_too_short":
-                    out.println("📏 Password must be at least 4 characters long.");
-                    break;
-                case "invalid_email":
-                    out.println("📧 Please enter a valid email address.");
-                    break;
-                default:
-                    out.println("❌ " + escapeHtml(error));
-            }
-            out.println("</div>");
-        }
-
-        if (success != null) {
-            out.println("<div class='message message-success'>");
-            out.println("<i class='fas fa-check-circle'></i> ");
-            switch (success) {
-                case "auction_created":
-                    String auctionId = request.getParameter("id");
-                    out.println("Auction created successfully!");
-                    if (auctionId != null) {
-                        out.println(" <a href='/AuctionSystem/auction/view/" + auctionId + "'>View your auction</a>");
-                    }
-                    break;
-                case "bid_placed":
-                    out.println("Your bid has been placed successfully!");
-                    break;
-                case "login_success":
-                    out.println("Welcome! You have been logged in successfully.");
-                    break;
-                case "registration_success":
-                    out.println("Registration successful! You can now log in.");
-                    break;
-                default:
-                    out.println("Operation completed successfully: " + escapeHtml(success));
-            }
-            out.println("</div>");
-        }
-
-        if (message != null) {
-            out.println("<div class='message message-success'>");
-            out.println("<i class='fas fa-check-circle'></i> ");
-            switch (message) {
-                case "logged_out":
-                    out.println("You have been logged out successfully.");
-                    break;
-                case "password_changed":
-                    out.println("Password changed successfully!");
-                    break;
-                default:
-                    out.println(escapeHtml(message));
-            }
-            out.println("</div>");
-        }
-
-        if (info != null) {
-            out.println("<div class='message message-info'>");
-            out.println("<i class='fas fa-info-circle'></i> ");
-            out.println(escapeHtml(info));
-            out.println("</div>");
-        }
-    }
-
     /**
      * V2 Enhanced CSS injection
      */
     private void addEnhancedCSS(PrintWriter out) {
-        out.println("<style>");
-        out.println("/* Enhanced Auction System Styles */");
-        out.println("/* Copyright (c) 2025 Ishara Lakshitha (@isharax9). All rights reserved. */");
-
-        // Include the complete CSS from the external file
-        out.println("@import url('/AuctionSystem/css/enhanced-auction-styles.css');");
-
-        out.println("</style>");
-    }
-
-    /**
-     * V2 Add WebSocket integration script
-     */
-    private void addWebSocketScript(PrintWriter out, Long auctionId) {
-        out.println("<script>");
-        out.println("// Enhanced WebSocket Integration for Real-time Updates");
-        out.println("// Copyright (c) 2025 Ishara Lakshitha (@isharax9). All rights reserved.");
-        out.println("");
-        out.println("let ws = null;");
-        out.println("let reconnectAttempts = 0;");
-        out.println("const maxReconnectAttempts = 5;");
-        out.println("const auctionId = " + auctionId + ";");
-        out.println("");
-        out.println("function connectWebSocket() {");
-        out.println("    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';");
-        out.println("    const wsUrl = protocol + '//' + window.location.host + '/AuctionSystem/auction-updates/' + auctionId;");
-        out.println("    ");
-        out.println("    try {");
-        out.println("        ws = new WebSocket(wsUrl);");
-        out.println("        ");
-        out.println("        ws.onopen = function(event) {");
-        out.println("            console.log('WebSocket connected for auction:', auctionId);");
-        out.println("            reconnectAttempts = 0;");
-        out.println("            updateConnectionStatus(true);");
-        out.println("        };");
-        out.println("        ");
-        out.println("        ws.onmessage = function(event) {");
-        out.println("            try {");
-        out.println("                const data = JSON.parse(event.data);");
-        out.println("                handleWebSocketMessage(data);");
-        out.println("            } catch (e) {");
-        out.println("                console.error('Error parsing WebSocket message:', e);");
-        out.println("            }");
-        out.println("        };");
-        out.println("        ");
-        out.println("        ws.onclose = function(event) {");
-        out.println("            console.log('WebSocket disconnected');");
-        out.println("            updateConnectionStatus(false);");
-        out.println("            ");
-        out.println("            if (reconnectAttempts < maxReconnectAttempts) {");
-        out.println("                setTimeout(() => {");
-        out.println("                    reconnectAttempts++;");
-        out.println("                    console.log('Reconnecting... Attempt:', reconnectAttempts);");
-        out.println("                    connectWebSocket();");
-        out.println("                }, 3000 * reconnectAttempts);");
-        out.println("            }");
-        out.println("        };");
-        out.println("        ");
-        out.println("        ws.onerror = function(error) {");
-        out.println("            console.error('WebSocket error:', error);");
-        out.println("            updateConnectionStatus(false);");
-        out.println("        };");
-        out.println("        ");
-        out.println("    } catch (e) {");
-        out.println("        console.error('Failed to create WebSocket connection:', e);");
-        out.println("        updateConnectionStatus(false);");
-        out.println("    }");
-        out.println("}");
-        out.println("");
-        out.println("function handleWebSocketMessage(data) {");
-        out.println("    if (data.type === 'bidUpdate') {");
-        out.println("        const bidUpdate = data.data;");
-        out.println("        updateBidDisplay(bidUpdate);");
-        out.println("        showBidNotification(bidUpdate);");
-        out.println("        setTimeout(() => window.location.reload(), 2000);");
-        out.println("    }");
-        out.println("}");
-        out.println("");
-        out.println("function updateBidDisplay(bidUpdate) {");
-        out.println("    const currentBidElement = document.querySelector('.current-bid-amount');");
-        out.println("    const bidAmountElement = document.querySelector('.bid-amount');");
-        out.println("    const bidderElement = document.querySelector('.bidder-name');");
-        out.println("    ");
-        out.println("    if (currentBidElement) {");
-        out.println("        currentBidElement.textContent = '$' + bidUpdate.bidAmount.toFixed(2);");
-        out.println("        currentBidElement.classList.add('bid-update-animation');");
-        out.println("        setTimeout(() => currentBidElement.classList.remove('bid-update-animation'), 1000);");
-        out.println("    }");
-        out.println("    ");
-        out.println("    if (bidAmountElement) {");
-        out.println("        bidAmountElement.textContent = '$' + bidUpdate.bidAmount.toFixed(2);");
-        out.println("    }");
-        out.println("    ");
-        out.println("    if (bidderElement) {");
-        out.println("        bidderElement.textContent = bidUpdate.bidderUsername;");
-        out.println("    }");
-        out.println("    ");
-        out.println("    const bidInput = document.getElementById('bidAmount');");
-        out.println("    if (bidInput) {");
-        out.println("        const newMin = bidUpdate.bidAmount + 5.01;");
-        out.println("        bidInput.min = newMin.toFixed(2);");
-        out.println("    }");
-        out.println("}");
-        out.println("");
-        out.println("function showBidNotification(bidUpdate) {");
-        out.println("    const notification = document.createElement('div');");
-        out.println("    notification.className = 'live-indicator';");
-        out.println("    notification.innerHTML = `");
-        out.println("        <i class='fas fa-gavel'></i> ");
-        out.println("        New bid: $${bidUpdate.bidAmount.toFixed(2)} by ${bidUpdate.bidderUsername}");
-        out.println("    `;");
-        out.println("    ");
-        out.println("    document.body.appendChild(notification);");
-        out.println("    ");
-        out.println("    setTimeout(() => {");
-        out.println("        if (notification.parentNode) {");
-        out.println("            notification.parentNode.removeChild(notification);");
-        out.println("        }");
-        out.println("    }, 5000);");
-        out.println("}");
-        out.println("");
-        out.println("function updateConnectionStatus(connected) {");
-        out.println("    let indicator = document.querySelector('.live-indicator.connection-status');");
-        out.println("    ");
-        out.println("    if (!indicator) {");
-        out.println("        indicator = document.createElement('div');");
-        out.println("        indicator.className = 'live-indicator connection-status';");
-        out.println("        indicator.style.top = '80px';");
-        out.println("        document.body.appendChild(indicator);");
-        out.println("    }");
-        out.println("    ");
-        out.println("    if (connected) {");
-        out.println("        indicator.className = 'live-indicator connection-status';");
-        out.println("        indicator.innerHTML = '<i class=\"fas fa-wifi\"></i> Live Updates Active';");
-        out.println("    } else {");
-        out.println("        indicator.className = 'live-indicator connection-status disconnected';");
-        out.println("        indicator.innerHTML = '<i class=\"fas fa-wifi\"></i> Reconnecting...';");
-        out.println("    }");
-        out.println("}");
-        out.println("");
-        out.println("document.addEventListener('DOMContentLoaded', function() {");
-        out.println("    connectWebSocket();");
-        out.println("    ");
-        out.println("    setInterval(() => {");
-        out.println("        if (ws && ws.readyState === WebSocket.OPEN) {");
-        out.println("            ws.send(JSON.stringify({type: 'heartbeat', timestamp: Date.now()}));");
-        out.println("        }");
-        out.println("    }, 30000);");
-        out.println("});");
-        out.println("");
-        out.println("window.addEventListener('beforeunload', function() {");
-        out.println("    if (ws) {");
-        out.println("        ws.close();");
-        out.println("    }");
-        out.println("});");
-        out.println("</script>");
+        out.print(new String(LAYOUT.get("styles").renderToBytes(STYLESHEET), StandardCharsets.UTF_8));
     }
 
     /**
      * V2 Add copyright comment
      */
     private void addCopyrightComment(PrintWriter out) {
-        out.println("<!--");
-        out.println("    Enhanced Online Auction System - Merged V1 + V2");
-        out.println("    Copyright (c) 2025 Ishara Lakshitha (@isharax9). All rights reserved.");
-        out.println("    ");
-        out.println("    This comprehensive auction system combines:");
-        out.println("    - V1: Complete session management, admin features, user management");
-        out.println("    - V2: Enhanced UI, auction history, duration control, WebSocket integration");
-        out.println("    ");
-        out.println("    Author: Ishara Lakshitha (@isharax9)");
-        out.println("    Project: AuctionSystem - Complete Feature Integration");
-        out.println("    Created: June 2025");
-        out.println("    Features: EJB, JMS, WebSocket, Real-time Bidding, Complete User Management");
-        out.println("-->");
+        out.print(LAYOUT.get("copyright").getSource());
     }
 
     /**
@@ -2132,61 +1685,24 @@ public class AuctionServlet extends HttpServlet {
      */
     private void addFooter(PrintWriter out) {
         out.println("</div>"); // Close container
-        out.println("<footer style=\"text-align: center; padding: 20px; margin-top: 40px; border-top: 1px solid #ddd; background-color: #f8f9fa;\">");
-        out.println("<div style=\"color: #666; font-size: 14px;\">");
-        out.println("<p>&copy; 2025 <strong>Ishara Lakshitha</strong>. All rights reserved.</p>");
-        out.println("<p style=\"margin: 5px 0;\">");
-        out.println("<i class=\"fas fa-code\"></i>");
-        out.println("Developed by <a href=\"https://github.com/isharax9\" target=\"_blank\" style=\"color: #007bff; text-decoration: none;\">@isharax9</a>");
-        out.println("</p>");
-        out.println("<p style=\"margin: 0; font-size: 12px; color: #888;\">");
-        out.println("Online Auction System | BCD 1 Research Assignment");
-        out.println("</p>");
-        out.println("</div>");
-        out.println("</footer>");
-        out.println("</body></html>");
+        out.print(LAYOUT.get("footer").getSource());
+        out.print(LAYOUT.get("end").getSource());
     }
 
     /**
-     * V2 Show error page
+     * V2 Show error page; same markup as the templated pages, for pages that print to a Writer
      */
     private void showError(PrintWriter out, String title, String message) {
-        out.println("<!DOCTYPE html>");
-        out.println("<html lang='en'>");
-        out.println("<head>");
-        out.println("<meta charset='UTF-8'>");
-        out.println("<meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-        out.println("<title>" + escapeHtml(title) + " - Online Auction System</title>");
-        out.println("<link href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css' rel='stylesheet'>");
-        addEnhancedCSS(out);
-        out.println("</head>");
-        out.println("<body>");
-
-        addCopyrightComment(out);
-
-        out.println("<div class='container'>");
-        out.println("<div class='nav-bar'>");
-        out.println("<h1><i class='fas fa-exclamation-triangle'></i> " + escapeHtml(title) + "</h1>");
-        out.println("</div>");
-
-        out.println("<div class='error-content'>");
-        out.println("<div class='empty-state'>");
-        out.println("<i class='fas fa-exclamation-circle'></i>");
-        out.println("<h2>" + escapeHtml(message) + "</h2>");
-        out.println("<div style='margin-top: 30px;'>");
-        out.println("<a href='/AuctionSystem/auction/' class='btn btn-success'>");
-        out.println("<i class='fas fa-home'></i> Go to Dashboard");
-        out.println("</a>");
-        out.println("<a href='javascript:history.back()' class='btn btn-secondary' style='margin-left: 15px;'>");
-        out.println("<i class='fas fa-arrow-left'></i> Go Back");
-        out.println("</a>");
-        out.println("</div>");
-        out.println("</div>");
-        out.println("</div>");
-
-        out.println("</div>");
-        addFooter(out);
-        out.println("</body></html>");
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        HtmlOutput html = new HtmlOutput(page);
+        try {
+            renderError(html, title, message);
+            html.flush();
+        } catch (IOException e) {
+            // In-memory target; cannot happen
+            throw new UncheckedIOException(e);
+        }
+        out.print(page.toString(StandardCharsets.UTF_8));
     }
 
     // Helper methods from V1
@@ -2211,7 +1727,7 @@ public class AuctionServlet extends HttpServlet {
         if (session != null) {
             String sessionToken = (String) session.getAttribute("sessionToken");
             if (sessionToken != null) {
-                sessionManager.updateSessionActivity(sessionToken);
+                sessionManager.validateAndTouch(sessionToken, null, null);
             }
         }
     }
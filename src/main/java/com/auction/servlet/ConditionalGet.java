@@ -0,0 +1,47 @@
+package com.auction.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Entity tags built from the auction service's version counters, shared by the HTML pages and
+ * the JSON API so both can answer revalidation requests without producing a body.
+ */
+final class ConditionalGet {
+
+    // Part of every version tag: versions restart and output formats may change with a redeploy
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * A weak tag for one version of a resource; the prefix distinguishes resource kinds. A
+     * resource built from several counters passes all of them.
+     */
+    static String versionTag(String prefix, long... versions) {
+        StringBuilder tag = new StringBuilder("W/\"").append(prefix);
+        for (int i = 0; i < versions.length; i++) {
+            if (i > 0) {
+                tag.append('.');
+            }
+            tag.append(Long.toString(versions[i], 36));
+        }
+        return tag.append('-').append(EPOCH).append('"').toString();
+    }
+
+    /**
+     * Tags the response and answers 304 if the client already has this version.
+     */
+    static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag, String vary) {
+        response.setHeader("ETag", etag);
+        // Always revalidate; an unchanged resource then costs one version lookup and no body
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Vary", vary);
+        if (StaticAssets.etagMatches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,8 +1,11 @@
 package com.auction.servlet;
 
+import com.auction.filter.CharacterEncodingFilter;
+import com.auction.filter.CompressionFilter;
+import com.auction.logging.AccessLog;
 import com.auction.session.ActiveSessionInfo;
 import com.auction.session.UserSessionManagerRemote;
-import com.auction.ejb.UserServiceRemote;
+import com.auction.session.UserSessionSummary;
 import jakarta.ejb.EJB;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -14,7 +17,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
 @WebServlet(name = "SessionAdminServlet", urlPatterns = {"/auction/admin/sessions/*"})
@@ -26,9 +28,6 @@ public class SessionAdminServlet extends HttpServlet {
     @EJB
     private UserSessionManagerRemote sessionManager;
 
-    @EJB
-    private UserServiceRemote userService;
-
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -88,98 +87,8 @@ public class SessionAdminServlet extends HttpServlet {
         out.println("<title>Admin Session Management Dashboard</title>");
         out.println("<link href='https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css' rel='stylesheet'>");
 
-        // CSS matching the exact auction system theme
-        out.println("<style>");
-
-        // Base styles from auction system
-        out.println("* { margin: 0; padding: 0; box-sizing: border-box; }");
-        out.println("body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background-color: #f5f5f5; min-height: 100vh; padding: 20px; }");
-
-        // Container matching auction system
-        out.println(".container { max-width: 1200px; margin: 0 auto; background-color: white; border-radius: 10px; box-shadow: 0 0 10px rgba(0,0,0,0.1); overflow: hidden; }");
-
-        // Navigation bar exactly like auction system
-        out.println(".nav-bar { background-color: #343a40; padding: 15px 30px; color: white; text-align: center; }");
-        out.println(".nav-bar h1 { font-size: 2rem; margin-bottom: 5px; display: flex; align-items: center; justify-content: center; gap: 15px; }");
-        out.println(".nav-bar p { opacity: 0.9; font-size: 1rem; margin-bottom: 15px; }");
-
-        // Admin info bar
-        out.println(".admin-info { display: flex; justify-content: space-between; align-items: center; flex-wrap: wrap; gap: 15px; }");
-        out.println(".user-info { color: rgba(255,255,255,0.9); font-weight: 500; }");
-        out.println(".nav-links { display: flex; gap: 10px; flex-wrap: wrap; }");
-
-        // Main content grid like auction system
-        out.println(".main-content { padding: 30px; display: grid; grid-template-columns: 1fr 1fr; gap: 30px; }");
-        out.println(".left-panel, .right-panel { display: flex; flex-direction: column; gap: 20px; }");
-        out.println(".full-width { grid-column: 1 / -1; }");
-
-        // Buttons exactly like auction system
-        out.println(".btn { background-color: #007bff; color: white; padding: 10px 20px; border: none; border-radius: 4px; cursor: pointer; font-size: 14px; text-decoration: none; display: inline-flex; align-items: center; gap: 8px; justify-content: center; transition: all 0.3s ease; }");
-        out.println(".btn:hover { background-color: #0056b3; transform: translateY(-1px); }");
-        out.println(".btn:disabled { background-color: #6c757d; cursor: not-allowed; transform: none; }");
-        out.println(".btn-success { background-color: #28a745; }");
-        out.println(".btn-success:hover { background-color: #218838; }");
-        out.println(".btn-danger { background-color: #dc3545; }");
-        out.println(".btn-danger:hover { background-color: #c82333; }");
-        out.println(".btn-secondary { background-color: #6c757d; }");
-        out.println(".btn-secondary:hover { background-color: #5a6268; }");
-        out.println(".btn-small { padding: 8px 16px; font-size: 12px; }");
-
-        // Statistics cards like auction system bid stats
-        out.println(".stats-container { background-color: #f8f9fa; padding: 20px; border-radius: 8px; border-left: 4px solid #007bff; }");
-        out.println(".stats-container h3 { color: #333; margin-bottom: 20px; font-size: 1.3rem; display: flex; align-items: center; gap: 10px; }");
-        out.println(".stats-grid { display: grid; grid-template-columns: repeat(auto-fit, minmax(200px, 1fr)); gap: 15px; margin-bottom: 20px; }");
-        out.println(".stat-card { background-color: white; padding: 15px; border-radius: 8px; text-align: center; border: 1px solid #ddd; }");
-        out.println(".stat-label { font-size: 0.9rem; color: #6c757d; margin-bottom: 5px; font-weight: bold; }");
-        out.println(".stat-value { font-size: 1.4rem; font-weight: bold; color: #333; }");
-
-        // Table containers like auction system notifications
-        out.println(".table-section { background-color: #f8f9fa; border-radius: 8px; border-left: 4px solid #007bff; overflow: hidden; display: flex; flex-direction: column; }");
-        out.println(".table-header { background-color: #f8f9fa; padding: 20px; display: flex; justify-content: space-between; align-items: center; border-bottom: 2px solid #ddd; }");
-        out.println(".table-header h3 { color: #333; margin: 0; font-size: 1.3rem; display: flex; align-items: center; gap: 10px; }");
-        out.println(".table-content { background-color: #f8f9fa; padding: 20px; max-height: 60vh; min-height: 400px; overflow-y: auto; }");
-
-        // Tables
-        out.println("table { width: 100%; border-collapse: collapse; background: white; border-radius: 8px; overflow: hidden; box-shadow: 0 0 10px rgba(0,0,0,0.1); }");
-        out.println("th, td { padding: 15px; text-align: left; border-bottom: 1px solid #ddd; }");
-        out.println("th { background-color: #343a40; color: white; font-weight: 600; }");
-        out.println("tr:hover { background-color: #f8f9fa; }");
-        out.println("tbody tr:last-child td { border-bottom: none; }");
-
-        // Session ID styling like bid items
-        out.println(".session-id { font-family: monospace; background: #e7f3ff; color: #007bff; padding: 4px 8px; border-radius: 4px; font-size: 0.9rem; border: 1px solid #007bff; }");
-        out.println(".admin-badge { background: #dc3545; color: white; padding: 4px 8px; border-radius: 4px; font-size: 0.8rem; font-weight: bold; display: inline-flex; align-items: center; gap: 4px; }");
-        out.println(".user-badge { background: #007bff; color: white; padding: 4px 8px; border-radius: 4px; font-size: 0.8rem; font-weight: bold; display: inline-flex; align-items: center; gap: 4px; }");
-
-        // Messages like auction system notifications
-        out.println(".message { background: white; border-radius: 5px; padding: 15px; margin-bottom: 15px; border-left: 4px solid; animation: slideIn 0.3s ease-out; border: 1px solid #ddd; display: flex; align-items: center; gap: 10px; }");
-        out.println(".message-success { border-left-color: #28a745; background-color: #d4edda; color: #155724; }");
-        out.println(".message-error { border-left-color: #dc3545; background-color: #f8d7da; color: #721c24; }");
-        out.println("@keyframes slideIn { from { opacity: 0; transform: translateX(-20px); } to { opacity: 1; transform: translateX(0); } }");
-
-        // Empty state like auction system
-        out.println(".empty-state { text-align: center; padding: 40px 20px; color: #6c757d; }");
-        out.println(".empty-state i { font-size: 3rem; margin-bottom: 15px; opacity: 0.5; }");
-
-        // Badge like auction system
-        out.println(".badge { background-color: #007bff; color: white; padding: 3px 8px; border-radius: 3px; font-size: 12px; }");
-
-        // Scrollbar styling like auction system
-        out.println(".table-content::-webkit-scrollbar { width: 8px; }");
-        out.println(".table-content::-webkit-scrollbar-track { background: #f1f1f1; border-radius: 4px; }");
-        out.println(".table-content::-webkit-scrollbar-thumb { background: #007bff; border-radius: 4px; }");
-        out.println(".table-content::-webkit-scrollbar-thumb:hover { background: #0056b3; }");
-
-        // Responsive design like auction system
-        out.println("@media (max-width: 768px) {");
-        out.println(".main-content { grid-template-columns: 1fr; }");
-        out.println(".nav-bar h1 { font-size: 1.5rem; }");
-        out.println(".admin-info { flex-direction: column; }");
-        out.println(".stats-grid { grid-template-columns: 1fr; }");
-        out.println(".table-content { height: 50vh; min-height: 300px; }");
-        out.println("}");
-
-        out.println("</style>");
+        // Dashboard styles are a fingerprinted static asset, cached by the browser
+        out.println("<link rel='stylesheet' href='" + StaticAssets.url("css/admin-sessions.css") + "'>");
         out.println("</head>");
         out.println("<body>");
 
@@ -254,6 +163,8 @@ public class SessionAdminServlet extends HttpServlet {
         // Statistics section
         out.println("<div class='left-panel'>");
         showSessionStatistics(out);
+        showCompressionStatistics(out);
+        showAccessLogStatistics(out);
         out.println("</div>");
 
         out.println("<div class='right-panel'>");
@@ -306,6 +217,64 @@ public class SessionAdminServlet extends HttpServlet {
         out.println("</div>");
     }
 
+    private void showCompressionStatistics(PrintWriter out) {
+        long compressed = CompressionFilter.getCompressedResponses();
+        double savedPercent = compressed == 0 ? 0 : (1 - CompressionFilter.getCompressionRatio()) * 100;
+        double cpuMillis = CompressionFilter.getCompressionCpuNanos() / 1_000_000.0;
+
+        out.println("<div class='stats-container'>");
+        out.println("<h3><i class='fas fa-compress-alt'></i>Response Compression</h3>");
+        out.println("<div class='stats-grid'>");
+        out.println("<div class='stat-card'>");
+        out.println("<div class='stat-label'>Gzipped Responses</div>");
+        out.println("<div class='stat-value'>" + compressed + "</div>");
+        out.println("</div>");
+        out.println("<div class='stat-card'>");
+        out.println("<div class='stat-label'>Bytes Saved</div>");
+        out.println("<div class='stat-value'>" + String.format("%.1f%%", savedPercent) + "</div>");
+        out.println("</div>");
+        out.println("<div class='stat-card'>");
+        out.println("<div class='stat-label'>CPU Time (ms)</div>");
+        out.println("<div class='stat-value'>" + String.format("%.1f", cpuMillis) + "</div>");
+        out.println("</div>");
+        out.println("<div class='stat-card'>");
+        out.println("<div class='stat-label'>Sent Uncompressed</div>");
+        out.println("<div class='stat-value'>" + CompressionFilter.getSkippedResponses() + "</div>");
+        out.println("</div>");
+        out.println("</div>");
+        out.println("<p>" + CompressionFilter.getUncompressedBytes() + " bytes compressed to "
+                + CompressionFilter.getCompressedBytes() + " using " + CompressionFilter.getDeflatersCreated()
+                + " pooled deflaters.</p>");
+        out.println("</div>");
+    }
+
+    private void showAccessLogStatistics(PrintWriter out) {
+        AccessLog accessLog = CharacterEncodingFilter.getAccessLog();
+
+        out.println("<div class='stats-container'>");
+        out.println("<h3><i class='fas fa-file-alt'></i>Access Log</h3>");
+        if (accessLog == null) {
+            out.println("<p>Access logging is disabled.</p>");
+        } else {
+            out.println("<div class='stats-grid'>");
+            out.println("<div class='stat-card'>");
+            out.println("<div class='stat-label'>Records Written</div>");
+            out.println("<div class='stat-value'>" + accessLog.getWritten() + "</div>");
+            out.println("</div>");
+            out.println("<div class='stat-card'>");
+            out.println("<div class='stat-label'>Dropped (Buffer Full)</div>");
+            out.println("<div class='stat-value'>" + accessLog.getDropped() + "</div>");
+            out.println("</div>");
+            out.println("<div class='stat-card'>");
+            out.println("<div class='stat-label'>Sampled Out</div>");
+            out.println("<div class='stat-value'>" + accessLog.getSampledOut() + "</div>");
+            out.println("</div>");
+            out.println("</div>");
+            out.println("<p>Writing to " + accessLog.getPath() + "</p>");
+        }
+        out.println("</div>");
+    }
+
     private void showActiveSessionsTable(PrintWriter out) {
         List<ActiveSessionInfo> sessions = sessionManager.getAllActiveSessions();
 
@@ -359,7 +328,7 @@ public class SessionAdminServlet extends HttpServlet {
     }
 
     private void showUserSessionCounts(PrintWriter out) {
-        Map<String, Integer> userCounts = sessionManager.getUserSessionCounts();
+        List<UserSessionSummary> userCounts = sessionManager.getUserSessionSummaries();
 
         out.println("<div class='table-section'>");
         out.println("<div class='table-header'>");
@@ -382,12 +351,12 @@ public class SessionAdminServlet extends HttpServlet {
             out.println("<th><i class='fas fa-cogs'></i> Actions</th>");
             out.println("</tr>");
 
-            for (Map.Entry<String, Integer> entry : userCounts.entrySet()) {
-                if (entry.getValue() > 0) {
-                    boolean isAdmin = userService.isUserAdmin(entry.getKey());
+            for (UserSessionSummary entry : userCounts) {
+                if (entry.getSessionCount() > 0) {
+                    boolean isAdmin = entry.isAdmin();
                     out.println("<tr>");
-                    out.println("<td><strong>" + entry.getKey() + "</strong></td>");
-                    out.println("<td>" + entry.getValue() + "</td>");
+                    out.println("<td><strong>" + entry.getUsername() + "</strong></td>");
+                    out.println("<td>" + entry.getSessionCount() + "</td>");
                     out.println("<td>");
                     if (isAdmin) {
                         out.println("<span class='admin-badge'><i class='fas fa-key'></i> ADMIN</span>");
@@ -398,7 +367,7 @@ public class SessionAdminServlet extends HttpServlet {
                     out.println("<td>");
                     out.println("<form method='post' style='display: inline;'>");
                     out.println("<input type='hidden' name='action' value='logoutUser'>");
-                    out.println("<input type='hidden' name='username' value='" + entry.getKey() + "'>");
+                    out.println("<input type='hidden' name='username' value='" + entry.getUsername() + "'>");
                     out.println("<button type='submit' class='btn btn-danger btn-small'>");
                     out.println("<i class='fas fa-sign-out-alt'></i> Logout All");
                     out.println("</button>");
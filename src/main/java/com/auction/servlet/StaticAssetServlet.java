@@ -0,0 +1,61 @@
+package com.auction.servlet;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Serves the fingerprinted assets registered in {@link StaticAssets}.
+ *
+ * A fingerprinted URL never changes content, so responses are cacheable for a year and marked
+ * immutable; the ETag still lets a client revalidate cheaply. The gzip variant is compressed
+ * once at startup and sent whenever the client accepts it.
+ */
+@WebServlet(name = "StaticAssetServlet", urlPatterns = {"/assets/*"}, loadOnStartup = 1)
+public class StaticAssetServlet extends HttpServlet {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Override
+    public void init() throws ServletException {
+        StaticAssets.initialize(getServletContext());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String pathInfo = request.getPathInfo();
+        StaticAssets.Asset asset = pathInfo != null ? StaticAssets.lookup(pathInfo.substring(1)) : null;
+        if (asset == null) {
+            // Unknown or outdated fingerprint; never let a stale name be cached as immutable
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean gzip = asset.gzipped != null && StaticAssets.acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = gzip ? asset.gzipEtag : asset.etag;
+
+        response.setContentType(asset.contentType);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.setHeader("ETag", etag);
+        if (asset.gzipped != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        if (StaticAssets.etagMatches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? asset.gzipped : asset.content;
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
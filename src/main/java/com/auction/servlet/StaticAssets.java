@@ -0,0 +1,224 @@
+package com.auction.servlet;
+
+import jakarta.servlet.ServletContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Registry of the web application's CSS and JavaScript files, served under content-hashed
+ * names by {@link StaticAssetServlet}.
+ *
+ * At startup every file under {@code /css/} and {@code /js/} is read once, hashed and
+ * gzip-compressed. Pages link to {@link #url(String)}, which changes whenever the file's
+ * content does, so browsers can cache each URL forever.
+ */
+public final class StaticAssets {
+
+    private static final Logger logger = Logger.getLogger(StaticAssets.class.getName());
+
+    static final String URL_PREFIX = "/assets/";
+    private static final String[] DIRECTORIES = {"/css/", "/js/"};
+    private static final int HASH_LENGTH = 12;
+
+    // Replaced wholesale on initialize; readers never see a half-built registry
+    private static volatile Registry registry = new Registry("/AuctionSystem", Map.of());
+
+    private StaticAssets() {
+    }
+
+    /**
+     * One file with its precomputed representations.
+     */
+    static final class Asset {
+        final String path;
+        final String fingerprintedPath;
+        final String contentType;
+        final byte[] content;
+        final byte[] gzipped; // null when compression does not make it smaller
+        final String etag;
+        final String gzipEtag;
+
+        Asset(String path, String fingerprintedPath, String contentType, byte[] content, byte[] gzipped, String hash) {
+            this.path = path;
+            this.fingerprintedPath = fingerprintedPath;
+            this.contentType = contentType;
+            this.content = content;
+            this.gzipped = gzipped;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+    }
+
+    private static final class Registry {
+        final String contextPath;
+        final Map<String, Asset> byPath;
+        final Map<String, Asset> byFingerprintedPath = new HashMap<>();
+
+        Registry(String contextPath, Map<String, Asset> byPath) {
+            this.contextPath = contextPath;
+            this.byPath = byPath;
+            byPath.values().forEach(asset -> byFingerprintedPath.put(asset.fingerprintedPath, asset));
+        }
+    }
+
+    /**
+     * Reads and fingerprints every asset of the web application.
+     */
+    static synchronized void initialize(ServletContext context) {
+        Map<String, Asset> assets = new HashMap<>();
+        for (String directory : DIRECTORIES) {
+            Set<String> paths = context.getResourcePaths(directory);
+            if (paths == null) {
+                continue;
+            }
+            for (String resourcePath : paths) {
+                if (resourcePath.endsWith("/")) {
+                    continue;
+                }
+                try (InputStream in = context.getResourceAsStream(resourcePath)) {
+                    if (in == null) {
+                        continue;
+                    }
+                    String path = resourcePath.substring(1);
+                    assets.put(path, createAsset(path, in.readAllBytes(), contentTypeOf(path, context)));
+                } catch (IOException e) {
+                    logger.warning("Skipping unreadable asset " + resourcePath + ": " + e.getMessage());
+                }
+            }
+        }
+        registry = new Registry(context.getContextPath(), assets);
+        logger.info("Registered " + assets.size() + " fingerprinted static assets");
+    }
+
+    /**
+     * URL for an asset such as {@code css/enhanced-auction-styles.css}. Falls back to the plain
+     * file URL if the asset is unknown or the registry has not been initialized yet.
+     */
+    public static String url(String path) {
+        Registry current = registry;
+        Asset asset = current.byPath.get(path);
+        if (asset == null) {
+            return current.contextPath + "/" + path;
+        }
+        return current.contextPath + URL_PREFIX + asset.fingerprintedPath;
+    }
+
+    static Asset lookup(String fingerprintedPath) {
+        return registry.byFingerprintedPath.get(fingerprintedPath);
+    }
+
+    static Asset createAsset(String path, byte[] content, String contentType) {
+        String hash = hash(content);
+        int dot = path.lastIndexOf('.');
+        int slash = path.lastIndexOf('/');
+        String fingerprinted = dot > slash
+                ? path.substring(0, dot) + "." + hash + path.substring(dot)
+                : path + "." + hash;
+        byte[] gzipped = gzip(content);
+        return new Asset(path, fingerprinted, contentType, content,
+                gzipped.length < content.length ? gzipped : null, hash);
+    }
+
+    /**
+     * True if the client accepts gzip, honouring an explicit {@code q=0}.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if an If-None-Match header names this entity tag (weak comparison).
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentTypeOf(String path, ServletContext context) {
+        if (path.endsWith(".css")) {
+            return "text/css;charset=UTF-8";
+        }
+        if (path.endsWith(".js")) {
+            return "text/javascript;charset=UTF-8";
+        }
+        String mimeType = context.getMimeType(path);
+        return mimeType != null ? mimeType : "application/octet-stream";
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(HASH_LENGTH);
+            for (int i = 0; hex.length() < HASH_LENGTH; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
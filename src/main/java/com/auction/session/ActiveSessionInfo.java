@@ -1,19 +1,30 @@
 package com.auction.session;
 
+import com.auction.time.Timestamps;
+import com.auction.time.Clocks;
+
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+/**
+ * An active login. Login and activity times are epoch milliseconds so that stamping activity
+ * and checking expiry on every request are long arithmetic; the {@code LocalDateTime} accessors
+ * convert at the presentation edge.
+ */
 public class ActiveSessionInfo implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private String sessionToken;
     private String username;
     private String sessionId;
     private String ipAddress;
     private String userAgent;
-    private LocalDateTime loginTime;
-    private LocalDateTime lastActivity;
+    private long loginTimeMillis;
+    // Stamped by request threads without any lock
+    private volatile long lastActivityMillis;
     private boolean isActive;
+    // Admin rights are fixed when a user is created, so the flag is taken once at login
+    private boolean admin;
     private int maxInactiveMinutes;
 
     public ActiveSessionInfo() {}
@@ -25,25 +36,34 @@ public class ActiveSessionInfo implements Serializable {
         this.sessionId = sessionId;
         this.ipAddress = ipAddress;
         this.userAgent = userAgent;
-        this.loginTime = LocalDateTime.now();
-        this.lastActivity = LocalDateTime.now();
+        this.loginTimeMillis = Clocks.millis();
+        this.lastActivityMillis = loginTimeMillis;
         this.isActive = true;
         this.maxInactiveMinutes = 30; // Default 30 minutes
     }
 
     // Check if session is expired
     public boolean isExpired() {
-        return lastActivity.plusMinutes(maxInactiveMinutes).isBefore(LocalDateTime.now());
+        return isExpired(Clocks.millis());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis() < nowMillis;
+    }
+
+    // When the session expires unless it sees more activity, as epoch milliseconds
+    public long expiresAtMillis() {
+        return lastActivityMillis + maxInactiveMinutes * Timestamps.MILLIS_PER_MINUTE;
     }
 
     // Get session duration in minutes
     public long getSessionDurationMinutes() {
-        return java.time.Duration.between(loginTime, LocalDateTime.now()).toMinutes();
+        return (Clocks.millis() - loginTimeMillis) / Timestamps.MILLIS_PER_MINUTE;
     }
 
     // Get inactive duration in minutes
     public long getInactiveDurationMinutes() {
-        return java.time.Duration.between(lastActivity, LocalDateTime.now()).toMinutes();
+        return (Clocks.millis() - lastActivityMillis) / Timestamps.MILLIS_PER_MINUTE;
     }
 
     // Getters and Setters
@@ -62,15 +82,24 @@ public class ActiveSessionInfo implements Serializable {
     public String getUserAgent() { return userAgent; }
     public void setUserAgent(String userAgent) { this.userAgent = userAgent; }
 
-    public LocalDateTime getLoginTime() { return loginTime; }
-    public void setLoginTime(LocalDateTime loginTime) { this.loginTime = loginTime; }
+    public long getLoginTimeMillis() { return loginTimeMillis; }
+    public void setLoginTimeMillis(long loginTimeMillis) { this.loginTimeMillis = loginTimeMillis; }
+
+    public long getLastActivityMillis() { return lastActivityMillis; }
+    public void setLastActivityMillis(long lastActivityMillis) { this.lastActivityMillis = lastActivityMillis; }
 
-    public LocalDateTime getLastActivity() { return lastActivity; }
-    public void setLastActivity(LocalDateTime lastActivity) { this.lastActivity = lastActivity; }
+    public LocalDateTime getLoginTime() { return Timestamps.toLocalDateTime(loginTimeMillis); }
+    public void setLoginTime(LocalDateTime loginTime) { this.loginTimeMillis = Timestamps.toEpochMillis(loginTime); }
+
+    public LocalDateTime getLastActivity() { return Timestamps.toLocalDateTime(lastActivityMillis); }
+    public void setLastActivity(LocalDateTime lastActivity) { this.lastActivityMillis = Timestamps.toEpochMillis(lastActivity); }
 
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
+    public boolean isAdmin() { return admin; }
+    public void setAdmin(boolean admin) { this.admin = admin; }
+
     public int getMaxInactiveMinutes() { return maxInactiveMinutes; }
     public void setMaxInactiveMinutes(int maxInactiveMinutes) { this.maxInactiveMinutes = maxInactiveMinutes; }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.auction.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sessions in this JVM's heap: a token map, a per-user token index and a running count.
+ * Records are the live objects, so a touch is a field write.
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<String, ActiveSessionInfo> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public ActiveSessionInfo get(String sessionToken) {
+        return sessions.get(sessionToken);
+    }
+
+    @Override
+    public boolean put(ActiveSessionInfo session) {
+        ActiveSessionInfo previous = sessions.put(session.getSessionToken(), session);
+        if (previous == null) {
+            count.incrementAndGet();
+        } else if (!previous.getUsername().equals(session.getUsername())) {
+            removeUserSession(previous.getUsername(), previous.getSessionToken());
+        }
+        addUserSession(session.getUsername(), session.getSessionToken());
+        return previous == null;
+    }
+
+    @Override
+    public ActiveSessionInfo remove(String sessionToken) {
+        ActiveSessionInfo session = sessions.remove(sessionToken);
+        if (session != null) {
+            count.decrementAndGet();
+            removeUserSession(session.getUsername(), sessionToken);
+        }
+        return session;
+    }
+
+    // A user's token set is created and removed inside compute, so a login racing the user's
+    // last logout cannot add its token to a set that has just been dropped from the map
+
+    private void addUserSession(String username, String sessionToken) {
+        userSessions.compute(username, (name, tokens) -> {
+            Set<String> result = tokens != null ? tokens : ConcurrentHashMap.newKeySet();
+            result.add(sessionToken);
+            return result;
+        });
+    }
+
+    private void removeUserSession(String username, String sessionToken) {
+        userSessions.computeIfPresent(username, (name, tokens) -> {
+            tokens.remove(sessionToken);
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+
+    @Override
+    public void touch(ActiveSessionInfo session, long lastActivityMillis) {
+        session.setLastActivityMillis(lastActivityMillis);
+    }
+
+    @Override
+    public Collection<String> getTokensForUser(String username) {
+        Set<String> tokens = userSessions.get(username);
+        return tokens != null ? new ArrayList<>(tokens) : Collections.emptyList();
+    }
+
+    @Override
+    public List<ActiveSessionInfo> getAll() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    @Override
+    public List<UserSessionSummary> getUserSummaries() {
+        List<UserSessionSummary> summaries = new ArrayList<>(userSessions.size());
+        userSessions.forEach((username, tokens) -> {
+            boolean admin = false;
+            // Any of the user's sessions carries the flag; the first one still present will do
+            for (String token : tokens) {
+                ActiveSessionInfo session = sessions.get(token);
+                if (session != null) {
+                    admin = session.isAdmin();
+                    break;
+                }
+            }
+            int sessionCount = tokens.size();
+            if (sessionCount > 0) {
+                summaries.add(new UserSessionSummary(username, sessionCount, admin));
+            }
+        });
+        return summaries;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public void clear() {
+        sessions.clear();
+        userSessions.clear();
+        count.set(0);
+    }
+}
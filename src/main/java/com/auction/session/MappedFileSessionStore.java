@@ -0,0 +1,615 @@
+package com.auction.session;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Session store in a memory-mapped file, shared by every process on the host that maps it.
+ *
+ * The file is a fixed-size hash table of fixed-size slots, open addressing with linear probing
+ * on the token's {@code String.hashCode}, which is the same in every JVM. Each slot starts with
+ * a sequence number used as a seqlock: a writer makes it odd, rewrites the slot and makes it
+ * even again, and readers retry if it changed under them. Inserts and removals are serialised by
+ * an exclusive lock on the file (and a monitor within the JVM, since file locks are held per
+ * process). Activity stamps compare-and-set the aligned last-activity field and never take the
+ * slot, so only lock holders make a sequence odd.
+ *
+ * A process that dies mid-write leaves its slot's sequence odd. Whoever next holds the lock
+ * knows the writer is gone: it discards the half-written record as a tombstone and makes the
+ * sequence even again. Opening the file does this for every slot, and a reader that sees a slot
+ * odd for longer than a write takes the lock to wait for the writer or repair the slot.
+ *
+ * Per-user queries and the admin summaries scan the whole table; the request paths (get,
+ * touch, put, remove) only probe from the token's home slot. A removed slot becomes empty if
+ * the slot after it is empty, otherwise a tombstone that later inserts reuse.
+ *
+ * Layout: a 64-byte header (magic, version, slot size, capacity, session count) followed by the
+ * slots. Slot: sequence (8), state (4), token hash (4), login time (8), last activity (8), max
+ * inactive minutes (4), flags (1), padding (3), then token, username, HTTP session id, address
+ * and user agent as length-prefixed UTF-8. A session that does not fit in a slot is rejected.
+ * Table size and slot size are fixed when the file is created.
+ */
+public class MappedFileSessionStore implements SessionStore {
+
+    private static final Logger logger = Logger.getLogger(MappedFileSessionStore.class.getName());
+
+    public static final String CAPACITY_PROPERTY = "auction.session.store.capacity";
+    public static final String SLOT_BYTES_PROPERTY = "auction.session.store.slotBytes";
+    public static final int DEFAULT_CAPACITY = 16384;
+    public static final int DEFAULT_SLOT_BYTES = 1024;
+
+    private static final int MAGIC = 0x41534553; // "ASES"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_SLOT_BYTES = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_COUNT = 16;
+
+    private static final int S_SEQUENCE = 0;
+    private static final int S_STATE = 8;
+    private static final int S_HASH = 12;
+    private static final int S_LOGIN_TIME = 16;
+    private static final int S_LAST_ACTIVITY = 24;
+    private static final int S_MAX_INACTIVE = 32;
+    private static final int S_FLAGS = 36;
+    private static final int S_STRINGS = 40;
+
+    private static final int EMPTY = 0;
+    private static final int LIVE = 1;
+    private static final int TOMBSTONE = 2;
+
+    private static final byte FLAG_ACTIVE = 1;
+    private static final byte FLAG_ADMIN = 2;
+
+    private static final int NULL_STRING = 0xFFFF;
+    // Far longer than any write holds a slot; a reader still waiting then takes the lock
+    private static final int READER_SPINS = 1 << 16;
+
+    // Ordered and atomic access to the mapped longs, which are 8-byte aligned
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // File locks belong to the process, so writers in this JVM also take this monitor
+    private static final Object WRITE_MONITOR = new Object();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int slotBytes;
+
+    private MappedFileSessionStore(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity, int slotBytes) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.slotBytes = slotBytes;
+    }
+
+    /**
+     * Maps the session file, creating it with the given table and slot size if it does not
+     * exist yet; an existing file keeps the sizes it was created with.
+     */
+    public static MappedFileSessionStore open(Path path, int capacity, int slotBytes) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            synchronized (WRITE_MONITOR) {
+                FileLock lock = channel.lock();
+                try {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+                    if (channel.size() >= HEADER_BYTES) {
+                        channel.read(header, 0);
+                        if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+                            throw new IOException("Not a session file: " + path);
+                        }
+                        slotBytes = header.getInt(H_SLOT_BYTES);
+                        capacity = header.getInt(H_CAPACITY);
+                    } else {
+                        slotBytes = Math.max(256, (slotBytes + 7) & ~7);
+                        capacity = Math.max(16, capacity);
+                        header.putInt(H_MAGIC, MAGIC)
+                                .putInt(H_VERSION, VERSION)
+                                .putInt(H_SLOT_BYTES, slotBytes)
+                                .putInt(H_CAPACITY, capacity);
+                        channel.write(header, 0);
+                    }
+                    long size = HEADER_BYTES + (long) capacity * slotBytes;
+                    if (size > Integer.MAX_VALUE) {
+                        throw new IOException("Session file too large: " + capacity + " slots of " + slotBytes + " bytes");
+                    }
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                    buffer.order(ByteOrder.nativeOrder());
+                    logger.info("Session file " + path + ": " + capacity + " slots of " + slotBytes + " bytes");
+                    MappedFileSessionStore store = new MappedFileSessionStore(path, channel, buffer, capacity, slotBytes);
+                    store.recover();
+                    return store;
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ---- reading ----
+
+    private int slotOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes;
+    }
+
+    private int homeSlot(int hash) {
+        return Math.floorMod(hash, capacity);
+    }
+
+    private long sequence(int offset) {
+        return (long) LONGS.getAcquire(buffer, offset + S_SEQUENCE);
+    }
+
+    private boolean unchanged(int offset, long sequence) {
+        VarHandle.acquireFence();
+        return sequence(offset) == sequence;
+    }
+
+    // Called by readers that keep finding the slot odd; false until they have waited long enough
+    // that the writer may be dead, and then once the lock has been taken and the slot repaired
+    private boolean awaitWriter(int offset, int spins) {
+        if (spins < READER_SPINS) {
+            Thread.onSpinWait();
+            return false;
+        }
+        synchronized (WRITE_MONITOR) {
+            FileLock lock = lock();
+            try {
+                if (repair(offset)) {
+                    recount();
+                }
+            } finally {
+                unlock(lock);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ActiveSessionInfo get(String sessionToken) {
+        if (sessionToken == null) {
+            return null;
+        }
+        int hash = sessionToken.hashCode();
+        byte[] token = sessionToken.getBytes(StandardCharsets.UTF_8);
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) % capacity) {
+            int offset = slotOffset(slot);
+            for (int spins = 0; ; spins++) {
+                long sequence = sequence(offset);
+                if ((sequence & 1) != 0) {
+                    if (awaitWriter(offset, spins)) {
+                        spins = 0;
+                    }
+                    continue;
+                }
+                int state = buffer.getInt(offset + S_STATE);
+                ActiveSessionInfo match = null;
+                boolean found = state == LIVE && buffer.getInt(offset + S_HASH) == hash && tokenEquals(offset, token);
+                if (found) {
+                    match = decode(offset);
+                }
+                if (!unchanged(offset, sequence)) {
+                    continue;
+                }
+                if (state == EMPTY) {
+                    return null;
+                }
+                if (found) {
+                    return match;
+                }
+                break;
+            }
+        }
+        return null;
+    }
+
+    private boolean tokenEquals(int offset, byte[] token) {
+        int position = offset + S_STRINGS;
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length != token.length || position + 2 + length > offset + slotBytes) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + 2 + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Duplicates start out big-endian whatever the original's order
+    private ByteBuffer view(int position) {
+        ByteBuffer view = buffer.duplicate().order(ByteOrder.nativeOrder());
+        view.position(position);
+        return view;
+    }
+
+    // Reads a slot; the caller checks the sequence afterwards and discards the result if it moved
+    private ActiveSessionInfo decode(int offset) {
+        ByteBuffer view = view(offset + S_STRINGS);
+        ActiveSessionInfo session = new ActiveSessionInfo();
+        session.setSessionToken(readString(view, offset));
+        session.setUsername(readString(view, offset));
+        session.setSessionId(readString(view, offset));
+        session.setIpAddress(readString(view, offset));
+        session.setUserAgent(readString(view, offset));
+        session.setLoginTimeMillis(buffer.getLong(offset + S_LOGIN_TIME));
+        session.setLastActivityMillis((long) LONGS.getOpaque(buffer, offset + S_LAST_ACTIVITY));
+        session.setMaxInactiveMinutes(buffer.getInt(offset + S_MAX_INACTIVE));
+        byte flags = buffer.get(offset + S_FLAGS);
+        session.setActive((flags & FLAG_ACTIVE) != 0);
+        session.setAdmin((flags & FLAG_ADMIN) != 0);
+        return session;
+    }
+
+    private String readString(ByteBuffer view, int offset) {
+        // A torn read can produce nonsense lengths; stay inside the slot, which for the last slot
+        // is also the end of the buffer
+        if (view.position() + 2 > offset + slotBytes) {
+            return null;
+        }
+        int length = view.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (view.position() + length > offset + slotBytes) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Every consistent live record, in slot order
+    private List<ActiveSessionInfo> scan() {
+        List<ActiveSessionInfo> sessions = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            for (int spins = 0; ; spins++) {
+                long sequence = sequence(offset);
+                if ((sequence & 1) != 0) {
+                    if (awaitWriter(offset, spins)) {
+                        spins = 0;
+                    }
+                    continue;
+                }
+                ActiveSessionInfo session = buffer.getInt(offset + S_STATE) == LIVE ? decode(offset) : null;
+                if (unchanged(offset, sequence)) {
+                    if (session != null) {
+                        sessions.add(session);
+                    }
+                    break;
+                }
+            }
+        }
+        return sessions;
+    }
+
+    @Override
+    public Collection<String> getTokensForUser(String username) {
+        List<String> tokens = new ArrayList<>();
+        for (ActiveSessionInfo session : scan()) {
+            if (session.getUsername().equals(username)) {
+                tokens.add(session.getSessionToken());
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public List<ActiveSessionInfo> getAll() {
+        return scan();
+    }
+
+    @Override
+    public List<UserSessionSummary> getUserSummaries() {
+        Map<String, int[]> users = new LinkedHashMap<>();
+        for (ActiveSessionInfo session : scan()) {
+            int[] row = users.computeIfAbsent(session.getUsername(), name -> new int[2]);
+            row[0]++;
+            if (session.isAdmin()) {
+                row[1] = 1;
+            }
+        }
+        List<UserSessionSummary> summaries = new ArrayList<>(users.size());
+        users.forEach((username, row) -> summaries.add(new UserSessionSummary(username, row[0], row[1] != 0)));
+        return summaries;
+    }
+
+    @Override
+    public int size() {
+        return (int) (long) LONGS.getAcquire(buffer, H_COUNT);
+    }
+
+    // ---- writing ----
+
+    /**
+     * Stamps activity without the file lock or the slot: the stamp read together with the token
+     * is compare-and-set, so it is skipped if a writer has the slot, rewrote it since, or it no
+     * longer holds this session. Stamps never move backwards.
+     */
+    @Override
+    public void touch(ActiveSessionInfo session, long lastActivityMillis) {
+        session.setLastActivityMillis(lastActivityMillis);
+        String sessionToken = session.getSessionToken();
+        int slot = find(sessionToken);
+        if (slot < 0) {
+            return;
+        }
+        int offset = slotOffset(slot);
+        long sequence = sequence(offset);
+        if ((sequence & 1) != 0) {
+            return;
+        }
+        long stamp = (long) LONGS.getOpaque(buffer, offset + S_LAST_ACTIVITY);
+        boolean same = buffer.getInt(offset + S_STATE) == LIVE
+                && buffer.getInt(offset + S_HASH) == sessionToken.hashCode()
+                && tokenEquals(offset, sessionToken.getBytes(StandardCharsets.UTF_8));
+        if (same && unchanged(offset, sequence) && stamp < lastActivityMillis) {
+            LONGS.compareAndSet(buffer, offset + S_LAST_ACTIVITY, stamp, lastActivityMillis);
+        }
+    }
+
+    // Slot currently holding the token, or -1; a hint only, callers re-check under the sequence
+    private int find(String sessionToken) {
+        int hash = sessionToken.hashCode();
+        byte[] token = sessionToken.getBytes(StandardCharsets.UTF_8);
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) % capacity) {
+            int offset = slotOffset(slot);
+            int state = buffer.getInt(offset + S_STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == LIVE && buffer.getInt(offset + S_HASH) == hash && tokenEquals(offset, token)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean put(ActiveSessionInfo session) {
+        byte[][] strings = {
+                bytes(session.getSessionToken()), bytes(session.getUsername()), bytes(session.getSessionId()),
+                bytes(session.getIpAddress()), bytes(session.getUserAgent())
+        };
+        int recordBytes = S_STRINGS;
+        for (byte[] string : strings) {
+            recordBytes += 2 + (string != null ? string.length : 0);
+        }
+        if (recordBytes > slotBytes) {
+            throw new IllegalArgumentException("Session for " + session.getUsername() + " needs " + recordBytes
+                    + " bytes, the session file's slots hold " + slotBytes);
+        }
+
+        String sessionToken = session.getSessionToken();
+        int hash = sessionToken.hashCode();
+        synchronized (WRITE_MONITOR) {
+            FileLock lock = lock();
+            try {
+                int existing = find(sessionToken);
+                int slot = existing >= 0 ? existing : freeSlot(hash);
+                int offset = slotOffset(slot);
+                long sequence = claim(offset);
+
+                buffer.putInt(offset + S_HASH, hash);
+                buffer.putLong(offset + S_LOGIN_TIME, session.getLoginTimeMillis());
+                LONGS.setOpaque(buffer, offset + S_LAST_ACTIVITY, session.getLastActivityMillis());
+                buffer.putInt(offset + S_MAX_INACTIVE, session.getMaxInactiveMinutes());
+                buffer.put(offset + S_FLAGS, (byte) ((session.isActive() ? FLAG_ACTIVE : 0) | (session.isAdmin() ? FLAG_ADMIN : 0)));
+                ByteBuffer view = view(offset + S_STRINGS);
+                for (byte[] string : strings) {
+                    if (string == null) {
+                        view.putShort((short) NULL_STRING);
+                    } else {
+                        view.putShort((short) string.length).put(string);
+                    }
+                }
+                buffer.putInt(offset + S_STATE, LIVE);
+
+                LONGS.setRelease(buffer, offset + S_SEQUENCE, sequence + 2);
+                if (existing < 0) {
+                    addCount(1);
+                }
+                return existing < 0;
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Exclusive lock on the whole file, for writers that already hold WRITE_MONITOR
+    private FileLock lock() {
+        try {
+            return channel.lock();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot lock session file " + path, e);
+        }
+    }
+
+    private void unlock(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            // Released anyway when the channel is closed
+            logger.warning("Cannot unlock session file " + path + ": " + e.getMessage());
+        }
+    }
+
+    // First tombstone or empty slot along the probe sequence; the token is known to be absent
+    private int freeSlot(int hash) {
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) % capacity) {
+            if (buffer.getInt(slotOffset(slot) + S_STATE) != LIVE) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Session file " + path + " is full (" + capacity + " sessions)");
+    }
+
+    // Moves the slot's sequence to odd for a writer holding the lock. An odd sequence was left by
+    // a writer that died; the caller rewrites or frees the slot either way.
+    private long claim(int offset) {
+        long sequence = sequence(offset);
+        if ((sequence & 1) != 0) {
+            sequence++;
+        }
+        LONGS.setOpaque(buffer, offset + S_SEQUENCE, sequence + 1);
+        VarHandle.storeStoreFence();
+        return sequence;
+    }
+
+    // Under the lock: discards a slot left odd by a dead writer, whose record may be half written
+    private boolean repair(int offset) {
+        long sequence = sequence(offset);
+        if ((sequence & 1) == 0) {
+            return false;
+        }
+        logger.warning("Session file " + path + ": discarding slot " + (offset - HEADER_BYTES) / slotBytes
+                + " left mid-write");
+        buffer.putInt(offset + S_STATE, TOMBSTONE);
+        LONGS.setRelease(buffer, offset + S_SEQUENCE, sequence + 1);
+        return true;
+    }
+
+    // Under the lock: repairs every slot and recounts, since a process that died between a
+    // write and its count update leaves the count off as well
+    private void recover() {
+        for (int slot = 0; slot < capacity; slot++) {
+            repair(slotOffset(slot));
+        }
+        recount();
+    }
+
+    private void recount() {
+        long live = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (buffer.getInt(slotOffset(slot) + S_STATE) == LIVE) {
+                live++;
+            }
+        }
+        LONGS.setRelease(buffer, H_COUNT, live);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private void addCount(long delta) {
+        LONGS.getAndAdd(buffer, H_COUNT, delta);
+    }
+
+    @Override
+    public ActiveSessionInfo remove(String sessionToken) {
+        if (sessionToken == null) {
+            return null;
+        }
+        synchronized (WRITE_MONITOR) {
+            FileLock lock = lock();
+            try {
+                int slot = find(sessionToken);
+                if (slot < 0) {
+                    return null;
+                }
+                int offset = slotOffset(slot);
+                long sequence = claim(offset);
+                ActiveSessionInfo session = decode(offset);
+                int next = slotOffset((slot + 1) % capacity);
+                buffer.putInt(offset + S_STATE, buffer.getInt(next + S_STATE) == EMPTY ? EMPTY : TOMBSTONE);
+                LONGS.setRelease(buffer, offset + S_SEQUENCE, sequence + 2);
+                addCount(-1);
+                if (buffer.getInt(offset + S_STATE) == EMPTY) {
+                    clearTombstonesBefore(slot);
+                }
+                return session;
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Tombstones directly before an empty slot end no probe sequence, so they can be emptied
+    private void clearTombstonesBefore(int slot) {
+        for (int probes = 1; probes < capacity; probes++) {
+            slot = (slot - 1 + capacity) % capacity;
+            int offset = slotOffset(slot);
+            if (buffer.getInt(offset + S_STATE) != TOMBSTONE) {
+                return;
+            }
+            long sequence = claim(offset);
+            buffer.putInt(offset + S_STATE, EMPTY);
+            LONGS.setRelease(buffer, offset + S_SEQUENCE, sequence + 2);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (WRITE_MONITOR) {
+            FileLock lock = lock();
+            try {
+                for (int slot = 0; slot < capacity; slot++) {
+                    int offset = slotOffset(slot);
+                    if (buffer.getInt(offset + S_STATE) != EMPTY || (sequence(offset) & 1) != 0) {
+                        long sequence = claim(offset);
+                        buffer.putInt(offset + S_STATE, EMPTY);
+                        LONGS.setRelease(buffer, offset + S_SEQUENCE, sequence + 2);
+                    }
+                }
+                LONGS.setRelease(buffer, H_COUNT, 0L);
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes the mapping and closes the file. The mapping itself is released when the buffer
+     * is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
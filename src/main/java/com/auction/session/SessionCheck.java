@@ -0,0 +1,19 @@
+package com.auction.session;
+
+/**
+ * Outcome of {@link UserSessionManagerRemote#validateAndTouch}.
+ */
+public enum SessionCheck {
+    /** The session is valid; its last activity was updated. */
+    VALID,
+    /** No active session has this token. */
+    UNKNOWN,
+    /** The session timed out and has been removed. */
+    EXPIRED,
+    /** The request came from another IP address or user agent; the session has been removed. */
+    SECURITY_MISMATCH;
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
@@ -0,0 +1,90 @@
+package com.auction.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Where {@link UserSessionManagerBean} keeps its sessions.
+ *
+ * Lookups, inserts, removals and activity stamps run on every request and must be cheap; the
+ * per-user queries serve logout-all and the admin pages. Records handed out may be copies, so
+ * activity is recorded through {@link #touch} rather than by changing the record.
+ *
+ * {@value #STORE_PROPERTY} picks the implementation: {@code memory} (the default,
+ * {@link InMemorySessionStore}) or {@code file} ({@link MappedFileSessionStore}, shared by the
+ * processes on one host through {@value #FILE_PROPERTY}).
+ */
+public interface SessionStore extends Closeable {
+
+    String STORE_PROPERTY = "auction.session.store";
+    String FILE_PROPERTY = "auction.session.store.file";
+
+    ActiveSessionInfo get(String sessionToken);
+
+    /**
+     * Adds the session, replacing any with the same token.
+     *
+     * @return true if there was none
+     */
+    boolean put(ActiveSessionInfo session);
+
+    /**
+     * Removes the session; when several callers race, only one gets the record back.
+     *
+     * @return the removed session, or null if there was none
+     */
+    ActiveSessionInfo remove(String sessionToken);
+
+    /** Records activity on a session previously read from this store. */
+    void touch(ActiveSessionInfo session, long lastActivityMillis);
+
+    Collection<String> getTokensForUser(String username);
+
+    List<ActiveSessionInfo> getAll();
+
+    /** One row per user with at least one session. */
+    List<UserSessionSummary> getUserSummaries();
+
+    int size();
+
+    void clear();
+
+    /** True if other processes see the same sessions, so they must not be cleared at shutdown. */
+    default boolean isShared() {
+        return false;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Opens the store selected by the system properties. If the file store cannot be opened
+     * the sessions are kept in memory instead.
+     */
+    static SessionStore fromSystemProperties() {
+        String type = System.getProperty(STORE_PROPERTY, "memory").trim();
+        if (!"file".equalsIgnoreCase(type)) {
+            return new InMemorySessionStore();
+        }
+        String configured = System.getProperty(FILE_PROPERTY);
+        Path path = configured != null && !configured.trim().isEmpty()
+                ? Paths.get(configured.trim())
+                : Paths.get(System.getProperty("java.io.tmpdir"), "auction-sessions.map");
+        try {
+            return MappedFileSessionStore.open(path,
+                    Integer.getInteger(MappedFileSessionStore.CAPACITY_PROPERTY, MappedFileSessionStore.DEFAULT_CAPACITY),
+                    Integer.getInteger(MappedFileSessionStore.SLOT_BYTES_PROPERTY, MappedFileSessionStore.DEFAULT_SLOT_BYTES));
+        } catch (IOException | RuntimeException e) {
+            Logger.getLogger(SessionStore.class.getName()).log(Level.SEVERE,
+                    "Cannot open session file " + path + "; keeping sessions in memory", e);
+            return new InMemorySessionStore();
+        }
+    }
+}
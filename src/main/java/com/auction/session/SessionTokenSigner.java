@@ -0,0 +1,211 @@
+package com.auction.session;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Issues and verifies self-contained session tokens.
+ *
+ * A signed token carries the username, the admin flag, issue and expiry times, a hash of the
+ * client's address and user agent, and a random id, followed by an HMAC-SHA256 over all of it:
+ * {@code s1.<payload>.<mac>}, both parts base64url. Checking one is a MAC computation and a
+ * lookup in the revocation set, with no session map involved, so any node that shares the key
+ * can validate a token another node issued.
+ *
+ * A signed token cannot be extended by activity: it is valid until its expiry
+ * ({@value #LIFETIME_PROPERTY}, default 8 hours) unless it is revoked. Logout revokes it here;
+ * the revocation set only holds tokens that have not expired yet, and it is local to the JVM,
+ * so a logout on one node is not seen by the others.
+ *
+ * Enabled with {@value #ENABLED_PROPERTY}=true. The key is {@value #KEY_PROPERTY} (base64, at
+ * least 32 bytes); nodes must share it. Without one a random key is generated, which only
+ * works for a single node and does not survive a restart.
+ */
+public final class SessionTokenSigner {
+
+    private static final Logger logger = Logger.getLogger(SessionTokenSigner.class.getName());
+
+    public static final String ENABLED_PROPERTY = "auction.session.signedTokens";
+    public static final String KEY_PROPERTY = "auction.session.signingKey";
+    public static final String LIFETIME_PROPERTY = "auction.session.signedTokenMinutes";
+    public static final long DEFAULT_LIFETIME_MINUTES = 480;
+
+    static final String PREFIX = "s1.";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final byte FLAG_ADMIN = 1;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** The claims of a token whose signature checked out. */
+    static final class Claims {
+        final String username;
+        final boolean admin;
+        final long issuedAt;
+        final long expiresAt;
+        final long binding;
+        final long id;
+
+        Claims(String username, boolean admin, long issuedAt, long expiresAt, long binding, long id) {
+            this.username = username;
+            this.admin = admin;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+            this.binding = binding;
+            this.id = id;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final long lifetimeMillis;
+    private final ThreadLocal<Mac> macs;
+    private final SecureRandom random = new SecureRandom();
+
+    // Token id -> expiry; an entry is only needed until the token would have expired anyway
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    public SessionTokenSigner(byte[] key, long lifetimeMinutes) {
+        if (key.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("Signing key must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(key.clone(), ALGORITHM);
+        this.lifetimeMillis = TimeUnit.MINUTES.toMillis(Math.max(1, lifetimeMinutes));
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac(); // fail now rather than on the first request
+    }
+
+    /**
+     * Creates the signer configured through the {@code auction.session.*} system properties.
+     *
+     * @return the signer, or null unless {@value #ENABLED_PROPERTY} is true
+     */
+    public static SessionTokenSigner fromSystemProperties() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+        String configured = System.getProperty(KEY_PROPERTY);
+        byte[] key;
+        if (configured != null && !configured.trim().isEmpty()) {
+            key = Base64.getDecoder().decode(configured.trim());
+        } else {
+            key = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(key);
+            logger.warning("No " + KEY_PROPERTY + " set; signed session tokens use a random key and are only valid on this node until it restarts");
+        }
+        return new SessionTokenSigner(key, Long.getLong(LIFETIME_PROPERTY, DEFAULT_LIFETIME_MINUTES));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    static boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    /**
+     * Issues a token for a login made now from the given client.
+     */
+    String issue(String username, boolean admin, long now, String ipAddress, String userAgent) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(8 + 8 + 1 + 8 + 8 + name.length);
+        payload.putLong(now)
+                .putLong(now + lifetimeMillis)
+                .put(admin ? FLAG_ADMIN : 0)
+                .putLong(binding(ipAddress, userAgent))
+                .putLong(random.nextLong())
+                .put(name);
+        byte[] bytes = payload.array();
+        return PREFIX + ENCODER.encodeToString(bytes) + '.' + ENCODER.encodeToString(macs.get().doFinal(bytes));
+    }
+
+    /**
+     * Checks the token's format and signature.
+     *
+     * @return its claims, or null if it is not a token signed with this key. Expiry and
+     *         revocation are left to the caller.
+     */
+    Claims verify(String token) {
+        if (!isSigned(token)) {
+            return null;
+        }
+        int dot = token.indexOf('.', PREFIX.length());
+        if (dot < 0) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(PREFIX.length(), dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length < 33 || !MessageDigest.isEqual(signature, macs.get().doFinal(payload))) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(payload);
+        long issuedAt = buf.getLong();
+        long expiresAt = buf.getLong();
+        boolean admin = (buf.get() & FLAG_ADMIN) != 0;
+        long binding = buf.getLong();
+        long id = buf.getLong();
+        String username = new String(payload, buf.position(), buf.remaining(), StandardCharsets.UTF_8);
+        return new Claims(username, admin, issuedAt, expiresAt, binding, id);
+    }
+
+    boolean matchesClient(Claims claims, String ipAddress, String userAgent) {
+        return claims.binding == binding(ipAddress, userAgent);
+    }
+
+    void revoke(Claims claims) {
+        revoked.put(claims.id, claims.expiresAt);
+    }
+
+    boolean isRevoked(Claims claims) {
+        return revoked.containsKey(claims.id);
+    }
+
+    /** Forgets revocations of tokens that have expired since; returns how many were dropped. */
+    int purgeRevoked(long now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        return before - revoked.size();
+    }
+
+    int getRevokedCount() {
+        return revoked.size();
+    }
+
+    // First 8 bytes of SHA-256 over the client details the session is bound to
+    private static long binding(String ipAddress, String userAgent) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(ipAddress).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(String.valueOf(userAgent).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,62 +1,185 @@
 package com.auction.session;
 
+import com.auction.time.Clocks;
+
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.ejb.*;
+import java.io.IOException;
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+/**
+ * Active login sessions.
+ *
+ * Bean-managed concurrency: no container lock is taken. Sessions live in a {@link SessionStore},
+ * in memory by default or in a file shared with the other processes on the host, and the
+ * activity timestamp is only rewritten once it is {@value #ACTIVITY_STAMP_PROPERTY} seconds
+ * old, so most requests only read it.
+ *
+ * Expiry uses a deadline queue ordered by the time each session would expire. Entries are
+ * keyed lazily: activity does not touch the queue, and an entry that comes due for a session
+ * that has been active since is put back with the session's current deadline. A cleanup run
+ * therefore only looks at sessions whose deadline has passed, O(expired + re-keyed) instead of
+ * O(all sessions), and runs every 30 seconds so sessions do not pile up between runs.
+ *
+ * Session counts are maintained by the store as sessions are created and removed rather than
+ * counted on demand, and each session carries its user's admin flag, so the admin dashboard
+ * does not look users up. With a shared store, the deadline queue of a starting process is
+ * filled from the sessions already in the store. Sessions that another process creates later
+ * are only queued in that process, so if it dies they would never come due here; a sweep of the
+ * whole store every 15 minutes expires those.
+ *
+ * With {@value SessionTokenSigner#ENABLED_PROPERTY} set, new sessions get signed tokens (see
+ * {@link SessionTokenSigner}) and validation checks the signature instead of looking the token
+ * up, so it also accepts tokens issued by another node. The local session record is still
+ * kept, and touched, for the dashboards; expiring it does not end the signed session, only
+ * logout does.
+ */
 @Singleton
 @Startup
 @Remote(UserSessionManagerRemote.class)
-@ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
-@Lock(LockType.READ) // Default lock type
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class UserSessionManagerBean implements UserSessionManagerRemote {
 
     private static final Logger logger = Logger.getLogger(UserSessionManagerBean.class.getName());
 
-    // Thread-safe storage for active sessions
-    private static final ConcurrentHashMap<String, ActiveSessionInfo> activeSessions = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
+    public static final String ACTIVITY_STAMP_PROPERTY = "auction.session.activityStampSeconds";
+    private static final long DEFAULT_ACTIVITY_STAMP_SECONDS = 15;
+
+    private static final long activityStampSeconds =
+            Long.getLong(ACTIVITY_STAMP_PROPERTY, DEFAULT_ACTIVITY_STAMP_SECONDS);
+
+    private static volatile SessionStore store = SessionStore.fromSystemProperties();
+
+    // Deadline queue; may hold entries for sessions already logged out, dropped when they come due
+    private static final ConcurrentSkipListSet<Deadline> deadlines = new ConcurrentSkipListSet<>();
+    private static final AtomicLong deadlineSequence = new AtomicLong();
+
+    /**
+     * A session's expiry time as of when the entry was queued; the sequence keeps entries with
+     * the same time distinct.
+     */
+    private static final class Deadline implements Comparable<Deadline> {
+        final long expiresAt;
+        final long sequence;
+        final String sessionToken;
+
+        Deadline(long expiresAt, String sessionToken) {
+            this.expiresAt = expiresAt;
+            this.sequence = deadlineSequence.incrementAndGet();
+            this.sessionToken = sessionToken;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            int byTime = Long.compare(expiresAt, other.expiresAt);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static volatile SessionTokenSigner signer = SessionTokenSigner.fromSystemProperties();
 
     private SecureRandom secureRandom;
 
+    // Tests switch signed tokens on and off
+    static void setSigner(SessionTokenSigner replacement) {
+        signer = replacement;
+    }
+
+    // Tests swap the store; the previous one is returned, not closed
+    static SessionStore setStore(SessionStore replacement) {
+        SessionStore previous = store;
+        store = replacement;
+        deadlines.clear();
+        return previous;
+    }
+
+    // Snapshot support: a point-in-time copy of the live sessions, and restore at startup
+    public static List<ActiveSessionInfo> exportSessions() {
+        return store.getAll().stream()
+                .filter(session -> session.isActive() && !session.isExpired())
+                .collect(Collectors.toList());
+    }
+
+    public static void restoreSession(ActiveSessionInfo session) {
+        store.put(session);
+        deadlines.add(new Deadline(session.expiresAtMillis(), session.getSessionToken()));
+    }
+
+    // Stamps activity unless the last stamp is recent enough for the expiry check
+    private static void touch(ActiveSessionInfo session, long now) {
+        if (session.getLastActivityMillis() + activityStampSeconds * 1000 <= now) {
+            store.touch(session, now);
+        }
+    }
+
     @PostConstruct
     public void init() {
         logger.info("Initializing User Session Manager");
         secureRandom = new SecureRandom();
+        SessionStore current = store;
+        if (current.isShared()) {
+            // Sessions other processes created, or this one before a restart, expire here too
+            for (ActiveSessionInfo session : current.getAll()) {
+                deadlines.add(new Deadline(session.expiresAtMillis(), session.getSessionToken()));
+            }
+            logger.info("Found " + current.size() + " sessions in the shared session store");
+        }
         logger.info("User Session Manager initialized successfully");
     }
 
     @PreDestroy
     public void cleanup() {
         logger.info("Shutting down User Session Manager");
-        activeSessions.clear();
-        userSessions.clear();
+        SessionStore current = store;
+        if (!current.isShared()) {
+            current.clear();
+        }
+        deadlines.clear();
         logger.info("User Session Manager shutdown complete");
     }
 
+    /**
+     * Closes the session store when the application is undeployed, so a session file's channel
+     * and mapping do not outlive the class loader. Sessions in a shared store stay in the file.
+     */
+    public static void closeStore() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.warning("Cannot close session store: " + e.getMessage());
+        }
+    }
+
     @Override
-    @Lock(LockType.WRITE)
     public String createUserSession(String username, String sessionId, String ipAddress, String userAgent) {
+        return createUserSession(username, sessionId, ipAddress, userAgent, false);
+    }
+
+    @Override
+    public String createUserSession(String username, String sessionId, String ipAddress, String userAgent,
+                                    boolean admin) {
         logger.info("Creating session for user: " + username);
 
         // Generate secure session token
-        String sessionToken = generateSecureToken();
+        SessionTokenSigner currentSigner = signer;
+        String sessionToken = currentSigner != null
+                ? currentSigner.issue(username, admin, Clocks.millis(), ipAddress, userAgent)
+                : generateSecureToken();
 
         // Create session info
         ActiveSessionInfo sessionInfo = new ActiveSessionInfo(sessionToken, username, sessionId, ipAddress, userAgent);
+        sessionInfo.setAdmin(admin);
 
         // Store session
-        activeSessions.put(sessionToken, sessionInfo);
-
-        // Track user sessions
-        userSessions.computeIfAbsent(username, k -> ConcurrentHashMap.newKeySet()).add(sessionToken);
+        store.put(sessionInfo);
+        deadlines.add(new Deadline(sessionInfo.expiresAtMillis(), sessionToken));
 
         logger.info("Session created successfully for user: " + username + " with token: " + sessionToken.substring(0, 8) + "...");
         return sessionToken;
@@ -68,7 +191,12 @@ public class UserSessionManagerBean implements UserSessionManagerRemote {
             return false;
         }
 
-        ActiveSessionInfo session = activeSessions.get(sessionToken);
+        SessionTokenSigner currentSigner = signer;
+        if (currentSigner != null && SessionTokenSigner.isSigned(sessionToken)) {
+            return checkSigned(currentSigner, sessionToken, null, null, false).isValid();
+        }
+
+        ActiveSessionInfo session = store.get(sessionToken);
         if (session == null || !session.isActive()) {
             return false;
         }
@@ -84,74 +212,125 @@ public class UserSessionManagerBean implements UserSessionManagerRemote {
     }
 
     @Override
-    public boolean isUserLoggedIn(String username) {
-        Set<String> sessions = userSessions.get(username);
-        if (sessions == null || sessions.isEmpty()) {
-            return false;
+    public SessionCheck validateAndTouch(String sessionToken, String ipAddress, String userAgent) {
+        if (sessionToken == null) {
+            return SessionCheck.UNKNOWN;
+        }
+
+        SessionTokenSigner currentSigner = signer;
+        if (currentSigner != null && SessionTokenSigner.isSigned(sessionToken)) {
+            return checkSigned(currentSigner, sessionToken, ipAddress, userAgent, true);
+        }
+
+        ActiveSessionInfo session = store.get(sessionToken);
+        if (session == null || !session.isActive()) {
+            return SessionCheck.UNKNOWN;
+        }
+
+        long now = Clocks.millis();
+        if (session.isExpired(now)) {
+            logger.info("Session expired for user: " + session.getUsername());
+            invalidateSession(sessionToken);
+            return SessionCheck.EXPIRED;
+        }
+
+        if ((ipAddress != null || userAgent != null)
+                && !(session.getIpAddress().equals(ipAddress) && session.getUserAgent().equals(userAgent))) {
+            logger.warning("Security validation failed for session: " + sessionToken.substring(0, 8) + "...");
+            invalidateSession(sessionToken);
+            return SessionCheck.SECURITY_MISMATCH;
         }
 
+        touch(session, now);
+        return SessionCheck.VALID;
+    }
+
+    // Signature, expiry, revocation and client binding; the session map is only used to touch
+    // the local record, if this node has one
+    private SessionCheck checkSigned(SessionTokenSigner currentSigner, String sessionToken,
+                                     String ipAddress, String userAgent, boolean touch) {
+        SessionTokenSigner.Claims claims = currentSigner.verify(sessionToken);
+        if (claims == null || currentSigner.isRevoked(claims)) {
+            return SessionCheck.UNKNOWN;
+        }
+
+        long now = Clocks.millis();
+        if (claims.expiresAt <= now) {
+            removeSession(sessionToken);
+            return SessionCheck.EXPIRED;
+        }
+
+        if ((ipAddress != null || userAgent != null) && !currentSigner.matchesClient(claims, ipAddress, userAgent)) {
+            logger.warning("Security validation failed for session: " + sessionToken.substring(0, 8) + "...");
+            invalidateSession(sessionToken);
+            return SessionCheck.SECURITY_MISMATCH;
+        }
+
+        if (touch) {
+            ActiveSessionInfo session = store.get(sessionToken);
+            if (session != null) {
+                touch(session, now);
+            }
+        }
+        return SessionCheck.VALID;
+    }
+
+    @Override
+    public boolean isUserLoggedIn(String username) {
         // Check if user has any valid sessions
-        return sessions.stream().anyMatch(this::isSessionValid);
+        return store.getTokensForUser(username).stream().anyMatch(this::isSessionValid);
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void logout(String sessionToken) {
-        logger.info("Logging out session: " + (sessionToken != null ? sessionToken.substring(0, 8) + "..." : "null"));
-
-        ActiveSessionInfo session = activeSessions.get(sessionToken);
-        if (session != null) {
-            String username = session.getUsername();
-
-            // Remove from active sessions
-            activeSessions.remove(sessionToken);
-
-            // Remove from user sessions
-            Set<String> sessions = userSessions.get(username);
-            if (sessions != null) {
-                sessions.remove(sessionToken);
-                if (sessions.isEmpty()) {
-                    userSessions.remove(username);
-                }
+        if (sessionToken == null) {
+            return;
+        }
+        logger.info("Logging out session: " + sessionToken.substring(0, Math.min(8, sessionToken.length())) + "...");
+
+        // A signed token stays valid until it expires unless it is revoked
+        SessionTokenSigner currentSigner = signer;
+        if (currentSigner != null && SessionTokenSigner.isSigned(sessionToken)) {
+            SessionTokenSigner.Claims claims = currentSigner.verify(sessionToken);
+            if (claims != null) {
+                currentSigner.revoke(claims);
             }
+        }
 
-            logger.info("User logged out successfully: " + username);
+        removeSession(sessionToken);
+    }
+
+    // Drops the local record; for signed tokens that alone does not end the session
+    private static void removeSession(String sessionToken) {
+        // Only the caller that actually removes the session logs it
+        ActiveSessionInfo session = store.remove(sessionToken);
+        if (session != null) {
+            logger.info("User logged out successfully: " + session.getUsername());
         }
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void logoutUser(String username) {
         logger.info("Logging out all sessions for user: " + username);
 
-        Set<String> sessions = userSessions.get(username);
-        if (sessions != null) {
-            // Create a copy to avoid concurrent modification
-            Set<String> sessionsCopy = new HashSet<>(sessions);
-            sessionsCopy.forEach(this::logout);
-        }
+        // The store hands out a copy of the user's tokens
+        store.getTokensForUser(username).forEach(this::logout);
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void logoutAllSessions(String username) {
         logoutUser(username);
     }
 
     @Override
     public ActiveSessionInfo getSessionInfo(String sessionToken) {
-        return activeSessions.get(sessionToken);
+        return store.get(sessionToken);
     }
 
     @Override
     public List<ActiveSessionInfo> getActiveSessionsForUser(String username) {
-        Set<String> sessions = userSessions.get(username);
-        if (sessions == null) {
-            return Collections.emptyList();
-        }
-
-        return sessions.stream()
-                .map(activeSessions::get)
+        return store.getTokensForUser(username).stream()
+                .map(store::get)
                 .filter(Objects::nonNull)
                 .filter(session -> session.isActive() && !session.isExpired())
                 .collect(Collectors.toList());
@@ -159,35 +338,88 @@ public class UserSessionManagerBean implements UserSessionManagerRemote {
 
     @Override
     public List<ActiveSessionInfo> getAllActiveSessions() {
-        return activeSessions.values().stream()
+        return store.getAll().stream()
                 .filter(session -> session.isActive() && !session.isExpired())
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void cleanupExpiredSessions() {
-        logger.info("Starting expired session cleanup");
+        long now = Clocks.millis();
+        int expired = 0;
+        int rekeyed = 0;
+
+        Deadline due;
+        while ((due = deadlines.pollFirst()) != null) {
+            if (due.expiresAt > now) {
+                // Not due yet, and neither is anything after it
+                deadlines.add(due);
+                break;
+            }
+            ActiveSessionInfo session = store.get(due.sessionToken);
+            if (session == null) {
+                continue; // logged out since it was queued
+            }
+            long expiresAt = session.expiresAtMillis();
+            if (expiresAt > now && session.isActive()) {
+                // Active since the entry was queued: wait for its current deadline instead
+                deadlines.add(new Deadline(expiresAt, due.sessionToken));
+                rekeyed++;
+            } else {
+                removeSession(due.sessionToken);
+                expired++;
+            }
+        }
 
-        List<String> expiredTokens = activeSessions.entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        SessionTokenSigner currentSigner = signer;
+        if (currentSigner != null) {
+            currentSigner.purgeRevoked(now);
+        }
 
-        expiredTokens.forEach(this::logout);
+        if (expired > 0) {
+            logger.info("Cleaned up " + expired + " expired sessions (" + rekeyed + " still active)");
+        }
+    }
 
-        logger.info("Cleaned up " + expiredTokens.size() + " expired sessions");
+    /**
+     * Expires every session in a shared store that is past its deadline, whichever process
+     * created it. The deadline queue only holds sessions this process created or found at
+     * startup, so this catches those left behind by processes that stopped without expiring them.
+     *
+     * @return the number of sessions removed; always 0 for a store local to this process
+     */
+    int sweepSharedStore() {
+        SessionStore current = store;
+        if (!current.isShared()) {
+            return 0;
+        }
+        long now = Clocks.millis();
+        int expired = 0;
+        for (ActiveSessionInfo session : current.getAll()) {
+            if (session.expiresAtMillis() <= now || !session.isActive()) {
+                removeSession(session.getSessionToken());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.info("Swept " + expired + " expired sessions from the shared session store");
+        }
+        return expired;
+    }
+
+    /** Entries in the deadline queue, including ones for sessions logged out since. */
+    static int getDeadlineQueueSize() {
+        return deadlines.size();
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void invalidateSession(String sessionToken) {
         logout(sessionToken);
     }
 
     @Override
     public boolean validateSessionSecurity(String sessionToken, String ipAddress, String userAgent) {
-        ActiveSessionInfo session = activeSessions.get(sessionToken);
+        ActiveSessionInfo session = store.get(sessionToken);
         if (session == null) {
             return false;
         }
@@ -206,40 +438,44 @@ public class UserSessionManagerBean implements UserSessionManagerRemote {
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void updateSessionActivity(String sessionToken) {
-        ActiveSessionInfo session = activeSessions.get(sessionToken);
+        ActiveSessionInfo session = sessionToken != null ? store.get(sessionToken) : null;
         if (session != null) {
-            session.setLastActivity(LocalDateTime.now());
+            touch(session, Clocks.millis());
         }
     }
 
     @Override
     public int getActiveSessionCount() {
-        return (int) activeSessions.values().stream()
-                .filter(session -> session.isActive() && !session.isExpired())
-                .count();
+        return store.size();
     }
 
     @Override
     public Map<String, Integer> getUserSessionCounts() {
-        return userSessions.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> (int) entry.getValue().stream()
-                                .map(activeSessions::get)
-                                .filter(Objects::nonNull)
-                                .filter(session -> session.isActive() && !session.isExpired())
-                                .count()
-                ));
-    }
-
-    // Scheduled cleanup every 15 minutes
-    @Schedule(hour = "*", minute = "*/15", persistent = false)
+        Map<String, Integer> counts = new HashMap<>();
+        for (UserSessionSummary summary : store.getUserSummaries()) {
+            counts.put(summary.getUsername(), summary.getSessionCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public List<UserSessionSummary> getUserSessionSummaries() {
+        return store.getUserSummaries();
+    }
+
+    // Scheduled cleanup every 30 seconds; a run only touches sessions that are due
+    @Schedule(hour = "*", minute = "*", second = "*/30", persistent = false)
     public void scheduledCleanup() {
         cleanupExpiredSessions();
     }
 
+    // Full scan of a shared store, for sessions no process has queued any more
+    @Schedule(hour = "*", minute = "*/15", persistent = false)
+    public void scheduledSharedStoreSweep() {
+        sweepSharedStore();
+    }
+
     private String generateSecureToken() {
         byte[] tokenBytes = new byte[32];
         secureRandom.nextBytes(tokenBytes);
@@ -10,7 +10,16 @@ import java.util.Map;
 public interface UserSessionManagerRemote {
     // Session creation and validation
     String createUserSession(String username, String sessionId, String ipAddress, String userAgent);
+    String createUserSession(String username, String sessionId, String ipAddress, String userAgent, boolean admin);
     boolean isSessionValid(String sessionToken);
+
+    /**
+     * Validates the session and records activity on it in one call: what isSessionValid,
+     * validateSessionSecurity and updateSessionActivity do together, with a single lookup.
+     * Pass null for both ipAddress and userAgent to skip the client binding check. Expired and
+     * mismatched sessions are invalidated.
+     */
+    SessionCheck validateAndTouch(String sessionToken, String ipAddress, String userAgent);
     boolean isUserLoggedIn(String username);
 
     // Session management
@@ -31,7 +40,9 @@ public interface UserSessionManagerRemote {
     boolean validateSessionSecurity(String sessionToken, String ipAddress, String userAgent);
     void updateSessionActivity(String sessionToken);
 
-    // Session statistics
+    // Session statistics; counts are kept up to date at login, logout and expiry, so they can
+    // include sessions that expired since the last cleanup run
     int getActiveSessionCount();
     Map<String, Integer> getUserSessionCounts();
+    List<UserSessionSummary> getUserSessionSummaries();
 }
\ No newline at end of file
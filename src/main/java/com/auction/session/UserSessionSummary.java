@@ -0,0 +1,26 @@
+package com.auction.session;
+
+import java.io.Serializable;
+
+/**
+ * One row of the admin dashboard's user session table.
+ */
+public class UserSessionSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String username;
+    private final int sessionCount;
+    private final boolean admin;
+
+    public UserSessionSummary(String username, int sessionCount, boolean admin) {
+        this.username = username;
+        this.sessionCount = sessionCount;
+        this.admin = admin;
+    }
+
+    public String getUsername() { return username; }
+
+    public int getSessionCount() { return sessionCount; }
+
+    public boolean isAdmin() { return admin; }
+}
@@ -0,0 +1,262 @@
+package com.auction.template;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Buffered UTF-8 writer for HTML responses.
+ *
+ * Pre-encoded template fragments are copied straight into the buffer; dynamic values are
+ * encoded (and, for {@link #text}, HTML-escaped) character by character, so rendering a page
+ * does not create intermediate Strings. Not thread-safe: one instance per response.
+ */
+public final class HtmlOutput implements Flushable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    // Longest single write below: an escaped character entity or a 4-byte code point
+    private static final int MAX_CHAR_BYTES = 6;
+    // Room for the longest fixed-size value (a timestamp) so it never straddles a flush
+    private static final int MIN_BUFFER_SIZE = 32;
+
+    private static final byte[] AMP = {'&', 'a', 'm', 'p', ';'};
+    private static final byte[] LT = {'&', 'l', 't', ';'};
+    private static final byte[] GT = {'&', 'g', 't', ';'};
+    private static final byte[] QUOT = {'&', 'q', 'u', 'o', 't', ';'};
+    private static final byte[] APOS = {'&', '#', 'x', '2', '7', ';'};
+
+    // Used for values outside the fast paths, matching what the pages printed before
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[20];
+    private int count;
+
+    public HtmlOutput(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public HtmlOutput(OutputStream out, int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer too small: " + bufferSize);
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes pre-encoded bytes as they are.
+     */
+    public HtmlOutput write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes trusted markup without escaping. Null writes nothing.
+     */
+    public HtmlOutput raw(CharSequence markup) throws IOException {
+        if (markup != null) {
+            encode(markup, 0, markup.length(), false);
+        }
+        return this;
+    }
+
+    /**
+     * Writes user-visible text with the HTML special characters escaped. Null writes nothing.
+     */
+    public HtmlOutput text(CharSequence text) throws IOException {
+        if (text != null) {
+            encode(text, 0, text.length(), true);
+        }
+        return this;
+    }
+
+    /**
+     * Writes at most {@code maxChars} characters of the text, escaped, and reports whether it
+     * had to cut the text short.
+     */
+    public boolean text(CharSequence text, int maxChars) throws IOException {
+        if (text == null) {
+            return false;
+        }
+        int end = Math.min(text.length(), maxChars);
+        // Never split a surrogate pair
+        if (end > 0 && end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        encode(text, 0, end, true);
+        return end < text.length();
+    }
+
+    public HtmlOutput number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return raw(Long.toString(value));
+        }
+        ensureCapacity(digits.length + 1);
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        int length = digits.length - position;
+        System.arraycopy(digits, position, buffer, count, length);
+        count += length;
+        return this;
+    }
+
+    /**
+     * Writes the amount with two decimals, as {@code String.format("%.2f", amount)} does.
+     */
+    public HtmlOutput money(double amount) throws IOException {
+        double magnitude = Math.abs(amount);
+        if (Double.isNaN(amount) || magnitude >= 1e15) {
+            return raw(String.format("%.2f", amount));
+        }
+        double scaled = magnitude * 100;
+        long cents = (long) scaled;
+        double fraction = scaled - cents;
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            // Too close to a tie for binary arithmetic; let BigDecimal round the decimal digits
+            return raw(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        if (fraction > 0.5) {
+            cents++;
+        }
+        if (amount < 0) {
+            write1('-');
+        }
+        number(cents / 100);
+        write1('.');
+        write2Digits((int) (cents % 100));
+        return this;
+    }
+
+    /**
+     * Writes the time as {@code yyyy-MM-dd HH:mm:ss.SSS}. Null writes nothing.
+     */
+    public HtmlOutput time(LocalDateTime time) throws IOException {
+        if (time == null) {
+            return this;
+        }
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return raw(time.format(TIME_FORMAT));
+        }
+        ensureCapacity(23);
+        write2Digits(year / 100);
+        write2Digits(year % 100);
+        buffer[count++] = '-';
+        write2Digits(time.getMonthValue());
+        buffer[count++] = '-';
+        write2Digits(time.getDayOfMonth());
+        buffer[count++] = ' ';
+        write2Digits(time.getHour());
+        buffer[count++] = ':';
+        write2Digits(time.getMinute());
+        buffer[count++] = ':';
+        write2Digits(time.getSecond());
+        buffer[count++] = '.';
+        int millis = time.getNano() / 1_000_000;
+        buffer[count++] = (byte) ('0' + millis / 100);
+        write2Digits(millis % 100);
+        return this;
+    }
+
+    /**
+     * Drops whatever is still buffered, e.g. before writing an error page instead.
+     */
+    public void discard() {
+        count = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void encode(CharSequence chars, int start, int end, boolean escape) throws IOException {
+        for (int i = start; i < end; i++) {
+            if (buffer.length - count < MAX_CHAR_BYTES) {
+                flushBuffer();
+            }
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                if (escape) {
+                    switch (c) {
+                        case '&': put(AMP); continue;
+                        case '<': put(LT); continue;
+                        case '>': put(GT); continue;
+                        case '"': put(QUOT); continue;
+                        case '\'': put(APOS); continue;
+                        default: break;
+                    }
+                }
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: same replacement String.getBytes(UTF_8) uses
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void put(byte[] entity) {
+        System.arraycopy(entity, 0, buffer, count, entity.length);
+        count += entity.length;
+    }
+
+    private void write1(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void write2Digits(int value) throws IOException {
+        ensureCapacity(2);
+        buffer[count++] = (byte) ('0' + value / 10);
+        buffer[count++] = (byte) ('0' + value % 10);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.length - count < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.auction.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A precompiled HTML template: static text with named {@code {{slot}}} placeholders.
+ *
+ * The static text is encoded to UTF-8 once at compile time; rendering copies those bytes and
+ * asks the caller to write each slot in turn.
+ */
+public final class Template {
+
+    /**
+     * Writes the value of one slot. Called once per slot occurrence, in template order.
+     */
+    @FunctionalInterface
+    public interface Slots {
+        void write(HtmlOutput out, String slot) throws IOException;
+    }
+
+    private final String name;
+    private final String source;
+    // fragments.length == slots.length + 1: fragment, slot, fragment, ..., fragment
+    private final byte[][] fragments;
+    private final String[] slots;
+
+    private Template(String name, String source, byte[][] fragments, String[] slots) {
+        this.name = name;
+        this.source = source;
+        this.fragments = fragments;
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles template text. Slot names are identifiers between double braces.
+     *
+     * @throws IllegalArgumentException if a placeholder is not closed or not a valid name
+     */
+    public static Template compile(String name, String source) {
+        List<byte[]> fragments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template " + name + " at " + open);
+            }
+            String slot = source.substring(open + 2, close).trim();
+            if (!isIdentifier(slot)) {
+                throw new IllegalArgumentException("Invalid slot '" + slot + "' in template " + name);
+            }
+            fragments.add(source.substring(position, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(slot);
+            position = close + 2;
+        }
+        fragments.add(source.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new Template(name, source, fragments.toArray(new byte[0][]), slots.toArray(new String[0]));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The template text as written, for callers that still print to a Writer.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getSlots() {
+        return Collections.unmodifiableList(Arrays.asList(slots));
+    }
+
+    /**
+     * Renders a template that has no slots.
+     */
+    public void render(HtmlOutput out) throws IOException {
+        render(out, (o, slot) -> {
+            throw new IllegalStateException("No value for slot '" + slot + "' in template " + name);
+        });
+    }
+
+    public void render(HtmlOutput out, Slots values) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.write(fragments[i]);
+            values.write(out, slots[i]);
+        }
+        out.write(fragments[slots.length]);
+    }
+
+    /**
+     * Renders once into a byte array, for output that never changes after startup.
+     */
+    public byte[] renderToBytes(Slots values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HtmlOutput out = new HtmlOutput(bytes);
+        try {
+            render(out, values);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean isIdentifier(String slot) {
+        if (slot.isEmpty() || !Character.isJavaIdentifierStart(slot.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < slot.length(); i++) {
+            if (!Character.isJavaIdentifierPart(slot.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
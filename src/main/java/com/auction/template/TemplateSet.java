@@ -0,0 +1,82 @@
+package com.auction.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A group of named templates loaded from one classpath resource.
+ *
+ * Each template starts with a line of the form {@code {{#name}}} and runs until the next such
+ * line or the end of the file; the marker line itself is not part of the template. Text before
+ * the first marker is ignored, so a file can begin with a comment.
+ */
+public final class TemplateSet {
+
+    private final String resource;
+    private final Map<String, Template> templates;
+
+    private TemplateSet(String resource, Map<String, Template> templates) {
+        this.resource = resource;
+        this.templates = templates;
+    }
+
+    /**
+     * Loads and compiles a resource such as {@code templates/layout.html}.
+     *
+     * @throws IllegalStateException if the resource is missing or unreadable
+     */
+    public static TemplateSet load(String resource) {
+        ClassLoader loader = TemplateSet.class.getClassLoader();
+        try (InputStream in = loader.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Template resource not found: " + resource);
+            }
+            return parse(resource, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read template resource " + resource, e);
+        }
+    }
+
+    static TemplateSet parse(String resource, String text) {
+        Map<String, Template> templates = new LinkedHashMap<>();
+        String currentName = null;
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\n", -1)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("{{#") && trimmed.endsWith("}}")) {
+                if (currentName != null) {
+                    templates.put(currentName, Template.compile(currentName, current.toString()));
+                }
+                currentName = trimmed.substring(3, trimmed.length() - 2).trim();
+                if (templates.containsKey(currentName)) {
+                    throw new IllegalArgumentException("Duplicate template '" + currentName + "' in " + resource);
+                }
+                current.setLength(0);
+            } else if (currentName != null) {
+                current.append(line).append('\n');
+            }
+        }
+        if (currentName != null) {
+            // split() leaves one empty element after the file's final newline
+            if (text.endsWith("\n")) {
+                current.setLength(current.length() - 1);
+            }
+            templates.put(currentName, Template.compile(currentName, current.toString()));
+        }
+        return new TemplateSet(resource, templates);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the resource has no template with this name
+     */
+    public Template get(String name) {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("No template '" + name + "' in " + resource);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,20 @@
+package com.auction.time;
+
+import java.time.LocalDateTime;
+
+/**
+ * Source of the current time for expiry checks, activity stamps and entity timestamps.
+ *
+ * Code asks {@link Clocks#get()} instead of calling {@code LocalDateTime.now()} or
+ * {@code System.currentTimeMillis()} directly: in production that is a {@link CoarseClock},
+ * whose reads are a volatile load, and tests install a clock of their own with
+ * {@link Clocks#set} to control time.
+ */
+public interface AuctionClock {
+
+    /** Current time as epoch milliseconds. */
+    long millis();
+
+    /** Current time in the system time zone, the same instant as {@link #millis()}. */
+    LocalDateTime now();
+}
@@ -0,0 +1,74 @@
+package com.auction.time;
+
+import java.time.LocalDateTime;
+
+/**
+ * Holds the clock the application reads.
+ *
+ * The default is a {@link CoarseClock} ticking every {@value #TICK_PROPERTY} milliseconds
+ * (default 10), started on first use. With a tick of 0 the system clock is read directly.
+ * Tests replace it with {@link #set} and put it back with {@link #reset}.
+ */
+public final class Clocks {
+
+    public static final String TICK_PROPERTY = "auction.clock.tickMillis";
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    private static final AuctionClock SYSTEM = new AuctionClock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public LocalDateTime now() {
+            return LocalDateTime.now();
+        }
+    };
+
+    private static volatile AuctionClock clock;
+
+    private Clocks() {
+    }
+
+    public static AuctionClock get() {
+        AuctionClock current = clock;
+        return current != null ? current : createDefault();
+    }
+
+    private static synchronized AuctionClock createDefault() {
+        if (clock == null) {
+            long tickMillis = Long.getLong(TICK_PROPERTY, DEFAULT_TICK_MILLIS);
+            clock = tickMillis > 0 ? new CoarseClock(tickMillis) : SYSTEM;
+        }
+        return clock;
+    }
+
+    /** Shorthand for {@code get().millis()}. */
+    public static long millis() {
+        return get().millis();
+    }
+
+    /** Shorthand for {@code get().now()}. */
+    public static LocalDateTime now() {
+        return get().now();
+    }
+
+    /**
+     * Installs a clock, stopping the previous one if it was a ticking default.
+     */
+    public static synchronized void set(AuctionClock replacement) {
+        AuctionClock previous = clock;
+        clock = replacement;
+        if (previous instanceof CoarseClock && previous != replacement) {
+            ((CoarseClock) previous).close();
+        }
+    }
+
+    /**
+     * Goes back to the default clock, which is created again on next use.
+     */
+    public static void reset() {
+        set(null);
+    }
+}
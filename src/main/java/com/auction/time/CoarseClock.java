@@ -0,0 +1,70 @@
+package com.auction.time;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock that reads the system time once per tick on a background thread and publishes it.
+ *
+ * Readers get the last published millisecond value and a {@code LocalDateTime} built from it,
+ * so a read is one volatile load with no time-zone lookup and no allocation. The value lags the
+ * system clock by at most the tick interval (plus scheduling delay), which is well inside the
+ * precision session expiry and auction end checks need.
+ */
+public final class CoarseClock implements AuctionClock, Closeable {
+
+    // Millis and the matching LocalDateTime, published together
+    private static final class Tick {
+        final long millis;
+        final LocalDateTime time;
+
+        Tick(long millis) {
+            this.millis = millis;
+            this.time = Timestamps.toLocalDateTime(millis);
+        }
+    }
+
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile Tick current;
+    private volatile boolean closed;
+
+    public CoarseClock(long tickMillis) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.current = new Tick(System.currentTimeMillis());
+        this.ticker = new Thread(this::runTicker, "auction-clock");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    private void runTicker() {
+        while (!closed) {
+            LockSupport.parkNanos(this, tickNanos);
+            long millis = System.currentTimeMillis();
+            if (millis != current.millis) {
+                current = new Tick(millis);
+            }
+        }
+    }
+
+    @Override
+    public long millis() {
+        return current.millis;
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return current.time;
+    }
+
+    /**
+     * Stops the ticker; reads keep returning the last published time.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+}
@@ -0,0 +1,29 @@
+package com.auction.time;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions between epoch-millisecond timestamps and {@link LocalDateTime}.
+ *
+ * Hot timestamps (session activity, user activity) are kept as epoch milliseconds so that
+ * stamping and expiry checks are plain long arithmetic; these conversions are for the
+ * presentation edge and for the older {@code LocalDateTime} accessors. Both directions use the
+ * system time zone, like {@code LocalDateTime.now()}.
+ */
+public final class Timestamps {
+
+    public static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private Timestamps() {
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,70 +1,197 @@
 package com.auction.websocket;
 
+import com.auction.cache.AuctionPayloadCache;
+import com.auction.dto.BidResult;
 import com.auction.dto.BidUpdateMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.auction.ejb.BidServiceRemote;
+import com.auction.logging.Log;
+import com.auction.session.UserSessionManagerRemote;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.ejb.EJB;
+import jakarta.servlet.http.HttpSession;
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.logging.Logger;
 
+/**
+ * Live auction updates, and bid placement for logged-in users.
+ *
+ * Clients may send {"type":"bid","amount":125.0,"requestId":"r1"} to bid on the socket's
+ * auction. The bid is placed as the user of the HTTP session the socket was opened from, while
+ * that session is valid for the address and user agent the socket was opened from (see
+ * {@link SocketHandshakes}), and answered with a bidAck frame (carrying the accepted bid's sequence number) or a bidNack
+ * frame with the reason. Any other message is answered with a heartbeat.
+ */
 @ServerEndpoint(value = "/auction-updates/{auctionId}")
 public class AuctionWebSocketEndpoint {
 
-    private static final Logger logger = Logger.getLogger(AuctionWebSocketEndpoint.class.getName());
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Log log = Log.get(AuctionWebSocketEndpoint.class);
+    // Same pattern the auction pages use for end times
+    private static final DateTimeFormatter END_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
     // Store sessions by auction ID
     private static final ConcurrentHashMap<Long, CopyOnWriteArraySet<Session>> auctionSessions = new ConcurrentHashMap<>();
 
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    // Per-session user property holding the SocketHandshakes.Client
+    private static final String CLIENT = "client";
+
+    @EJB
+    private BidServiceRemote bidService;
+
+    @EJB
+    private UserSessionManagerRemote sessionManager;
+
+    /**
+     * A message from the client, as far as this endpoint understands it.
+     */
+    static final class Command {
+        final String type;
+        final String requestId;
+        final Double amount;
+
+        Command(String type, String requestId, Double amount) {
+            this.type = type;
+            this.requestId = requestId;
+            this.amount = amount;
+        }
+    }
+
     @OnOpen
     public void onOpen(Session session, @PathParam("auctionId") String auctionIdStr) {
         try {
             Long auctionId = Long.parseLong(auctionIdStr);
-            logger.info("WebSocket connection opened for auction: " + auctionId + ", session: " + session.getId());
+            log.debug("WebSocket connection opened for auction: {}, session: {}", auctionId, session.getId());
 
             // Add session to the auction's session set
             auctionSessions.computeIfAbsent(auctionId, k -> new CopyOnWriteArraySet<>()).add(session);
 
             // Store auction ID in session for later use
             session.getUserProperties().put("auctionId", auctionId);
+            SocketHandshakes.Client client = SocketHandshakes.claim(session);
+            if (client != null) {
+                session.getUserProperties().put(CLIENT, client);
+            }
 
             // Send initial connection confirmation
-            session.getBasicRemote().sendText("{\"type\":\"connection\",\"message\":\"Connected to auction " + auctionId + "\",\"auctionId\":" + auctionId + "}");
-
-            logger.info("Total sessions for auction " + auctionId + ": " + auctionSessions.get(auctionId).size());
+            send(session, "{\"type\":\"connection\",\"message\":\"Connected to auction " + auctionId + "\",\"auctionId\":" + auctionId + "}");
 
         } catch (NumberFormatException e) {
-            logger.severe("Invalid auction ID: " + auctionIdStr);
+            log.warn("Invalid auction ID: {}", auctionIdStr);
             try {
                 session.close(new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "Invalid auction ID"));
             } catch (IOException ex) {
-                logger.severe("Failed to close session: " + ex.getMessage());
+                log.warn("Failed to close session: {}", ex.getMessage());
             }
         } catch (IOException e) {
-            logger.warning("Failed to send connection confirmation: " + e.getMessage());
+            log.warn("Failed to send connection confirmation: {}", e.getMessage());
         }
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
         Long auctionId = (Long) session.getUserProperties().get("auctionId");
-        logger.info("Received message from session " + session.getId() + " for auction " + auctionId + ": " + message);
+        Command command = parseCommand(message);
 
-        // Send back a heartbeat response
         try {
-            session.getBasicRemote().sendText("{\"type\":\"heartbeat\",\"timestamp\":" + System.currentTimeMillis() + "}");
+            if (command != null && "bid".equals(command.type)) {
+                send(session, handleBid(session, auctionId, command));
+                return;
+            }
+
+            log.debug("Received message from session {} for auction {}: {}", session.getId(), auctionId, message);
+            // Send back a heartbeat response
+            send(session, "{\"type\":\"heartbeat\",\"timestamp\":" + System.currentTimeMillis() + "}");
         } catch (IOException e) {
-            logger.warning("Failed to send heartbeat: " + e.getMessage());
+            log.warn("Failed to reply to session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    // Places the bid as the socket's user and returns the ack or nack frame
+    private String handleBid(Session session, Long auctionId, Command command) {
+        if (auctionId == null || command.amount == null || command.amount.isNaN()
+                || command.amount.isInfinite() || command.amount <= 0) {
+            return AuctionPayloadCache.bidNackFrame(command.requestId, "INVALID_COMMAND", null);
+        }
+
+        String username = authenticatedUser(session);
+        if (username == null) {
+            return AuctionPayloadCache.bidNackFrame(command.requestId, "NOT_AUTHENTICATED", null);
+        }
+
+        BidResult result = bidService.submitBid(auctionId, username, command.amount);
+        if (!result.isAccepted()) {
+            return AuctionPayloadCache.bidNackFrame(command.requestId, result.getStatus().name(), result);
+        }
+        log.debug("WebSocket bid placed: User={}, Auction={}, Amount=${}", username, auctionId, command.amount);
+        return AuctionPayloadCache.bidAckFrame(command.requestId, result);
+    }
+
+    // The user of the HTTP session the socket was opened from, while that session is valid for
+    // the client the socket was opened from
+    private String authenticatedUser(Session session) {
+        SocketHandshakes.Client client = (SocketHandshakes.Client) session.getUserProperties().get(CLIENT);
+        if (client == null) {
+            return null;
+        }
+        HttpSession httpSession = client.getHttpSession();
+        String sessionToken;
+        String username;
+        try {
+            sessionToken = (String) httpSession.getAttribute("sessionToken");
+            username = (String) httpSession.getAttribute("username");
+        } catch (IllegalStateException e) {
+            // Invalidated by logout or timeout since the handshake
+            return null;
+        }
+        if (sessionToken == null || !sessionManager.validateAndTouch(sessionToken,
+                client.getIpAddress(), client.getUserAgent()).isValid()) {
+            return null;
+        }
+        return username;
+    }
+
+    // Reads the command fields; null if the message is not a JSON object
+    static Command parseCommand(String message) {
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String type = null;
+            String requestId = null;
+            Double amount = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("type") && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if (field.equals("requestId") && value.isScalarValue()) {
+                    requestId = parser.getText();
+                } else if (field.equals("amount") && value.isNumeric()) {
+                    amount = parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new Command(type, requestId, amount);
+        } catch (IOException e) {
+            return null;
         }
     }
 
     @OnClose
     public void onClose(Session session, CloseReason closeReason) {
         Long auctionId = (Long) session.getUserProperties().get("auctionId");
-        logger.info("WebSocket connection closed for auction: " + auctionId + ", session: " + session.getId() + ", reason: " + closeReason.getReasonPhrase());
+        log.debug("WebSocket connection closed for auction: {}, session: {}, reason: {}",
+                auctionId, session.getId(), closeReason.getReasonPhrase());
 
         if (auctionId != null) {
             // Remove session from auction's session set
@@ -73,9 +200,6 @@ public class AuctionWebSocketEndpoint {
                 sessions.remove(session);
                 if (sessions.isEmpty()) {
                     auctionSessions.remove(auctionId);
-                    logger.info("No more sessions for auction " + auctionId + ", removed from map");
-                } else {
-                    logger.info("Remaining sessions for auction " + auctionId + ": " + sessions.size());
                 }
             }
         }
@@ -84,8 +208,7 @@ public class AuctionWebSocketEndpoint {
     @OnError
     public void onError(Session session, Throwable throwable) {
         Long auctionId = (Long) session.getUserProperties().get("auctionId");
-        logger.severe("WebSocket error for auction " + auctionId + ", session " + session.getId() + ": " + throwable.getMessage());
-        throwable.printStackTrace();
+        log.error("WebSocket error for auction {}, session {}", throwable, auctionId, session.getId());
 
         if (auctionId != null) {
             // Clean up session on error
@@ -101,65 +224,75 @@ public class AuctionWebSocketEndpoint {
         Long auctionId = bidUpdate.getAuctionId();
         CopyOnWriteArraySet<Session> sessions = auctionSessions.get(auctionId);
 
-        logger.info("Attempting to broadcast bid update for auction: " + auctionId);
-        logger.info("Available auction sessions: " + auctionSessions.keySet());
-
         if (sessions == null || sessions.isEmpty()) {
-            logger.info("No WebSocket sessions for auction: " + auctionId);
+            log.debug("No WebSocket sessions for auction: {}", auctionId);
             return;
         }
 
         try {
-            String jsonMessage = objectMapper.writeValueAsString(bidUpdate);
-            String webSocketMessage = "{\"type\":\"bidUpdate\",\"data\":" + jsonMessage + "}";
-
-            logger.info("Broadcasting to " + sessions.size() + " sessions for auction: " + auctionId);
-            logger.info("Message: " + webSocketMessage);
-
-            int successCount = 0;
-            int failCount = 0;
-
-            // Send to all connected sessions for this auction
-            sessions.removeIf(session -> {
-                try {
-                    if (session.isOpen()) {
-                        session.getBasicRemote().sendText(webSocketMessage);
-                        logger.info("Sent message to session: " + session.getId());
-                        return false; // Keep session
-                    } else {
-                        logger.info("Session " + session.getId() + " is closed, removing");
-                        return true; // Remove closed session
-                    }
-                } catch (Exception e) {
-                    logger.warning("Failed to send message to session " + session.getId() + ": " + e.getMessage());
-                    return true; // Remove failed session
-                }
-            });
+            // Encoded once per auction version and shared with every other consumer
+            String webSocketMessage = AuctionPayloadCache.bidUpdateFrame(bidUpdate).getText();
 
-            logger.info("Broadcast completed for auction " + auctionId);
+            sendToSessions(sessions, webSocketMessage);
+            log.debug("Broadcast bid update for auction {} to {} sessions", auctionId, sessions.size());
 
         } catch (Exception e) {
-            logger.severe("Failed to broadcast bid update: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to broadcast bid update for auction {}", e, auctionId);
+        }
+    }
+
+    // Static method to tell viewers that a soft-close extension moved the auction's end time
+    public static void broadcastEndTimeChanged(Long auctionId, LocalDateTime newEndTime) {
+        CopyOnWriteArraySet<Session> sessions = auctionSessions.get(auctionId);
+        if (sessions == null || sessions.isEmpty() || newEndTime == null) {
+            return;
+        }
+
+        String webSocketMessage = "{\"type\":\"endTimeChanged\",\"auctionId\":" + auctionId +
+                ",\"endTime\":\"" + newEndTime.format(END_TIME_FORMAT) + "\"}";
+
+        log.debug("Broadcasting end time change for auction {} to {} sessions", auctionId, sessions.size());
+        sendToSessions(sessions, webSocketMessage);
+    }
+
+    // Send to all connected sessions for an auction, dropping closed or failed ones
+    private static void sendToSessions(CopyOnWriteArraySet<Session> sessions, String webSocketMessage) {
+        sessions.removeIf(session -> {
+            try {
+                if (session.isOpen()) {
+                    send(session, webSocketMessage);
+                    return false; // Keep session
+                } else {
+                    return true; // Remove closed session
+                }
+            } catch (Exception e) {
+                log.warn("Failed to send message to session {}: {}", session.getId(), e.getMessage());
+                return true; // Remove failed session
+            }
+        });
+    }
+
+    // A session's basic remote allows one message at a time; broadcasts and replies to that
+    // session's own commands come from different threads
+    private static void send(Session session, String message) throws IOException {
+        synchronized (session) {
+            session.getBasicRemote().sendText(message);
         }
     }
 
     // Method to get active session count for an auction
     public static int getActiveSessionCount(Long auctionId) {
         CopyOnWriteArraySet<Session> sessions = auctionSessions.get(auctionId);
-        int count = sessions != null ? sessions.size() : 0;
-        logger.info("Active session count for auction " + auctionId + ": " + count);
-        return count;
+        return sessions != null ? sessions.size() : 0;
     }
 
     // Debug method to get all auction sessions
     public static void logAllSessions() {
-        logger.info("=== WebSocket Session Debug ===");
-        logger.info("Total auctions with sessions: " + auctionSessions.size());
-        for (Long auctionId : auctionSessions.keySet()) {
-            int sessionCount = auctionSessions.get(auctionId).size();
-            logger.info("Auction " + auctionId + ": " + sessionCount + " sessions");
+        if (!log.isDebugEnabled()) {
+            return;
         }
-        logger.info("===============================");
+        log.debug("Total auctions with sessions: {}", auctionSessions.size());
+        auctionSessions.forEach((auctionId, sessions) ->
+                log.debug("Auction {}: {} sessions", auctionId, sessions.size()));
     }
 }
\ No newline at end of file
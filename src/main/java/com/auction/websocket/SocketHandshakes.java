@@ -0,0 +1,100 @@
+package com.auction.websocket;
+
+import com.auction.time.Clocks;
+import jakarta.servlet.http.HttpSession;
+import jakarta.websocket.Session;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the client of a WebSocket upgrade request to the endpoint's onOpen.
+ *
+ * The upgrade request's HTTP session, address and user agent are only known on the servlet side
+ * (see {@link com.auction.filter.WebSocketHandshakeFilter}). The page names each connection with
+ * a random {@value #CONNECTION_PARAMETER} query parameter, which the filter and the opened
+ * socket both see, and the client is handed over under that name. Nothing passes through the
+ * endpoint config, whose user properties every handshake shares.
+ *
+ * A name is used once: a second handshake with a pending name does not replace its client, and
+ * onOpen removes the entry. Entries that are never claimed are dropped after
+ * {@value #PENDING_SECONDS} seconds.
+ */
+public final class SocketHandshakes {
+
+    public static final String CONNECTION_PARAMETER = "connection";
+
+    static final long PENDING_SECONDS = 30;
+    private static final long PENDING_MILLIS = TimeUnit.SECONDS.toMillis(PENDING_SECONDS);
+    // Long enough not to be guessed, short enough that the map stays small
+    private static final int MIN_NAME_LENGTH = 16;
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private static final ConcurrentHashMap<String, Client> pending = new ConcurrentHashMap<>();
+
+    /** The client a socket was opened from, as seen by its upgrade request. */
+    public static final class Client {
+        private final HttpSession httpSession;
+        private final String ipAddress;
+        private final String userAgent;
+        private final long registeredAt;
+
+        Client(HttpSession httpSession, String ipAddress, String userAgent, long registeredAt) {
+            this.httpSession = httpSession;
+            this.ipAddress = ipAddress;
+            this.userAgent = userAgent;
+            this.registeredAt = registeredAt;
+        }
+
+        public HttpSession getHttpSession() {
+            return httpSession;
+        }
+
+        public String getIpAddress() {
+            return ipAddress;
+        }
+
+        public String getUserAgent() {
+            return userAgent;
+        }
+    }
+
+    private SocketHandshakes() {
+    }
+
+    /**
+     * Records the client of an upgrade request under the connection name it carries; requests
+     * without a usable name are ignored, and their sockets stay unauthenticated.
+     */
+    public static void register(String connection, HttpSession httpSession, String ipAddress, String userAgent) {
+        if (connection == null || httpSession == null
+                || connection.length() < MIN_NAME_LENGTH || connection.length() > MAX_NAME_LENGTH) {
+            return;
+        }
+        long now = Clocks.millis();
+        pending.values().removeIf(client -> now - client.registeredAt > PENDING_MILLIS);
+        pending.putIfAbsent(connection, new Client(httpSession, ipAddress, userAgent, now));
+    }
+
+    /**
+     * Takes the client registered for the socket's connection name.
+     *
+     * @return the client, or null if the upgrade request was not registered or too long ago
+     */
+    static Client claim(Session session) {
+        List<String> names = session.getRequestParameterMap().get(CONNECTION_PARAMETER);
+        if (names == null || names.isEmpty() || names.get(0) == null) {
+            return null;
+        }
+        Client client = pending.remove(names.get(0));
+        if (client == null || Clocks.millis() - client.registeredAt > PENDING_MILLIS) {
+            return null;
+        }
+        return client;
+    }
+
+    static int getPendingCount() {
+        return pending.size();
+    }
+}
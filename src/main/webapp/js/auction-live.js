@@ -0,0 +1,391 @@
+// Enhanced WebSocket Integration for Real-time Updates
+// Copyright (c) 2025 Ishara Lakshitha (@isharax9). All rights reserved.
+
+let ws = null;
+let reconnectAttempts = 0;
+const maxReconnectAttempts = 5;
+// The page passes the auction through the script tag: data-auction-id
+const auctionId = Number(document.currentScript.dataset.auctionId);
+// Bids sent over the socket and waiting for their bidAck/bidNack, by request id
+const pendingBids = new Map();
+let nextBidRequest = 1;
+const socketBidTimeout = 5000;
+// Highest auction version shown by a live update
+let latestAuctionVersion = 0;
+
+function newConnectionName() {
+    const bytes = new Uint8Array(16);
+    window.crypto.getRandomValues(bytes);
+    return Array.from(bytes, b => b.toString(16).padStart(2, '0')).join('');
+}
+
+function connectWebSocket() {
+    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+    // A fresh random name per connection; the server hands the socket the client of the upgrade
+    // request under this name, so it must not be reused or guessable
+    const wsUrl = protocol + '//' + window.location.host + '/AuctionSystem/auction-updates/' + auctionId
+        + '?connection=' + newConnectionName();
+    
+    try {
+        ws = new WebSocket(wsUrl);
+        
+        ws.onopen = function(event) {
+            console.log('WebSocket connected for auction:', auctionId);
+            reconnectAttempts = 0;
+            updateConnectionStatus(true);
+        };
+        
+        ws.onmessage = function(event) {
+            try {
+                const data = JSON.parse(event.data);
+                handleWebSocketMessage(data);
+            } catch (e) {
+                console.error('Error parsing WebSocket message:', e);
+            }
+        };
+        
+        ws.onclose = function(event) {
+            console.log('WebSocket disconnected');
+            // Unanswered bids may or may not have been placed; the timeout reports them
+
+            updateConnectionStatus(false);
+            
+            if (reconnectAttempts < maxReconnectAttempts) {
+                setTimeout(() => {
+                    reconnectAttempts++;
+                    console.log('Reconnecting... Attempt:', reconnectAttempts);
+                    connectWebSocket();
+                }, 3000 * reconnectAttempts);
+            }
+        };
+        
+        ws.onerror = function(error) {
+            console.error('WebSocket error:', error);
+            updateConnectionStatus(false);
+        };
+        
+    } catch (e) {
+        console.error('Failed to create WebSocket connection:', e);
+        updateConnectionStatus(false);
+    }
+}
+
+function handleWebSocketMessage(data) {
+    if (data.type === 'bidUpdate') {
+        const bidUpdate = data.data;
+        // Updates are sent once the bid is journaled, outside the auction lock, so an older
+        // one can arrive after a newer one; it still belongs in the history
+        if (!(bidUpdate.auctionVersion < latestAuctionVersion)) {
+            latestAuctionVersion = bidUpdate.auctionVersion;
+            updateBidDisplay(bidUpdate);
+        }
+        addBidToHistory(bidUpdate);
+        showBidNotification(bidUpdate);
+    } else if (data.type === 'endTimeChanged') {
+        updateEndTime(data.endTime);
+    } else if (data.type === 'bidAck' || data.type === 'bidNack') {
+        const pending = pendingBids.get(data.requestId);
+        if (pending) {
+            pendingBids.delete(data.requestId);
+            clearTimeout(pending.timer);
+            pending.resolve(data);
+        }
+    }
+}
+
+function updateEndTime(endTime) {
+    document.querySelectorAll('.end-time').forEach(el => {
+        el.textContent = endTime;
+        el.classList.add('bid-update-animation');
+        setTimeout(() => el.classList.remove('bid-update-animation'), 1000);
+    });
+}
+
+function updateBidDisplay(bidUpdate) {
+    const currentBidElement = document.querySelector('.current-bid-amount');
+    const bidAmountElement = document.querySelector('.bid-amount');
+    const bidderElement = document.querySelector('.bidder-name');
+    
+    if (currentBidElement) {
+        currentBidElement.textContent = '$' + bidUpdate.bidAmount.toFixed(2);
+        currentBidElement.classList.add('bid-update-animation');
+        setTimeout(() => currentBidElement.classList.remove('bid-update-animation'), 1000);
+    }
+    
+    if (bidAmountElement) {
+        bidAmountElement.textContent = '$' + bidUpdate.bidAmount.toFixed(2);
+    }
+    
+    if (bidderElement) {
+        bidderElement.textContent = bidUpdate.bidderUsername;
+    }
+    
+    const bidCountElement = document.querySelector('.bid-count');
+    if (bidCountElement && bidUpdate.bidCount) {
+        bidCountElement.textContent = bidUpdate.bidCount;
+    }
+
+    const bidInput = document.getElementById('bidAmount');
+    if (bidInput) {
+        const newMin = bidUpdate.bidAmount + 5.01;
+        bidInput.min = newMin.toFixed(2);
+    }
+}
+
+// Adds the new bid at the top of the history table instead of reloading the page
+function addBidToHistory(bidUpdate) {
+    const rows = document.querySelector('.bid-history-rows');
+    if (!rows) {
+        // First bid: the page shows the empty state rather than a table
+        setTimeout(() => window.location.reload(), 2000);
+        return;
+    }
+    if (bidUpdate.bidId && rows.querySelector("tr[data-bid-id='" + bidUpdate.bidId + "']")) {
+        return;
+    }
+
+    rows.querySelectorAll('tr.winning-bid').forEach(row => {
+        row.classList.remove('winning-bid');
+        const status = row.querySelector('.bid-status');
+        if (status) {
+            status.innerHTML = "<span class='status-badge outbid'>⚪ Outbid</span>";
+        }
+    });
+
+    const row = document.createElement('tr');
+    row.className = 'winning-bid bid-update-animation';
+    if (bidUpdate.bidId) {
+        row.dataset.bidId = bidUpdate.bidId;
+    }
+    const cells = [
+        '#' + (bidUpdate.bidId || ''),
+        bidUpdate.bidderUsername,
+        '$' + bidUpdate.bidAmount.toFixed(2),
+        bidUpdate.bidTime
+    ];
+    cells.forEach((text, index) => {
+        const cell = document.createElement('td');
+        if (index === 0) {
+            const strong = document.createElement('strong');
+            strong.textContent = text;
+            cell.appendChild(strong);
+        } else {
+            cell.textContent = text;
+        }
+        if (index === 2) {
+            cell.className = 'bid-amount';
+        } else if (index === 3) {
+            cell.className = 'bid-time';
+        }
+        row.appendChild(cell);
+    });
+    const status = document.createElement('td');
+    status.className = 'bid-status';
+    status.innerHTML = "<span class='status-badge winning'><i class='fas fa-crown'></i> Leading</span>";
+    row.appendChild(status);
+
+    rows.insertBefore(row, rows.firstChild);
+    setTimeout(() => row.classList.remove('bid-update-animation'), 1000);
+}
+
+// A bid that was sent but not answered: it may or may not have been placed
+class UnansweredBidError extends Error {}
+
+// Sends the bid over the open WebSocket; resolves with the bidAck/bidNack frame
+function submitBidOverSocket(amount) {
+    return new Promise((resolve, reject) => {
+        const requestId = 'b' + (nextBidRequest++);
+        const timer = setTimeout(() => {
+            pendingBids.delete(requestId);
+            reject(new UnansweredBidError('No reply to bid ' + requestId));
+        }, socketBidTimeout);
+        pendingBids.set(requestId, {resolve: resolve, timer: timer});
+        ws.send(JSON.stringify({type: 'bid', amount: amount, requestId: requestId}));
+    });
+}
+
+// After an unanswered socket bid: bids must beat the current one, so if the auction has reached
+// this amount the bid was placed or can no longer be; only a lower current bid is worth a retry
+function recheckUnansweredBid(amount) {
+    return fetch('/AuctionSystem/api/auctions/' + auctionId, {
+        credentials: 'same-origin',
+        headers: {'Accept': 'application/json'}
+    }).then(response => {
+        if (!response.ok) {
+            throw new Error('Auction lookup failed: ' + response.status);
+        }
+        return response.json();
+    }).then(auction => {
+        if (!auction.active || auction.currentHighestBid >= amount) {
+            return {outcomeUnknown: true, auction: auction};
+        }
+        return submitBidOverApi(amount).then(body => {
+            // The socket bid can still land before the retry; then the retry is "too low" at our own amount
+            if (body.status === 'BID_TOO_LOW' && body.currentHighestBid === amount) {
+                return {outcomeUnknown: true, auction: body};
+            }
+            return body;
+        });
+    });
+}
+
+function submitBidOverApi(amount) {
+    return fetch('/AuctionSystem/api/auctions/' + auctionId + '/bids', {
+        method: 'POST',
+        credentials: 'same-origin',
+        headers: {'Content-Type': 'application/json', 'Accept': 'application/json'},
+        body: JSON.stringify({amount: amount})
+    }).then(response => {
+        if (response.status === 401) {
+            return {notAuthenticated: true};
+        }
+        return response.json();
+    });
+}
+
+// Submits the bid form over the auction's WebSocket when it is open, otherwise to the JSON
+// API; the page itself is updated by the WebSocket stream.
+// Without JavaScript the form still posts to /auction/bid as before.
+function setupBidForm() {
+    const form = document.getElementById('bid-form');
+    if (!form || !window.fetch) {
+        return;
+    }
+    const result = form.querySelector('.bid-result');
+    const button = form.querySelector('button[type=submit]');
+
+    form.addEventListener('submit', function(event) {
+        event.preventDefault();
+        const amount = Number(form.elements['bidAmount'].value);
+        button.disabled = true;
+
+        let submission;
+        if (ws && ws.readyState === WebSocket.OPEN) {
+            submission = submitBidOverSocket(amount).then(frame => {
+                if (frame.reason === 'NOT_AUTHENTICATED') {
+                    return {notAuthenticated: true};
+                }
+                // Malformed commands have no result; the API gives the full answer
+                return frame.result || submitBidOverApi(amount);
+            }).catch(error => {
+                if (error instanceof UnansweredBidError) {
+                    return recheckUnansweredBid(amount);
+                }
+                throw error;
+            });
+        } else {
+            submission = submitBidOverApi(amount);
+        }
+
+        submission.then(body => {
+            if (body.notAuthenticated) {
+                window.location.href = '/AuctionSystem/auction/?error=not_logged_in';
+            } else if (body.outcomeUnknown) {
+                showUnknownBidOutcome(result, amount, body.auction);
+            } else {
+                showBidResult(result, body);
+                if (body.accepted) {
+                    form.reset();
+                }
+            }
+        }).catch(error => {
+            // The bid may have reached the server, so posting it again could place it twice
+            console.error('Bid submission failed:', error);
+            showUnknownBidOutcome(result, amount, null);
+        }).finally(() => {
+            button.disabled = false;
+        });
+    });
+}
+
+function showBidResult(element, body) {
+    if (!element) {
+        return;
+    }
+    let message;
+    if (body.accepted) {
+        message = 'Your bid of $' + body.bidAmount.toFixed(2) + ' has been placed!';
+        // Covers a dropped WebSocket; the broadcast of this bid carries the same values
+        updateBidDisplay({bidAmount: body.bidAmount, bidderUsername: body.currentHighestBidder});
+    } else if (body.status === 'BID_TOO_LOW') {
+        message = 'Bid too low: the minimum is now $' + body.minimumNextBid.toFixed(2) + '.';
+        const bidInput = document.getElementById('bidAmount');
+        if (bidInput) {
+            bidInput.min = body.minimumNextBid.toFixed(2);
+        }
+    } else if (body.status === 'AUCTION_CLOSED') {
+        message = 'This auction has ended.';
+    } else {
+        message = body.message || 'Your bid could not be placed.';
+    }
+    element.className = 'bid-result message ' + (body.accepted ? 'message-success' : 'message-error');
+    element.textContent = message;
+}
+
+function showUnknownBidOutcome(element, amount, auction) {
+    if (!element) {
+        return;
+    }
+    let message = 'No confirmation was received for your bid of $' + amount.toFixed(2) + '.';
+    if (auction) {
+        message += ' The current bid is $' + auction.currentHighestBid.toFixed(2)
+            + (auction.currentHighestBidder ? ' by ' + auction.currentHighestBidder : '') + '.';
+    } else {
+        message += ' Reload the page to see whether it was placed before bidding again.';
+    }
+    element.className = 'bid-result message message-error';
+    element.textContent = message;
+}
+
+function showBidNotification(bidUpdate) {
+    const notification = document.createElement('div');
+    notification.className = 'live-indicator';
+    notification.innerHTML = "<i class='fas fa-gavel'></i> ";
+    // Usernames are user input; never parse them as HTML
+    notification.appendChild(document.createTextNode(
+        'New bid: $' + bidUpdate.bidAmount.toFixed(2) + ' by ' + bidUpdate.bidderUsername));
+    
+    document.body.appendChild(notification);
+    
+    setTimeout(() => {
+        if (notification.parentNode) {
+            notification.parentNode.removeChild(notification);
+        }
+    }, 5000);
+}
+
+function updateConnectionStatus(connected) {
+    let indicator = document.querySelector('.live-indicator.connection-status');
+    
+    if (!indicator) {
+        indicator = document.createElement('div');
+        indicator.className = 'live-indicator connection-status';
+        indicator.style.top = '80px';
+        document.body.appendChild(indicator);
+    }
+    
+    if (connected) {
+        indicator.className = 'live-indicator connection-status';
+        indicator.innerHTML = '<i class="fas fa-wifi"></i> Live Updates Active';
+    } else {
+        indicator.className = 'live-indicator connection-status disconnected';
+        indicator.innerHTML = '<i class="fas fa-wifi"></i> Reconnecting...';
+    }
+}
+
+document.addEventListener('DOMContentLoaded', function() {
+    connectWebSocket();
+    setupBidForm();
+    
+    setInterval(() => {
+        if (ws && ws.readyState === WebSocket.OPEN) {
+            ws.send(JSON.stringify({type: 'heartbeat', timestamp: Date.now()}));
+        }
+    }, 30000);
+});
+
+window.addEventListener('beforeunload', function() {
+    if (ws) {
+        ws.close();
+    }
+});
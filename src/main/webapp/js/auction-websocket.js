@@ -157,6 +157,11 @@ class AuctionWebSocket {
                 this.addBidNotification(message.data);
                 break;
 
+            case 'endTimeChanged':
+                console.log('Auction end time extended:', message.endTime);
+                this.addNotification(`⏱️ Auction ${message.auctionId} extended to ${message.endTime}`, 'info');
+                break;
+
             default:
                 console.log('Unknown message type:', message.type);
                 this.addNotification(`❓ Unknown message type: ${message.type}`, 'warning');
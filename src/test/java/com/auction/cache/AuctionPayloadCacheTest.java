@@ -0,0 +1,112 @@
+package com.auction.cache;
+
+import com.auction.dto.AuctionDTO;
+import com.auction.dto.BidResult;
+import com.auction.dto.BidUpdateMessage;
+import com.auction.entity.Auction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+class AuctionPayloadCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        AuctionPayloadCache.clear();
+    }
+
+    private BidUpdateMessage bidUpdate(long version, double amount) {
+        BidUpdateMessage update = new BidUpdateMessage(1L, "Vintage \"Clock\"", amount, "alice",
+                LocalDateTime.of(2024, 5, 1, 12, 30, 15));
+        update.setAuctionEndTime(LocalDateTime.of(2024, 5, 1, 13, 0, 0));
+        update.setAuctionVersion(version);
+        update.setBidId(version);
+        update.setBidCount((int) version);
+        return update;
+    }
+
+    @Test
+    @DisplayName("Should encode the bid update envelope the WebSocket clients expect")
+    void testBidUpdateFrameFormat() throws Exception {
+        JsonNode frame = objectMapper.readTree(AuctionPayloadCache.bidUpdateFrame(bidUpdate(3, 150.5)).getJson());
+
+        assertEquals("bidUpdate", frame.get("type").asText());
+        JsonNode data = frame.get("data");
+        assertEquals(1L, data.get("auctionId").asLong());
+        assertEquals("Vintage \"Clock\"", data.get("auctionTitle").asText());
+        assertEquals(150.5, data.get("bidAmount").asDouble());
+        assertEquals("alice", data.get("bidderUsername").asText());
+        assertEquals("2024-05-01 12:30:15", data.get("bidTime").asText());
+        assertEquals("2024-05-01 13:00:00", data.get("auctionEndTime").asText());
+        assertEquals(3L, data.get("auctionVersion").asLong());
+        assertEquals(3L, data.get("bidId").asLong());
+        assertEquals(3, data.get("bidCount").asInt());
+    }
+
+    @Test
+    @DisplayName("Should encode bid acknowledgements with the accepted sequence and rejections with the reason")
+    void testBidAckAndNackFrames() throws Exception {
+        BidResult accepted = new BidResult(BidResult.Status.ACCEPTED, 1L, 150.0);
+        accepted.setBidId(42L);
+        accepted.setAuctionVersion(7);
+        JsonNode ack = objectMapper.readTree(AuctionPayloadCache.bidAckFrame("r1", accepted));
+        assertEquals("bidAck", ack.get("type").asText());
+        assertEquals("r1", ack.get("requestId").asText());
+        assertEquals(42L, ack.get("sequence").asLong());
+        assertTrue(ack.get("result").get("accepted").asBoolean());
+
+        BidResult tooLow = new BidResult(BidResult.Status.BID_TOO_LOW, 1L, 100.0);
+        tooLow.setMinimumNextBid(155.01);
+        JsonNode nack = objectMapper.readTree(AuctionPayloadCache.bidNackFrame("r2", "BID_TOO_LOW", tooLow));
+        assertEquals("bidNack", nack.get("type").asText());
+        assertEquals("BID_TOO_LOW", nack.get("reason").asText());
+        assertEquals(155.01, nack.get("result").get("minimumNextBid").asDouble());
+
+        JsonNode unauthenticated = objectMapper.readTree(AuctionPayloadCache.bidNackFrame(null, "NOT_AUTHENTICATED", null));
+        assertTrue(unauthenticated.get("requestId").isNull());
+        assertTrue(unauthenticated.get("result").isNull());
+    }
+
+    @Test
+    @DisplayName("Should share one payload per auction version")
+    void testPayloadSharedPerVersion() {
+        AuctionPayloadCache.Payload first = AuctionPayloadCache.bidUpdateFrame(bidUpdate(3, 150.0));
+        assertSame(first, AuctionPayloadCache.bidUpdateFrame(bidUpdate(3, 150.0)));
+        assertSame(first.getText(), first.getText());
+
+        AuctionPayloadCache.Payload next = AuctionPayloadCache.bidUpdateFrame(bidUpdate(4, 160.0));
+        assertNotSame(first, next);
+        assertEquals(4, next.getVersion());
+
+        // A late request for an older version must not evict the newer payload
+        AuctionPayloadCache.bidUpdateFrame(bidUpdate(3, 150.0));
+        assertSame(next, AuctionPayloadCache.bidUpdateFrame(bidUpdate(4, 160.0)));
+    }
+
+    @Test
+    @DisplayName("Should cache auction JSON until the DTO version moves and drop removed auctions")
+    void testAuctionJsonCachedAndPruned() throws Exception {
+        Auction auction = new Auction(7L, "Lamp", "Brass lamp", 20.0, LocalDateTime.now().plusHours(1));
+        AuctionDTO dto = AuctionDTO.fromAuction(auction);
+
+        AuctionPayloadCache.Payload payload = AuctionPayloadCache.auctionJson(dto);
+        assertSame(payload, AuctionPayloadCache.auctionJson(AuctionDTO.fromAuction(auction)));
+        assertEquals("Lamp", objectMapper.readTree(payload.getJson()).get("title").asText());
+
+        auction.setCurrentHighestBid(25.0);
+        AuctionPayloadCache.Payload changed = AuctionPayloadCache.auctionJson(AuctionDTO.fromAuction(auction));
+        assertNotSame(payload, changed);
+        assertEquals(25.0, objectMapper.readTree(changed.getJson()).get("currentHighestBid").asDouble());
+
+        AuctionPayloadCache.retainAuctions(Set.of());
+        assertEquals(0, AuctionPayloadCache.size());
+    }
+}
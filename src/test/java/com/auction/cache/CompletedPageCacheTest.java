@@ -0,0 +1,71 @@
+package com.auction.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+class CompletedPageCacheTest {
+
+    private final long defaultMaxBytes = CompletedPageCache.getMaxBytes();
+
+    @AfterEach
+    void tearDown() {
+        CompletedPageCache.setMaxBytes(defaultMaxBytes);
+        CompletedPageCache.clear();
+    }
+
+    // Random bytes do not compress, so the compressed size is predictable
+    private byte[] page(int size, long seed) {
+        byte[] html = new byte[size];
+        new Random(seed).nextBytes(html);
+        return html;
+    }
+
+    @Test
+    @DisplayName("Should store pages compressed and only return them for the cached version")
+    void testStoredPerVersion() throws Exception {
+        byte[] html = "<html><body>Sold!</body></html>\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+        CompletedPageCache.Page page = CompletedPageCache.put(1L, 4L, html);
+
+        assertTrue(page.getGzipped().length < html.length);
+        assertEquals(html.length, page.getLength());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(page.getGzipped()))) {
+            assertArrayEquals(html, in.readAllBytes());
+        }
+        assertTrue(page.getEtag(false).matches("\"[0-9a-f]{16}\""));
+        assertNotEquals(page.getEtag(false), page.getEtag(true));
+
+        assertSame(page, CompletedPageCache.get(1L, 4L));
+        assertNull(CompletedPageCache.get(1L, 5L));
+        assertNull(CompletedPageCache.get(2L, 4L));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently served pages when over the size limit")
+    void testEvictsLeastRecentlyUsed() {
+        CompletedPageCache.setMaxBytes(3500);
+        CompletedPageCache.put(1L, 1L, page(1000, 1));
+        CompletedPageCache.put(2L, 1L, page(1000, 2));
+        CompletedPageCache.put(3L, 1L, page(1000, 3));
+        assertNotNull(CompletedPageCache.get(1L, 1L)); // 2 is now the least recently used
+
+        CompletedPageCache.put(4L, 1L, page(1000, 4));
+
+        assertNotNull(CompletedPageCache.get(1L, 1L));
+        assertNull(CompletedPageCache.get(2L, 1L));
+        assertNotNull(CompletedPageCache.get(3L, 1L));
+        assertNotNull(CompletedPageCache.get(4L, 1L));
+        assertTrue(CompletedPageCache.getTotalBytes() <= 3500);
+        assertEquals(1, CompletedPageCache.getEvictions());
+
+        CompletedPageCache.retainAuctions(Set.of(1L));
+        assertEquals(1, CompletedPageCache.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.auction.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+class FragmentCacheTest {
+
+    @Test
+    @DisplayName("Should re-render a fragment only when its content key changes")
+    void testRenderedOncePerKey() throws Exception {
+        FragmentCache cache = new FragmentCache("test", 2);
+        AtomicInteger renders = new AtomicInteger();
+
+        byte[] first = cache.get(0, new long[]{1, 1}, out -> {
+            renders.incrementAndGet();
+            out.raw("<p>").text("Tom & Jerry").raw("</p>");
+        });
+        byte[] again = cache.get(0, new long[]{1, 1}, out -> renders.incrementAndGet());
+
+        assertEquals("<p>Tom &amp; Jerry</p>", new String(first, StandardCharsets.UTF_8));
+        assertSame(first, again);
+        assertEquals(1, renders.get());
+
+        cache.get(0, new long[]{1, 2}, out -> renders.incrementAndGet());
+        assertEquals(2, renders.get());
+
+        // Variants are cached independently
+        cache.get(1, new long[]{1, 2}, out -> renders.incrementAndGet());
+        assertEquals(3, renders.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getRenders());
+    }
+
+    @Test
+    @DisplayName("Should render once when many requests find the fragment stale at the same time")
+    void testSingleFlightRebuild() throws Exception {
+        FragmentCache cache = new FragmentCache("test", 1);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(0, new long[]{7, 3}, out -> {
+                        renders.incrementAndGet();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                        out.raw("fragment");
+                    });
+                }));
+            }
+            start.countDown();
+            byte[] expected = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<byte[]> result : results) {
+                assertSame(expected, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, renders.get());
+    }
+}
@@ -191,4 +191,53 @@ class AuctionServiceBeanTest {
         // Add a small delay to ensure transaction completion
         Thread.sleep(100);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should reuse cached DTO snapshots until the auction changes")
+    void testActiveAuctionListIsCachedPerVersion() {
+        LocalDateTime endTime = LocalDateTime.now().plusHours(24);
+        AuctionDTO first = auctionService.createAuction("First", "Description", 100.0, endTime);
+        auctionService.createAuction("Second", "Description", 200.0, endTime);
+
+        List<AuctionDTO> listed = auctionService.getAllActiveAuctions();
+        Assertions.assertSame(listed, auctionService.getAllActiveAuctions(), "unchanged catalog should return the same list");
+
+        Auction auction = originalAuctions.get(first.getAuctionId());
+        long version = auction.getVersion();
+        auction.setCurrentHighestBid(150.0);
+        Assertions.assertTrue(auction.getVersion() > version);
+
+        List<AuctionDTO> relisted = auctionService.getAllActiveAuctions();
+        Assertions.assertNotSame(listed, relisted);
+        AuctionDTO changed = relisted.stream()
+                .filter(dto -> dto.getAuctionId() == first.getAuctionId()).findFirst().orElseThrow();
+        assertEquals(150.0, changed.getCurrentHighestBid());
+        Assertions.assertSame(listed.stream().filter(dto -> dto.getAuctionId() != first.getAuctionId()).findFirst().orElseThrow(),
+                relisted.stream().filter(dto -> dto.getAuctionId() != first.getAuctionId()).findFirst().orElseThrow(),
+                "untouched auctions should keep their snapshot");
+
+        auctionService.createAuction("Third", "Description", 300.0, endTime);
+        assertEquals(relisted.size() + 1, auctionService.getAllActiveAuctions().size());
+    }
+
+    @Test
+    @DisplayName("Should move the version counters only when auction content changes")
+    void testVersionCountersForConditionalRequests() {
+        LocalDateTime endTime = LocalDateTime.now().plusHours(24);
+        AuctionDTO created = auctionService.createAuction("Lamp", "Description", 100.0, endTime);
+
+        long auctionVersion = auctionService.getAuctionVersion(created.getAuctionId());
+        long catalogVersion = auctionService.getCatalogVersion();
+        assertEquals(auctionVersion, auctionService.getAuctionVersion(created.getAuctionId()));
+        assertEquals(catalogVersion, auctionService.getCatalogVersion());
+        assertEquals(-1, auctionService.getAuctionVersion(-5L));
+
+        originalAuctions.get(created.getAuctionId()).setCurrentHighestBid(120.0);
+        Assertions.assertNotEquals(auctionVersion, auctionService.getAuctionVersion(created.getAuctionId()));
+        Assertions.assertNotEquals(catalogVersion, auctionService.getCatalogVersion());
+
+        catalogVersion = auctionService.getCatalogVersion();
+        auctionService.createAuction("Chair", "Description", 50.0, endTime);
+        Assertions.assertNotEquals(catalogVersion, auctionService.getCatalogVersion());
+    }
+}
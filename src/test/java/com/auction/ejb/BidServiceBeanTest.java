@@ -1,5 +1,6 @@
 package com.auction.ejb;
 
+import com.auction.dto.BidResult;
 import com.auction.entity.Auction;
 import com.auction.entity.Bid;
 import org.junit.jupiter.api.BeforeEach;
@@ -97,4 +98,29 @@ class BidServiceBeanTest {
         assertNull(bidService.getHighestBid(999L));
         assertFalse(bidService.validateBid(999L, 100.0));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should report why a bid was rejected")
+    void testSubmitBidReportsOutcome() {
+        AuctionServiceBean.getAuctions().put(testAuction.getAuctionId(), testAuction);
+        try {
+            BidResult tooLow = bidService.submitBid(1L, "alice", 102.0);
+            assertEquals(BidResult.Status.BID_TOO_LOW, tooLow.getStatus());
+            assertFalse(tooLow.isAccepted());
+            assertEquals(105.0, tooLow.getMinimumNextBid());
+
+            BidResult accepted = bidService.submitBid(1L, "alice", 150.0);
+            assertTrue(accepted.isAccepted());
+            assertNotNull(accepted.getBidId());
+            assertEquals("alice", accepted.getCurrentHighestBidder());
+            assertEquals(testAuction.getVersion(), accepted.getAuctionVersion());
+
+            assertEquals(BidResult.Status.AUCTION_NOT_FOUND, bidService.submitBid(99L, "alice", 500.0).getStatus());
+
+            testAuction.setActive(false);
+            assertEquals(BidResult.Status.AUCTION_CLOSED, bidService.submitBid(1L, "bob", 500.0).getStatus());
+        } finally {
+            AuctionServiceBean.getAuctions().remove(testAuction.getAuctionId());
+        }
+    }
+}
@@ -97,4 +97,34 @@ class AuctionTest {
         assertNotNull(auction.getBids());
         assertTrue(auction.getNextBidId() > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should extend end time for a bid inside the soft-close window")
+    void testSoftCloseExtendsEndTime() {
+        LocalDateTime endTime = LocalDateTime.now().plusSeconds(10);
+        auction.setEndTime(endTime);
+
+        assertTrue(auction.applySoftClose(LocalDateTime.now()));
+        assertEquals(endTime.plusSeconds(Auction.DEFAULT_SOFT_CLOSE_EXTENSION_SECONDS), auction.getEndTime());
+        assertEquals(1, auction.getExtensionCount());
+    }
+
+    @Test
+    @DisplayName("Should not extend end time for a bid outside the soft-close window")
+    void testSoftCloseIgnoresEarlyBids() {
+        assertFalse(auction.applySoftClose(LocalDateTime.now()));
+        assertEquals(futureTime, auction.getEndTime());
+        assertEquals(0, auction.getExtensionCount());
+    }
+
+    @Test
+    @DisplayName("Should not extend end time when soft-close is disabled")
+    void testSoftCloseDisabled() {
+        LocalDateTime endTime = LocalDateTime.now().plusSeconds(10);
+        auction.setEndTime(endTime);
+        auction.setSoftCloseWindowSeconds(0);
+
+        assertFalse(auction.applySoftClose(LocalDateTime.now()));
+        assertEquals(endTime, auction.getEndTime());
+    }
+}
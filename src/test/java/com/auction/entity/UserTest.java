@@ -1,11 +1,13 @@
 package com.auction.entity;
 
+import com.auction.time.Clocks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Testing the User entity - Updated to match your actual User class
@@ -21,7 +23,8 @@ class UserTest {
 
     @BeforeEach
     void setUp() {
-        beforeCreation = LocalDateTime.now();
+        // Activity is stamped from the application clock
+        beforeCreation = Clocks.now();
         // Using your actual constructor: User(username, email, password, isAdmin)
         user = new User("testuser", "test@example.com", "password123", false);
     }
@@ -139,7 +142,7 @@ class UserTest {
         // Wait a bit to ensure time difference
         Thread.sleep(10);
 
-        LocalDateTime newActivity = LocalDateTime.now();
+        LocalDateTime newActivity = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
         user.setLastActivity(newActivity);
 
         assertTrue(user.getLastActivity().isAfter(initialActivity));
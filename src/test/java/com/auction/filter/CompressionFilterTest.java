@@ -0,0 +1,162 @@
+package com.auction.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+class CompressionFilterTest {
+
+    private final DeflaterPool pool = new DeflaterPool(6, 1);
+    private final Map<String, String> headers = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private HttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        CompressionFilter.resetStatistics();
+        response = mock(HttpServletResponse.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getContentType()).thenAnswer(invocation -> headers.get("Content-Type"));
+        when(response.getHeader(anyString())).thenAnswer(invocation -> headers.get(invocation.getArgument(0)));
+        doAnswer(invocation -> headers.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(response).setHeader(anyString(), anyString());
+        doAnswer(invocation -> headers.put("Content-Length", String.valueOf((long) invocation.getArgument(0))))
+                .when(response).setContentLengthLong(anyLong());
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static String page(int rows) {
+        StringBuilder html = new StringBuilder("<html><body><table>");
+        for (int i = 0; i < rows; i++) {
+            html.append("<tr><td class='bid-amount'>$").append(100 + i).append(".00</td></tr>");
+        }
+        return html.append("</table></body></html>").toString();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream large text responses as gzip and record the savings")
+    void testCompressesLargeTextResponses() throws Exception {
+        String html = page(500);
+        headers.put("Content-Type", "text/html;charset=UTF-8");
+        headers.put("Vary", "Cookie");
+        headers.put("ETag", "\"abc\"");
+
+        GzipResponseWrapper wrapper = new GzipResponseWrapper(response, 1024, pool);
+        PrintWriter out = wrapper.getWriter();
+        out.print(html.substring(0, 700));
+        out.flush();
+        assertEquals(0, body.size(), "output below the threshold must be held back");
+        out.print(html.substring(700));
+        wrapper.setContentLength(html.length());
+        wrapper.finish();
+        wrapper.release();
+
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals("Cookie, Accept-Encoding", headers.get("Vary"));
+        assertEquals("\"abc-gzip\"", headers.get("ETag"));
+        assertNull(headers.get("Content-Length"));
+        assertEquals(html, gunzip(body.toByteArray()));
+
+        assertEquals(1, CompressionFilter.getCompressedResponses());
+        assertEquals(html.length(), CompressionFilter.getUncompressedBytes());
+        assertEquals(body.size(), CompressionFilter.getCompressedBytes());
+        assertTrue(CompressionFilter.getCompressionRatio() < 0.5);
+    }
+
+    @Test
+    @DisplayName("Should send small, already encoded and binary responses unchanged")
+    void testSkipsIneligibleResponses() throws Exception {
+        headers.put("Content-Type", "text/html;charset=UTF-8");
+        GzipResponseWrapper small = new GzipResponseWrapper(response, 1024, pool);
+        small.getOutputStream().write("<p>ok</p>".getBytes(StandardCharsets.UTF_8));
+        small.finish();
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals("9", headers.get("Content-Length"));
+        assertEquals("<p>ok</p>", body.toString(StandardCharsets.UTF_8));
+
+        byte[] large = page(200).getBytes(StandardCharsets.UTF_8);
+        for (String type : new String[]{"image/png", "application/zip"}) {
+            headers.clear();
+            body.reset();
+            headers.put("Content-Type", type);
+            GzipResponseWrapper binary = new GzipResponseWrapper(response, 1024, pool);
+            binary.getOutputStream().write(large);
+            binary.finish();
+            assertNull(headers.get("Content-Encoding"), type);
+            assertArrayEquals(large, body.toByteArray(), type);
+        }
+
+        headers.clear();
+        body.reset();
+        headers.put("Content-Type", "text/html;charset=UTF-8");
+        headers.put("Content-Encoding", "gzip");
+        GzipResponseWrapper encoded = new GzipResponseWrapper(response, 1024, pool);
+        encoded.getOutputStream().write(large);
+        encoded.finish();
+        assertArrayEquals(large, body.toByteArray());
+
+        assertEquals(0, CompressionFilter.getCompressedResponses());
+        assertEquals(4, CompressionFilter.getSkippedResponses());
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled deflaters across responses")
+    void testReusesDeflaters() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            headers.clear();
+            headers.put("Content-Type", "application/json");
+            body.reset();
+            GzipResponseWrapper wrapper = new GzipResponseWrapper(response, 256, pool);
+            wrapper.getOutputStream().write(page(100).getBytes(StandardCharsets.UTF_8));
+            wrapper.finish();
+            wrapper.release();
+            assertEquals(page(100), gunzip(body.toByteArray()));
+        }
+        assertEquals(1, pool.getCreated());
+        assertEquals(1, pool.getIdle());
+        assertTrue(CompressionFilter.isCompressible("application/problem+json"));
+        assertFalse(CompressionFilter.isCompressible(null));
+    }
+}
@@ -0,0 +1,195 @@
+package com.auction.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class AuctionJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    private static class RecordingHandler implements JournalReplayHandler {
+        final List<String> events = new ArrayList<>();
+        final List<Long> sequences = new ArrayList<>();
+
+        @Override
+        public void onAuctionCreated(long sequence, long auctionId, String title, String description,
+                                     double startingPrice, LocalDateTime startTime, LocalDateTime endTime,
+                                     int softCloseWindowSeconds, int softCloseExtensionSeconds) {
+            sequences.add(sequence);
+            events.add("created:" + auctionId + ":" + title + ":" + description + ":" + startingPrice
+                    + ":" + startTime + ":" + endTime + ":" + softCloseWindowSeconds + ":" + softCloseExtensionSeconds);
+        }
+
+        @Override
+        public void onBidAccepted(long sequence, long auctionId, long bidId, String bidderUsername,
+                                  double bidAmount, LocalDateTime bidTime, LocalDateTime auctionEndTime) {
+            sequences.add(sequence);
+            events.add("bid:" + auctionId + ":" + bidId + ":" + bidderUsername + ":" + bidAmount
+                    + ":" + bidTime + ":" + auctionEndTime);
+        }
+
+        @Override
+        public void onAuctionClosed(long sequence, long auctionId, String reason, LocalDateTime completedTime) {
+            sequences.add(sequence);
+            events.add("closed:" + auctionId + ":" + reason + ":" + completedTime);
+        }
+
+        @Override
+        public void onAuctionRemoved(long sequence, long auctionId) {
+            sequences.add(sequence);
+            events.add("removed:" + auctionId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay appended events in order with exact values")
+    void testRoundTrip() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123456789);
+        LocalDateTime end = start.plusHours(2);
+
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.INTERVAL, 5)) {
+            assertEquals(1, journal.appendAuctionCreated(1L, "Vintage Watch", "Classic édition",
+                    500.0, start, end, 30, 15));
+            assertEquals(2, journal.appendBidAccepted(1L, 1L, "alice", 510.0, start.plusMinutes(1), end));
+            assertEquals(3, journal.appendAuctionClosed(1L, null, end));
+            assertEquals(4, journal.appendAuctionRemoved(1L));
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.INTERVAL, 5)) {
+            assertEquals(4, journal.replay(0, handler));
+            assertEquals(4, journal.getLastSequence());
+            assertEquals(5, journal.appendAuctionClosed(2L, "EXPIRED", end));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), handler.sequences);
+        assertEquals("created:1:Vintage Watch:Classic édition:500.0:" + start + ":" + end + ":30:15",
+                handler.events.get(0));
+        assertEquals("bid:1:1:alice:510.0:" + start.plusMinutes(1) + ":" + end, handler.events.get(1));
+        assertEquals("closed:1:null:" + end, handler.events.get(2));
+        assertEquals("removed:1", handler.events.get(3));
+    }
+
+    @Test
+    @DisplayName("Should skip events at or below the requested sequence")
+    void testReplayAfterSequence() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.NONE, 5)) {
+            for (long i = 1; i <= 10; i++) {
+                journal.appendBidAccepted(1L, i, "bidder" + i, 100.0 + i, now, now);
+            }
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.NONE, 5)) {
+            assertEquals(3, journal.replay(7, handler));
+        }
+        assertEquals(List.of(8L, 9L, 10L), handler.sequences);
+    }
+
+    @Test
+    @DisplayName("Should truncate a torn tail and keep appending after the last good record")
+    void testTornTailIsTruncated() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.ALWAYS, 5)) {
+            journal.appendAuctionCreated(1L, "A", "a", 10.0, now, now.plusHours(1), 30, 30);
+            journal.appendAuctionCreated(2L, "B", "b", 20.0, now, now.plusHours(1), 30, 30);
+        }
+
+        // Simulate a crash half way through writing the second record
+        Path segment = AuctionJournal.listSegments(journalDir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.ALWAYS, 5)) {
+            assertEquals(1, journal.getLastSequence());
+            assertEquals(2, journal.appendAuctionCreated(3L, "C", "c", 30.0, now, now.plusHours(1), 30, 30));
+        }
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.ALWAYS, 5)) {
+            journal.replay(0, handler);
+        }
+
+        assertEquals(2, handler.events.size());
+        assertTrue(handler.events.get(0).startsWith("created:1:"));
+        assertTrue(handler.events.get(1).startsWith("created:3:"));
+    }
+
+    @Test
+    @DisplayName("Should roll segments and replay across them")
+    void testSegmentRolling() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        int events = 5_000;
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.NONE, 1, 16 * 1024)) {
+            for (long i = 1; i <= events; i++) {
+                journal.appendBidAccepted(1L, i, "bidder", i, now, now);
+                if (i % 500 == 0) {
+                    journal.sync();
+                }
+            }
+        }
+
+        assertTrue(AuctionJournal.listSegments(journalDir).size() > 1, "expected more than one segment");
+
+        RecordingHandler all = new RecordingHandler();
+        RecordingHandler tail = new RecordingHandler();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.NONE, 1, 16 * 1024)) {
+            assertEquals(events, journal.getLastSequence());
+            assertEquals(events, journal.replay(0, all));
+            assertEquals(10, journal.replay(events - 10, tail));
+        }
+        for (int i = 0; i < events; i++) {
+            assertEquals(i + 1, all.sequences.get(i));
+        }
+        assertEquals(events - 9, tail.sequences.get(0));
+    }
+
+    @Test
+    @DisplayName("Should make every event durable before commit returns under ALWAYS")
+    void testConcurrentGroupCommit() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        LocalDateTime now = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.ALWAYS, 50)) {
+            for (int t = 0; t < threads; t++) {
+                final long auctionId = t;
+                executor.submit(() -> {
+                    try {
+                        for (long i = 1; i <= perThread; i++) {
+                            long sequence = journal.appendBidAccepted(auctionId, i, "bidder", i, now, now);
+                            journal.commit(sequence);
+                            assertTrue(journal.getDurableSequence() >= sequence);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            executor.shutdown();
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        try (AuctionJournal journal = AuctionJournal.open(journalDir, FsyncPolicy.ALWAYS, 50)) {
+            assertEquals(threads * perThread, journal.replay(0, handler));
+        }
+    }
+}
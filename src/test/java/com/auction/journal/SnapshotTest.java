@@ -0,0 +1,183 @@
+package com.auction.journal;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.User;
+import com.auction.session.ActiveSessionInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class SnapshotTest {
+
+    @TempDir
+    Path snapshotDir;
+
+    private static class CollectingSink implements SnapshotReader.Sink {
+        final Map<Long, Auction> auctions = new ConcurrentHashMap<>();
+        final Map<String, User> users = new ConcurrentHashMap<>();
+        final Map<String, ActiveSessionInfo> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public void onAuction(Auction auction) {
+            auctions.put(auction.getAuctionId(), auction);
+        }
+
+        @Override
+        public void onUser(User user) {
+            users.put(user.getUsername(), user);
+        }
+
+        @Override
+        public void onSession(ActiveSessionInfo session) {
+            sessions.put(session.getSessionToken(), session);
+        }
+    }
+
+    private Auction auctionWithBids(long auctionId, int bidCount) {
+        Auction auction = new Auction(auctionId, "Auction " + auctionId, "Description " + auctionId,
+                100.0, LocalDateTime.now().plusHours(1));
+        for (int i = 1; i <= bidCount; i++) {
+            Bid bid = new Bid(auction.getNextBidId(), auctionId, "bidder" + i, 100.0 + i * 10);
+            auction.getBids().put(bid.getBidId(), bid);
+            auction.setCurrentHighestBid(bid.getBidAmount());
+            auction.setCurrentHighestBidder(bid.getBidderUsername());
+            bid.setWinning(i == bidCount);
+        }
+        return auction;
+    }
+
+    @Test
+    @DisplayName("Should restore auctions, bids, users and sessions from a sharded snapshot")
+    void testRoundTrip() throws Exception {
+        SnapshotWriter writer = new SnapshotWriter(4);
+        for (long id = 1; id <= 20; id++) {
+            writer.addAuction(auctionWithBids(id, (int) id % 4));
+        }
+        Auction completed = auctionWithBids(21, 2);
+        completed.setSoftCloseWindowSeconds(0);
+        completed.applySoftClose(LocalDateTime.now());
+        completed.completeAuction("EXPIRED");
+        writer.addAuction(completed);
+
+        writer.addUser(new User("alice", "alice@example.com", "secret", true));
+        ActiveSessionInfo session = new ActiveSessionInfo("token-1", "alice", "http-1", "127.0.0.1", "JUnit");
+        session.setAdmin(true);
+        writer.addSession(session);
+
+        Path file = writer.writeTo(snapshotDir, 42);
+        assertEquals(List.of(file), SnapshotReader.listSnapshots(snapshotDir));
+        assertEquals(42, SnapshotReader.journalSequenceOf(file));
+
+        CollectingSink sink = new CollectingSink();
+        assertEquals(42, SnapshotReader.load(file, 4, sink));
+
+        assertEquals(21, sink.auctions.size());
+        Auction restored = sink.auctions.get(7L);
+        assertEquals("Auction 7", restored.getTitle());
+        assertEquals(3, restored.getBids().size());
+        assertEquals(130.0, restored.getCurrentHighestBid());
+        assertEquals("bidder3", restored.getCurrentHighestBidder());
+        assertTrue(restored.getBids().values().stream().filter(Bid::isWinning).count() == 1);
+        assertEquals(4, restored.getNextBidId(), "bid counter should continue after restored bids");
+
+        Auction restoredCompleted = sink.auctions.get(21L);
+        assertFalse(restoredCompleted.isActive());
+        assertEquals(Auction.AuctionStatus.EXPIRED, restoredCompleted.getStatus());
+        assertEquals(completed.getCompletedTime(), restoredCompleted.getCompletedTime());
+        assertEquals(completed.getEndTime(), restoredCompleted.getEndTime());
+        assertEquals("bidder2", restoredCompleted.getWinnerUsername());
+        assertEquals(0, restoredCompleted.getSoftCloseWindowSeconds());
+
+        User alice = sink.users.get("alice");
+        assertTrue(alice.isAdmin());
+        assertTrue(alice.verifyPassword("secret"));
+        assertEquals("alice", sink.sessions.get("token-1").getUsername());
+        assertEquals(session.getLoginTime(), sink.sessions.get("token-1").getLoginTime());
+        assertTrue(sink.sessions.get("token-1").isActive());
+        assertTrue(sink.sessions.get("token-1").isAdmin());
+    }
+
+    @Test
+    @DisplayName("Should reject a corrupted snapshot without delivering any rows")
+    void testCorruptSnapshotRejected() throws Exception {
+        SnapshotWriter writer = new SnapshotWriter(2);
+        for (long id = 1; id <= 10; id++) {
+            writer.addAuction(auctionWithBids(id, 2));
+        }
+        Path file = writer.writeTo(snapshotDir, 7);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = channel.size() - 3;
+            ByteBuffer oneByte = ByteBuffer.allocate(1);
+            channel.read(oneByte, position);
+            oneByte.put(0, (byte) ~oneByte.get(0)).rewind();
+            channel.write(oneByte, position);
+        }
+
+        CollectingSink sink = new CollectingSink();
+        assertThrows(IOException.class, () -> SnapshotReader.load(file, 2, sink));
+        assertTrue(sink.auctions.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should prune journal segments covered by a snapshot and replay only the tail")
+    void testPruneAndReplayTail() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        long snapshotSequence;
+        try (AuctionJournal journal = AuctionJournal.open(snapshotDir, FsyncPolicy.NONE, 1, 4 * 1024)) {
+            for (long i = 1; i <= 1_000; i++) {
+                journal.appendBidAccepted(1L, i, "bidder", i, now, now);
+                if (i % 100 == 0) {
+                    journal.sync();
+                }
+            }
+            snapshotSequence = journal.getLastSequence();
+            int before = AuctionJournal.listSegments(snapshotDir).size();
+            assertTrue(journal.deleteSegmentsUpTo(snapshotSequence) > 0);
+            assertTrue(AuctionJournal.listSegments(snapshotDir).size() < before);
+
+            for (long i = 1_001; i <= 1_010; i++) {
+                journal.appendBidAccepted(1L, i, "bidder", i, now, now);
+            }
+        }
+
+        int[] replayed = new int[1];
+        try (AuctionJournal journal = AuctionJournal.open(snapshotDir, FsyncPolicy.NONE, 1, 4 * 1024)) {
+            journal.replay(snapshotSequence, new JournalReplayHandler() {
+                @Override
+                public void onAuctionCreated(long sequence, long auctionId, String title, String description,
+                                             double startingPrice, LocalDateTime startTime, LocalDateTime endTime,
+                                             int softCloseWindowSeconds, int softCloseExtensionSeconds) {
+                }
+
+                @Override
+                public void onBidAccepted(long sequence, long auctionId, long bidId, String bidderUsername,
+                                          double bidAmount, LocalDateTime bidTime, LocalDateTime auctionEndTime) {
+                    replayed[0]++;
+                }
+
+                @Override
+                public void onAuctionClosed(long sequence, long auctionId, String reason,
+                                            LocalDateTime completedTime) {
+                }
+
+                @Override
+                public void onAuctionRemoved(long sequence, long auctionId) {
+                }
+            });
+        }
+        assertEquals(10, replayed[0]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.auction.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class AccessLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final long TIME = 1714566615042L; // 2024-05-01T12:30:15.042Z
+
+    @Test
+    @DisplayName("Should write buffered records in the fixed line layout on close")
+    void testWritesRecords() throws Exception {
+        Path path = tempDir.resolve("access.log");
+        AccessLog log = new AccessLog(path, 64, 1.0, 1 << 20, 3, 10);
+        assertTrue(log.record(TIME, "203.0.113.5", "GET", "/AuctionSystem/auction/", 200, 1_234_000));
+        assertTrue(log.record(TIME + 1000, "203.0.113.6", "POST", "/AuctionSystem/api/auctions/7/bids", 409, 56_000));
+        log.close();
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(List.of(
+                "2024-05-01T12:30:15.042Z 203.0.113.5 GET /AuctionSystem/auction/ 200 1234us",
+                "2024-05-01T12:30:16.042Z 203.0.113.6 POST /AuctionSystem/api/auctions/7/bids 409 56us"), lines);
+        assertEquals(2, log.getWritten());
+        assertFalse(log.record(TIME, "203.0.113.5", "GET", "/", 200, 0), "closed log must not accept records");
+    }
+
+    @Test
+    @DisplayName("Should drop and count records instead of blocking when the buffer is full")
+    void testDropsWhenFull() throws Exception {
+        Path path = tempDir.resolve("access.log");
+        // The writer only wakes every minute or at half capacity, so most of the burst overflows
+        AccessLog log = new AccessLog(path, 8, 1.0, 1 << 20, 3, 60_000);
+        int accepted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (log.record(TIME, "203.0.113.5", "GET", "/r" + i, 200, 0)) {
+                accepted++;
+            }
+        }
+        log.close();
+
+        assertTrue(log.getDropped() > 0);
+        assertEquals(10_000, accepted + log.getDropped());
+        assertEquals(accepted, log.getWritten());
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(accepted, lines.stream().filter(line -> !line.startsWith("#")).count());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("# dropped ")));
+    }
+
+    @Test
+    @DisplayName("Should sample successful requests but keep errors")
+    void testSampling() throws Exception {
+        AccessLog log = new AccessLog(tempDir.resolve("access.log"), 64, 0.0, 1 << 20, 3, 10);
+        assertFalse(log.record(TIME, "203.0.113.5", "GET", "/", 200, 0));
+        assertTrue(log.record(TIME, "203.0.113.5", "GET", "/missing", 404, 0));
+        assertTrue(log.record(TIME, "203.0.113.5", "GET", "/broken", 500, 0));
+        log.close();
+
+        assertEquals(1, log.getSampledOut());
+        assertEquals(2, log.getWritten());
+    }
+
+    @Test
+    @DisplayName("Should roll the file over by size and keep a bounded number of old files")
+    void testRollsOver() throws Exception {
+        Path path = tempDir.resolve("access.log");
+        RollingFile file = new RollingFile(path, 100, 2);
+        for (int i = 0; i < 5; i++) {
+            file.write("0123456789012345678901234567890123456789012345678901234567890123456789\n");
+        }
+        file.close();
+
+        assertTrue(Files.exists(path));
+        assertTrue(Files.exists(file.rolled(1)));
+        assertTrue(Files.exists(file.rolled(2)));
+        assertFalse(Files.exists(file.rolled(3)));
+        assertEquals(71, Files.size(path));
+    }
+}
@@ -0,0 +1,116 @@
+package com.auction.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+class LogTest {
+
+    private static final class CapturingHandler extends Handler {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    @DisplayName("Should fill placeholders in order and leave extra placeholders as they are")
+    void testFormat() {
+        assertEquals("Bid 7 placed on auction 3: $150.5",
+                LogEvent.format("Bid {} placed on auction {}: ${}", new Object[]{7L, 3L, 150.5}));
+        assertEquals("a=1 b={}", LogEvent.format("a={} b={}", new Object[]{1}));
+        assertEquals("no args {}", LogEvent.format("no args {}", null));
+        assertEquals("null: null", LogEvent.format("null: {}", new Object[]{null}));
+    }
+
+    @Test
+    @DisplayName("Should format lazily and skip disabled levels without creating records")
+    void testLevelsAndLazyFormatting() {
+        Logger logger = Logger.getLogger("test.log.levels");
+        CapturingHandler handler = new CapturingHandler();
+        logger.addHandler(handler);
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.INFO);
+        try {
+            Log log = Log.get("test.log.levels");
+            log.debug("hidden {}", 1);
+            assertFalse(log.isDebugEnabled());
+            log.info("auction {} closed, winner {}", 5L, "alice");
+
+            assertEquals(1, handler.records.size());
+            LogRecord record = handler.records.get(0);
+            assertEquals(Level.INFO, record.getLevel());
+            assertEquals("auction 5 closed, winner alice", record.getMessage());
+            assertNull(record.getParameters());
+            assertEquals("test.log.levels", record.getSourceClassName());
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rate limit a category and report what it suppressed")
+    void testRateLimit() {
+        System.setProperty(Log.MAX_PER_SECOND_PROPERTY + ".test.log.limited", "3");
+        Logger logger = Logger.getLogger("test.log.limited");
+        CapturingHandler handler = new CapturingHandler();
+        logger.addHandler(handler);
+        logger.setUseParentHandlers(false);
+        try {
+            Log log = Log.get("test.log.limited");
+            for (int i = 0; i < 50; i++) {
+                log.info("event {}", i);
+            }
+            long published = handler.records.stream().filter(r -> r.getLevel() == Level.INFO).count();
+            // At most two one-second windows can be involved
+            assertTrue(published >= 3 && published <= 6, "published " + published);
+            assertEquals(50, published + log.getSuppressed()
+                    + handler.records.stream().filter(r -> r.getLevel() == Level.WARNING)
+                    .mapToLong(r -> Long.parseLong(r.getMessage().split(" ")[0])).sum());
+
+            log.error("errors are not limited", new IllegalStateException("boom"));
+            assertEquals(Level.SEVERE, handler.records.get(handler.records.size() - 1).getLevel());
+        } finally {
+            logger.removeHandler(handler);
+            System.clearProperty(Log.MAX_PER_SECOND_PROPERTY + ".test.log.limited");
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver records on a background thread and never drop warnings")
+    void testAsyncHandler() {
+        CapturingHandler delegate = new CapturingHandler();
+        AsyncLogHandler handler = new AsyncLogHandler(Collections.singletonList(delegate), 4);
+        for (int i = 0; i < 1000; i++) {
+            handler.publish(new LogRecord(Level.INFO, "info " + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.WARNING, "warning " + i));
+        }
+        handler.close();
+
+        long warnings = delegate.records.stream().filter(r -> r.getLevel() == Level.WARNING).count();
+        assertEquals(100, warnings);
+        assertTrue(delegate.records.size() <= 1100);
+        assertTrue(delegate.records.stream().noneMatch(r -> r.getSourceClassName() != null
+                && r.getSourceClassName().startsWith("com.auction.logging.AsyncLogHandler")));
+    }
+}
@@ -0,0 +1,174 @@
+package com.auction.persistence;
+
+import com.auction.entity.Auction;
+import com.auction.entity.Bid;
+import com.auction.entity.BidKey;
+import com.auction.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+class WriteBehindStoreTest {
+
+    private static int databaseCounter;
+
+    private final ConcurrentHashMap<Long, Auction> auctions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private Properties properties;
+    private WriteBehindStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Properties();
+        properties.setProperty("jakarta.persistence.jdbc.url",
+                "jdbc:h2:mem:writebehind" + (++databaseCounter) + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("jakarta.persistence.jdbc.user", "sa");
+        properties.setProperty("jakarta.persistence.jdbc.password", "");
+        properties.setProperty("eclipselink.weaving", "false");
+        properties.setProperty("eclipselink.ddl-generation", "create-or-extend-tables");
+        properties.setProperty("eclipselink.ddl-generation.output-mode", "database");
+        properties.setProperty("eclipselink.jdbc.batch-writing", "JDBC");
+        properties.setProperty("eclipselink.logging.level", "WARNING");
+        store = newStore(60_000, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private WriteBehindStore newStore(long flushIntervalMillis, int batchSize) {
+        EntityManagerFactory factory = WriteBehindStore.createEntityManagerFactory(properties);
+        return new WriteBehindStore(factory, auctions::get, users::get, flushIntervalMillis, batchSize);
+    }
+
+    private Auction createAuction(long auctionId) {
+        Auction auction = new Auction(auctionId, "Auction " + auctionId, "Description", 100.0,
+                LocalDateTime.now().plusHours(1));
+        auctions.put(auctionId, auction);
+        return auction;
+    }
+
+    private void placeBid(Auction auction, String bidder, double amount) {
+        synchronized (auction) {
+            Bid bid = new Bid(auction.getNextBidId(), auction.getAuctionId(), bidder, amount);
+            auction.getBids().values().forEach(existing -> existing.setWinning(false));
+            bid.setWinning(true);
+            auction.getBids().put(bid.getBidId(), bid);
+            auction.setCurrentHighestBid(amount);
+            auction.setCurrentHighestBidder(bidder);
+        }
+    }
+
+    private <T> T find(Class<T> type, Object id) {
+        EntityManagerFactory factory = WriteBehindStore.createEntityManagerFactory(properties);
+        EntityManager em = factory.createEntityManager();
+        try {
+            return em.find(type, id);
+        } finally {
+            em.close();
+            factory.close();
+        }
+    }
+
+    private long countBids() {
+        EntityManagerFactory factory = WriteBehindStore.createEntityManagerFactory(properties);
+        EntityManager em = factory.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(b) FROM Bid b", Long.class).getSingleResult();
+        } finally {
+            em.close();
+            factory.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should coalesce auction changes and write new bids on flush")
+    void testFlushWritesAuctionsBidsAndUsers() {
+        Auction auction = createAuction(1L);
+        users.put("alice", new User("alice", "alice@example.com", "1234"));
+        store.userChanged("alice");
+        store.auctionChanged(1L);
+
+        placeBid(auction, "alice", 110.0);
+        store.auctionChanged(1L);
+        placeBid(auction, "bob", 120.0);
+        store.auctionChanged(1L);
+
+        assertEquals(2, store.getPendingCount(), "repeated changes to one auction should coalesce");
+        assertEquals(4, store.flush());
+        assertEquals(0, store.getPendingCount());
+
+        Auction stored = find(Auction.class, 1L);
+        assertEquals(120.0, stored.getCurrentHighestBid());
+        assertEquals("bob", stored.getCurrentHighestBidder());
+        assertEquals(2, countBids());
+        assertNotNull(find(User.class, "alice"));
+    }
+
+    @Test
+    @DisplayName("Should only insert bids newer than the last flush and keep winning flags current")
+    void testIncrementalBidsAndWinningFlag() {
+        Auction auction = createAuction(1L);
+        placeBid(auction, "alice", 110.0);
+        store.auctionChanged(1L);
+        store.flush();
+
+        placeBid(auction, "bob", 120.0);
+        auction.completeAuction("EXPIRED");
+        store.auctionChanged(1L);
+        assertEquals(2, store.flush(), "one auction row and one new bid");
+
+        assertFalse(find(Bid.class, new BidKey(1L, 1L)).isWinning());
+        assertTrue(find(Bid.class, new BidKey(1L, 2L)).isWinning());
+        Auction stored = find(Auction.class, 1L);
+        assertFalse(stored.isActive());
+        assertEquals(Auction.AuctionStatus.EXPIRED, stored.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not duplicate bids when a new store starts against an existing database")
+    void testRestartDoesNotDuplicateBids() {
+        Auction auction = createAuction(1L);
+        placeBid(auction, "alice", 110.0);
+        placeBid(auction, "bob", 120.0);
+        store.auctionChanged(1L);
+        store.flush();
+        store.close();
+
+        store = newStore(60_000, 1_000);
+        placeBid(auction, "carol", 130.0);
+        store.auctionChanged(1L);
+        assertEquals(2, store.flush());
+        assertEquals(3, countBids());
+    }
+
+    @Test
+    @DisplayName("Should flush in the background once the batch size is reached")
+    void testBatchSizeTriggersFlush() throws InterruptedException {
+        store.close();
+        store = newStore(60_000, 10);
+
+        for (long id = 1; id <= 10; id++) {
+            createAuction(id);
+            store.auctionChanged(id);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.getFlushCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, store.getFlushCount());
+        assertEquals(10, store.getRowsWritten());
+    }
+}
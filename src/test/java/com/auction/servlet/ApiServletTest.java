@@ -0,0 +1,43 @@
+package com.auction.servlet;
+
+import com.auction.dto.AuctionDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiServletTest {
+
+    private AuctionDTO[] auctions(long... ids) {
+        AuctionDTO[] result = new AuctionDTO[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = new AuctionDTO();
+            result[i].setAuctionId(ids[i]);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("Should resume a page right after the cursor in either order")
+    void testCursorPosition() {
+        AuctionDTO[] ascending = auctions(2, 5, 9, 12);
+        assertEquals(2, ApiServlet.firstAfter(ascending, 5, false));
+        assertEquals(2, ApiServlet.firstAfter(ascending, 7, false)); // cursor auction since removed
+        assertEquals(4, ApiServlet.firstAfter(ascending, 12, false));
+        assertEquals(0, ApiServlet.firstAfter(ascending, 1, false));
+
+        AuctionDTO[] descending = auctions(12, 9, 5, 2);
+        assertEquals(2, ApiServlet.firstAfter(descending, 9, true));
+        assertEquals(2, ApiServlet.firstAfter(descending, 7, true));
+        assertEquals(4, ApiServlet.firstAfter(descending, 2, true));
+    }
+
+    @Test
+    @DisplayName("Should split API paths into segments")
+    void testSplitPath() {
+        assertArrayEquals(new String[]{"auctions", "7", "bids"}, ApiServlet.splitPath("/auctions/7/bids/"));
+        assertArrayEquals(new String[]{"profile"}, ApiServlet.splitPath("/profile"));
+        assertEquals(0, ApiServlet.splitPath("/").length);
+        assertEquals(0, ApiServlet.splitPath(null).length);
+        assertEquals("2s", ApiServlet.encodeCursor(100));
+    }
+}
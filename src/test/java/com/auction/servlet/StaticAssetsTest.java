@@ -0,0 +1,68 @@
+package com.auction.servlet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+class StaticAssetsTest {
+
+    private static final String CSS = ".auction-card { padding: 10px; }\n".repeat(50);
+
+    @Test
+    @DisplayName("Should put a content hash into the file name and change it with the content")
+    void testFingerprintFollowsContent() {
+        StaticAssets.Asset asset = StaticAssets.createAsset("css/site.css",
+                CSS.getBytes(StandardCharsets.UTF_8), "text/css;charset=UTF-8");
+        StaticAssets.Asset same = StaticAssets.createAsset("css/site.css",
+                CSS.getBytes(StandardCharsets.UTF_8), "text/css;charset=UTF-8");
+        StaticAssets.Asset changed = StaticAssets.createAsset("css/site.css",
+                (CSS + "body { margin: 0; }").getBytes(StandardCharsets.UTF_8), "text/css;charset=UTF-8");
+
+        assertTrue(asset.fingerprintedPath.matches("css/site\\.[0-9a-f]{12}\\.css"), asset.fingerprintedPath);
+        assertEquals(asset.fingerprintedPath, same.fingerprintedPath);
+        assertNotEquals(asset.fingerprintedPath, changed.fingerprintedPath);
+        assertNotEquals(asset.etag, asset.gzipEtag);
+    }
+
+    @Test
+    @DisplayName("Should keep a gzip variant only when it is smaller")
+    void testGzipVariant() throws Exception {
+        StaticAssets.Asset asset = StaticAssets.createAsset("js/app.js",
+                CSS.getBytes(StandardCharsets.UTF_8), "text/javascript;charset=UTF-8");
+        assertNotNull(asset.gzipped);
+        assertTrue(asset.gzipped.length < asset.content.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(asset.gzipped))) {
+            assertEquals(CSS, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        StaticAssets.Asset tiny = StaticAssets.createAsset("js/x.js", new byte[]{'x'}, "text/javascript");
+        assertNull(tiny.gzipped);
+    }
+
+    @Test
+    @DisplayName("Should parse Accept-Encoding and If-None-Match headers")
+    void testHeaderMatching() {
+        assertTrue(StaticAssets.acceptsGzip("gzip, deflate, br"));
+        assertTrue(StaticAssets.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(StaticAssets.acceptsGzip("*"));
+        assertFalse(StaticAssets.acceptsGzip("gzip;q=0"));
+        assertFalse(StaticAssets.acceptsGzip("identity"));
+        assertFalse(StaticAssets.acceptsGzip(null));
+
+        assertTrue(StaticAssets.etagMatches("\"abc\"", "\"abc\""));
+        assertTrue(StaticAssets.etagMatches("\"x\", W/\"abc\"", "\"abc\""));
+        assertTrue(StaticAssets.etagMatches("*", "\"abc\""));
+        assertFalse(StaticAssets.etagMatches("\"abc-gzip\"", "\"abc\""));
+        assertFalse(StaticAssets.etagMatches(null, "\"abc\""));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the plain file URL for unregistered assets")
+    void testUrlFallback() {
+        assertEquals("/AuctionSystem/css/unknown.css", StaticAssets.url("css/unknown.css"));
+    }
+}
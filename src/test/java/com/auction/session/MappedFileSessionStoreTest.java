@@ -0,0 +1,297 @@
+package com.auction.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class MappedFileSessionStoreTest {
+
+    private static final String IP = "203.0.113.5";
+    private static final String AGENT = "Mozilla/5.0";
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedFileSessionStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (MappedFileSessionStore store : opened) {
+            store.close();
+        }
+    }
+
+    private MappedFileSessionStore open(int capacity) throws IOException {
+        MappedFileSessionStore store = MappedFileSessionStore.open(directory.resolve("sessions.map"), capacity, 512);
+        opened.add(store);
+        return store;
+    }
+
+    private static ActiveSessionInfo session(String token, String username) {
+        return new ActiveSessionInfo(token, username, "http-" + token, IP, AGENT);
+    }
+
+    @Test
+    @DisplayName("Should store, find and remove sessions with all their fields")
+    void testRoundTrip() throws IOException {
+        MappedFileSessionStore store = open(64);
+        ActiveSessionInfo alice = session("token-a", "alice");
+        alice.setAdmin(true);
+        alice.setMaxInactiveMinutes(45);
+        ActiveSessionInfo bob = session("token-b", "bob");
+        bob.setSessionId(null);
+
+        assertTrue(store.put(alice));
+        assertTrue(store.put(bob));
+        assertFalse(store.put(alice), "same token replaces");
+        assertEquals(2, store.size());
+
+        ActiveSessionInfo read = store.get("token-a");
+        assertEquals("alice", read.getUsername());
+        assertEquals(AGENT, read.getUserAgent());
+        assertEquals(alice.getLoginTimeMillis(), read.getLoginTimeMillis());
+        assertEquals(45, read.getMaxInactiveMinutes());
+        assertTrue(read.isAdmin());
+        assertTrue(read.isActive());
+        assertNull(store.get("token-b").getSessionId());
+        assertNull(store.get("token-c"));
+
+        assertEquals(Collections.singletonList("token-a"), new ArrayList<>(store.getTokensForUser("alice")));
+        assertEquals(2, store.getUserSummaries().size());
+
+        assertEquals("bob", store.remove("token-b").getUsername());
+        assertNull(store.remove("token-b"));
+        assertNull(store.get("token-b"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should share sessions and activity between separate mappings of the file")
+    void testSharedBetweenMappings() throws IOException {
+        MappedFileSessionStore first = open(64);
+        MappedFileSessionStore second = open(1024);
+
+        first.put(session("token-a", "alice"));
+        ActiveSessionInfo seen = second.get("token-a");
+        assertNotNull(seen);
+        assertEquals(1, second.size());
+
+        second.touch(seen, seen.getLastActivityMillis() + 60_000);
+        assertEquals(seen.getLastActivityMillis(), first.get("token-a").getLastActivityMillis());
+
+        second.remove("token-a");
+        assertNull(first.get("token-a"));
+        assertEquals(0, first.size());
+    }
+
+    @Test
+    @DisplayName("Should reuse removed slots and reject sessions once the table is full")
+    void testSlotsReused() throws IOException {
+        MappedFileSessionStore store = open(16);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 16; i++) {
+                store.put(session("token-" + round + "-" + i, "user" + i));
+            }
+            assertEquals(16, store.size());
+            assertThrows(IllegalStateException.class, () -> store.put(session("one-too-many", "zed")));
+            for (int i = 0; i < 16; i++) {
+                assertNotNull(store.remove("token-" + round + "-" + i));
+            }
+            assertEquals(0, store.size());
+        }
+
+        ActiveSessionInfo huge = session("token-huge", "alice");
+        huge.setUserAgent(String.join("", Collections.nCopies(600, "x")));
+        assertThrows(IllegalArgumentException.class, () -> store.put(huge));
+    }
+
+    @Test
+    @DisplayName("Should stay consistent under concurrent inserts, lookups and removals")
+    void testConcurrentAccess() throws Exception {
+        MappedFileSessionStore store = open(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String token = "token-" + thread + "-" + i;
+                        store.put(session(token, "user" + thread));
+                        ActiveSessionInfo read = store.get(token);
+                        assertEquals("user" + thread, read.getUsername());
+                        store.touch(read, read.getLastActivityMillis() + 1);
+                        if (i % 2 == 0) {
+                            assertNotNull(store.remove(token));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(8 * 100, store.size());
+        assertEquals(8 * 100, store.getAll().size());
+        assertEquals(100, store.getTokensForUser("user3").size());
+    }
+
+    @Test
+    @DisplayName("Should let the session manager run on the shared file")
+    void testSessionManagerOnFileStore() throws IOException {
+        MappedFileSessionStore store = open(256);
+        SessionStore previous = UserSessionManagerBean.setStore(store);
+        UserSessionManagerBean sessionManager = new UserSessionManagerBean();
+        sessionManager.init();
+        try {
+            String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT, true);
+            assertEquals(SessionCheck.VALID, sessionManager.validateAndTouch(token, IP, AGENT));
+
+            // Another process mapping the same file sees the login
+            MappedFileSessionStore other = open(256);
+            assertEquals("alice", other.get(token).getUsername());
+            assertEquals(1, sessionManager.getUserSessionCounts().get("alice"));
+            assertTrue(sessionManager.getUserSessionSummaries().get(0).isAdmin());
+
+            // Shutting down one process leaves the shared sessions alone
+            sessionManager.cleanup();
+            assertNotNull(other.get(token));
+
+            sessionManager.logoutUser("alice");
+            assertNull(other.get(token));
+            assertEquals(0, sessionManager.getActiveSessionCount());
+        } finally {
+            UserSessionManagerBean.setStore(previous);
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire sessions another process created and left behind")
+    void testSweepExpiresForeignSessions() throws IOException {
+        MappedFileSessionStore store = open(256);
+        SessionStore previous = UserSessionManagerBean.setStore(store);
+        UserSessionManagerBean sessionManager = new UserSessionManagerBean();
+        sessionManager.init();
+        try {
+            // Created through another mapping after this process started, so it was never queued here
+            MappedFileSessionStore other = open(256);
+            ActiveSessionInfo stale = session("token-stale", "bob");
+            stale.setLastActivityMillis(stale.getLastActivityMillis() - TimeUnit.HOURS.toMillis(2));
+            other.put(stale);
+            other.put(session("token-fresh", "carol"));
+
+            sessionManager.cleanupExpiredSessions();
+            assertNotNull(store.get("token-stale"), "not in this process's deadline queue");
+
+            assertEquals(1, sessionManager.sweepSharedStore());
+            assertNull(other.get("token-stale"));
+            assertNotNull(other.get("token-fresh"));
+        } finally {
+            sessionManager.cleanup();
+            UserSessionManagerBean.setStore(previous);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not read past the end of the file when a slot's string lengths are torn")
+    void testTornLengthsInLastSlot() throws IOException {
+        int capacity = 16;
+        int slotBytes = 512;
+        MappedFileSessionStore store = open(capacity);
+        String token = null;
+        for (int i = 0; token == null; i++) {
+            if (Math.floorMod(("token-" + i).hashCode(), capacity) == capacity - 1) {
+                token = "token-" + i;
+            }
+        }
+        store.put(session(token, "alice"));
+
+        // A token length that runs to the end of the slot leaves no room for the next length prefix
+        try (FileChannel channel = FileChannel.open(store.getPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(2).order(ByteOrder.nativeOrder());
+            length.putShort(0, (short) (slotBytes - 40 - 2));
+            channel.write(length, 64 + (long) (capacity - 1) * slotBytes + 40);
+        }
+
+        List<ActiveSessionInfo> all = assertDoesNotThrow(store::getAll);
+        assertEquals(1, all.size());
+        assertNull(all.get(0).getUsername());
+    }
+
+    private static String tokenInSlot(int slot, int capacity) {
+        for (int i = 0; ; i++) {
+            if (Math.floorMod(("token-" + i).hashCode(), capacity) == slot) {
+                return "token-" + i;
+            }
+        }
+    }
+
+    // What a writer that dies holding the slot leaves behind
+    private static void leaveSequenceOdd(Path path, int slot, int slotBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer sequence = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+            long position = 64 + (long) slot * slotBytes;
+            channel.read(sequence, position);
+            sequence.putLong(0, sequence.getLong(0) | 1);
+            channel.write(sequence.rewind(), position);
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover a slot whose writer died mid-write")
+    void testAbandonedSlotIsRecovered() throws IOException {
+        int capacity = 16;
+        MappedFileSessionStore store = open(capacity);
+        String alice = tokenInSlot(3, capacity);
+        String bob = tokenInSlot(9, capacity);
+        store.put(session(alice, "alice"));
+        ActiveSessionInfo bobSession = session(bob, "bob");
+        store.put(bobSession);
+        leaveSequenceOdd(store.getPath(), 3, 512);
+
+        // Activity stamps do not take the slot, so they are no reason to wait
+        long stamp = bobSession.getLastActivityMillis() + 5_000L;
+        store.touch(bobSession, stamp);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            List<ActiveSessionInfo> all = store.getAll();
+            assertEquals(1, all.size(), "the half-written record is discarded");
+            assertEquals(bob, all.get(0).getSessionToken());
+            assertEquals(stamp, all.get(0).getLastActivityMillis());
+            assertNull(store.get(alice));
+            assertTrue(store.put(session(alice, "alice")));
+            assertNotNull(store.get(alice));
+        });
+        assertEquals(2, store.size());
+
+        // A slot left odd while nobody has the file open is repaired when it is mapped again
+        leaveSequenceOdd(store.getPath(), 9, 512);
+        MappedFileSessionStore reopened = open(capacity);
+        assertEquals(1, reopened.size());
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            assertNull(reopened.get(bob));
+            assertTrue(reopened.put(session(bob, "bob")));
+            assertEquals(2, reopened.getAll().size());
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.auction.session;
+
+import com.auction.time.Clocks;
+import com.auction.time.ManualClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+class SessionTokenSignerTest {
+
+    private static final String IP = "203.0.113.5";
+    private static final String AGENT = "Mozilla/5.0";
+
+    private final ManualClock clock = new ManualClock();
+    private SessionTokenSigner signer;
+    private UserSessionManagerBean sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        Clocks.set(clock);
+        signer = new SessionTokenSigner(key((byte) 7), 60);
+        UserSessionManagerBean.setSigner(signer);
+        sessionManager = new UserSessionManagerBean();
+        sessionManager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionManager.cleanup();
+        UserSessionManagerBean.setSigner(null);
+        Clocks.reset();
+    }
+
+    private static byte[] key(byte value) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, value);
+        return key;
+    }
+
+    @Test
+    @DisplayName("Should round-trip the claims and reject tampered or foreign tokens")
+    void testSignAndVerify() {
+        String token = signer.issue("alice", true, clock.millis(), IP, AGENT);
+        SessionTokenSigner.Claims claims = signer.verify(token);
+
+        assertNotNull(claims);
+        assertEquals("alice", claims.username);
+        assertTrue(claims.admin);
+        assertEquals(clock.millis() + 60 * 60_000L, claims.expiresAt);
+        assertTrue(signer.matchesClient(claims, IP, AGENT));
+        assertFalse(signer.matchesClient(claims, "198.51.100.7", AGENT));
+
+        // Flip the admin flag's position in the payload
+        int at = SessionTokenSigner.PREFIX.length() + 22;
+        char c = token.charAt(at);
+        String tampered = token.substring(0, at) + (c == 'A' ? 'B' : 'A') + token.substring(at + 1);
+        assertNull(signer.verify(tampered));
+        assertNull(new SessionTokenSigner(key((byte) 8), 60).verify(token));
+        assertNull(signer.verify("s1.not-base64!.x"));
+        assertNull(signer.verify("plain-token"));
+    }
+
+    @Test
+    @DisplayName("Should validate signed tokens without the local session record")
+    void testValidatesWithoutSessionMap() {
+        String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT, false);
+        assertTrue(SessionTokenSigner.isSigned(token));
+
+        // As if another node had issued it: no local record at all
+        sessionManager.cleanup();
+        assertNull(sessionManager.getSessionInfo(token));
+        assertEquals(SessionCheck.VALID, sessionManager.validateAndTouch(token, IP, AGENT));
+        assertTrue(sessionManager.isSessionValid(token));
+
+        clock.advance(61, TimeUnit.MINUTES);
+        assertEquals(SessionCheck.EXPIRED, sessionManager.validateAndTouch(token, IP, AGENT));
+    }
+
+    @Test
+    @DisplayName("Should revoke signed tokens on logout and on a client mismatch")
+    void testRevocation() {
+        String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT, false);
+        sessionManager.logout(token);
+        assertEquals(SessionCheck.UNKNOWN, sessionManager.validateAndTouch(token, IP, AGENT));
+
+        String moved = sessionManager.createUserSession("bob", "http-2", IP, AGENT, false);
+        assertEquals(SessionCheck.SECURITY_MISMATCH, sessionManager.validateAndTouch(moved, "198.51.100.7", AGENT));
+        assertFalse(sessionManager.isSessionValid(moved));
+        assertEquals(2, signer.getRevokedCount());
+
+        // Revocations are only kept until the tokens expire
+        clock.advance(61, TimeUnit.MINUTES);
+        sessionManager.cleanupExpiredSessions();
+        assertEquals(0, signer.getRevokedCount());
+    }
+}
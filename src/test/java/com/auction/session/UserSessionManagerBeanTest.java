@@ -0,0 +1,232 @@
+package com.auction.session;
+
+import com.auction.time.Clocks;
+import com.auction.time.ManualClock;
+import com.auction.time.Timestamps;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class UserSessionManagerBeanTest {
+
+    private static final String IP = "203.0.113.5";
+    private static final String AGENT = "Mozilla/5.0";
+
+    private UserSessionManagerBean sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = new UserSessionManagerBean();
+        // Manually call @PostConstruct
+        sessionManager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionManager.cleanup();
+    }
+
+    @Test
+    @DisplayName("Should validate, check the client binding and touch a session in one call")
+    void testValidateAndTouch() {
+        String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT);
+        ActiveSessionInfo session = sessionManager.getSessionInfo(token);
+        LocalDateTime stale = LocalDateTime.now().minusMinutes(10);
+        session.setLastActivity(stale);
+
+        assertEquals(SessionCheck.VALID, sessionManager.validateAndTouch(token, IP, AGENT));
+        assertTrue(session.getLastActivity().isAfter(stale));
+
+        // Without client details only validity is checked
+        assertEquals(SessionCheck.VALID, sessionManager.validateAndTouch(token, null, null));
+
+        assertEquals(SessionCheck.UNKNOWN, sessionManager.validateAndTouch("no-such-token", IP, AGENT));
+        assertEquals(SessionCheck.UNKNOWN, sessionManager.validateAndTouch(null, IP, AGENT));
+    }
+
+    @Test
+    @DisplayName("Should invalidate expired and hijacked sessions")
+    void testValidateAndTouchInvalidates() {
+        String expired = sessionManager.createUserSession("alice", "http-1", IP, AGENT);
+        sessionManager.getSessionInfo(expired).setLastActivity(LocalDateTime.now().minusMinutes(31));
+        assertEquals(SessionCheck.EXPIRED, sessionManager.validateAndTouch(expired, IP, AGENT));
+        assertNull(sessionManager.getSessionInfo(expired));
+
+        String moved = sessionManager.createUserSession("bob", "http-2", IP, AGENT);
+        assertEquals(SessionCheck.SECURITY_MISMATCH, sessionManager.validateAndTouch(moved, "198.51.100.7", AGENT));
+        assertFalse(sessionManager.isSessionValid(moved));
+        assertFalse(sessionManager.isUserLoggedIn("bob"));
+    }
+
+    @Test
+    @DisplayName("Should only rewrite the activity stamp once it is old enough")
+    void testActivityStampThrottled() {
+        String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT);
+        ActiveSessionInfo session = sessionManager.getSessionInfo(token);
+        LocalDateTime recent = LocalDateTime.now().minusSeconds(1);
+        session.setLastActivity(recent);
+
+        assertEquals(SessionCheck.VALID, sessionManager.validateAndTouch(token, IP, AGENT));
+        sessionManager.updateSessionActivity(token);
+        assertEquals(recent.truncatedTo(ChronoUnit.MILLIS), session.getLastActivity());
+
+        LocalDateTime old = LocalDateTime.now().minusMinutes(2);
+        session.setLastActivity(old);
+        sessionManager.updateSessionActivity(token);
+        assertTrue(session.getLastActivity().isAfter(old));
+    }
+
+    @Test
+    @DisplayName("Should keep the per-user index consistent under concurrent logins and logouts")
+    void testConcurrentLoginLogout() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> kept = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                final int n = i;
+                kept.add(executor.submit(() -> {
+                    String token = sessionManager.createUserSession("carol", "http-" + n, IP, AGENT);
+                    if (n % 2 == 0) {
+                        sessionManager.logout(token);
+                        return null;
+                    }
+                    return token;
+                }));
+            }
+            int expected = 0;
+            for (Future<String> future : kept) {
+                String token = future.get();
+                if (token != null) {
+                    expected++;
+                    assertTrue(sessionManager.isSessionValid(token));
+                }
+            }
+            assertEquals(expected, sessionManager.getActiveSessionsForUser("carol").size());
+            assertEquals(expected, sessionManager.getUserSessionCounts().get("carol"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire only sessions whose deadline has passed")
+    void testCleanupExpiresDueSessions() {
+        ActiveSessionInfo stale = restored("stale-token", "alice", LocalDateTime.now().minusMinutes(31));
+        String fresh = sessionManager.createUserSession("bob", "http-2", IP, AGENT);
+
+        sessionManager.cleanupExpiredSessions();
+
+        assertNull(sessionManager.getSessionInfo(stale.getSessionToken()));
+        assertFalse(sessionManager.isUserLoggedIn("alice"));
+        assertTrue(sessionManager.isSessionValid(fresh));
+        assertEquals(1, UserSessionManagerBean.getDeadlineQueueSize());
+    }
+
+    @Test
+    @DisplayName("Should re-queue a due session that has been active since, and skip logged-out ones")
+    void testCleanupRekeysActiveAndSkipsLoggedOut() {
+        ActiveSessionInfo touched = restored("touched-token", "alice", LocalDateTime.now().minusMinutes(31));
+        touched.setLastActivity(LocalDateTime.now());
+        ActiveSessionInfo gone = restored("gone-token", "bob", LocalDateTime.now().minusMinutes(31));
+        sessionManager.logout(gone.getSessionToken());
+
+        sessionManager.cleanupExpiredSessions();
+
+        assertTrue(sessionManager.isSessionValid(touched.getSessionToken()));
+        // The logged-out entry is gone and the touched one is queued under its new deadline
+        assertEquals(1, UserSessionManagerBean.getDeadlineQueueSize());
+    }
+
+    @Test
+    @DisplayName("Should compute expiry and durations from the millisecond stamps")
+    void testSessionTimesInMillis() {
+        ManualClock clock = new ManualClock();
+        Clocks.set(clock);
+        try {
+            ActiveSessionInfo session = new ActiveSessionInfo("t", "alice", "http-1", IP, AGENT);
+            long start = clock.millis();
+            clock.advance(35, TimeUnit.MINUTES);
+            session.setLastActivityMillis(clock.millis());
+            clock.advance(10, TimeUnit.MINUTES);
+
+            assertEquals(start + 65 * 60_000L, session.expiresAtMillis());
+            assertFalse(session.isExpired());
+            assertEquals(45, session.getSessionDurationMinutes());
+            assertEquals(10, session.getInactiveDurationMinutes());
+            assertEquals(start + 35 * 60_000L, Timestamps.toEpochMillis(session.getLastActivity()));
+
+            clock.advance(21, TimeUnit.MINUTES);
+            assertTrue(session.isExpired());
+        } finally {
+            Clocks.reset();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire idle sessions when the clock moves past their deadline")
+    void testCleanupFollowsClock() {
+        ManualClock clock = new ManualClock();
+        Clocks.set(clock);
+        try {
+            String token = sessionManager.createUserSession("alice", "http-1", IP, AGENT);
+            clock.advance(29, TimeUnit.MINUTES);
+            sessionManager.cleanupExpiredSessions();
+            assertTrue(sessionManager.isSessionValid(token));
+
+            clock.advance(2, TimeUnit.MINUTES);
+            sessionManager.cleanupExpiredSessions();
+            assertNull(sessionManager.getSessionInfo(token));
+        } finally {
+            Clocks.reset();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep session counts and admin flags current through login, logout and expiry")
+    void testSessionCountsMaintained() {
+        String admin1 = sessionManager.createUserSession("root", "http-1", IP, AGENT, true);
+        sessionManager.createUserSession("root", "http-2", IP, AGENT, true);
+        String user = sessionManager.createUserSession("dave", "http-3", IP, AGENT);
+        restored("stale-token", "erin", LocalDateTime.now().minusMinutes(31));
+
+        assertEquals(4, sessionManager.getActiveSessionCount());
+        assertEquals(2, sessionManager.getUserSessionCounts().get("root"));
+        assertTrue(sessionManager.getSessionInfo(admin1).isAdmin());
+
+        Map<String, UserSessionSummary> rows = new HashMap<>();
+        for (UserSessionSummary row : sessionManager.getUserSessionSummaries()) {
+            rows.put(row.getUsername(), row);
+        }
+        assertTrue(rows.get("root").isAdmin());
+        assertEquals(2, rows.get("root").getSessionCount());
+        assertFalse(rows.get("dave").isAdmin());
+
+        sessionManager.logout(user);
+        sessionManager.logout(user);
+        sessionManager.cleanupExpiredSessions();
+
+        assertEquals(2, sessionManager.getActiveSessionCount());
+        assertEquals(Map.of("root", 2), sessionManager.getUserSessionCounts());
+        assertEquals(1, sessionManager.getUserSessionSummaries().size());
+    }
+
+    private static ActiveSessionInfo restored(String token, String username, LocalDateTime lastActivity) {
+        ActiveSessionInfo session = new ActiveSessionInfo(token, username, "http-" + token, IP, AGENT);
+        session.setLastActivity(lastActivity);
+        UserSessionManagerBean.restoreSession(session);
+        return session;
+    }
+}
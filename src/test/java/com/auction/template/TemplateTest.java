@@ -0,0 +1,103 @@
+package com.auction.template;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class TemplateTest {
+
+    private interface Body {
+        void write(HtmlOutput out) throws IOException;
+    }
+
+    private static String render(Body body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Small buffer so the tests also cross flush boundaries
+        HtmlOutput out = new HtmlOutput(bytes, 32);
+        body.write(out);
+        out.flush();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should escape HTML and encode UTF-8 like the old escapeHtml + getBytes")
+    void testTextEscapingAndEncoding() throws IOException {
+        String input = "<b>Tom & \"Jerry\"</b> 'n' café 🏺 " + "x".repeat(40);
+        String expected = input.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&#x27;");
+
+        assertEquals(expected, render(out -> out.text(input)));
+        assertEquals("<p>🏺</p>", render(out -> out.raw("<p>🏺</p>")));
+        assertEquals("", render(out -> out.text(null)));
+    }
+
+    @Test
+    @DisplayName("Should truncate text without splitting surrogate pairs")
+    void testTruncatedText() throws IOException {
+        assertEquals("abc...", render(out -> {
+            if (out.text("abcdef", 3)) {
+                out.raw("...");
+            }
+        }));
+        assertEquals("ab", render(out -> out.text("ab🏺", 3)));
+        assertEquals("short", render(out -> out.text("short", 50)));
+    }
+
+    @Test
+    @DisplayName("Should format numbers, money and times the same way as String.format and the page formatter")
+    void testNumbersMoneyAndTime() throws IOException {
+        assertEquals("0 -42 9223372036854775807", render(out ->
+                out.number(0).raw(" ").number(-42).raw(" ").number(Long.MAX_VALUE)));
+
+        double[] amounts = {0, 0.005, 1.005, 2.675, 99.995, 105.01000000000001, 1234567.891, -3.456, 1e16};
+        for (double amount : amounts) {
+            assertEquals(String.format("%.2f", amount), render(out -> out.money(amount)), "amount " + amount);
+        }
+
+        LocalDateTime time = LocalDateTime.of(2025, 6, 7, 8, 9, 10, 12_000_000);
+        assertEquals("2025-06-07 08:09:10.012", render(out -> out.time(time)));
+    }
+
+    @Test
+    @DisplayName("Should render sections and slots in order")
+    void testTemplateSetRendering() throws IOException {
+        TemplateSet set = TemplateSet.parse("test", "ignored header\n{{#row}}\n<td>{{name}}</td><td>${{price}}</td>\n{{#empty}}\n<p>none</p>\n");
+
+        Template row = set.get("row");
+        assertEquals(List.of("name", "price"), row.getSlots());
+        assertEquals("<td>A&amp;B</td><td>$5.00</td>\n", render(out -> row.render(out, (o, slot) -> {
+            if (slot.equals("name")) {
+                o.text("A&B");
+            } else {
+                o.money(5);
+            }
+        })));
+        assertEquals("<p>none</p>\n", render(set.get("empty")::render));
+        assertThrows(IllegalStateException.class, () -> render(row::render));
+        assertThrows(IllegalArgumentException.class, () -> set.get("missing"));
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("bad", "<p>{{oops</p>"));
+    }
+
+    @Test
+    @DisplayName("Should load the servlet's page templates from the classpath")
+    void testPageTemplatesLoad() {
+        TemplateSet layout = TemplateSet.load("templates/layout.html");
+        assertEquals(List.of("title", "styles", "copyright"), layout.get("head").getSlots());
+        assertEquals(List.of("href"), layout.get("styles").getSlots());
+        assertTrue(layout.get("footer").getSource().contains("</footer>"));
+
+        TemplateSet main = TemplateSet.load("templates/main-page.html");
+        assertEquals(List.of("messages", "userBar", "navigation", "statusSummary", "panels",
+                "activeAuctions", "completedAuctions"), main.get("page").getSlots());
+
+        TemplateSet detail = TemplateSet.load("templates/auction-detail.html");
+        assertEquals(List.of("src", "auctionId"), detail.get("liveUpdates").getSlots());
+        assertThrows(IllegalStateException.class, () -> TemplateSet.load("templates/missing.html"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.auction.time;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+class ClocksTest {
+
+    @AfterEach
+    void tearDown() {
+        Clocks.reset();
+    }
+
+    @Test
+    @DisplayName("Should publish the system time at tick granularity")
+    void testCoarseClockTicks() throws InterruptedException {
+        CoarseClock clock = new CoarseClock(5);
+        try {
+            long first = clock.millis();
+            assertTrue(Math.abs(System.currentTimeMillis() - first) < 1000);
+            assertEquals(first, Timestamps.toEpochMillis(clock.now()));
+            // The same tick is returned as the same object
+            assertSame(clock.now(), clock.now());
+
+            long deadline = System.currentTimeMillis() + 2000;
+            while (clock.millis() == first && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(clock.millis() > first);
+        } finally {
+            clock.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should let tests install and advance a manual clock")
+    void testManualClockInstalled() {
+        ManualClock clock = new ManualClock(1_000_000L);
+        Clocks.set(clock);
+
+        assertEquals(1_000_000L, Clocks.millis());
+        clock.advance(90, TimeUnit.SECONDS);
+        assertEquals(1_090_000L, Clocks.millis());
+        assertEquals(Timestamps.toLocalDateTime(1_090_000L), Clocks.now());
+
+        Clocks.reset();
+        assertNotSame(clock, Clocks.get());
+    }
+}
@@ -0,0 +1,46 @@
+package com.auction.time;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock that only moves when told to, for tests of expiry and scheduling logic.
+ *
+ * <pre>
+ * ManualClock clock = new ManualClock();
+ * Clocks.set(clock);
+ * ...
+ * clock.advance(31, TimeUnit.MINUTES);
+ * </pre>
+ */
+public final class ManualClock implements AuctionClock {
+
+    private volatile long millis;
+
+    /** Starts at the current system time. */
+    public ManualClock() {
+        this(System.currentTimeMillis());
+    }
+
+    public ManualClock(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return Timestamps.toLocalDateTime(millis);
+    }
+
+    public void set(long millis) {
+        this.millis = millis;
+    }
+
+    public void advance(long amount, TimeUnit unit) {
+        millis += unit.toMillis(amount);
+    }
+}
@@ -0,0 +1,83 @@
+package com.auction.websocket;
+
+import com.auction.time.Clocks;
+import com.auction.time.ManualClock;
+import jakarta.servlet.http.HttpSession;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class SocketHandshakesTest {
+
+    private static final String ALICE_CONNECTION = "0123456789abcdef0123456789abcdef";
+    private static final String BOB_CONNECTION = "fedcba9876543210fedcba9876543210";
+
+    private final ManualClock clock = new ManualClock();
+
+    @BeforeEach
+    void setUp() {
+        Clocks.set(clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Clocks.reset();
+    }
+
+    private static Session socket(String connection) {
+        Session session = mock(Session.class);
+        when(session.getRequestParameterMap()).thenReturn(
+                connection == null ? Map.of() : Map.of(SocketHandshakes.CONNECTION_PARAMETER, List.of(connection)));
+        return session;
+    }
+
+    @Test
+    @DisplayName("Should hand each socket the client of its own upgrade request, once")
+    void testClaimMatchesConnection() {
+        HttpSession alice = mock(HttpSession.class);
+        HttpSession bob = mock(HttpSession.class);
+        SocketHandshakes.register(ALICE_CONNECTION, alice, "203.0.113.5", "Firefox");
+        SocketHandshakes.register(BOB_CONNECTION, bob, "198.51.100.7", "Chrome");
+
+        SocketHandshakes.Client bobClient = SocketHandshakes.claim(socket(BOB_CONNECTION));
+        SocketHandshakes.Client aliceClient = SocketHandshakes.claim(socket(ALICE_CONNECTION));
+
+        assertSame(bob, bobClient.getHttpSession());
+        assertEquals("198.51.100.7", bobClient.getIpAddress());
+        assertEquals("Chrome", bobClient.getUserAgent());
+        assertSame(alice, aliceClient.getHttpSession());
+        assertEquals("203.0.113.5", aliceClient.getIpAddress());
+        assertNull(SocketHandshakes.claim(socket(ALICE_CONNECTION)), "a connection name is claimed once");
+    }
+
+    @Test
+    @DisplayName("Should not let a second handshake replace a pending client")
+    void testPendingNameIsNotReplaced() {
+        HttpSession alice = mock(HttpSession.class);
+        SocketHandshakes.register(ALICE_CONNECTION, alice, "203.0.113.5", "Firefox");
+        SocketHandshakes.register(ALICE_CONNECTION, mock(HttpSession.class), "192.0.2.1", "curl");
+
+        assertSame(alice, SocketHandshakes.claim(socket(ALICE_CONNECTION)).getHttpSession());
+    }
+
+    @Test
+    @DisplayName("Should ignore missing, short and stale connection names")
+    void testUnusableNames() {
+        SocketHandshakes.register("short", mock(HttpSession.class), "203.0.113.5", "Firefox");
+        assertNull(SocketHandshakes.claim(socket("short")));
+        assertNull(SocketHandshakes.claim(socket(null)));
+
+        SocketHandshakes.register(ALICE_CONNECTION, mock(HttpSession.class), "203.0.113.5", "Firefox");
+        clock.advance(SocketHandshakes.PENDING_SECONDS + 1, TimeUnit.SECONDS);
+        assertNull(SocketHandshakes.claim(socket(ALICE_CONNECTION)));
+        assertEquals(0, SocketHandshakes.getPendingCount());
+    }
+}